@@ -0,0 +1,284 @@
+/*
+ * File: AdmissionCommandProcessor.java
+ * 
+ * Copyright (C) 2014 FriendlySNMP.org; All Rights Reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as
+ * published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301  USA
+ * 
+ * $Id$
+ */
+package org.friendlysnmp;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.friendlysnmp.stats.RequestStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.snmp4j.CommandResponderEvent;
+import org.snmp4j.PDU;
+import org.snmp4j.agent.CommandProcessor;
+import org.snmp4j.agent.mo.snmp.CoexistenceInfo;
+import org.snmp4j.event.CounterEvent;
+import org.snmp4j.mp.SnmpConstants;
+import org.snmp4j.smi.Address;
+import org.snmp4j.smi.IpAddress;
+import org.snmp4j.smi.OctetString;
+
+/**
+ * Command processor with per source address rate limit of requests 
+ * and request processing time statistics.
+ * <p>Each source IP address (any port) has a token bucket which is refilled
+ * with the configured rate and holds at most one second worth of tokens.
+ * A request from a source with empty bucket is dropped before it is 
+ * queued for the worker pool: it gets no response and increments 
+ * <code>snmpSilentDrops</code> counter of the SNMPv2-MIB.
+ * <p>Processing time of each request in a worker thread is recorded 
+ * in <code>RequestStats</code> per PDU type.
+ * 
+ * @version $Revision$
+ */
+public class AdmissionCommandProcessor extends CommandProcessor {
+    /**
+     * Logger object
+     */
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionCommandProcessor.class);
+
+    /**
+     * Count of tracked sources which triggers cleanup of idle buckets.
+     */
+    private static final int MAX_SOURCES = 1024;
+
+    /**
+     * Idle time after which a bucket is removed at cleanup.
+     */
+    private static final long IDLE_SOURCE_MS = 60000;
+
+    /**
+     * Token buckets by source address.
+     */
+    private final ConcurrentHashMap<Object, Bucket> hmBucket;
+
+    /**
+     * Count of dropped requests
+     */
+    private final AtomicLong countShed;
+
+    /**
+     * Allowed requests per second from each source; 0 - not limited.
+     */
+    private volatile int rateLimit;
+
+    /**
+     * Request statistics or <code>null</code>
+     */
+    private volatile RequestStats requestStats;
+
+    /**
+     * Constructor
+     *
+     * @param contextEngineID local engine ID
+     */
+    public AdmissionCommandProcessor(OctetString contextEngineID) {
+        super(contextEngineID);
+        hmBucket = new ConcurrentHashMap<Object, Bucket>();
+        countShed = new AtomicLong();
+    } // AdmissionCommandProcessor()
+
+    /**
+     * Sets allowed count of requests per second from each source address. 
+     *
+     * @param rateLimit requests per second; 0 - not limited
+     * @throws FException if the rate is negative
+     */
+    public void setRateLimit(int rateLimit) throws FException {
+        if (rateLimit < 0) {
+            throw new FException("Not valid request rate limit %d", rateLimit);
+        }
+        this.rateLimit = rateLimit;
+        hmBucket.clear();
+    } // setRateLimit()
+
+    /**
+     * Returns allowed count of requests per second from each source address.
+     *
+     * @return requests per second; 0 - not limited
+     */
+    public int getRateLimit() {
+        return rateLimit;
+    } // getRateLimit()
+
+    /**
+     * Sets request statistics which record processing time of each 
+     * request.
+     *
+     * @param requestStats request statistics
+     */
+    public void setRequestStats(RequestStats requestStats) {
+        this.requestStats = requestStats;
+    } // setRequestStats()
+
+    /**
+     * Returns count of requests dropped by the rate limit.
+     *
+     * @return count of dropped requests
+     */
+    public long getShedCount() {
+        return countShed.get();
+    } // getShedCount()
+
+    /**
+     * Drops the request if its source exceeds the rate limit.
+     * 
+     * @see org.snmp4j.agent.CommandProcessor#processPdu(org.snmp4j.CommandResponderEvent)
+     */
+    @Override
+    public void processPdu(CommandResponderEvent event) {
+        int rate = rateLimit;
+        if (rate > 0  &&  !event.isProcessed()  &&  isRequest(event.getPDU())  && 
+            !acquire(event.getPeerAddress(), rate)) 
+        {
+            event.setProcessed(true);
+            long count = countShed.incrementAndGet();
+            fireIncrementCounter(new CounterEvent(this, SnmpConstants.snmpSilentDrops));
+            if (logger.isDebugEnabled()) {
+                logger.debug(String.format(
+                        "Request from %s dropped by rate limit, total %d", 
+                        event.getPeerAddress(), count));
+            }
+            return;
+        }
+        super.processPdu(event);
+    } // processPdu()
+
+    /**
+     * Records processing time of the request. The method is called 
+     * in a worker thread and returns after the response is sent.
+     * 
+     * @see org.snmp4j.agent.CommandProcessor#dispatchCommand(org.snmp4j.CommandResponderEvent, org.snmp4j.agent.mo.snmp.CoexistenceInfo)
+     */
+    @Override
+    protected void dispatchCommand(CommandResponderEvent event, CoexistenceInfo cinfo) {
+        RequestStats rs = requestStats;
+        if (rs == null  ||  !rs.isEnabled()) {
+            super.dispatchCommand(event, cinfo);
+            return;
+        }
+        long startNanos = System.nanoTime();
+        try {
+            super.dispatchCommand(event, cinfo);
+        } finally {
+            rs.recordRequest(event.getPDU().getType(), System.nanoTime() - startNanos);
+        }
+    } // dispatchCommand()
+
+    /**
+     * Tests PDU for confirmed class request.
+     * 
+     * @param pdu PDU
+     * @return true for GET, GETNEXT, GETBULK and SET requests
+     */
+    private static boolean isRequest(PDU pdu) {
+        if (pdu == null) {
+            return false;
+        }
+        switch (pdu.getType()) {
+            case PDU.GET:
+            case PDU.GETNEXT:
+            case PDU.GETBULK:
+            case PDU.SET:
+                return true;
+            default:
+                return false;
+        }
+    } // isRequest()
+
+    /**
+     * Takes a token from the source bucket.
+     * 
+     * @param address source address
+     * @param rate requests per second
+     * @return true if the token is taken, false if the bucket is empty
+     */
+    private boolean acquire(Address address, int rate) {
+        Object key = address;
+        if (address instanceof IpAddress) {
+            key = ((IpAddress)address).getInetAddress(); // any port
+        }
+        long now = System.currentTimeMillis();
+        Bucket bucket = hmBucket.get(key);
+        if (bucket == null) {
+            if (hmBucket.size() >= MAX_SOURCES) {
+                removeIdle(now);
+            }
+            bucket = new Bucket(rate, now);
+            Bucket bucketPrev = hmBucket.putIfAbsent(key, bucket);
+            if (bucketPrev != null) {
+                bucket = bucketPrev;
+            }
+        }
+        return bucket.acquire(rate, now);
+    } // acquire()
+
+    /**
+     * Removes buckets of idle sources.
+     * 
+     * @param now current time
+     */
+    private void removeIdle(long now) {
+        Iterator<Bucket> iter = hmBucket.values().iterator();
+        while (iter.hasNext()) {
+            if (now - iter.next().getLastTime() > IDLE_SOURCE_MS) {
+                iter.remove();
+            }
+        }
+    } // removeIdle()
+
+    //--------------------------------separator--------------------------------
+    static int ______BUCKET;
+
+    /**
+     * Token bucket of a single source.
+     */
+    private static class Bucket {
+        /** Available tokens */
+        private double tokens;
+        /** Time of the last refill */
+        private long lastTime;
+
+        Bucket(int rate, long now) {
+            tokens = rate;
+            lastTime = now;
+        }
+
+        synchronized long getLastTime() {
+            return lastTime;
+        }
+
+        synchronized boolean acquire(int rate, long now) {
+            if (now > lastTime) {
+                tokens = Math.min(rate, tokens + (now - lastTime) * rate / 1000.0);
+                lastTime = now;
+            }
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+    } // inner class Bucket
+
+} // class AdmissionCommandProcessor
@@ -30,6 +30,10 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.friendlysnmp.FHandler.AgentStartType;
 import org.friendlysnmp.event.FExceptionListener;
@@ -47,13 +51,19 @@ import org.friendlysnmp.mib.SnmpVacmMibF;
 import org.friendlysnmp.persist.PersistPolicy;
 import org.friendlysnmp.persist.PersistStorage;
 import org.friendlysnmp.persist.PersistStorageImpl;
+import org.friendlysnmp.persist.PersistStorageJournal;
+import org.friendlysnmp.persist.PersistStorageMapped;
+import org.friendlysnmp.persist.PersistStorageType;
 import org.friendlysnmp.plugin.FPlugin;
 import org.friendlysnmp.plugin.core.FriendlySnmpMib.FriendlyExceptionTypeTC;
 import org.friendlysnmp.plugin.core.PluginCore;
+import org.friendlysnmp.stats.RequestStats;
 import org.friendlysnmp.target.TargetBase;
 import org.friendlysnmp.target.TargetV1;
 import org.friendlysnmp.target.TargetV2;
 import org.friendlysnmp.target.TargetV3;
+import org.friendlysnmp.transport.NioUdpTransportMapping;
+import org.friendlysnmp.transport.ReusePortUdpTransportMapping;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.snmp4j.MessageDispatcherImpl;
@@ -87,6 +97,7 @@ import org.snmp4j.smi.Integer32;
 import org.snmp4j.smi.OID;
 import org.snmp4j.smi.OctetString;
 import org.snmp4j.smi.TcpAddress;
+import org.snmp4j.smi.TransportIpAddress;
 import org.snmp4j.smi.UdpAddress;
 import org.snmp4j.smi.VariableBinding;
 import org.snmp4j.transport.DefaultTcpTransportMapping;
@@ -144,6 +155,12 @@ public class AgentWorker
     /** Transport domain */
     private TransportDomain transportDomain;
     
+    /** Addresses to respond on SET and GET requests */
+    private Map<TransportIpAddress, TransportSnmp> hmListenAddress;
+    
+    /** Count of SO_REUSEPORT sockets for each UDP listen address */
+    private int udpSocketCount;
+    
     /** Collection of registered MIBs */
     private List<BaseMib> lstMIB;
     
@@ -171,6 +188,27 @@ public class AgentWorker
     
     private FConfig config;
     private WorkerPool workerPool;
+    
+    /** Bounded request queue or null if the queue is disabled */
+    private BoundedWorkerPool requestQueue;
+    
+    /** Request processing time statistics */
+    private RequestStats requestStats;
+    
+    /** Asynchronous notification queue or null if the queue is disabled */
+    private NotificationQueue notificationQueue;
+    
+    /** Session which sends INFORM asynchronously or null if disabled */
+    private InformSession informSession;
+    
+    /** Value providers executor. Created on first use. */
+    private ExecutorService providerExecutor;
+    
+    /** Value providers executor thread pool size */
+    private int providerPoolSize;
+    
+    /** Maximum GET request wait time for a value provider (in milliseconds) */
+    private int providerWaitMs;
 
     /** MIBs */
     private SnmpV2MibF mibSnmpV2;
@@ -187,7 +225,7 @@ public class AgentWorker
     private Snmp session;
     private TransportMapping<?>[] transportMappings;
     private MessageDispatcherImpl dispatcher;
-    private CommandProcessor agent;
+    private AdmissionCommandProcessor agent;
     private NotificationOriginatorImpl notificationOriginator;
     private ProxyForwarderImpl defaultProxyForwarder;
     private MPv3 mpv3;
@@ -217,23 +255,36 @@ public class AgentWorker
         hsFExceptionListener = new CopyOnWriteArraySet<FExceptionListener>();
         
         OctetString octEngineID = config.getLocalEngineID();
-        agent = new CommandProcessor(octEngineID); // creates "agent"
+        agent = new AdmissionCommandProcessor(octEngineID); // creates "agent"
+        hmListenAddress = config.getListenAddresses();
+        udpSocketCount = config.getConfigInteger(FConstant.KEY_TRANSPORT_UDP_SOCKETS);
+        if (udpSocketCount < 1) {
+            FConfig.throwFException(FConstant.KEY_TRANSPORT_UDP_SOCKETS);
+        }
         logger.info(String.format(
                 "Created agent at %s; Notify to %s; EngineID=%s", 
-                config.getAddress(), config.getNotifyAddress(), octEngineID.toHexString()));
+                hmListenAddress.keySet(), config.getNotifyAddress(), octEngineID.toHexString()));
         
         // FException might be thrown from this point.
         // UncaughtExceptionHandler init is completed and it will catch  
         // RuntimeExceptions even without THIS agent ctor completion.
-        workerPool = ThreadPool.create("RequestPool",
-                     config.getConfigInteger(FConstant.KEY_THREAD_POOL_SIZE));
+        workerPool = createWorkerPool();
         agent.setWorkerPool(workerPool);
+        agent.setRateLimit(config.getConfigInteger(FConstant.KEY_REQUEST_RATE_LIMIT));
+        requestStats = new RequestStats(
+                config.getConfigBoolean(FConstant.KEY_STATS_ENABLED));
+        agent.setRequestStats(requestStats);
+        int notifyQueueSize = config.getConfigInteger(FConstant.KEY_NOTIFY_QUEUE_SIZE);
+        if (notifyQueueSize > 0) {
+            notificationQueue = new NotificationQueue(this, notifyQueueSize);
+        }
         lstMIB = new ArrayList<BaseMib>();
         lstHandler = new ArrayList<FHandler>();
         hmNode = new HashMap<FID, FNode>();
         this.ignoreUpdateMs = config.getIgnoreUpdateMs();
-        String persistFilename = config.getConfigString(FConstant.KEY_PERSIST_FILENAME);
-        setPersistStorage(new PersistStorageImpl(persistFilename));
+        this.providerPoolSize = config.getConfigInteger(FConstant.KEY_PROVIDER_POOL_SIZE);
+        this.providerWaitMs = config.getConfigInteger(FConstant.KEY_PROVIDER_WAIT_MS);
+        setPersistStorage(createPersistStorage());
         this.transport = config.getTransport();
         this.transportDomain = config.getTransportDomain();
         
@@ -276,6 +327,9 @@ public class AgentWorker
         SNMPv2MIB snmpv2MIB = new SNMPv2MIB(sysDescr, sysOID, sysServices);
         dispatcher.addCounterListener(snmpv2MIB); // register counters for updates
         agent.addCounterListener(snmpv2MIB);
+        if (requestQueue != null) {
+            requestQueue.setCounterListener(snmpv2MIB);
+        }
         mibSnmpV2 = new SnmpV2MibF(snmpv2MIB);
         addMIBPrivate(mibSnmpV2);
         
@@ -354,6 +408,12 @@ public class AgentWorker
             mib.collectNodes(hmNode);
             mib.collectHandlers(lstHandler);
         }        
+        for (FNode node : hmNode.values()) {
+            if (node instanceof FNotification) {
+                ((FNotification)node).setLimiter(
+                        createNotificationLimiter(node.getName()));
+            }
+        }
         
         // Init handlers (after loading SNMP4J persistent managed objects!!)
         for (FHandler handler : lstHandler) {
@@ -377,8 +437,17 @@ public class AgentWorker
             for (int i = 0;  i < transportMappings.length;  i++) {
                 session.addTransportMapping(transportMappings[i]);
             }
-            notificationOriginator.setSession(session);
+            int informPending = config.getConfigInteger(FConstant.KEY_NOTIFY_INFORM_PENDING);
+            if (informPending > 0) {
+                informSession = new InformSession(session, informPending);
+                notificationOriginator.setSession(informSession);
+            } else {
+                notificationOriginator.setSession(session);
+            }
             defaultProxyForwarder.setSession(session);
+            if (notificationQueue != null) {
+                notificationQueue.start();
+            }
             try {
                 session.listen(); // Started and never stopped
             } catch (IOException e) {
@@ -437,6 +506,12 @@ public class AgentWorker
             for (FHandler handler : lstHandler) {
                 handler.shutdown(); // including: shutdown notification
             }
+            if (notificationQueue != null) {
+                notificationQueue.shutdown(); // sends queued notifications
+            }
+            if (informSession != null) {
+                informSession.close(); // discards pending informs
+            }
             try {
                 persistStorage.shutdown();
                 session.close();
@@ -447,6 +522,11 @@ public class AgentWorker
         if (workerPool != null) {
             workerPool.stop();
         }
+        synchronized (this) {
+            if (providerExecutor != null) {
+                providerExecutor.shutdownNow();
+            }
+        }
         stateAgent = AgentState.SHUTDOWN;
         logger.info(String.format("=== FriendlyAgent CLOSED (%s) ===", hint));
     } // shutdown()
@@ -602,6 +682,8 @@ public class AgentWorker
     /**
      * Sends notification. Normally this method is called from 
      * {@link FNotification} objects. Do not call this method directly.
+     * <p>The notification is queued and sent by the notification sender 
+     * thread. It is sent by the caller thread if the queue is disabled.
      * 
      * @param oid
      * @param vbs
@@ -610,13 +692,47 @@ public class AgentWorker
     public void sendNotification(OID oid, VariableBinding[] vbs) {
         // Throw IllegalStateException if agent is not running:
         if (stateAgent == AgentState.RUNNING) {
-            OctetString[] contextAll = server.getContexts();
-            for (OctetString context : contextAll) {
-                notificationOriginator.notify(new OctetString(context), oid, vbs);
+            if (notificationQueue != null) {
+                notificationQueue.offer(oid, vbs);
+            } else {
+                notifyContexts(oid, vbs);
             }
         }
     } // sendNotification()
     
+    /**
+     * Sends notification in each context.
+     * 
+     * @param oid notification OID
+     * @param vbs notification variable bindings
+     */
+    void notifyContexts(OID oid, VariableBinding[] vbs) {
+        OctetString[] contextAll = server.getContexts();
+        for (OctetString context : contextAll) {
+            notificationOriginator.notify(new OctetString(context), oid, vbs);
+        }
+    } // notifyContexts()
+    
+    /**
+     * Returns session which sends INFORM requests asynchronously.
+     * The session provides counts of acknowledged, retried and expired 
+     * INFORM requests.
+     * 
+     * @return INFORM session or null if it is disabled
+     */
+    public InformSession getInformSession() {
+        return informSession;
+    } // getInformSession()
+    
+    /**
+     * Returns asynchronous notification queue.
+     * 
+     * @return notification queue or null if the queue is disabled
+     */
+    public NotificationQueue getNotificationQueue() {
+        return notificationQueue;
+    } // getNotificationQueue()
+    
     /**
      * Call this method to report a caught exception in the application 
      * to the MIB browser.
@@ -699,6 +815,42 @@ public class AgentWorker
         return ignoreUpdateMs;
     } // getIgnoreUpdateMs()
     
+    /**
+     * Returns executor which loads values from scalar and table value 
+     * providers. The executor threads are daemon threads.
+     * 
+     * @return value providers executor
+     * 
+     * @see FScalar#setValueProvider(org.friendlysnmp.event.FScalarValueProvider, int, int)
+     * @see FTable#setValueProvider(org.friendlysnmp.event.FTableValueProvider, FColumn[], int, int)
+     */
+    public synchronized ExecutorService getProviderExecutor() {
+        if (providerExecutor == null) {
+            providerExecutor = Executors.newFixedThreadPool(
+                    providerPoolSize, new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger();
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, 
+                            "FriendlyProviderThread-" + count.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+        }
+        return providerExecutor;
+    } // getProviderExecutor()
+    
+    /**
+     * Returns maximum time a GET request waits for a value provider.
+     * 
+     * @return wait time in milliseconds
+     * 
+     * @see FConstant#KEY_PROVIDER_WAIT_MS
+     */
+    public int getProviderWaitMs() {
+        return providerWaitMs;
+    } // getProviderWaitMs()
+    
     /**
      * Returns transport
      * 
@@ -775,6 +927,15 @@ public class AgentWorker
         return config;
     } // getConfig()
     
+    /**
+     * Returns request processing time statistics.
+     * 
+     * @return request statistics
+     */
+    public RequestStats getRequestStats() {
+        return requestStats;
+    } // getRequestStats()
+    
     /**
      * Returns default persistence storage object.
      * 
@@ -784,6 +945,78 @@ public class AgentWorker
         return persistStorage;
     } // getPersistStorage()
 
+    /**
+     * Creates SNMP4J agent worker pool of the type defined in configuration.
+     * The pool is wrapped with bounded request queue if it is configured.
+     * 
+     * @return worker pool
+     * @throws FException
+     * 
+     * @see FConstant#KEY_THREAD_POOL_TYPE
+     * @see FConstant#KEY_REQUEST_QUEUE_DEPTH
+     */
+    private WorkerPool createWorkerPool() throws FException {
+        WorkerPoolType type = WorkerPoolType.find(
+                config.getConfigString(FConstant.KEY_THREAD_POOL_TYPE));
+        logger.debug("Thread pool type: " + type);
+        WorkerPool pool;
+        switch (type) {
+            case VIRTUAL:
+                pool = new VirtualThreadWorkerPool("FriendlyRequestThread",
+                        config.getConfigInteger(FConstant.KEY_THREAD_POOL_MAX_CONCURRENT));
+                break;
+            case FIXED:
+            default:
+                pool = ThreadPool.create("RequestPool",
+                        config.getConfigInteger(FConstant.KEY_THREAD_POOL_SIZE));
+                break;
+        }
+        int depth = config.getConfigInteger(FConstant.KEY_REQUEST_QUEUE_DEPTH);
+        if (depth < 0) {
+            FConfig.throwFException(FConstant.KEY_REQUEST_QUEUE_DEPTH);
+        }
+        if (depth == 0) {
+            return pool;
+        }
+        RequestQueuePolicy policy = RequestQueuePolicy.find(
+                config.getConfigString(FConstant.KEY_REQUEST_QUEUE_POLICY));
+        logger.debug(String.format("Request queue: depth %d, %s", depth, policy));
+        requestQueue = new BoundedWorkerPool(pool, depth, policy);
+        return requestQueue;
+    } // createWorkerPool()
+    
+    /**
+     * Creates persistence storage of the type defined in configuration.
+     * 
+     * @return persistence storage
+     * @throws FException
+     */
+    private PersistStorage createPersistStorage() throws FException {
+        String persistFilename = config.getConfigString(FConstant.KEY_PERSIST_FILENAME);
+        PersistStorageType type = PersistStorageType.find(
+                config.getConfigString(FConstant.KEY_PERSIST_STORAGE));
+        logger.debug("Persistency storage: " + type);
+        PersistStorageImpl storage;
+        switch (type) {
+            case MAPPED:
+                return new PersistStorageMapped(persistFilename);
+            case JOURNAL:
+                PersistStorageJournal journal = new PersistStorageJournal(persistFilename);
+                journal.setCompactThreshold(
+                        config.getConfigInteger(FConstant.KEY_PERSIST_JOURNAL_COMPACT));
+                storage = journal;
+                break;
+            case FILE:
+            default:
+                storage = new PersistStorageImpl(persistFilename);
+                break;
+        }
+        storage.setWriteBehind(
+                config.getConfigInteger(FConstant.KEY_PERSIST_FLUSH_MS),
+                config.getConfigInteger(FConstant.KEY_PERSIST_FLUSH_BATCH));
+        return storage;
+    } // createPersistStorage()
+    
     /**
      * Sets persistence storage. This method allows setting custom made
      * persistency storage.
@@ -840,6 +1073,39 @@ public class AgentWorker
         return (node instanceof FNotification ? (FNotification)node : null);
     }
     
+    /**
+     * Returns notifications declared in all MIBs.
+     * 
+     * @return list of notifications
+     */
+    public List<FNotification> getNotifications() {
+        List<FNotification> lst = new ArrayList<FNotification>();
+        for (FNode node : hmNode.values()) {
+            if (node instanceof FNotification) {
+                lst.add((FNotification)node);
+            }
+        }
+        return lst;
+    } // getNotifications()
+    
+    /**
+     * Creates rate limiter of the notification from configuration.
+     * 
+     * @param name notification name
+     * @return rate limiter or null if rate limit and coalescing are disabled
+     * @throws FException
+     */
+    private NotificationLimiter createNotificationLimiter(String name) 
+    throws FException 
+    {
+        int rate = config.getNotifyInteger(FConstant.KEY_NOTIFY_RATE_LIMIT, name);
+        int coalesceMs = config.getNotifyInteger(FConstant.KEY_NOTIFY_COALESCE_MS, name);
+        if (rate == 0  &&  coalesceMs == 0) {
+            return null;
+        }
+        return new NotificationLimiter(rate, coalesceMs);
+    } // createNotificationLimiter()
+    
     //--------------------------------separator--------------------------------
     static int ______BASE_AGENT;
   
@@ -923,23 +1189,39 @@ public class AgentWorker
 
     /**
      * Initializes the transport mappings (ports) to be used by the agent.
+     * Each listen address gets its own transport mapping with its own
+     * socket and receive thread. UDP address gets several sockets with 
+     * <code>SO_REUSEPORT</code> option if it is configured.
+     * UDP address with transport <code>UDP_NIO</code> is served by 
+     * NIO datagram channel with pooled direct buffers.
+     * 
      * @see org.snmp4j.agent.BaseAgent#initTransportMappings()
+     * @see FConstant#KEY_ADDRESS_LISTEN
+     * @see FConstant#KEY_TRANSPORT_UDP_SOCKETS
      */
     protected void initTransportMappings() throws IOException {
-        logger.debug("Transport=" + transport);
-        String address = config.getAddress(); 
-        transportMappings = new TransportMapping[1];
-        switch (transport) {
-            case UDP:
-                transportMappings[0] = new DefaultUdpTransportMapping(
-                                       new UdpAddress(address)); 
-                break;
-            case TCP:
-                transportMappings[0] = new DefaultTcpTransportMapping(
-                                       new TcpAddress(address)); 
-                break;
-            default:
-                throw new IllegalArgumentException("Not valid transport: " + transport);
+        transportMappings = new TransportMapping[hmListenAddress.size()];
+        int i = 0;
+        for (Map.Entry<TransportIpAddress, TransportSnmp> entry : hmListenAddress.entrySet()) {
+            TransportIpAddress address = entry.getKey();
+            if (address instanceof TcpAddress) {
+                transportMappings[i] = new DefaultTcpTransportMapping(
+                                       (TcpAddress)address); 
+            } else if (entry.getValue() == TransportSnmp.UDP_NIO) {
+                transportMappings[i] = new NioUdpTransportMapping(
+                                       (UdpAddress)address); 
+            } else if (address instanceof UdpAddress  &&  udpSocketCount > 1) {
+                transportMappings[i] = new ReusePortUdpTransportMapping(
+                                       (UdpAddress)address, udpSocketCount); 
+            } else if (address instanceof UdpAddress) {
+                transportMappings[i] = new DefaultUdpTransportMapping(
+                                       (UdpAddress)address); 
+            } else {
+                throw new IllegalArgumentException("Not valid address: " + address);
+            }
+            logger.debug(String.format("Transport mapping %s %s", 
+                    transportMappings[i].getClass().getSimpleName(), address));
+            i++;
         }
     } // initTransportMappings()
 
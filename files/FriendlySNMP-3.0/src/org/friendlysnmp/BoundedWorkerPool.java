@@ -0,0 +1,315 @@
+/*
+ * File: BoundedWorkerPool.java
+ * 
+ * Copyright (C) 2014 FriendlySNMP.org; All Rights Reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as
+ * published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301  USA
+ * 
+ * $Id$
+ */
+package org.friendlysnmp;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.snmp4j.event.CounterEvent;
+import org.snmp4j.event.CounterListener;
+import org.snmp4j.mp.SnmpConstants;
+import org.snmp4j.util.WorkerPool;
+import org.snmp4j.util.WorkerTask;
+
+/**
+ * Worker pool with bounded queue of requests in front of another 
+ * worker pool. 
+ * <p>A request is queued and a drain task is started in the underlying 
+ * pool if it has an idle worker. Drain tasks run queued requests until 
+ * the queue is empty. When the queue is full a request is dropped 
+ * according to the {@link RequestQueuePolicy}. Dropped request gets no 
+ * response (like lost datagram) and increments 
+ * <code>snmpSilentDrops</code> counter of the SNMPv2-MIB.
+ * <p>The message dispatcher thread is never blocked by busy workers: 
+ * latency of queued requests is bounded by the queue depth.
+ *
+ * @version $Revision$
+ */
+public class BoundedWorkerPool implements WorkerPool {
+    /**
+     * Logger object
+     */
+    private static final Logger logger = LoggerFactory.getLogger(BoundedWorkerPool.class);
+
+    /**
+     * Underlying worker pool
+     */
+    private final WorkerPool pool;
+
+    /**
+     * Queued requests. Guarded by itself.
+     */
+    private final ArrayDeque<WorkerTask> queue;
+
+    /**
+     * Maximum count of queued requests
+     */
+    private final int depth;
+
+    /**
+     * Policy when the queue is full
+     */
+    private final RequestQueuePolicy policy;
+
+    /**
+     * Count of drain tasks started in the underlying pool. 
+     * Guarded by <code>queue</code>.
+     */
+    private int countDrain;
+
+    /**
+     * Count of dropped requests
+     */
+    private final AtomicLong countShed;
+
+    /**
+     * Listener of the dropped requests counter or <code>null</code>
+     */
+    private volatile CounterListener counterListener;
+
+    /**
+     * Constructor
+     *
+     * @param pool underlying worker pool
+     * @param depth maximum count of queued requests
+     * @param policy policy when the queue is full
+     * @throws FException if the depth is not positive
+     */
+    public BoundedWorkerPool(WorkerPool pool, int depth, RequestQueuePolicy policy) 
+    throws FException 
+    {
+        if (depth <= 0) {
+            throw new FException("Not valid request queue depth %d", depth);
+        }
+        this.pool = pool;
+        this.depth = depth;
+        this.policy = policy;
+        queue = new ArrayDeque<WorkerTask>();
+        countShed = new AtomicLong();
+    } // BoundedWorkerPool()
+
+    /**
+     * Sets listener of the dropped requests counter. 
+     * It is SNMPv2-MIB implementation in the agent.
+     *
+     * @param counterListener counter listener
+     */
+    public void setCounterListener(CounterListener counterListener) {
+        this.counterListener = counterListener;
+    } // setCounterListener()
+
+    /**
+     * Returns count of dropped requests.
+     *
+     * @return count of dropped requests
+     */
+    public long getShedCount() {
+        return countShed.get();
+    } // getShedCount()
+
+    /**
+     * Returns count of queued requests.
+     *
+     * @return count of queued requests
+     */
+    public int getQueueSize() {
+        synchronized (queue) {
+            return queue.size();
+        }
+    } // getQueueSize()
+
+    //--------------------------------separator--------------------------------
+    static int ______WORKER_POOL;
+
+    /**
+     * Queues the task. Drops a task if the queue is full.
+     *
+     * @see org.snmp4j.util.WorkerPool#execute(org.snmp4j.util.WorkerTask)
+     */
+    public void execute(WorkerTask task) {
+        WorkerTask shed = null;
+        boolean startBlocking = false;
+        synchronized (queue) {
+            if (queue.size() >= depth) {
+                if (policy == RequestQueuePolicy.REJECT_NEW) {
+                    shed = task;
+                } else {
+                    shed = queue.pollFirst();
+                    queue.addLast(task);
+                }
+            } else {
+                queue.addLast(task);
+            }
+            if (shed != task) {
+                if (pool.tryToExecute(new DrainTask())) {
+                    countDrain++;
+                } else if (countDrain == 0) {
+                    // The last drain task is exiting and its worker is 
+                    // not returned to the pool yet. Wait for the worker.
+                    countDrain++;
+                    startBlocking = true;
+                }
+            }
+        }
+        if (startBlocking) {
+            pool.execute(new DrainTask());
+        }
+        if (shed != null) {
+            shed(shed);
+        }
+    } // execute()
+
+    /**
+     * Queues the task if the queue is not full.
+     *
+     * @see org.snmp4j.util.WorkerPool#tryToExecute(org.snmp4j.util.WorkerTask)
+     */
+    public boolean tryToExecute(WorkerTask task) {
+        synchronized (queue) {
+            if (queue.size() >= depth) {
+                return false;
+            }
+        }
+        execute(task);
+        return true;
+    } // tryToExecute()
+
+    /**
+     * Counts dropped task.
+     *
+     * @param task dropped task
+     */
+    private void shed(WorkerTask task) {
+        long count = countShed.incrementAndGet();
+        CounterListener listener = counterListener;
+        if (listener != null) {
+            listener.incrementCounter(
+                    new CounterEvent(this, SnmpConstants.snmpSilentDrops));
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug(String.format("Request dropped (%s), total %d", 
+                    policy, count));
+        }
+    } // shed()
+
+    /**
+     * Stops the pool. Queued requests are discarded.
+     *
+     * @see org.snmp4j.util.WorkerPool#stop()
+     */
+    public void stop() {
+        synchronized (queue) {
+            queue.clear();
+        }
+        pool.stop();
+    } // stop()
+
+    /**
+     * Cancels the pool. Queued requests are discarded.
+     *
+     * @see org.snmp4j.util.WorkerPool#cancel()
+     */
+    public void cancel() {
+        synchronized (queue) {
+            queue.clear();
+        }
+        pool.cancel();
+    } // cancel()
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.snmp4j.util.WorkerPool#isIdle()
+     */
+    public boolean isIdle() {
+        synchronized (queue) {
+            if (!queue.isEmpty()) {
+                return false;
+            }
+        }
+        return pool.isIdle();
+    } // isIdle()
+
+    //--------------------------------separator--------------------------------
+    static int ______DRAIN;
+
+    /**
+     * Task which runs queued requests until the queue is empty.
+     */
+    private class DrainTask implements WorkerTask {
+        /**
+         * Request which is running now
+         */
+        private volatile WorkerTask current;
+
+        public void run() {
+            boolean drained = false;
+            try {
+                while (true) {
+                    WorkerTask task;
+                    synchronized (queue) {
+                        task = queue.pollFirst();
+                        if (task == null) {
+                            countDrain--;
+                            drained = true;
+                            current = null;
+                            return;
+                        }
+                    }
+                    current = task;
+                    task.run();
+                }
+            } finally {
+                if (!drained) {
+                    // RuntimeException in the request
+                    synchronized (queue) {
+                        countDrain--;
+                    }
+                }
+            }
+        }
+
+        public void terminate() {
+            WorkerTask task = current;
+            if (task != null) {
+                task.terminate();
+            }
+        }
+
+        public void join() throws InterruptedException {
+            WorkerTask task = current;
+            if (task != null) {
+                task.join();
+            }
+        }
+
+        public void interrupt() {
+            WorkerTask task = current;
+            if (task != null) {
+                task.interrupt();
+            }
+        }
+    } // inner class DrainTask
+
+} // class BoundedWorkerPool
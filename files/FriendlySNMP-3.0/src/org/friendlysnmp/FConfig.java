@@ -28,6 +28,7 @@ import java.net.InetAddress;
 import java.net.NetworkInterface;
 import java.util.Enumeration;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
@@ -37,7 +38,11 @@ import java.util.Map.Entry;
 import org.friendlysnmp.plugin.core.PluginCore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.snmp4j.smi.Address;
 import org.snmp4j.smi.OctetString;
+import org.snmp4j.smi.TcpAddress;
+import org.snmp4j.smi.TransportIpAddress;
+import org.snmp4j.smi.UdpAddress;
 
 public class FConfig extends FConstant {
     /**
@@ -79,26 +84,46 @@ public class FConfig extends FConstant {
     private static Map<String, String> loadDefaults() {
         // Ordered alphabetically 
         Map<String, String> hm = new TreeMap<String, String>();
+        hm.put(KEY_ADDRESS_LISTEN,         "");
         hm.put(KEY_ADDRESS_SET_GET,        null);
         hm.put(KEY_ADDRESS_SEND_NOTIFY,    null);
         hm.put(KEY_ALLOW_BOOTS_COUNT_RESET,Boolean.toString(DEFAULT_ALLOW_BOOTS_COUNT_RESET));
         hm.put(KEY_CONSOLE_UNCAUGHT,       Boolean.toString(DEFAULT_CONSOLE_UNCAUGHT));
         hm.put(KEY_ENGINE_ID,              createLocalEngineID().toString());
         hm.put(KEY_IGNORE_UPDATE_MS,       Integer.toString(DEFAULT_IGNORE_UPDATE_MS));
+        hm.put(KEY_NOTIFY_COALESCE_MS,     Integer.toString(DEFAULT_NOTIFY_COALESCE_MS));
+        hm.put(KEY_NOTIFY_INFORM,          Boolean.toString(DEFAULT_NOTIFY_INFORM));
+        hm.put(KEY_NOTIFY_INFORM_PENDING,  Integer.toString(DEFAULT_NOTIFY_INFORM_PENDING));
+        hm.put(KEY_NOTIFY_QUEUE_SIZE,      Integer.toString(DEFAULT_NOTIFY_QUEUE_SIZE));
+        hm.put(KEY_NOTIFY_RATE_LIMIT,      Integer.toString(DEFAULT_NOTIFY_RATE_LIMIT));
         hm.put(KEY_NOTIFY_RETRY_COUNT,     Integer.toString(DEFAULT_NOTIFY_RETRY_COUNT));
+        hm.put(KEY_NOTIFY_SUMMARY_MS,      Integer.toString(DEFAULT_NOTIFY_SUMMARY_MS));
         hm.put(KEY_NOTIFY_TIMEOUT_MS,      Integer.toString(DEFAULT_NOTIFY_TIMEOUT_MS));
         hm.put(KEY_OID_ROOT_NOTIFY_VIEW,   DEFAULT_OID_ROOT);
         hm.put(KEY_OID_ROOT_READ_VIEW,     DEFAULT_OID_ROOT);
         hm.put(KEY_OID_ROOT_WRITE_VIEW,    DEFAULT_OID_ROOT);
+        hm.put(KEY_PERSIST_FLUSH_BATCH,    Integer.toString(DEFAULT_PERSIST_FLUSH_BATCH));
+        hm.put(KEY_PERSIST_FLUSH_MS,       Integer.toString(DEFAULT_PERSIST_FLUSH_MS));
+        hm.put(KEY_PERSIST_JOURNAL_COMPACT,Integer.toString(DEFAULT_PERSIST_JOURNAL_COMPACT));
         hm.put(KEY_PERSIST_POLICY,         DEFAULT_PERSIST_POLICY.toString());
+        hm.put(KEY_PERSIST_STORAGE,        DEFAULT_PERSIST_STORAGE.toString());
+        hm.put(KEY_PROVIDER_POOL_SIZE,     Integer.toString(DEFAULT_PROVIDER_POOL_SIZE));
+        hm.put(KEY_PROVIDER_WAIT_MS,       Integer.toString(DEFAULT_PROVIDER_WAIT_MS));
+        hm.put(KEY_REQUEST_QUEUE_DEPTH,    Integer.toString(DEFAULT_REQUEST_QUEUE_DEPTH));
+        hm.put(KEY_REQUEST_QUEUE_POLICY,   DEFAULT_REQUEST_QUEUE_POLICY.name());
+        hm.put(KEY_REQUEST_RATE_LIMIT,     Integer.toString(DEFAULT_REQUEST_RATE_LIMIT));
+        hm.put(KEY_STATS_ENABLED,          Boolean.toString(DEFAULT_STATS_ENABLED));
         hm.put(KEY_STORAGE_COMMUNITY,      DEFAULT_STORAGE_COMMUNITY.toString());
         hm.put(KEY_STORAGE_NOTIFY,         DEFAULT_STORAGE_NOTIFY.toString());
         hm.put(KEY_STORAGE_VACM_ACCESS,    DEFAULT_STORAGE_VACM_ACCESS.toString());
         hm.put(KEY_STORAGE_VACM_GROUP,     DEFAULT_STORAGE_VACM_GROUP.toString());
         hm.put(KEY_STORAGE_VACM_VIEWTREE,  DEFAULT_STORAGE_VACM_VIEWTREE.toString());
+        hm.put(KEY_THREAD_POOL_MAX_CONCURRENT, Integer.toString(DEFAULT_THREAD_POOL_MAX_CONCURRENT));
         hm.put(KEY_THREAD_POOL_SIZE,       Integer.toString(DEFAULT_THREAD_POOL_SIZE));
+        hm.put(KEY_THREAD_POOL_TYPE,       DEFAULT_THREAD_POOL_TYPE.name());
         hm.put(KEY_TRANSPORT,              DEFAULT_TRANSPORT.name());
         hm.put(KEY_TRANSPORT_DOMAIN,       DEFAULT_TRANSPORT_DOMAIN.name());
+        hm.put(KEY_TRANSPORT_UDP_SOCKETS,  Integer.toString(DEFAULT_TRANSPORT_UDP_SOCKETS));
         hm.put(KEY_V1_COMMUNITY,           "");
         hm.put(KEY_V2_COMMUNITY,           "");
         hm.put(KEY_V3_CONTEXT,             ""); // default context
@@ -156,6 +181,31 @@ public class FConfig extends FConstant {
         return Boolean.parseBoolean(val);
     } // getConfigBoolean()
     
+    /**
+     * Returns integer value of the key for the notification. The key 
+     * with the notification name suffix (like 
+     * "snmp.notify.rate-limit.appExceptionCaught") overrides 
+     * the key value.
+     * 
+     * @param key key in a properties file
+     * @param name notification name
+     * @return value for the notification
+     * @throws FException
+     */
+    int getNotifyInteger(String key, String name) throws FException {
+        String keyName = key + "." + name;
+        String val = propApp.getProperty(keyName);
+        if (val == null) {
+            return getConfigInteger(key);
+        }
+        try {
+            return Integer.parseInt(val);
+        } catch (NumberFormatException e) {
+            throwFException(keyName, e);
+        }
+        return -1; // to keep compiler happy
+    } // getNotifyInteger()
+    
     int getIgnoreUpdateMs() throws FException {
         int ignoreUpdateMs = getConfigInteger(KEY_IGNORE_UPDATE_MS);
         if (ignoreUpdateMs < 0  ||  ignoreUpdateMs > MAX_IGNORE_UPDATE_MS) {
@@ -175,6 +225,51 @@ public class FConfig extends FConstant {
         return tr; 
     } // getTransport()
     
+    /**
+     * Returns addresses to respond on SET and GET requests. 
+     * 
+     * @return <code>UdpAddress</code> and <code>TcpAddress</code> objects
+     *         with their transports in the configured order
+     * @throws FException not valid address or transport
+     * 
+     * @see FConstant#KEY_ADDRESS_LISTEN
+     */
+    Map<TransportIpAddress, TransportSnmp> getListenAddresses() throws FException {
+        String val = hmConfig.get(KEY_ADDRESS_LISTEN);
+        String key = KEY_ADDRESS_LISTEN;
+        if (val == null  ||  val.trim().length() == 0) {
+            val = getAddress();
+            key = KEY_ADDRESS_SET_GET;
+            if (val == null) {
+                throwFException(key);
+            }
+        }
+        TransportSnmp trDefault = getTransport();
+        Map<TransportIpAddress, TransportSnmp> hm = 
+            new LinkedHashMap<TransportIpAddress, TransportSnmp>();
+        for (String entry : val.trim().split("\\s+")) {
+            TransportSnmp tr = trDefault;
+            String address = entry;
+            for (TransportSnmp t : TransportSnmp.values()) {
+                String prefix = t.name() + ":";
+                if (entry.regionMatches(true, 0, prefix, 0, prefix.length())) {
+                    tr = t;
+                    address = entry.substring(prefix.length());
+                    break;
+                }
+            }
+            Address addr = (tr == TransportSnmp.TCP ? 
+                    TcpAddress.parse(address) : UdpAddress.parse(address));
+            if (addr == null) {
+                throw new FException("Not valid address '%s' for the key '%s'", 
+                        entry, key);
+            }
+            hm.put((TransportIpAddress)addr, tr);
+        }
+        logger.debug("Listen addresses: " + hm);
+        return hm;
+    } // getListenAddresses()
+    
     TransportDomain getTransportDomain() throws FException {
         String transportDomain = hmConfig.get(KEY_TRANSPORT_DOMAIN);
         TransportDomain td = TransportDomain.valueOf(transportDomain);
@@ -22,6 +22,7 @@
 package org.friendlysnmp;
 
 import org.friendlysnmp.persist.PersistPolicy;
+import org.friendlysnmp.persist.PersistStorageType;
 import org.friendlysnmp.target.Storage;
 
 public class FConstant {
@@ -69,6 +70,23 @@ public class FConstant {
     //--------------------------------separator--------------------------------
     static int ______KEYS;
     
+    /**
+     * Key in a properties file defines list of addresses of THIS application 
+     * to respond on SET and GET requests from MIB browsers. Addresses are 
+     * separated by spaces. Each address might be prefixed with transport
+     * <code>udp:</code>, <code>udp_nio:</code> or <code>tcp:</code>, for example 
+     * "udp:10.0.0.5/161 tcp:10.0.0.5/1161 192.168.1.5/161". Address 
+     * without prefix uses transport <code>KEY_TRANSPORT</code>.
+     * Each address is served by its own transport mapping (socket and 
+     * receive thread).
+     * <p>This value is optional. Default is the single address 
+     * <code>KEY_ADDRESS_SET_GET</code>.
+     * 
+     * @see #KEY_ADDRESS_SET_GET
+     * @see #KEY_TRANSPORT
+     */
+    public final static String KEY_ADDRESS_LISTEN = "snmp.address.listen";
+    
     /**
      * Key in a properties file defines address to send notifications
      * from THIS application to this address (MIB browser).
@@ -116,6 +134,66 @@ public class FConstant {
      */
     public final static String KEY_IGNORE_UPDATE_MS = "snmp.ignore-update-ms"; 
     
+    /**
+     * Key in a properties file defines coalescing window (in milliseconds)
+     * for notifications. A notification with the same variable bindings 
+     * as the notification sent within the window is suppressed. 
+     * Value 0 disables coalescing.
+     * This value is optional and overrides default value. The value for 
+     * a single notification is defined by the key with the notification 
+     * name suffix like "snmp.notify.coalesce-ms.appExceptionCaught".
+     * 
+     * @see #DEFAULT_NOTIFY_COALESCE_MS
+     */
+    public final static String KEY_NOTIFY_COALESCE_MS = "snmp.notify.coalesce-ms";
+    
+    /**
+     * Key in a properties file defines notification type for SNMPv2c 
+     * targets: INFORM (acknowledged notification) if the value is "true"
+     * or TRAP otherwise. SNMPv1 targets always use TRAP and SNMPv3 targets 
+     * always use INFORM.
+     * This value is optional and overrides default value which is "false".
+     * 
+     * @see #DEFAULT_NOTIFY_INFORM
+     */
+    public final static String KEY_NOTIFY_INFORM = "snmp.notify.inform";
+    
+    /**
+     * Key in a properties file defines maximum count of INFORM requests 
+     * waiting for acknowledgement. Pending INFORM requests are resent 
+     * by a timer each {@link #KEY_NOTIFY_TIMEOUT_MS} up to 
+     * {@link #KEY_NOTIFY_RETRY_COUNT} times and a new INFORM is dropped 
+     * if the count is reached. Value 0 disables the pending set: the 
+     * sender thread waits for the acknowledgement of each INFORM.
+     * This value is optional and overrides default value.
+     * 
+     * @see #DEFAULT_NOTIFY_INFORM_PENDING
+     */
+    public final static String KEY_NOTIFY_INFORM_PENDING = "snmp.notify.inform-pending";
+    
+    /**
+     * Key in a properties file defines capacity of the queue of 
+     * notifications sent asynchronously by a dedicated thread. 
+     * A notification is dropped if the queue is full. Value 0 disables 
+     * the queue: notifications are sent synchronously by the caller thread.
+     * This value is optional and overrides default value.
+     * 
+     * @see #DEFAULT_NOTIFY_QUEUE_SIZE
+     */
+    public final static String KEY_NOTIFY_QUEUE_SIZE = "snmp.notify.queue-size";
+    
+    /**
+     * Key in a properties file defines rate limit (notifications per 
+     * minute) of each notification. Notifications over the limit are 
+     * suppressed. Value 0 disables rate limit.
+     * This value is optional and overrides default value. The value for 
+     * a single notification is defined by the key with the notification 
+     * name suffix like "snmp.notify.rate-limit.appExceptionCaught".
+     * 
+     * @see #DEFAULT_NOTIFY_RATE_LIMIT
+     */
+    public final static String KEY_NOTIFY_RATE_LIMIT = "snmp.notify.rate-limit";
+    
     /**
      * Key in a properties file defines notify retry count.
      * This value is optional and overrides default value.
@@ -124,6 +202,17 @@ public class FConstant {
      */
     public final static String KEY_NOTIFY_RETRY_COUNT = "snmp.notify.retry-count";
     
+    /**
+     * Key in a properties file defines interval (in milliseconds) of the 
+     * <code>appNotificationsSuppressed</code> notification with count of 
+     * notifications suppressed during the interval. Value 0 disables 
+     * the summary notification.
+     * This value is optional and overrides default value.
+     * 
+     * @see #DEFAULT_NOTIFY_SUMMARY_MS
+     */
+    public final static String KEY_NOTIFY_SUMMARY_MS = "snmp.notify.summary-ms";
+    
     /**
      * Key in a properties file defines notify timeout.
      * This value is optional and overrides default value.
@@ -166,6 +255,38 @@ public class FConstant {
      */
     public final static String KEY_PERSIST_FILENAME = "snmp.persist.filename"; 
     
+    /**
+     * Key in a properties file defines count of changed entries which 
+     * triggers write-behind flush before the flush interval expires.
+     * Used only by <code>PersistPolicy.WRITE_BEHIND</code>.
+     * This value is optional and overrides default value.
+     * 
+     * @see #DEFAULT_PERSIST_FLUSH_BATCH
+     */
+    public final static String KEY_PERSIST_FLUSH_BATCH = "snmp.persist.flush.batch-size"; 
+    
+    /**
+     * Key in a properties file defines maximum time between a change 
+     * and its write-behind flush.
+     * Used only by <code>PersistPolicy.WRITE_BEHIND</code>.
+     * This value is optional and overrides default value.
+     * 
+     * @see #DEFAULT_PERSIST_FLUSH_MS
+     */
+    public final static String KEY_PERSIST_FLUSH_MS = "snmp.persist.flush.interval-ms"; 
+    
+    /**
+     * Key in a properties file defines count of change records appended 
+     * to the journal persistence storage before it is compacted into 
+     * the snapshot file. Used only by <code>PersistStorageType.JOURNAL</code>.
+     * This value is optional and overrides default value  
+     * <code>DEFAULT_PERSIST_JOURNAL_COMPACT</code>.
+     * 
+     * @see #DEFAULT_PERSIST_JOURNAL_COMPACT
+     * @see #KEY_PERSIST_STORAGE
+     */
+    public final static String KEY_PERSIST_JOURNAL_COMPACT = "snmp.persist.journal.compact"; 
+    
     /**
      * Key in a properties file defines persistence storage policy.
      * The allowed values are textual presentations of <code>PersistPolicy</code>
@@ -179,12 +300,94 @@ public class FConstant {
      */
     public final static String KEY_PERSIST_POLICY = "snmp.persist.policy"; 
     
+    /**
+     * Key in a properties file defines persistence storage implementation.
+     * The allowed values are textual presentations of 
+     * <code>PersistStorageType</code> enumeration. Not valid value in 
+     * a property file throws <code>FException</code> at the time of 
+     * SNMP agent is created. This value is optional and overrides 
+     * default value which is <code>PersistStorageType.FILE</code>
+     * 
+     * @see #DEFAULT_PERSIST_STORAGE
+     * @see PersistStorageType
+     */
+    public final static String KEY_PERSIST_STORAGE = "snmp.persist.storage"; 
+    
     /**
      * Key in a properties file defines plugin class.
      * The key in a property file should be appended with any unique suffix.
      */
     public final static String KEY_PLUGIN_PREFIX = "snmp.plugin.";
     
+    /**
+     * Key in a properties file defines size of the thread pool which 
+     * loads values from scalar and table value providers.
+     * This value is optional and overrides default value 
+     * <code>DEFAULT_PROVIDER_POOL_SIZE</code>
+     * 
+     * @see #DEFAULT_PROVIDER_POOL_SIZE
+     */
+    public final static String KEY_PROVIDER_POOL_SIZE = "snmp.provider.thread-pool-size";
+    
+    /**
+     * Key in a properties file defines maximum time a GET request waits 
+     * for a value provider when the cached value is older than the 
+     * provider maximum staleness. The request is answered with the cached 
+     * value after this time. This value is optional and overrides 
+     * default value <code>DEFAULT_PROVIDER_WAIT_MS</code>
+     * 
+     * @see #DEFAULT_PROVIDER_WAIT_MS
+     */
+    public final static String KEY_PROVIDER_WAIT_MS = "snmp.provider.wait-ms";
+    
+    /**
+     * Key in a properties file defines maximum count of requests queued 
+     * for the agent worker pool. Requests above this count are dropped 
+     * according to <code>KEY_REQUEST_QUEUE_POLICY</code> and counted 
+     * in <code>snmpSilentDrops</code>. Value 0 disables the queue: the 
+     * message dispatcher waits for an idle worker.
+     * This value is optional and overrides default value 
+     * <code>DEFAULT_REQUEST_QUEUE_DEPTH</code>
+     * 
+     * @see #DEFAULT_REQUEST_QUEUE_DEPTH
+     */
+    public final static String KEY_REQUEST_QUEUE_DEPTH = "snmp.request.queue-depth";
+    
+    /**
+     * Key in a properties file defines policy of the bounded request 
+     * queue when the queue is full. 
+     * Valid values are: DROP_OLDEST (default) or REJECT_NEW.
+     * This value is optional and overrides default value 
+     * <code>DEFAULT_REQUEST_QUEUE_POLICY</code>
+     * 
+     * @see #DEFAULT_REQUEST_QUEUE_POLICY
+     * @see #KEY_REQUEST_QUEUE_DEPTH
+     * @see RequestQueuePolicy
+     */
+    public final static String KEY_REQUEST_QUEUE_POLICY = "snmp.request.queue-policy";
+    
+    /**
+     * Key in a properties file defines maximum count of requests per 
+     * second accepted from a single source IP address. Requests above 
+     * the limit are dropped and counted in <code>snmpSilentDrops</code>. 
+     * Value 0 disables the limit.
+     * This value is optional and overrides default value 
+     * <code>DEFAULT_REQUEST_RATE_LIMIT</code>
+     * 
+     * @see #DEFAULT_REQUEST_RATE_LIMIT
+     */
+    public final static String KEY_REQUEST_RATE_LIMIT = "snmp.request.rate-limit";
+    
+    /**
+     * Key in a properties file enables collection of request processing 
+     * time statistics exposed in FRIENDLY-SNMP-MIB 
+     * (<code>requestStatsTable</code> and <code>nodeStatsTable</code>).
+     * This value is optional and overrides default value which is "true".
+     * 
+     * @see #DEFAULT_STATS_ENABLED
+     */
+    public final static String KEY_STATS_ENABLED = "snmp.stats.enabled";
+    
     /**
      * Key in a properties file defines community storage type.
      * <p>See valid values at {@link #KEY_STORAGE_VACM_GROUP}.
@@ -236,18 +439,49 @@ public class FConstant {
      */
     public final static String KEY_STORAGE_VACM_VIEWTREE = "snmp.storage.vacm.viewtree"; 
     
+    /**
+     * Key in a properties file defines maximum count of concurrently 
+     * processed requests for thread pool type VIRTUAL. 
+     * This value is optional and overrides default value 
+     * <code>DEFAULT_THREAD_POOL_MAX_CONCURRENT</code>
+     * 
+     * @see #DEFAULT_THREAD_POOL_MAX_CONCURRENT
+     * @see #KEY_THREAD_POOL_TYPE
+     */
+    public final static String KEY_THREAD_POOL_MAX_CONCURRENT = "snmp.thread-pool-max-concurrent";
+    
     /**
      * SNMP4J agent thread pool size. 
      * This value is optional and overrides default value 
      * <code>DEFAULT_THREAD_POOL_SIZE</code>
+     * <p>The value is used only for thread pool type FIXED.
      * 
      * @see #DEFAULT_THREAD_POOL_SIZE
+     * @see #KEY_THREAD_POOL_TYPE
      */
     public final static String KEY_THREAD_POOL_SIZE = "snmp.thread-pool-size";
     
+    /**
+     * Key in a properties file defines SNMP4J agent thread pool type. 
+     * Valid values are: FIXED (default) or VIRTUAL.
+     * FIXED pool has <code>KEY_THREAD_POOL_SIZE</code> threads.
+     * VIRTUAL pool runs each request in a new virtual thread (Java 21+; 
+     * platform threads on older JVM) and limits count of concurrent 
+     * requests to <code>KEY_THREAD_POOL_MAX_CONCURRENT</code>. 
+     * Use VIRTUAL if GET and SET listeners block on I/O. 
+     * This value is optional and overrides default value 
+     * <code>DEFAULT_THREAD_POOL_TYPE</code>
+     * 
+     * @see #DEFAULT_THREAD_POOL_TYPE
+     * @see WorkerPoolType
+     */
+    public final static String KEY_THREAD_POOL_TYPE = "snmp.thread-pool-type";
+    
     /**
      * Key in a properties file defines transport. 
-     * Valid values are: UDP (default) or TCP.
+     * Valid values are: UDP (default), UDP_NIO or TCP.
+     * UDP_NIO is UDP transport implemented with NIO datagram channel 
+     * and pooled direct buffers.
      * This value is optional and overrides default value 
      * <code>DEFAULT_TRANSPORT</code>.
      * <p>Not valid value in a property file throws 
@@ -269,6 +503,19 @@ public class FConstant {
      */
     public final static String KEY_TRANSPORT_DOMAIN = "snmp.transport.domain"; 
     
+    /**
+     * Key in a properties file defines count of sockets opened with 
+     * <code>SO_REUSEPORT</code> option for each UDP listen address. 
+     * Each socket has its own receive thread. Value 1 (default) opens 
+     * a single socket with standard SNMP4J transport mapping.
+     * This value is optional and overrides default value
+     * <code>DEFAULT_TRANSPORT_UDP_SOCKETS</code>
+     *  
+     * @see #DEFAULT_TRANSPORT_UDP_SOCKETS
+     * @see org.friendlysnmp.transport.ReusePortUdpTransportMapping
+     */
+    public final static String KEY_TRANSPORT_UDP_SOCKETS = "snmp.transport.udp-sockets"; 
+    
     /**
      * Key in a properties file defines V1 communities separated by spaces.
      * Examples: "public", "public hello friendly"
@@ -369,6 +616,41 @@ public class FConstant {
      */
     public final static int DEFAULT_IGNORE_UPDATE_MS = 1000;  // 1 sec
     
+    /**
+     * Default notification coalescing window 1000 milliseconds
+     * 
+     * @see #KEY_NOTIFY_COALESCE_MS
+     */
+    public final static int DEFAULT_NOTIFY_COALESCE_MS = 1000;
+    
+    /**
+     * Default notification type for SNMPv2c targets is TRAP
+     * 
+     * @see #KEY_NOTIFY_INFORM
+     */
+    public final static boolean DEFAULT_NOTIFY_INFORM = false;
+    
+    /**
+     * Default maximum count of pending INFORM requests 100
+     * 
+     * @see #KEY_NOTIFY_INFORM_PENDING
+     */
+    public final static int DEFAULT_NOTIFY_INFORM_PENDING = 100;
+    
+    /**
+     * Default notification queue capacity 1000
+     * 
+     * @see #KEY_NOTIFY_QUEUE_SIZE
+     */
+    public final static int DEFAULT_NOTIFY_QUEUE_SIZE = 1000;
+    
+    /**
+     * Default notification rate limit is 0 (unlimited)
+     * 
+     * @see #KEY_NOTIFY_RATE_LIMIT
+     */
+    public final static int DEFAULT_NOTIFY_RATE_LIMIT = 0;
+    
     /**
      * Default notify retry count 1 
      * 
@@ -376,6 +658,13 @@ public class FConstant {
      */
     public final static int DEFAULT_NOTIFY_RETRY_COUNT = 1;
     
+    /**
+     * Default suppressed notifications summary interval 60000 milliseconds
+     * 
+     * @see #KEY_NOTIFY_SUMMARY_MS
+     */
+    public final static int DEFAULT_NOTIFY_SUMMARY_MS = 60000;
+    
     /**
      * Default notification timeout 1000 millisecond
      * 
@@ -401,6 +690,79 @@ public class FConstant {
      */
     public final static PersistPolicy DEFAULT_PERSIST_POLICY = PersistPolicy.ON_CHANGE;
     
+    /**
+     * Default persistency storage implementation is FILE. 
+     * 
+     * @see #KEY_PERSIST_STORAGE
+     * @see PersistStorageType
+     */
+    public final static PersistStorageType DEFAULT_PERSIST_STORAGE = PersistStorageType.FILE;
+    
+    /**
+     * Default count of journal records before compaction is 1000. 
+     * 
+     * @see #KEY_PERSIST_JOURNAL_COMPACT
+     */
+    public final static int DEFAULT_PERSIST_JOURNAL_COMPACT = 1000;
+    
+    /**
+     * Default count of changed entries which triggers write-behind 
+     * flush is 100. 
+     * 
+     * @see #KEY_PERSIST_FLUSH_BATCH
+     */
+    public final static int DEFAULT_PERSIST_FLUSH_BATCH = 100;
+    
+    /**
+     * Default write-behind flush interval 1000 millisecond. 
+     * 
+     * @see #KEY_PERSIST_FLUSH_MS
+     */
+    public final static int DEFAULT_PERSIST_FLUSH_MS = 1000;
+    
+    /**
+     * Default value providers thread pool size is 2. 
+     * 
+     * @see #KEY_PROVIDER_POOL_SIZE
+     */
+    public final static int DEFAULT_PROVIDER_POOL_SIZE = 2;
+    
+    /**
+     * Default value provider wait time 5000 millisecond. 
+     * 
+     * @see #KEY_PROVIDER_WAIT_MS
+     */
+    public final static int DEFAULT_PROVIDER_WAIT_MS = 5000;
+    
+    /**
+     * Default request queue depth is 0: the queue is disabled. 
+     * 
+     * @see #KEY_REQUEST_QUEUE_DEPTH
+     */
+    public final static int DEFAULT_REQUEST_QUEUE_DEPTH = 0;
+    
+    /**
+     * Default request queue policy is DROP_OLDEST. 
+     * 
+     * @see #KEY_REQUEST_QUEUE_POLICY
+     */
+    public final static RequestQueuePolicy DEFAULT_REQUEST_QUEUE_POLICY = 
+        RequestQueuePolicy.DROP_OLDEST;
+    
+    /**
+     * Default request rate limit is 0: requests are not limited. 
+     * 
+     * @see #KEY_REQUEST_RATE_LIMIT
+     */
+    public final static int DEFAULT_REQUEST_RATE_LIMIT = 0;
+    
+    /**
+     * Default request statistics collection is enabled. 
+     * 
+     * @see #KEY_STATS_ENABLED
+     */
+    public final static boolean DEFAULT_STATS_ENABLED = true;
+    
     /**
      * Default storage community type is READONLY. 
      * 
@@ -436,6 +798,14 @@ public class FConstant {
      */
     public final static Storage DEFAULT_STORAGE_VACM_VIEWTREE = Storage.READONLY;
     
+    /**
+     * Default maximum count of concurrent requests for thread pool 
+     * type VIRTUAL is 256. 
+     * 
+     * @see #KEY_THREAD_POOL_MAX_CONCURRENT
+     */
+    public final static int DEFAULT_THREAD_POOL_MAX_CONCURRENT = 256;
+    
     /**
      * SNMP4J agent thread pool size. 
      * 
@@ -443,6 +813,13 @@ public class FConstant {
      */
     public final static int DEFAULT_THREAD_POOL_SIZE = 4;
     
+    /**
+     * Default SNMP4J agent thread pool type is FIXED. 
+     * 
+     * @see #KEY_THREAD_POOL_TYPE
+     */
+    public final static WorkerPoolType DEFAULT_THREAD_POOL_TYPE = WorkerPoolType.FIXED;
+    
     /**
      * Default transport is UDP. 
      * Application may modify it by defining different transport 
@@ -461,6 +838,14 @@ public class FConstant {
      */
     public final static TransportDomain DEFAULT_TRANSPORT_DOMAIN 
                                                         = TransportDomain.IPV4;
+    
+    /**
+     * Default count of sockets for UDP listen address is 1. 
+     * 
+     * @see #KEY_TRANSPORT_UDP_SOCKETS
+     */
+    public final static int DEFAULT_TRANSPORT_UDP_SOCKETS = 1;
+    
     /**
      * Default encryption key
      * 
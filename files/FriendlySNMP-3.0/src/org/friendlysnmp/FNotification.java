@@ -59,6 +59,24 @@ public class FNotification extends FNode {
      */
     public final static boolean NOTIFY_ENABLED = true; 
     //public  final static boolean NOTIFY_ENABLED = false; 
+    
+    /**
+     * OID of parameters defined at runtime. 
+     * <code>VariableBinding</code> copies the OID.
+     */
+    private static final OID OID_ROOT = new OID(FConstant.DEFAULT_OID_ROOT);
+    
+    /**
+     * Rate limiter and duplicate filter or null if disabled
+     */
+    private volatile NotificationLimiter limiter;
+    
+    /**
+     * Variable binding with application title which is the first 
+     * parameter of the notification with parameters defined at runtime.
+     * Created once at the first use.
+     */
+    private volatile VariableBinding vbAppTitle;
 
     /**
      * Constructor
@@ -72,6 +90,24 @@ public class FNotification extends FNode {
         setAgent(agent);
     } // FNotification()
     
+    /**
+     * Sets rate limiter and duplicate filter of this notification.
+     * 
+     * @param limiter rate limiter or null to disable
+     */
+    public void setLimiter(NotificationLimiter limiter) {
+        this.limiter = limiter;
+    } // setLimiter()
+    
+    /**
+     * Returns rate limiter and duplicate filter of this notification.
+     * 
+     * @return rate limiter or null if disabled
+     */
+    public NotificationLimiter getLimiter() {
+        return limiter;
+    } // getLimiter()
+    
     /**
      * Sends notification without any parameters
      * <p>Exception is reported to registered with agent listener.
@@ -103,6 +139,10 @@ public class FNotification extends FNode {
     /**
      * Sends notification with parameters declared in a MIB file. 
      * Array sizes should be the same.
+     * <p>The method does not block: the notification is queued and 
+     * sent by the agent notification sender thread. 
+     * The notification is suppressed if it exceeds the rate limit or 
+     * duplicates a recent notification.
      * 
      * @param paramAll array of parameters
      * @param oidAll array of parameter's OIDs
@@ -117,15 +157,12 @@ public class FNotification extends FNode {
         }
         if (oidAll == null) {
             // Notification parameters are defined at runtime
-            String appTitle = agent.getConfig().getAppTitle();
-            lst.add(new VariableBinding(
-                    new OID(FConstant.DEFAULT_OID_ROOT), 
-                    new OctetString("From application: " + appTitle)));
+            lst.add(getAppTitleBinding());
             if (paramAll != null) {
                 for (int i = 0;  i < paramAll.length;  i++) {
                     if (paramAll[i] != null) {
                         lst.add(new VariableBinding(
-                                new OID(FConstant.DEFAULT_OID_ROOT), 
+                                OID_ROOT, 
                                 new OctetString(paramAll[i].toString())));
                     }
                 }
@@ -143,13 +180,97 @@ public class FNotification extends FNode {
                 for (int i = 0;  i < oidAll.length;  i++) {
                     if (paramAll[i] != null) {
                         lst.add(new VariableBinding(
-                                new OID(oidAll[i]), 
+                                oidAll[i], 
                                 new OctetString(paramAll[i].toString())));
                     }
                 }
             }
         }
-        VariableBinding[] vbsAll = lst.toArray(new VariableBinding[lst.size()]);
+        send(lst.toArray(new VariableBinding[lst.size()]));
+    } // sendNotification()
+    
+    //--------------------------------separator--------------------------------
+    static int ______PREPARED;
+    
+    /**
+     * Prepares notification with parameters defined at runtime. 
+     * The prepared notification is sent with the application title 
+     * and a parameter for each value.
+     * 
+     * @param syntaxAll syntax of each parameter
+     * @return prepared notification
+     */
+    public PreparedNotification prepare(ValueSyntax... syntaxAll) {
+        OID[] oidAll = new OID[syntaxAll.length];
+        for (int i = 0;  i < oidAll.length;  i++) {
+            oidAll[i] = OID_ROOT;
+        }
+        return new PreparedNotification(this, true, oidAll, syntaxAll);
+    } // prepare()
+    
+    /**
+     * Prepares notification with parameters declared in a MIB file.
+     * Array sizes should be the same.
+     * 
+     * @param oidAll array of parameter's OIDs
+     * @param syntaxAll array of parameter's syntax
+     * @return prepared notification
+     * @throws FException if array sizes are not the same
+     */
+    public PreparedNotification prepare(OID[] oidAll, ValueSyntax[] syntaxAll) 
+    throws FException 
+    {
+        if (oidAll.length != syntaxAll.length) {
+            throw new FException("Mismatch syntax and oid arrays length");
+        }
+        return new PreparedNotification(this, false, oidAll, syntaxAll);
+    } // prepare()
+    
+    /**
+     * Returns variable binding with application title.
+     * 
+     * @return variable binding with application title
+     */
+    VariableBinding getAppTitleBinding() {
+        VariableBinding vb = vbAppTitle;
+        if (vb == null) {
+            String appTitle = agent.getConfig().getAppTitle();
+            vb = new VariableBinding(OID_ROOT, 
+                    new OctetString("From application: " + appTitle));
+            vbAppTitle = vb;
+        }
+        return vb;
+    } // getAppTitleBinding()
+    
+    /**
+     * Reports failure to send this notification to the agent listeners.
+     * 
+     * @param e exception
+     */
+    void reportFailure(FException e) {
+        if (agent != null) {
+            agent.exceptionThrown(
+                "Failure to send notification " + getFIDtoString(), e);
+        }
+    } // reportFailure()
+    
+    /**
+     * Sends notification with variable bindings unless it is suppressed
+     * by the rate limiter.
+     * 
+     * @param vbsAll notification variable bindings
+     */
+    void send(VariableBinding[] vbsAll) {
+        if (agent == null  ||  !NOTIFY_ENABLED) {
+            return;
+        }
+        NotificationLimiter l = limiter;
+        if (l != null  &&  !l.tryAcquire(vbsAll)) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Notification suppressed: " + getName());
+            }
+            return;
+        }
         if (logger.isDebugEnabled()) {
             StringBuilder sb = new StringBuilder();
             sb.append("Sending notification '");
@@ -163,6 +284,6 @@ public class FNotification extends FNode {
             logger.debug(sb.toString());
         }
         agent.sendNotification(getOID(), vbsAll);
-    } // sendNotification()
+    } // send()
     
 } // class FNotification
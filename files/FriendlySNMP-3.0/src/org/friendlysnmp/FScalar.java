@@ -22,11 +22,13 @@
 package org.friendlysnmp;
 
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CopyOnWriteArraySet;
 
 import org.friendlysnmp.event.FExceptionListener;
 import org.friendlysnmp.event.FScalarGetListener;
 import org.friendlysnmp.event.FScalarSetListener;
+import org.friendlysnmp.event.FScalarValueProvider;
 import org.friendlysnmp.event.FScalarValidationListener;
 import org.friendlysnmp.persist.PersistEntryScalar;
 import org.friendlysnmp.persist.PersistStorage;
@@ -62,11 +64,6 @@ public class FScalar extends FValueNode {
      */
     private MOScalar moScalar;
 
-    /**
-     * Last GET request was received at this timestamp. 
-     */
-    private long lastGetTime;
-    
     /**
      * Scalar GET listeners. 
      */
@@ -280,19 +277,58 @@ public class FScalar extends FValueNode {
     } // removeValidationListener()
     
     /**
-     * Fires GET event
+     * Sets value provider, which loads the scalar value in a value providers 
+     * executor thread. GET requests are answered with the current value; 
+     * the value is reloaded in background when it is older than 
+     * <code>ttlMs</code>.
+     * 
+     * @param provider value provider or <code>null</code> to remove it
+     * @param ttlMs time-to-live (in milliseconds) of the loaded value
+     * @param maxStaleMs maximum staleness (in milliseconds) of the loaded 
+     *        value; GET request waits for reload of older value. 
+     *        Use -1 to never wait.
+     * @throws FException not valid time-to-live or maximum staleness
      */
-    private synchronized void fireGetEvent() {
-        long now = System.currentTimeMillis();
-        long ignoreUpdate = agent.getIgnoreUpdateMs();
-        if (now - lastGetTime > ignoreUpdate  &&  hsGetListener.size() > 0) {
-            lastGetTime = now;
+    public void setValueProvider(final FScalarValueProvider provider, 
+            int ttlMs, int maxStaleMs) 
+    throws FException 
+    {
+        Callable<Void> loader = null;
+        if (provider != null) {
+            loader = new Callable<Void>() {
+                public Void call() throws Exception {
+                    setValue(provider.getValue(FScalar.this));
+                    return null;
+                }
+            };
+        }
+        setProviderLoader(loader, ttlMs, maxStaleMs);
+    } // setValueProvider()
+    
+    /**
+     * Fires GET event. Concurrent requests do not wait for the listeners
+     * and return the current value.
+     * 
+     * @see FValueNode#beginRefresh()
+     * @see FValueNode#refreshProvider()
+     */
+    private void fireGetEvent() {
+        long startNanos = System.nanoTime();
+        refreshProvider();
+        if (hsGetListener.isEmpty()  ||  !beginRefresh()) {
+            recordGetTime(startNanos);
+            return;
+        }
+        try {
             if (logger.isDebugEnabled()) {
                 logger.debug("FIRE GET request for " + getFIDtoString());
             }
             for (FScalarGetListener l : hsGetListener) {
                 l.get(this);
             }
+        } finally {
+            endRefresh();
+            recordGetTime(startNanos);
         }
     } // fireGetEvent()
     
@@ -302,23 +338,28 @@ public class FScalar extends FValueNode {
      * @param oid OID
      */
     private synchronized void fireSetEvent(OID oid) {
-        if (logger.isDebugEnabled()) {
-            logger.debug("FIRE SET event for " + getFIDtoString());
-        }
-        // 1. Fire "set" event to registered listeners
-        for (FScalarSetListener l : hsSetListener) {
-            l.set(this);
-        }
-        // 2. Persistence
-        if (!moScalar.isVolatile()) {
-            try {
-                agent.getPersistStorage().put(this);
-                if (logger.isDebugEnabled()) {
-                    logger.debug("Persisting scalar: " + this);
+        long startNanos = System.nanoTime();
+        try {
+            if (logger.isDebugEnabled()) {
+                logger.debug("FIRE SET event for " + getFIDtoString());
+            }
+            // 1. Fire "set" event to registered listeners
+            for (FScalarSetListener l : hsSetListener) {
+                l.set(this);
+            }
+            // 2. Persistence
+            if (!moScalar.isVolatile()) {
+                try {
+                    agent.getPersistStorage().put(this);
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Persisting scalar: " + this);
+                    }
+                } catch (FException e) {
+                    agent.exceptionThrown("Failure to persist scalar " + getFIDtoString(), e);
                 }
-            } catch (FException e) {
-                agent.exceptionThrown("Failure to persist scalar " + getFIDtoString(), e);
             }
+        } finally {
+            recordSetTime(startNanos);
         }
     } // fireSetEvent()
 
@@ -22,14 +22,22 @@
 package org.friendlysnmp;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map.Entry;
+import java.util.Map;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CopyOnWriteArraySet;
 
 import org.friendlysnmp.event.FTableGetListener;
 import org.friendlysnmp.event.FTableSetListener;
+import org.friendlysnmp.event.FTableValueProvider;
 import org.friendlysnmp.event.FTableValidationListener;
 import org.friendlysnmp.persist.PersistEntryTable;
 import org.friendlysnmp.persist.PersistStorage;
@@ -66,6 +74,12 @@ public class FTable extends FValueNode {
      */
     private static final Logger logger = LoggerFactory.getLogger(FTable.class);
     
+    /**
+     * Count of modified rows kept for persistence storage; above 
+     * this count (and the table rows count) the whole table is saved.
+     */
+    private static final int MAX_DIRTY_ROWS = 64;
+    
     /**
      * Underlying SNMP4j managed object.
      */
@@ -86,11 +100,6 @@ public class FTable extends FValueNode {
      */
     private FColumn[] columnAll;
     
-    /**
-     * Last GET request was received at this timestamp. 
-     */
-    private long lastGetTime;
-    
     /**
      * Table GET listeners.
      */
@@ -116,6 +125,37 @@ public class FTable extends FValueNode {
      */
     private Set<FColumn> hsValidColumns;
     
+    /**
+     * Rows index: row ID to SNMP4J row object. The rows index is guarded 
+     * by this table: index readers, rows modifications and SET events 
+     * take the same lock.
+     */
+    private Map<FID, MOTableRow<?>> hmRowIndex;
+    
+    /**
+     * Rows index: row IDs in the table model order (ascending OID).
+     */
+    private List<FID> lstRowIndex;
+    
+    /**
+     * Flag to rebuild rows index on next access. Rows created and destroyed
+     * from MIB browser (RowStatus) bypass this class and invalidate the index.
+     * Guarded by this table.
+     */
+    private boolean rowIndexStale;
+    
+    /**
+     * Rows modified since the table was last passed to persistence storage.
+     * The set is guarded by itself.
+     */
+    private Set<FID> hsDirtyRow;
+    
+    /**
+     * Flag that persistence storage should take the whole table content
+     * instead of the modified rows. Guarded by <code>hsDirtyRow</code>.
+     */
+    private boolean dirtyAll;
+    
     //--------------------------------separator--------------------------------
     static int ______SYSTEM;
 
@@ -131,6 +171,7 @@ public class FTable extends FValueNode {
         super(name, moTable.getOID());
         this.moTable = moTable;
         this.columnAll = column;
+        hsDirtyRow = new HashSet<FID>();
         setVolatilePrivate(false);
         moTable.addMOChangeListener(new ThisMOChangeListener());
         moTableModel = moTable.getModel();
@@ -138,6 +179,9 @@ public class FTable extends FValueNode {
         hsSetListener = new CopyOnWriteArraySet<FTableSetListener>();
         hsValidationListener = new CopyOnWriteArraySet<FTableValidationListener>();
         hsValidColumns = new HashSet<FColumn>(moTable.getColumnCount());
+        hmRowIndex = new HashMap<FID, MOTableRow<?>>();
+        lstRowIndex = new ArrayList<FID>();
+        rowIndexStale = true;
         
         // Initialize columns with default values and RowStatus listener
         // implemented in private inner class. 
@@ -192,6 +236,9 @@ public class FTable extends FValueNode {
     @Override
     protected void setVolatilePrivate(boolean volatileTable) {
         this.volatileTable = volatileTable;
+        if (!volatileTable) {
+            markDirtyAll(); // persistence storage has no rows of this table
+        }
     } // setVolatilePrivate()
 
     /** 
@@ -265,15 +312,13 @@ public class FTable extends FValueNode {
      * @return row ID
      * @throws FException
      */
-    public FID getRowID(int indexRow) throws FException {
-        FID[] idAll = getRowIDs();
-        try {
-            return idAll[indexRow];
-        } catch (Exception e) {
+    public synchronized FID getRowID(int indexRow) throws FException {
+        checkRowIndex();
+        if (indexRow < 0  ||  indexRow >= lstRowIndex.size()) {
             throwFException("Wrong index " + indexRow
-                    + " (bounds: 0.." + (idAll.length - 1) + ")", e);
-            return null; // to keep compiler happy
+                    + " (bounds: 0.." + (lstRowIndex.size() - 1) + ")");
         }
+        return lstRowIndex.get(indexRow);
     } // getRowID()
     
     /**
@@ -281,15 +326,9 @@ public class FTable extends FValueNode {
      * 
      * @return array of rowIDs
      */
-    private FID[] getRowIDs() {
-        List<FID> lst = new ArrayList<FID>();
-        Iterator<?> itRow = moTableModel.iterator();
-        while (itRow.hasNext()) {
-            MOTableRow moRow = (MOTableRow)itRow.next();
-            OID oid = moRow.getIndex();
-            lst.add(new FID(oid));
-        }
-        return lst.toArray(new FID[lst.size()]);
+    private synchronized FID[] getRowIDs() {
+        checkRowIndex();
+        return lstRowIndex.toArray(new FID[lstRowIndex.size()]);
     } // getRowIDs()
     
     /**
@@ -298,14 +337,12 @@ public class FTable extends FValueNode {
      * @param idRow row ID
      * @return index of specified by row ID.
      */
-    public int getRowIndex(FID idRow) {
-        FID[] idAll = getRowIDs();
-        for (int i = 0;  i < idAll.length;  i++) {
-            if (idRow.equals(idAll[i])) {
-                return i;
-            }
+    public synchronized int getRowIndex(FID idRow) {
+        checkRowIndex();
+        if (!hmRowIndex.containsKey(idRow)) {
+            return -1;
         }
-        return -1;
+        return Collections.binarySearch(lstRowIndex, idRow);
     } // getRowIndex()
     
     /**
@@ -315,19 +352,89 @@ public class FTable extends FValueNode {
      * @return SNMP4J table row object.
      * @throws FException
      */
-    private MOTableRow getMORow(FID idRow) throws FException {
-        OID oidRow = idRow.getOID();
+    private synchronized MOTableRow<?> getMORow(FID idRow) throws FException {
+        MOTableRow<?> moRow = findMORow(idRow);
+        if (moRow == null) {
+            throwFException("Not valid row ID: " + idRow);
+        }
+        return moRow;
+    } // getMORow()
+    
+    /**
+     * Returns SNMP4J table row object or <code>null</code> if row 
+     * does not exist.
+     * 
+     * @param idRow row ID.
+     * @return SNMP4J table row object or <code>null</code>.
+     */
+    private synchronized MOTableRow<?> findMORow(FID idRow) {
+        checkRowIndex();
+        return hmRowIndex.get(idRow);
+    } // findMORow()
+    
+    /**
+     * Adds SNMP4J row object to the table. The table managed object is 
+     * declared raw, the row type is checked by the table itself. 
+     * 
+     * @param moRow SNMP4J table row object
+     * @return true if row was added
+     */
+    @SuppressWarnings("unchecked")
+    private boolean addMORow(MOTableRow<?> moRow) {
+        return moTable.addRow(moRow);
+    } // addMORow()
+    
+    /**
+     * Rebuilds rows index if it is marked as stale or it is out of sync 
+     * with the table model rows count. The caller holds the table lock.
+     */
+    private void checkRowIndex() {
+        if (!rowIndexStale  &&  hmRowIndex.size() == moTableModel.getRowCount()) {
+            return;
+        }
+        hmRowIndex.clear();
+        lstRowIndex.clear();
         Iterator<?> itRow = moTableModel.iterator();
         while (itRow.hasNext()) {
-            MOTableRow moRow = (MOTableRow)itRow.next();
-            OID oid = moRow.getIndex();
-            if (oidRow.equals(oid)) {
-                return moRow;
-            }
+            MOTableRow<?> moRow = (MOTableRow<?>)itRow.next();
+            FID idRow = new FID(moRow.getIndex());
+            hmRowIndex.put(idRow, moRow);
+            lstRowIndex.add(idRow); // model iterates rows in OID order
         }
-        throwFException("Not valid row ID: " + idRow);
-        return null; // to keep compiler happy
-    } // getMORow()
+        rowIndexStale = false;
+    } // checkRowIndex()
+    
+    /**
+     * Adds row to the rows index. The caller holds the table lock.
+     * 
+     * @param idRow row ID
+     * @param moRow SNMP4J table row object
+     */
+    private void indexRowAdded(FID idRow, MOTableRow<?> moRow) {
+        hmRowIndex.put(idRow, moRow);
+        int size = lstRowIndex.size();
+        if (size == 0  ||  lstRowIndex.get(size - 1).compareTo(idRow) < 0) {
+            lstRowIndex.add(idRow); // addRowNext() appends
+        } else {
+            int pos = Collections.binarySearch(lstRowIndex, idRow);
+            lstRowIndex.add(-pos - 1, idRow);
+        }
+    } // indexRowAdded()
+    
+    /**
+     * Removes row from the rows index. The caller holds the table lock.
+     * 
+     * @param idRow row ID
+     * @return position of the removed row in the index 
+     */
+    private int indexRowRemoved(FID idRow) {
+        hmRowIndex.remove(idRow);
+        int pos = Collections.binarySearch(lstRowIndex, idRow);
+        if (pos >= 0) {
+            lstRowIndex.remove(pos);
+        }
+        return pos;
+    } // indexRowRemoved()
     
     /**
      * Row ID is generated by increasing the max first integer and 
@@ -336,20 +443,13 @@ public class FTable extends FValueNode {
      * @return row ID for newly created row
      * @throws FException
      */
-    public FID addRowNext() throws FException {
-        FID[] idAll = getRowIDs();
-        FID idMax = null;
-        for (FID id : idAll) {
-            if (idMax == null) {
-                idMax = id;
-            } else {
-                idMax = FID.max(idMax, id);
-            }
-            
-        }
-        if (idMax == null) {
+    public synchronized FID addRowNext() throws FException {
+        checkRowIndex();
+        int size = lstRowIndex.size();
+        if (size == 0) {
             return addRow(1);
         }
+        FID idMax = lstRowIndex.get(size - 1); // ordered by OID
         FID oidNext = idMax.next();
         return addRow(oidNext.getInt());
     } // addRowNext()    
@@ -376,22 +476,22 @@ public class FTable extends FValueNode {
      * @return row ID of newly created row (the same as parameter)
      * @throws FException
      */
-    public FID addRow(FID id) throws FException {
-        FID[] idAll = getRowIDs();
-        for (FID idRow : idAll) {
-            if (id.equals(idRow)) {
-                throwFException(String.format(
-                        "Cannot add row. Row ID %s already exist.", idRow));
-            }
+    public synchronized FID addRow(FID id) throws FException {
+        checkRowIndex();
+        if (hmRowIndex.containsKey(id)) {
+            throwFException(String.format(
+                    "Cannot add row. Row ID %s already exist.", id));
         }
-        MOTableRow moRow = moTable.createRow(id.getOID());
+        MOTableRow<?> moRow = moTable.createRow(id.getOID());
         if (moRow == null) {
             throwFException(String.format("Row %s cannot be created.", id));
         }
-        boolean added = moTable.addRow(moRow);
+        boolean added = addMORow(moRow);
         if (!added) {
             throwFException(String.format("Row %s cannot be added.", id)); 
         }
+        indexRowAdded(id, moRow);
+        markRowDirty(id);
         logger.debug(String.format("Added row: %s for %s", id, getName()));
         return id;
     } // addRow()
@@ -403,32 +503,26 @@ public class FTable extends FValueNode {
      * @return row ID of suggested new row selection
      * @throws FException if the row cannot be found or cannot be removed
      */
-    public FID deleteRow(FID idRow) throws FException {
+    public synchronized FID deleteRow(FID idRow) throws FException {
         logger.debug("Deleting row " + idRow + " in " + getName());
-        FID[] idAll = getRowIDs();
-        MOTableRow moRow = getMORow(idRow);
+        MOTableRow<?> moRow = getMORow(idRow);
         OID oid = moRow.getIndex(); // int[1] = { 5 }
-        MOTableRow rowDeleted = moTable.removeRow(oid);
+        MOTableRow<?> rowDeleted = moTable.removeRow(oid);
         if (rowDeleted == null) {
             throwFException(String.format("Row %s cannot be deleted", idRow));
         }
         //logger.debug("Deleted row " + idRow + " in " + getName() + ", OID=" + oid);
-        int size = idAll.length;
-        if (size <= 1) {
+        int indexDel = indexRowRemoved(idRow);
+        markRowDirty(idRow);
+        int size = lstRowIndex.size();
+        if (size == 0) {
             return null;
         }
-        int indexDel = -1;
-        for (int i = 0;  i < size;  i++) {
-            if (idRow.equals(idAll[i])) {
-                indexDel = i; // found just deleted row ID
-                break;
-            }
-        }
-        indexDel++;
-        if (indexDel >= size) {
+        // The row next to just deleted row ID shifted into its position
+        if (indexDel < 0  ||  indexDel >= size) {
             indexDel = 0;
         }
-        return idAll[indexDel];
+        return lstRowIndex.get(indexDel);
     } // deleteRow()
     
     /**
@@ -436,17 +530,386 @@ public class FTable extends FValueNode {
      * 
      * @throws FException
      */
-    public void deleteAll() throws FException {
+    public synchronized void deleteAll() throws FException {
         logger.debug("Deleting ALL rows");
+        markDirtyAll();
         FID[] idAll = getRowIDs();
         for (FID idRow : idAll) {
-            MOTableRow rowDeleted = moTable.removeRow(idRow.getOID());
+            MOTableRow<?> rowDeleted = moTable.removeRow(idRow.getOID());
             if (rowDeleted == null) {
+                rowIndexStale = true;
                 throwFException(String.format("Row %s cannot be deleted", idRow));
             }
         }
+        hmRowIndex.clear();
+        lstRowIndex.clear();
     } // deleteAll()
 
+    /**
+     * Replaces all rows with the specified rows. Row IDs are generated
+     * sequentially from 1 the same way as {@link #addRowNext()} does 
+     * for an empty table.
+     * 
+     * @param colAll columns of the values in each row
+     * @param rowAll rows values; each array is ordered as <code>colAll</code>
+     * @throws FException for not valid column or while object conversion.
+     *         The table is not modified in this case.
+     */
+    public void replaceAll(FColumn[] colAll, List<Object[]> rowAll) 
+    throws FException 
+    {
+        SortedMap<FID, Object[]> hmRow = new TreeMap<FID, Object[]>();
+        int id = 1;
+        for (Object[] row : rowAll) {
+            hmRow.put(new FID(id++), row);
+        }
+        replaceAll(colAll, hmRow);
+    } // replaceAll()
+    
+    /**
+     * Replaces all rows with the specified rows. All new rows are built 
+     * and converted before the table is modified, and then swapped in
+     * a single pass under the table model lock, so SNMP requests see 
+     * either previous or new rows. Cells in columns not listed in 
+     * <code>colAll</code> get the column default value.
+     * 
+     * @param colAll columns of the values in each row
+     * @param hmRow rows values by row ID; each array is ordered 
+     *        as <code>colAll</code>
+     * @throws FException for not valid column, while object conversion 
+     *         or if a row cannot be swapped in. The table is not modified 
+     *         in this case: rows already swapped in are removed and 
+     *         the previous rows are restored.
+     */
+    public synchronized void replaceAll(FColumn[] colAll, Map<FID, Object[]> hmRow) 
+    throws FException 
+    {
+        SortedMap<FID, MOTableRow<?>> hmNew = new TreeMap<FID, MOTableRow<?>>();
+        for (Entry<FID, Object[]> entry : sortRows(hmRow).entrySet()) {
+            FID idRow = entry.getKey();
+            Variable[] varAll = toRowValues(idRow, colAll, entry.getValue());
+            MOTableRow<?> moRow = moTable.createRow(idRow.getOID(), varAll);
+            if (moRow == null) {
+                throwFException(String.format("Row %s cannot be created.", idRow));
+            }
+            hmNew.put(idRow, moRow);
+        }
+        checkRowIndex();
+        List<MOTableRow<?>> lstOld = new ArrayList<MOTableRow<?>>(lstRowIndex.size());
+        for (FID idRow : lstRowIndex) {
+            lstOld.add(hmRowIndex.get(idRow));
+        }
+        List<MOTableRow<?>> lstRemoved = new ArrayList<MOTableRow<?>>(lstOld.size());
+        List<MOTableRow<?>> lstAdded = new ArrayList<MOTableRow<?>>(hmNew.size());
+        markDirtyAll();
+        synchronized (moTableModel) {
+            try {
+                for (MOTableRow<?> moRow : lstOld) {
+                    if (moTable.removeRow(moRow.getIndex()) == null) {
+                        throwFException(String.format(
+                                "Row %s cannot be deleted", new FID(moRow.getIndex())));
+                    }
+                    lstRemoved.add(moRow);
+                }
+                for (Entry<FID, MOTableRow<?>> entry : hmNew.entrySet()) {
+                    if (!addMORow(entry.getValue())) {
+                        throwFException(String.format(
+                                "Row %s cannot be added.", entry.getKey())); 
+                    }
+                    lstAdded.add(entry.getValue());
+                }
+            } catch (FException e) {
+                for (MOTableRow<?> moRow : lstAdded) {
+                    moTable.removeRow(moRow.getIndex());
+                }
+                for (MOTableRow<?> moRow : lstRemoved) {
+                    addMORow(moRow);
+                }
+                rowIndexStale = true;
+                throw e;
+            }
+        }
+        hmRowIndex.clear();
+        lstRowIndex.clear();
+        for (Entry<FID, MOTableRow<?>> entry : hmNew.entrySet()) {
+            hmRowIndex.put(entry.getKey(), entry.getValue());
+            lstRowIndex.add(entry.getKey()); // sorted map keeps OID order
+        }
+        logger.debug(String.format("Replaced rows: %d for %s", 
+                hmNew.size(), getName()));
+    } // replaceAll()
+    
+    /**
+     * Applies the specified rows to the table. Row IDs are generated
+     * sequentially from 1 the same way as {@link #replaceAll(FColumn[], List)}
+     * does. 
+     * 
+     * @param colAll columns of the values in each row
+     * @param rowAll rows values; each array is ordered as <code>colAll</code>
+     * @throws FException for not valid column or while object conversion
+     * 
+     * @see #applyRows(FColumn[], Map)
+     */
+    public void applyRows(FColumn[] colAll, List<Object[]> rowAll) 
+    throws FException 
+    {
+        Map<FID, Object[]> hmRow = new HashMap<FID, Object[]>(rowAll.size() * 2);
+        int id = 1;
+        for (Object[] row : rowAll) {
+            hmRow.put(new FID(id++), row);
+        }
+        applyRows(colAll, hmRow);
+    } // applyRows()
+    
+    /**
+     * Applies the specified rows to the table as a difference with the 
+     * current content: new rows are added, rows missing in 
+     * <code>hmRow</code> are deleted and only cells with changed values 
+     * are updated in existing rows. Unchanged rows keep their SNMP4J 
+     * row objects.
+     * <p>New rows and changed values are built and converted before the 
+     * table is modified, and then applied in a single pass under the 
+     * table model lock, so SNMP requests see either previous or new rows. 
+     * The table is not modified if conversion fails. The table content 
+     * is partially updated only if a row cannot be deleted or added.
+     * 
+     * @param colAll columns of the values in each row
+     * @param hmRow rows values by row ID; each array is ordered 
+     *        as <code>colAll</code>
+     * @throws FException for not valid column, while object conversion
+     *         or if a row cannot be deleted or added
+     */
+    public synchronized void applyRows(FColumn[] colAll, Map<FID, Object[]> hmRow) 
+    throws FException 
+    {
+        checkRowIndex();
+        // 1. Build new rows and changed values
+        List<FID> lstDel = new ArrayList<FID>();
+        for (FID idRow : lstRowIndex) {
+            if (!hmRow.containsKey(idRow)) {
+                lstDel.add(idRow);
+            }
+        }
+        Map<FID, MOTableRow<?>> hmAdd = new HashMap<FID, MOTableRow<?>>();
+        Map<FID, Variable[]> hmChange = new HashMap<FID, Variable[]>();
+        int countCell = 0;
+        for (Entry<FID, Object[]> entry : hmRow.entrySet()) {
+            FID idRow = entry.getKey();
+            MOTableRow<?> moRow = hmRowIndex.get(idRow);
+            if (moRow == null) {
+                Variable[] varAll = toRowValues(idRow, colAll, entry.getValue());
+                moRow = moTable.createRow(idRow.getOID(), varAll);
+                if (moRow == null) {
+                    throwFException(String.format("Row %s cannot be created.", idRow));
+                }
+                hmAdd.put(idRow, moRow);
+            } else {
+                Variable[] varChanged = changedRowValues(
+                        idRow, moRow, colAll, entry.getValue());
+                if (varChanged != null) {
+                    hmChange.put(idRow, varChanged);
+                    for (Variable var : varChanged) {
+                        countCell += (var == null) ? 0 : 1;
+                    }
+                }
+            }
+        }
+        if (lstDel.isEmpty()  &&  hmAdd.isEmpty()  &&  hmChange.isEmpty()) {
+            return;
+        }
+        // 2. Apply
+        synchronized (moTableModel) {
+            for (FID idRow : lstDel) {
+                if (moTable.removeRow(idRow.getOID()) == null) {
+                    rowIndexStale = true;
+                    throwFException(String.format("Row %s cannot be deleted", idRow));
+                }
+                hmRowIndex.remove(idRow);
+                markRowDirty(idRow);
+            }
+            for (Entry<FID, Variable[]> entry : hmChange.entrySet()) {
+                MOMutableTableRow moRow = 
+                    (MOMutableTableRow)hmRowIndex.get(entry.getKey());
+                Variable[] varChanged = entry.getValue();
+                for (int c = 0;  c < colAll.length;  c++) {
+                    if (varChanged[c] != null) {
+                        moRow.setValue(colAll[c].getIndex_InTable(), varChanged[c]);
+                    }
+                }
+                markRowDirty(entry.getKey());
+            }
+            for (Entry<FID, MOTableRow<?>> entry : hmAdd.entrySet()) {
+                if (!addMORow(entry.getValue())) {
+                    rowIndexStale = true;
+                    throwFException(String.format(
+                            "Row %s cannot be added.", entry.getKey())); 
+                }
+                hmRowIndex.put(entry.getKey(), entry.getValue());
+                markRowDirty(entry.getKey());
+            }
+        }
+        if (!lstDel.isEmpty()  ||  !hmAdd.isEmpty()) {
+            lstRowIndex = new ArrayList<FID>(hmRowIndex.keySet());
+            Collections.sort(lstRowIndex);
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug(String.format(
+                    "Applied rows for %s: added=%d deleted=%d cells updated=%d", 
+                    getName(), hmAdd.size(), lstDel.size(), countCell));
+        }
+    } // applyRows()
+    
+    /**
+     * Converts row values and compares them with the existing row.
+     * 
+     * @param idRow row ID (for error reporting)
+     * @param moRow SNMP4J table row object
+     * @param colAll columns of the values 
+     * @param objAll row values ordered as <code>colAll</code>
+     * @return changed values ordered as <code>colAll</code> with 
+     *         <code>null</code> for unchanged values, or <code>null</code>
+     *         if no value is changed 
+     * @throws FException for not valid column or while object conversion
+     */
+    private Variable[] changedRowValues(FID idRow, MOTableRow<?> moRow, 
+            FColumn[] colAll, Object[] objAll) 
+    throws FException 
+    {
+        if (objAll.length != colAll.length) {
+            throwFException(String.format(
+                    "Row %s has %d values for %d columns", 
+                    idRow, objAll.length, colAll.length));
+        }
+        Variable[] varChanged = null;
+        for (int c = 0;  c < colAll.length;  c++) {
+            checkColumnValidity(colAll[c]);
+            int indexCol = colAll[c].getIndex_InTable();
+            try {
+                Variable var = FConverter.toVariable(
+                        objAll[c], moTable.getColumn(indexCol));
+                if (!var.equals(moRow.getValue(indexCol))) {
+                    if (varChanged == null) {
+                        varChanged = new Variable[colAll.length];
+                    }
+                    varChanged[c] = var;
+                }
+            } catch (Exception e) {
+                // ClassCastException, FException
+                throwFException(String.format(
+                        "Failure to set value '%s' for R=%s %s", 
+                        objAll[c], idRow, colAll[c]), e);
+            }
+        }
+        return varChanged;
+    } // changedRowValues()
+    
+    /**
+     * Returns rows collection ordered by row ID.
+     * 
+     * @param hmRow rows collection
+     * @return rows collection ordered by row ID
+     */
+    private static <V> SortedMap<FID, V> sortRows(Map<FID, V> hmRow) {
+        if (hmRow instanceof SortedMap<?, ?>  &&  
+            ((SortedMap<FID, V>)hmRow).comparator() == null) 
+        {
+            return (SortedMap<FID, V>)hmRow;
+        }
+        return new TreeMap<FID, V>(hmRow);
+    } // sortRows()
+    
+    /**
+     * Converts row values to SNMP4J cell values. Cells in columns 
+     * not listed in <code>colAll</code> get the column default value.
+     * 
+     * @param idRow row ID (for error reporting)
+     * @param colAll columns of the values 
+     * @param objAll row values ordered as <code>colAll</code>
+     * @return cell values of the row ordered as table columns
+     * @throws FException for not valid column or while object conversion
+     */
+    private Variable[] toRowValues(FID idRow, FColumn[] colAll, Object[] objAll) 
+    throws FException 
+    {
+        if (objAll.length != colAll.length) {
+            throwFException(String.format(
+                    "Row %s has %d values for %d columns", 
+                    idRow, objAll.length, colAll.length));
+        }
+        Variable[] varAll = moTable.getDefaultValues();
+        for (int c = 0;  c < colAll.length;  c++) {
+            checkColumnValidity(colAll[c]);
+            int indexCol = colAll[c].getIndex_InTable();
+            try {
+                varAll[indexCol] = FConverter.toVariable(
+                        objAll[c], moTable.getColumn(indexCol));
+            } catch (FException e) {
+                throwFException(String.format(
+                        "Failure to set value '%s' for R=%s %s", 
+                        objAll[c], idRow, colAll[c]), e);
+            }
+        }
+        return varAll;
+    } // toRowValues()
+
+    //--------------------------------separator--------------------------------
+    static int ______DIRTY_ROWS;
+
+    /**
+     * Marks row as modified since the table was last passed to persistence 
+     * storage. Too many modified rows are replaced with the whole table 
+     * flag: the storage takes full table content in this case.
+     * 
+     * @param idRow row ID (added, deleted or modified row)
+     */
+    private void markRowDirty(FID idRow) {
+        if (volatileTable) {
+            return;
+        }
+        synchronized (hsDirtyRow) {
+            if (dirtyAll) {
+                return;
+            }
+            hsDirtyRow.add(idRow);
+            if (hsDirtyRow.size() > Math.max(MAX_DIRTY_ROWS, getRowCount())) {
+                dirtyAll = true;
+                hsDirtyRow.clear();
+            }
+        }
+    } // markRowDirty()
+    
+    /**
+     * Marks all rows as modified.
+     */
+    private void markDirtyAll() {
+        synchronized (hsDirtyRow) {
+            dirtyAll = true;
+            hsDirtyRow.clear();
+        }
+    } // markDirtyAll()
+    
+    /**
+     * Returns IDs of rows added, deleted or modified since previous call 
+     * and resets them. The method is used by persistence storage 
+     * to save only modified rows of the table.
+     * <p>Returns <code>null</code> if the storage should take the whole 
+     * table content: first call, table content was replaced or 
+     * too many rows were modified.
+     * 
+     * @return IDs of modified rows or <code>null</code> for all rows
+     */
+    public Set<FID> drainDirtyRows() {
+        synchronized (hsDirtyRow) {
+            if (dirtyAll) {
+                dirtyAll = false;
+                return null;
+            }
+            Set<FID> hs = new HashSet<FID>(hsDirtyRow);
+            hsDirtyRow.clear();
+            return hs;
+        }
+    } // drainDirtyRows()
+
     //--------------------------------separator--------------------------------
     static int ______COLUMNS;
 
@@ -593,7 +1056,7 @@ public class FTable extends FValueNode {
         if (!moColumn.getAccess().isAccessibleForWrite()) { 
             return false; 
         }
-        MOTableRow moRow = getMORow(idRow); 
+        MOTableRow<?> moRow = getMORow(idRow); 
         return (moRow instanceof MOMutableTableRow); 
     } // isCellEditable()
     
@@ -607,7 +1070,7 @@ public class FTable extends FValueNode {
      */
     public Object getValueAt(FID idRow, FColumn col) throws FException {
         checkColumnValidity(col);
-        MOTableRow moRow = getMORow(idRow); 
+        MOTableRow<?> moRow = getMORow(idRow); 
         Variable var = moRow.getValue(col.getIndex_InTable());
         Object obj = FConverter.toJava(var);
         if (logger.isDebugEnabled()) {
@@ -616,6 +1079,33 @@ public class FTable extends FValueNode {
         return obj;
     } // getValueAt()
     
+    /**
+     * Gets the values of specified cells of the row. The row is read once 
+     * under the table lock, so concurrently deleted row is reported 
+     * as <code>null</code> instead of a failure.
+     * 
+     * @param idRow ID of the row (this is not an row index!)
+     * @param colAll columns
+     * @return values of the cells or <code>null</code> if the row 
+     *         does not exist
+     * @throws FException for not valid column parameter.
+     */
+    public synchronized Object[] getRowValues(FID idRow, FColumn[] colAll) 
+    throws FException 
+    {
+        MOTableRow<?> moRow = findMORow(idRow);
+        if (moRow == null) {
+            return null;
+        }
+        Object[] objAll = new Object[colAll.length];
+        for (int c = 0;  c < colAll.length;  c++) {
+            checkColumnValidity(colAll[c]);
+            Variable var = moRow.getValue(colAll[c].getIndex_InTable());
+            objAll[c] = FConverter.toJava(var);
+        }
+        return objAll;
+    } // getRowValues()
+    
     /**
      * Sets the value for the specified cell.
      * 
@@ -636,8 +1126,9 @@ public class FTable extends FValueNode {
         MOColumn moColumn = moTable.getColumn(indexCol); 
         try {
             Variable var = FConverter.toVariable(obj, moColumn); 
-            MOTableRow moRow = getMORow(idRow); 
+            MOTableRow<?> moRow = getMORow(idRow); 
             ((MOMutableTableRow)moRow).setValue(indexCol, var); 
+            markRowDirty(idRow);
         } catch (Exception e) {
             // ClassCastException, FException
             throwFException(String.format(
@@ -697,17 +1188,65 @@ public class FTable extends FValueNode {
     } // removeValidationListener()
 
     /**
-     * Fires GET event
+     * Sets value provider, which loads the table rows in a value providers 
+     * executor thread. GET requests are answered with the current content; 
+     * the rows are reloaded in background when they are older than 
+     * <code>ttlMs</code>.
+     * 
+     * @param provider value provider or <code>null</code> to remove it
+     * @param colAll columns of the values in each row returned by provider
+     * @param ttlMs time-to-live (in milliseconds) of the loaded rows
+     * @param maxStaleMs maximum staleness (in milliseconds) of the loaded 
+     *        rows; GET request waits for reload of older rows. 
+     *        Use -1 to never wait.
+     * @throws FException not valid time-to-live or maximum staleness
+     * 
+     * @see #applyRows(FColumn[], Map)
+     */
+    public void setValueProvider(final FTableValueProvider provider, 
+            final FColumn[] colAll, int ttlMs, int maxStaleMs) 
+    throws FException 
+    {
+        Callable<Void> loader = null;
+        if (provider != null) {
+            loader = new Callable<Void>() {
+                public Void call() throws Exception {
+                    applyRows(colAll, provider.getRows(FTable.this));
+                    return null;
+                }
+            };
+        }
+        setProviderLoader(loader, ttlMs, maxStaleMs);
+    } // setValueProvider()
+    
+    /**
+     * Fires GET event. Concurrent requests do not wait for the listeners
+     * and return the current table content. Listeners which refresh the 
+     * table should publish rows with {@link #applyRows(FColumn[], Map)} or 
+     * {@link #replaceAll(FColumn[], Map)}: concurrent requests 
+     * see partially refreshed table while the rows are modified with  
+     * {@link #deleteAll()} and {@link #addRow(FID)}.
+     * 
+     * @see FValueNode#beginRefresh()
+     * @see FValueNode#refreshProvider()
      */
-    public synchronized void fireGetEvent() {
-        long now = System.currentTimeMillis();
-        long ignoreUpdate = agent.getIgnoreUpdateMs();
-        if (now - lastGetTime > ignoreUpdate  &&  hsGetListener.size() > 0) {
-            lastGetTime = now;
-            logger.debug("FIRE GET request for " + getName());
+    public void fireGetEvent() {
+        long startNanos = System.nanoTime();
+        refreshProvider();
+        if (hsGetListener.isEmpty()  ||  !beginRefresh()) {
+            recordGetTime(startNanos);
+            return;
+        }
+        try {
+            if (logger.isDebugEnabled()) {
+                logger.debug("FIRE GET request for " + getName());
+            }
             for (FTableGetListener l : hsGetListener) {
                 l.get(this);
             }
+        } finally {
+            endRefresh();
+            recordGetTime(startNanos);
         }
     } // fireGetEvent()
     
@@ -718,27 +1257,34 @@ public class FTable extends FValueNode {
      * @param action action
      */
     private synchronized void fireSetEvent(OID oidCell, TableRowAction action) {
-        if (logger.isDebugEnabled()) {
-            logger.debug("FIRE SET event for " + this);
-        }
-        // 1. Fire "set" event to registered listeners
-        if (hsSetListener.size() > 0) {
-            FColumn col = getColumn(oidCell);
-            FID idRow = getRowID(oidCell);
-            for (FTableSetListener l : hsSetListener) {
-                l.set(this, idRow, col, action);
+        long startNanos = System.nanoTime();
+        try {
+            if (logger.isDebugEnabled()) {
+                logger.debug("FIRE SET event for " + this);
             }
-        }
-        // 2. Persistence
-        if (!volatileTable) {
-            try {
-                agent.getPersistStorage().put(this);
-                if (logger.isDebugEnabled()) {
-                    logger.debug("Table: " + this);
+            // 1. Fire "set" event to registered listeners
+            if (hsSetListener.size() > 0) {
+                FColumn col = getColumn(oidCell);
+                FID idRow = getRowID(oidCell);
+                for (FTableSetListener l : hsSetListener) {
+                    l.set(this, idRow, col, action);
                 }
-            } catch (FException e) {
-                agent.exceptionThrown("Failure to persist table " + getFIDtoString(), e);
             }
+            // 2. Persistence
+            if (!volatileTable) {
+                markRowDirty(getRowID(oidCell));
+                try {
+                    agent.getPersistStorage().put(this);
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Table: " + this);
+                    }
+                } catch (FException e) {
+                    markDirtyAll(); // modified rows were taken by the storage 
+                    agent.exceptionThrown("Failure to persist table " + getFIDtoString(), e);
+                }
+            }
+        } finally {
+            recordSetTime(startNanos);
         }
     } // fireSetEvent()
 
@@ -885,6 +1431,10 @@ public class FTable extends FValueNode {
                 e.setDenyReason(validation.toInt());
             } else {
                 // This is 'commited' stage.
+                // Row is created or destroyed outside of this class.
+                synchronized (FTable.this) {
+                    rowIndexStale = true;
+                }
                 switch (e.getNewStatus()) {
                     // Only supported "case" entries:
                     case RowStatus.createAndGo:
@@ -22,12 +22,24 @@
 package org.friendlysnmp;
 
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.friendlysnmp.event.FRestoreDefaultEvent;
 import org.friendlysnmp.event.FRestoreDefaultListener;
 import org.friendlysnmp.persist.PersistEntryTable;
 import org.friendlysnmp.persist.PersistStorage;
+import org.friendlysnmp.stats.NodeStats;
+import org.friendlysnmp.stats.RequestStats;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.snmp4j.smi.OID;
@@ -53,9 +65,64 @@ public abstract class FValueNode extends FNode {
      */
     private Set<FRestoreDefaultListener> hsRestoreDefaultListener;
     
+    /**
+     * Last GET listeners refresh was started at this timestamp. 
+     */
+    private final AtomicLong lastRefreshTime;
+    
+    /**
+     * Flag that GET listeners refresh is running in some thread.
+     */
+    private final AtomicBoolean refreshRunning;
+    
+    /**
+     * Refresh interval (in milliseconds) of this node or -1 to use
+     * the agent ignore updates interval.
+     */
+    private volatile int refreshIntervalMs;
+    
+    /**
+     * Loads value provider value into this node or <code>null</code> 
+     * if the node has no value provider.
+     */
+    private volatile Callable<Void> providerLoader;
+    
+    /**
+     * Value provider time-to-live (in milliseconds).
+     */
+    private volatile int providerTtlMs;
+    
+    /**
+     * Value provider maximum staleness (in milliseconds) or -1 if 
+     * GET requests never wait for the value provider.
+     */
+    private volatile int providerMaxStaleMs;
+    
+    /**
+     * Start time of the last successful value provider load or 0.
+     */
+    private final AtomicLong providerValueTime;
+    
+    /**
+     * Value provider load in progress or <code>null</code>.
+     */
+    private final AtomicReference<Future<Void>> providerLoad;
+    
+    /**
+     * Latency statistics of this node. It is <code>null</code> until 
+     * the first recorded event.
+     */
+    private volatile NodeStats stats;
+    
     public FValueNode(String name, OID oid) {
         super(name, oid);
         hsRestoreDefaultListener = new CopyOnWriteArraySet<FRestoreDefaultListener>(); 
+        lastRefreshTime = new AtomicLong();
+        refreshRunning = new AtomicBoolean();
+        refreshIntervalMs = -1;
+        providerMaxStaleMs = -1;
+        providerValueTime = new AtomicLong();
+        providerLoad = new AtomicReference<Future<Void>>();
     }
     
     /**
@@ -130,6 +197,245 @@ public abstract class FValueNode extends FNode {
 
     protected abstract void setVolatilePrivate(boolean isVolatile);
     
+    //--------------------------------separator--------------------------------
+    static int ______REFRESH;
+
+    /**
+     * Sets interval between GET listeners calls for this node. 
+     * GET requests received within this interval after the previous 
+     * listeners call return the current value. This value overrides 
+     * agent ignore updates interval.
+     * 
+     * @param refreshIntervalMs interval in milliseconds or -1 to use
+     *        the agent ignore updates interval
+     * @throws FException if the interval is less than -1
+     * 
+     * @see FConstant#KEY_IGNORE_UPDATE_MS
+     */
+    public void setRefreshIntervalMs(int refreshIntervalMs) throws FException {
+        if (refreshIntervalMs < -1) {
+            throw new FException("Not valid refresh interval %d ms for %s", 
+                    refreshIntervalMs, getFIDtoString());
+        }
+        this.refreshIntervalMs = refreshIntervalMs;
+    } // setRefreshIntervalMs()
+    
+    /**
+     * Returns interval between GET listeners calls for this node.
+     * 
+     * @return interval in milliseconds: the node value (if set) 
+     *         or the agent ignore updates interval
+     */
+    public int getRefreshIntervalMs() {
+        int interval = refreshIntervalMs;
+        if (interval < 0) {
+            interval = (agent == null ? 0 : agent.getIgnoreUpdateMs());
+        }
+        return interval;
+    } // getRefreshIntervalMs()
+    
+    /**
+     * Starts GET listeners refresh if the refresh interval has elapsed 
+     * and no other thread is refreshing this node. The method does not 
+     * block: a thread which returns <code>false</code> answers the GET 
+     * request with the current value. The thread which returns 
+     * <code>true</code> must call {@link #endRefresh()} after 
+     * the listeners call.
+     * 
+     * @return true if the caller should call GET listeners
+     */
+    protected boolean beginRefresh() {
+        long last = lastRefreshTime.get();
+        long now = System.currentTimeMillis();
+        if (now - last <= getRefreshIntervalMs()) {
+            return false;
+        }
+        if (!refreshRunning.compareAndSet(false, true)) {
+            return false; // single flight: other thread is refreshing
+        }
+        if (!lastRefreshTime.compareAndSet(last, now)) {
+            refreshRunning.set(false); // other thread has just refreshed
+            return false;
+        }
+        return true;
+    } // beginRefresh()
+    
+    /**
+     * Ends GET listeners refresh started by {@link #beginRefresh()}.
+     */
+    protected void endRefresh() {
+        refreshRunning.set(false);
+    } // endRefresh()
+    
+    //--------------------------------separator--------------------------------
+    static int ______STATS;
+
+    /**
+     * Returns latency statistics of this node.
+     * 
+     * @return statistics or <code>null</code> if statistics are disabled
+     */
+    private NodeStats getStats() {
+        RequestStats rs = agent.getRequestStats();
+        if (!rs.isEnabled()) {
+            return null;
+        }
+        NodeStats s = stats;
+        if (s == null) {
+            s = rs.getNodeStats(getFID());
+            stats = s;
+        }
+        return s;
+    } // getStats()
+    
+    /**
+     * Records GET event time.
+     * 
+     * @param startNanos <code>System.nanoTime()</code> at the event start
+     */
+    protected void recordGetTime(long startNanos) {
+        NodeStats s = getStats();
+        if (s != null) {
+            s.getGetHistogram().record(System.nanoTime() - startNanos);
+        }
+    } // recordGetTime()
+    
+    /**
+     * Records SET event time.
+     * 
+     * @param startNanos <code>System.nanoTime()</code> at the event start
+     */
+    protected void recordSetTime(long startNanos) {
+        NodeStats s = getStats();
+        if (s != null) {
+            s.getSetHistogram().record(System.nanoTime() - startNanos);
+        }
+    } // recordSetTime()
+    
+    //--------------------------------separator--------------------------------
+    static int ______PROVIDER;
+
+    /**
+     * Sets value provider loader of this node. 
+     * 
+     * @param loader loads value provider value into this node
+     *        or <code>null</code> to remove value provider
+     * @param ttlMs time-to-live (in milliseconds) of the loaded value; 
+     *        older value is reloaded in background on GET request
+     * @param maxStaleMs maximum staleness (in milliseconds) of the loaded 
+     *        value; GET request waits for reload of older value. 
+     *        Use -1 to never wait.
+     * @throws FException not valid time-to-live or maximum staleness
+     * 
+     * @see FConstant#KEY_PROVIDER_WAIT_MS
+     */
+    protected void setProviderLoader(Callable<Void> loader, 
+            int ttlMs, int maxStaleMs) 
+    throws FException 
+    {
+        if (ttlMs < 0  ||  (maxStaleMs != -1  &&  maxStaleMs < ttlMs)) {
+            throw new FException(
+                    "Not valid value provider TTL %d ms / max staleness %d ms for %s", 
+                    ttlMs, maxStaleMs, getFIDtoString());
+        }
+        providerTtlMs = ttlMs;
+        providerMaxStaleMs = maxStaleMs;
+        providerValueTime.set(0); // load on next GET request
+        providerLoader = loader;
+    } // setProviderLoader()
+    
+    /**
+     * Returns flag that this node has value provider.
+     * 
+     * @return true if the node has value provider
+     */
+    public boolean hasValueProvider() {
+        return (providerLoader != null);
+    } // hasValueProvider()
+    
+    /**
+     * Starts value provider load in background if the loaded value is older 
+     * than time-to-live. Waits for the load if the value is older than 
+     * maximum staleness. The method is called on GET request. 
+     */
+    protected void refreshProvider() {
+        Callable<Void> loader = providerLoader;
+        if (loader == null) {
+            return;
+        }
+        long age = System.currentTimeMillis() - providerValueTime.get();
+        if (age <= providerTtlMs) {
+            return;
+        }
+        Future<Void> load = startProviderLoad(loader);
+        int maxStale = providerMaxStaleMs;
+        if (load == null  ||  maxStale < 0  ||  age <= maxStale) {
+            return; // stale value is returned while it is reloaded
+        }
+        try {
+            load.get(agent.getProviderWaitMs(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            logger.warn(String.format(
+                    "Value provider for %s did not return in %d ms", 
+                    getFIDtoString(), agent.getProviderWaitMs()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // Reported by the load task
+        }
+    } // refreshProvider()
+    
+    /**
+     * Submits value provider load to the agent value providers executor.
+     * Only one load runs at a time: the running load is returned 
+     * if it exists.
+     * 
+     * @param loader value provider loader
+     * @return value provider load or <code>null</code> if the load 
+     *         was not submitted
+     */
+    private Future<Void> startProviderLoad(final Callable<Void> loader) {
+        Future<Void> load = providerLoad.get();
+        if (load != null) {
+            return load; // single flight
+        }
+        FutureTask<Void> task = new FutureTask<Void>(new Callable<Void>() {
+            public Void call() {
+                long start = System.currentTimeMillis();
+                try {
+                    loader.call();
+                    providerValueTime.set(start);
+                    if (logger.isDebugEnabled()) {
+                        logger.debug(String.format("Loaded value provider for %s in %d ms", 
+                                getFIDtoString(), System.currentTimeMillis() - start));
+                    }
+                } catch (FException e) {
+                    agent.exceptionThrown(
+                            "Failure to load value provider for " + getFIDtoString(), e);
+                } catch (Exception e) {
+                    agent.exceptionThrown(new FException(
+                            "Failure to load value provider for " + getFIDtoString(), e));
+                }
+                return null;
+            }
+        }) {
+            @Override
+            protected void done() {
+                providerLoad.compareAndSet(this, null);
+            }
+        };
+        if (!providerLoad.compareAndSet(null, task)) {
+            return providerLoad.get(); // other thread has just started load
+        }
+        try {
+            agent.getProviderExecutor().execute(task);
+        } catch (RejectedExecutionException e) {
+            providerLoad.compareAndSet(task, null); // agent shutdown
+            return null;
+        }
+        return task;
+    } // startProviderLoad()
+    
     /**
      * Fires RESTORE DEFAULT event.
      */
@@ -0,0 +1,367 @@
+/*
+ * File: InformSession.java
+ * 
+ * Copyright (C) 2014 FriendlySNMP.org; All Rights Reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as
+ * published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301  USA
+ * 
+ * $Id$
+ */
+package org.friendlysnmp;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.snmp4j.MessageDispatcher;
+import org.snmp4j.PDU;
+import org.snmp4j.Snmp;
+import org.snmp4j.Target;
+import org.snmp4j.TransportMapping;
+import org.snmp4j.event.ResponseEvent;
+import org.snmp4j.event.ResponseListener;
+
+/**
+ * Session used by the notification originator. INFORM requests are 
+ * sent asynchronously and retried by a timer wheel; all other requests 
+ * are delegated to the agent session.
+ * <p>The notification originator sends INFORM and waits for the 
+ * acknowledgement up to timeout multiplied by retry count of the 
+ * target. This session returns immediately instead: the INFORM is added 
+ * to the bounded pending set and resent each target timeout until 
+ * it is acknowledged or the target retries are exhausted. 
+ * An INFORM is dropped if the pending set is full.
+ * <p>The class extends <code>Snmp</code> because the notification 
+ * originator requires the message dispatcher of the agent session for 
+ * SNMPv1 traps. The dispatcher created by the <code>Snmp</code> 
+ * constructor is not used.
+ *
+ * @version $Revision$
+ */
+public class InformSession extends Snmp {
+    /**
+     * Logger object
+     */
+    private static final Logger logger = LoggerFactory.getLogger(InformSession.class);
+
+    /**
+     * Timer wheel tick duration in milliseconds
+     */
+    private static final long TICK_MS = 100;
+
+    /**
+     * Count of timer wheel buckets
+     */
+    private static final int WHEEL_SIZE = 512;
+
+    /**
+     * Agent session
+     */
+    private final Snmp session;
+
+    /**
+     * Timer wheel which resends INFORM requests
+     */
+    private final TimerWheel wheel;
+
+    /**
+     * Pending INFORM requests. Guarded by itself.
+     */
+    private final Set<PendingInform> hsPending;
+
+    /**
+     * Maximum count of pending INFORM requests
+     */
+    private final int maxPending;
+
+    /**
+     * Listener of responses to INFORM requests
+     */
+    private final ResponseListener listener;
+
+    /**
+     * Counts of acknowledged, resent, expired (not acknowledged after 
+     * all retries) and dropped (pending set is full) INFORM requests
+     */
+    private final AtomicLong countAcked;
+    private final AtomicLong countRetried;
+    private final AtomicLong countExpired;
+    private final AtomicLong countDropped;
+
+    /**
+     * Constructor
+     *
+     * @param session agent session
+     * @param maxPending maximum count of pending INFORM requests
+     * @throws FException if the maximum count is not positive
+     */
+    public InformSession(Snmp session, int maxPending) throws FException {
+        if (maxPending <= 0) {
+            throw new FException("Not valid count of pending informs %d", 
+                    maxPending);
+        }
+        this.session = session;
+        this.maxPending = maxPending;
+        hsPending = new HashSet<PendingInform>();
+        countAcked = new AtomicLong();
+        countRetried = new AtomicLong();
+        countExpired = new AtomicLong();
+        countDropped = new AtomicLong();
+        listener = new ResponseListener() {
+            @Override
+            public void onResponse(ResponseEvent event) {
+                acknowledged(event);
+            }
+        };
+        wheel = new TimerWheel("FriendlyInformRetryThread", TICK_MS, WHEEL_SIZE);
+    } // InformSession()
+
+    /**
+     * Returns count of acknowledged INFORM requests.
+     *
+     * @return count of acknowledged requests
+     */
+    public long getAckedCount() {
+        return countAcked.get();
+    } // getAckedCount()
+
+    /**
+     * Returns count of INFORM retransmissions.
+     *
+     * @return count of retransmissions
+     */
+    public long getRetriedCount() {
+        return countRetried.get();
+    } // getRetriedCount()
+
+    /**
+     * Returns count of INFORM requests not acknowledged after all retries.
+     *
+     * @return count of expired requests
+     */
+    public long getExpiredCount() {
+        return countExpired.get();
+    } // getExpiredCount()
+
+    /**
+     * Returns count of INFORM requests dropped because the pending set 
+     * is full.
+     *
+     * @return count of dropped requests
+     */
+    public long getDroppedCount() {
+        return countDropped.get();
+    } // getDroppedCount()
+
+    /**
+     * Returns count of pending INFORM requests.
+     *
+     * @return count of pending requests
+     */
+    public int getPendingCount() {
+        synchronized (hsPending) {
+            return hsPending.size();
+        }
+    } // getPendingCount()
+
+    //--------------------------------separator--------------------------------
+    static int ______SESSION;
+
+    /**
+     * Sends INFORM asynchronously and returns immediately with 
+     * <code>null</code> response. Other requests are sent by the agent 
+     * session.
+     *
+     * @see org.snmp4j.Snmp#send(org.snmp4j.PDU, org.snmp4j.Target)
+     */
+    @Override
+    public ResponseEvent send(PDU pdu, Target target) throws IOException {
+        if (pdu.getType() != PDU.INFORM) {
+            return session.send(pdu, target);
+        }
+        PendingInform p = new PendingInform(pdu, target);
+        synchronized (hsPending) {
+            if (hsPending.size() >= maxPending) {
+                long count = countDropped.incrementAndGet();
+                if (logger.isDebugEnabled()) {
+                    logger.debug(String.format(
+                            "Inform dropped to %s, total %d", 
+                            target.getAddress(), count));
+                }
+                return new ResponseEvent(this, null, pdu, null, null);
+            }
+            hsPending.add(p);
+        }
+        p.transmit();
+        return new ResponseEvent(this, null, pdu, null, null);
+    } // send()
+
+    @Override
+    @SuppressWarnings("rawtypes") // raw in Snmp.send() signature
+    public ResponseEvent send(PDU pdu, Target target, TransportMapping transport) 
+    throws IOException 
+    {
+        return session.send(pdu, target, transport);
+    } // send()
+
+    @Override
+    public void send(PDU pdu, Target target, Object userHandle, 
+            ResponseListener listener) throws IOException 
+    {
+        session.send(pdu, target, userHandle, listener);
+    } // send()
+
+    @Override
+    @SuppressWarnings("rawtypes") // raw in Snmp.send() signature
+    public void send(PDU pdu, Target target, TransportMapping transport, 
+            Object userHandle, ResponseListener listener) throws IOException 
+    {
+        session.send(pdu, target, transport, userHandle, listener);
+    } // send()
+
+    @Override
+    public void cancel(PDU request, ResponseListener listener) {
+        session.cancel(request, listener);
+    } // cancel()
+
+    @Override
+    public MessageDispatcher getMessageDispatcher() {
+        return session.getMessageDispatcher();
+    } // getMessageDispatcher()
+
+    /**
+     * Stops the retry timer and discards pending INFORM requests. 
+     * The agent session is not closed.
+     *
+     * @see org.snmp4j.Snmp#close()
+     */
+    @Override
+    public void close() {
+        wheel.stop();
+        int count;
+        synchronized (hsPending) {
+            count = hsPending.size();
+            for (PendingInform p : hsPending) {
+                session.cancel(p.pdu, listener);
+            }
+            hsPending.clear();
+        }
+        if (count > 0) {
+            logger.warn(String.format(
+                    "Informs are not acknowledged at shutdown: %d", count));
+        }
+    } // close()
+
+    //--------------------------------separator--------------------------------
+    static int ______PENDING;
+
+    /**
+     * Handles response to INFORM request. Response <code>null</code> 
+     * (timeout of the agent session) is ignored: the timer wheel 
+     * decides when the request is retried or expired.
+     *
+     * @param event response event
+     */
+    private void acknowledged(ResponseEvent event) {
+        if (event.getResponse() == null) {
+            return;
+        }
+        PendingInform p = (PendingInform)event.getUserObject();
+        session.cancel(event.getRequest(), listener);
+        synchronized (hsPending) {
+            if (!hsPending.remove(p)) {
+                return; // already expired or duplicate response
+            }
+        }
+        p.timeout.cancel();
+        countAcked.incrementAndGet();
+        if (logger.isDebugEnabled()) {
+            logger.debug(String.format("Inform acknowledged by %s after %d attempts", 
+                    p.target.getAddress(), p.attempt));
+        }
+    } // acknowledged()
+
+    /**
+     * Pending INFORM request. The request is sent with the same 
+     * request ID at each attempt.
+     */
+    private class PendingInform implements Runnable {
+        /** Request */
+        private final PDU pdu;
+        /** Target with retries disabled for the agent session */
+        private final Target target;
+        /** Attempt timeout in milliseconds */
+        private final long timeoutMs;
+        /** Maximum count of attempts */
+        private final int attemptMax;
+        /** Count of attempts */
+        private int attempt;
+        /** Scheduled retry */
+        private volatile TimerWheel.Timeout timeout;
+
+        PendingInform(PDU pdu, Target target) {
+            this.pdu = pdu;
+            this.target = (Target)target.clone();
+            timeoutMs = Math.max(TICK_MS, target.getTimeout());
+            attemptMax = target.getRetries() + 1;
+            // The agent session timeout is a backstop only
+            this.target.setRetries(0);
+            this.target.setTimeout(timeoutMs * 2);
+        }
+
+        /**
+         * Sends the request and schedules the retry.
+         */
+        void transmit() {
+            attempt++;
+            timeout = wheel.schedule(this, timeoutMs);
+            try {
+                session.send(pdu, target, this, listener);
+            } catch (IOException e) {
+                logger.warn(String.format("Failure to send inform to %s: %s", 
+                        target.getAddress(), e));
+            }
+        }
+
+        /**
+         * Timer wheel task: resends the request or expires it.
+         */
+        public void run() {
+            synchronized (hsPending) {
+                if (!hsPending.contains(this)) {
+                    return; // acknowledged
+                }
+                if (attempt >= attemptMax) {
+                    hsPending.remove(this);
+                    session.cancel(pdu, listener);
+                    long count = countExpired.incrementAndGet();
+                    if (logger.isDebugEnabled()) {
+                        logger.debug(String.format(
+                                "Inform to %s expired after %d attempts, total %d", 
+                                target.getAddress(), attempt, count));
+                    }
+                    return;
+                }
+            }
+            session.cancel(pdu, listener);
+            countRetried.incrementAndGet();
+            transmit();
+        }
+    } // inner class PendingInform
+
+} // class InformSession
@@ -0,0 +1,180 @@
+/*
+ * File: NotificationLimiter.java
+ * 
+ * Copyright (C) 2014 FriendlySNMP.org; All Rights Reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as
+ * published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301  USA
+ * 
+ * $Id$
+ */
+package org.friendlysnmp;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.snmp4j.smi.VariableBinding;
+
+/**
+ * Rate limiter and duplicate filter of a single notification.
+ * <p>The notification has a token bucket which is refilled with the 
+ * configured rate (notifications per minute) and holds at most one minute 
+ * worth of tokens. A notification with the same variable bindings as 
+ * the notification accepted within the duplicate window is suppressed 
+ * without consuming a token. 
+ * <p>Suppressed notifications are counted. The count is reported by 
+ * the periodic summary notification.
+ *
+ * @version $Revision$
+ */
+public class NotificationLimiter {
+    /**
+     * Maximum count of remembered recent variable bindings
+     */
+    private static final int MAX_RECENT = 1024;
+
+    /**
+     * Rate limit (notifications per minute), 0 for unlimited rate
+     */
+    private final int ratePerMinute;
+
+    /**
+     * Duplicate window (in milliseconds), 0 to disable duplicate filter
+     */
+    private final int duplicateMs;
+
+    /**
+     * Available tokens. Guarded by <code>this</code>.
+     */
+    private double tokens;
+
+    /**
+     * Time of the last refill. Guarded by <code>this</code>.
+     */
+    private long lastTime;
+
+    /**
+     * Time (in milliseconds) when each recent variable bindings were 
+     * accepted. Guarded by <code>this</code>.
+     */
+    private final Map<List<VariableBinding>, Long> hmRecent;
+
+    /**
+     * Count of suppressed notifications since the last summary
+     */
+    private final AtomicLong countSuppressed;
+
+    /**
+     * Constructor
+     *
+     * @param ratePerMinute rate limit (notifications per minute), 
+     * 0 for unlimited rate
+     * @param duplicateMs duplicate window (in milliseconds), 
+     * 0 to disable duplicate filter
+     * @throws FException if a parameter is negative
+     */
+    public NotificationLimiter(int ratePerMinute, int duplicateMs) throws FException {
+        if (ratePerMinute < 0) {
+            throw new FException("Not valid notification rate limit %d", 
+                    ratePerMinute);
+        }
+        if (duplicateMs < 0) {
+            throw new FException("Not valid notification duplicate window %d ms", 
+                    duplicateMs);
+        }
+        this.ratePerMinute = ratePerMinute;
+        this.duplicateMs = duplicateMs;
+        tokens = ratePerMinute;
+        lastTime = System.currentTimeMillis();
+        hmRecent = new HashMap<List<VariableBinding>, Long>();
+        countSuppressed = new AtomicLong();
+    } // NotificationLimiter()
+
+    /**
+     * Checks whether the notification could be sent now. 
+     * Suppressed notification is counted.
+     *
+     * @param vbs notification variable bindings
+     * @return true if the notification could be sent; 
+     * false if it is suppressed
+     */
+    public boolean tryAcquire(VariableBinding[] vbs) {
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            List<VariableBinding> key = null;
+            if (duplicateMs > 0) {
+                key = Arrays.asList(vbs);
+                Long lastMs = hmRecent.get(key);
+                if (lastMs != null  &&  now - lastMs < duplicateMs) {
+                    countSuppressed.incrementAndGet();
+                    return false;
+                }
+            }
+            if (ratePerMinute > 0) {
+                if (now > lastTime) {
+                    tokens = Math.min(ratePerMinute, 
+                            tokens + (now - lastTime) * ratePerMinute / 60000.0);
+                    lastTime = now;
+                }
+                if (tokens < 1) {
+                    countSuppressed.incrementAndGet();
+                    return false;
+                }
+                tokens--;
+            }
+            // Recorded only for the sent notification: the notification 
+            // suppressed by the rate is not a duplicate for the next one
+            if (key != null) {
+                if (hmRecent.size() >= MAX_RECENT) {
+                    expireRecent(now);
+                }
+                hmRecent.put(key, now);
+            }
+        }
+        return true;
+    } // tryAcquire()
+
+    /**
+     * Removes recent variable bindings older than the duplicate window. 
+     * All recent variable bindings are removed if there are still too many.
+     *
+     * @param now current time in milliseconds
+     */
+    private void expireRecent(long now) {
+        Iterator<Long> it = hmRecent.values().iterator();
+        while (it.hasNext()) {
+            if (now - it.next() >= duplicateMs) {
+                it.remove();
+            }
+        }
+        if (hmRecent.size() >= MAX_RECENT) {
+            hmRecent.clear();
+        }
+    } // expireRecent()
+
+    /**
+     * Returns count of suppressed notifications since the last call 
+     * and resets the count.
+     *
+     * @return count of suppressed notifications
+     */
+    public long getAndResetSuppressed() {
+        return countSuppressed.getAndSet(0);
+    } // getAndResetSuppressed()
+
+} // class NotificationLimiter
@@ -0,0 +1,282 @@
+/*
+ * File: NotificationQueue.java
+ * 
+ * Copyright (C) 2014 FriendlySNMP.org; All Rights Reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as
+ * published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301  USA
+ * 
+ * $Id$
+ */
+package org.friendlysnmp;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.snmp4j.smi.OID;
+import org.snmp4j.smi.VariableBinding;
+
+/**
+ * Bounded queue of notifications sent by a dedicated thread.
+ * <p>Application threads only queue notifications and never wait for 
+ * the network. The sender thread takes all queued notifications 
+ * at once and sends them in the order they were queued.
+ * <p>A notification is dropped if the queue is full. Dropped 
+ * notifications are counted. Duplicate notifications are suppressed 
+ * before they are queued by {@link NotificationLimiter}.
+ *
+ * @version $Revision$
+ */
+public class NotificationQueue {
+    /**
+     * Logger object
+     */
+    private static final Logger logger = LoggerFactory.getLogger(NotificationQueue.class);
+
+    /**
+     * Maximum time to wait at shutdown for queued notifications to be sent
+     */
+    private static final long SHUTDOWN_WAIT_MS = 5000;
+
+    /**
+     * Agent which sends notifications
+     */
+    private final AgentWorker agent;
+
+    /**
+     * Queued notifications. Guarded by itself.
+     */
+    private final ArrayDeque<Pending> queue;
+
+    /**
+     * Maximum count of queued notifications
+     */
+    private final int capacity;
+
+    /**
+     * Count of notifications dropped because the queue is full
+     */
+    private final AtomicLong countDropped;
+
+    /**
+     * Count of sent notifications
+     */
+    private final AtomicLong countSent;
+
+    /**
+     * Sender thread. It is <code>null</code> until the queue is started.
+     */
+    private SenderThread threadSender;
+
+    /**
+     * Constructor
+     *
+     * @param agent agent which sends notifications
+     * @param capacity maximum count of queued notifications
+     * @throws FException if the capacity is not positive
+     */
+    public NotificationQueue(AgentWorker agent, int capacity) throws FException {
+        if (capacity <= 0) {
+            throw new FException("Not valid notification queue capacity %d", 
+                    capacity);
+        }
+        this.agent = agent;
+        this.capacity = capacity;
+        queue = new ArrayDeque<Pending>();
+        countDropped = new AtomicLong();
+        countSent = new AtomicLong();
+    } // NotificationQueue()
+
+    /**
+     * Returns count of notifications dropped because the queue is full.
+     *
+     * @return count of dropped notifications
+     */
+    public long getDroppedCount() {
+        return countDropped.get();
+    } // getDroppedCount()
+
+    /**
+     * Returns count of sent notifications.
+     *
+     * @return count of sent notifications
+     */
+    public long getSentCount() {
+        return countSent.get();
+    } // getSentCount()
+
+    /**
+     * Returns count of queued notifications.
+     *
+     * @return count of queued notifications
+     */
+    public int getQueueSize() {
+        synchronized (queue) {
+            return queue.size();
+        }
+    } // getQueueSize()
+
+    //--------------------------------separator--------------------------------
+    static int ______QUEUE;
+
+    /**
+     * Starts the sender thread.
+     */
+    public synchronized void start() {
+        if (threadSender == null) {
+            threadSender = new SenderThread();
+            threadSender.start();
+        }
+    } // start()
+
+    /**
+     * Queues notification. The method never blocks.
+     *
+     * @param oid notification OID
+     * @param vbs notification variable bindings
+     * @return true if the notification is queued; false if it is dropped
+     */
+    public boolean offer(OID oid, VariableBinding[] vbs) {
+        Pending p = new Pending(oid, vbs);
+        synchronized (queue) {
+            if (queue.size() >= capacity) {
+                long count = countDropped.incrementAndGet();
+                if (logger.isDebugEnabled()) {
+                    logger.debug(String.format(
+                            "Notification dropped: %s, total %d", oid, count));
+                }
+                return false;
+            }
+            queue.addLast(p);
+            queue.notify();
+        }
+        return true;
+    } // offer()
+
+    /**
+     * Sends queued notifications and stops the sender thread.
+     * Waits at most {@link #SHUTDOWN_WAIT_MS} for the queue to be sent.
+     */
+    public synchronized void shutdown() {
+        if (threadSender != null) {
+            threadSender.shutdown();
+            threadSender = null;
+        }
+    } // shutdown()
+
+    //--------------------------------separator--------------------------------
+    static int ______SENDER;
+
+    /**
+     * Sender thread. Waits for queued notifications and sends all of 
+     * them as a batch.
+     */
+    private class SenderThread extends Thread {
+        /** Shutdown flag */
+        private volatile boolean shutdown;
+        
+        /**
+         * Constructor
+         */
+        SenderThread() {
+            setName("FriendlyNotificationSenderThread");
+            setDaemon(true);
+        }
+        
+        /**
+         * Shutdowns sender thread after queued notifications are sent. 
+         */
+        void shutdown() {
+            shutdown = true;
+            synchronized (queue) {
+                queue.notify();
+            }
+            try {
+                join(SHUTDOWN_WAIT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (isAlive()) {
+                logger.warn(String.format(
+                        "Notifications are not sent at shutdown: %d", 
+                        getQueueSize()));
+            }
+        }
+        
+        /** 
+         * Starts sender thread. The thread exits only when the shutdown 
+         * flag is set and the queue is empty. An interrupt does not stop 
+         * the thread: the interrupt status is restored when it exits.
+         * 
+         * @see java.lang.Thread#run()
+         */
+        public void run() {
+            logger.debug("Notification sender thread started");
+            List<Pending> lstBatch = new ArrayList<Pending>();
+            boolean interrupted = false;
+            while (true) {
+                synchronized (queue) {
+                    while (queue.isEmpty()  &&  !shutdown) {
+                        try {
+                            queue.wait();
+                        } catch (InterruptedException e) {
+                            // Re-interrupt now would make wait() spin
+                            interrupted = true;
+                        }
+                    }
+                    if (queue.isEmpty()) {
+                        break; // shutdown and nothing to send
+                    }
+                    lstBatch.addAll(queue);
+                    queue.clear();
+                }
+                for (Pending p : lstBatch) {
+                    try {
+                        agent.notifyContexts(p.oid, p.vbs);
+                        countSent.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        logger.error(ThrowableFormatter.format(
+                                "Failure to send notification " + p.oid, e));
+                    }
+                }
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Sent notifications: " + lstBatch.size());
+                }
+                lstBatch.clear();
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            logger.debug("Notification sender thread exited");
+        }
+    } // inner class SenderThread
+
+    /**
+     * Queued notification.
+     */
+    private static class Pending {
+        private final OID oid;
+        private final VariableBinding[] vbs;
+
+        Pending(OID oid, VariableBinding[] vbs) {
+            this.oid = oid;
+            this.vbs = vbs;
+        }
+    } // inner class Pending
+
+} // class NotificationQueue
@@ -0,0 +1,121 @@
+/*
+ * File: PreparedNotification.java
+ * 
+ * Copyright (C) 2014 FriendlySNMP.org; All Rights Reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as
+ * published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301  USA
+ * 
+ * $Id$
+ */
+package org.friendlysnmp;
+
+import org.snmp4j.smi.OID;
+import org.snmp4j.smi.VariableBinding;
+
+/**
+ * Notification with precomputed parameter OIDs and syntax. 
+ * The object is created once by {@link FNotification#prepare} and 
+ * only parameter values are converted at each send.
+ * <p>Values are converted by {@link FConverter} according to the 
+ * parameter syntax: a notification parameter could be any SMI type, 
+ * not only a string. A value which is already a SMI 
+ * <code>Variable</code> is sent as is.
+ * 
+ * @version $Revision$
+ */
+public class PreparedNotification {
+    /**
+     * Notification
+     */
+    private final FNotification notification;
+    
+    /**
+     * True if the application title is the first parameter
+     * (parameters are defined at runtime)
+     */
+    private final boolean withAppTitle;
+    
+    /**
+     * Parameter OIDs
+     */
+    private final OID[] oidAll;
+    
+    /**
+     * Parameter syntax
+     */
+    private final int[] syntaxAll;
+    
+    /**
+     * Constructor
+     * 
+     * @param notification notification
+     * @param withAppTitle true if the application title is the first parameter
+     * @param oidAll parameter OIDs
+     * @param syntaxAll parameter syntax
+     */
+    PreparedNotification(FNotification notification, boolean withAppTitle, 
+            OID[] oidAll, ValueSyntax[] syntaxAll) 
+    {
+        this.notification = notification;
+        this.withAppTitle = withAppTitle;
+        this.oidAll = new OID[oidAll.length];
+        this.syntaxAll = new int[syntaxAll.length];
+        for (int i = 0;  i < oidAll.length;  i++) {
+            this.oidAll[i] = new OID(oidAll[i]);
+            this.syntaxAll[i] = syntaxAll[i].toInt();
+        }
+    } // PreparedNotification()
+    
+    /**
+     * Returns the notification.
+     * 
+     * @return notification
+     */
+    public FNotification getNotification() {
+        return notification;
+    } // getNotification()
+    
+    /**
+     * Sends notification with parameter values. Count of values should be 
+     * the same as count of prepared parameters.
+     * <p>Exception is reported to registered with agent listener.
+     * 
+     * @param valueAll parameter values
+     */
+    public void send(Object... valueAll) {
+        if (valueAll.length != oidAll.length) {
+            notification.reportFailure(new FException(
+                    "Mismatch values count %d and prepared params count %d", 
+                    valueAll.length, oidAll.length));
+            return;
+        }
+        int offset = (withAppTitle ? 1 : 0);
+        VariableBinding[] vbsAll = new VariableBinding[offset + oidAll.length];
+        if (withAppTitle) {
+            vbsAll[0] = notification.getAppTitleBinding();
+        }
+        try {
+            for (int i = 0;  i < oidAll.length;  i++) {
+                vbsAll[offset + i] = new VariableBinding(oidAll[i], 
+                        FConverter.toVariable(valueAll[i], syntaxAll[i]));
+            }
+        } catch (FException e) {
+            notification.reportFailure(e);
+            return;
+        }
+        notification.send(vbsAll);
+    } // send()
+    
+} // class PreparedNotification
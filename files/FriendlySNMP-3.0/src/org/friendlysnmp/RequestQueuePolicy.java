@@ -0,0 +1,59 @@
+/*
+ * File: RequestQueuePolicy.java
+ * 
+ * Copyright (C) 2014 FriendlySNMP.org; All Rights Reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as
+ * published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301  USA
+ * 
+ * $Id$
+ */
+package org.friendlysnmp;
+
+/**
+ * Policy of the bounded request queue when the queue is full. 
+ * 
+ * @see FConstant#KEY_REQUEST_QUEUE_POLICY
+ */
+public enum RequestQueuePolicy { 
+    /**
+     * The oldest queued request is dropped and the new request is queued.
+     * The oldest request is the most likely to be already retried 
+     * by the manager.
+     */
+    DROP_OLDEST, 
+    /**
+     * The new request is dropped.
+     */
+    REJECT_NEW;
+    /**
+     * Finds <code>RequestQueuePolicy</code> enum object from its string value. 
+     * Used to map <code>RequestQueuePolicy</code> object to properties value. 
+     * 
+     * @param s string value
+     * @return <code>RequestQueuePolicy</code> object
+     * @throws FException if <code>RequestQueuePolicy</code> object is not found
+     */
+    public static RequestQueuePolicy find(String s) throws FException { 
+        if (s != null) {
+            s = s.trim();
+            for (RequestQueuePolicy p : RequestQueuePolicy.values()) {
+                if (p.name().equalsIgnoreCase(s)) {
+                    return p;
+                }
+            }
+        }
+        throw new FException("Not valid '%s' request queue policy", s);
+    }
+} // enum RequestQueuePolicy
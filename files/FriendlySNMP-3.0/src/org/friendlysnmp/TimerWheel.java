@@ -0,0 +1,228 @@
+/*
+ * File: TimerWheel.java
+ * 
+ * Copyright (C) 2014 FriendlySNMP.org; All Rights Reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as
+ * published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301  USA
+ * 
+ * $Id$
+ */
+package org.friendlysnmp;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hashed timer wheel. A single thread runs any count of scheduled 
+ * tasks with the tick resolution.
+ * <p>The wheel is an array of buckets. A task is placed in the bucket 
+ * of its deadline tick and the thread visits one bucket per tick. 
+ * Scheduling and cancelling a task take constant time. 
+ * Tasks are run by the wheel thread and should be short.
+ *
+ * @version $Revision$
+ */
+public class TimerWheel {
+    /**
+     * Logger object
+     */
+    private static final Logger logger = LoggerFactory.getLogger(TimerWheel.class);
+
+    /**
+     * Tick duration in milliseconds
+     */
+    private final long tickMs;
+
+    /**
+     * Buckets of scheduled tasks. Guarded by <code>this</code>.
+     */
+    private final List<Timeout>[] buckets;
+
+    /**
+     * Index of the last visited tick. Guarded by <code>this</code>.
+     */
+    private long tick;
+
+    /**
+     * Wheel thread
+     */
+    private final WheelThread threadWheel;
+
+    /**
+     * Constructor. The wheel thread is started.
+     *
+     * @param name wheel thread name
+     * @param tickMs tick duration in milliseconds
+     * @param size count of buckets
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public TimerWheel(String name, long tickMs, int size) {
+        this.tickMs = tickMs;
+        buckets = new List[size];
+        for (int i = 0;  i < size;  i++) {
+            buckets[i] = new ArrayList<Timeout>();
+        }
+        threadWheel = new WheelThread(name);
+        threadWheel.start();
+    } // TimerWheel()
+
+    /**
+     * Schedules the task.
+     *
+     * @param task task to run
+     * @param delayMs delay in milliseconds; rounded up to the tick
+     * @return scheduled task handle which could be cancelled
+     */
+    public Timeout schedule(Runnable task, long delayMs) {
+        long ticks = Math.max(1, (delayMs + tickMs - 1) / tickMs);
+        synchronized (this) {
+            Timeout t = new Timeout(task, tick + ticks);
+            buckets[(int)(t.deadline % buckets.length)].add(t);
+            return t;
+        }
+    } // schedule()
+
+    /**
+     * Stops the wheel thread. Scheduled tasks are discarded.
+     */
+    public void stop() {
+        threadWheel.shutdown();
+        synchronized (this) {
+            for (List<Timeout> lst : buckets) {
+                lst.clear();
+            }
+        }
+    } // stop()
+
+    /**
+     * Advances the wheel by a tick and runs expired tasks 
+     * from the tick bucket.
+     */
+    private void advance() {
+        List<Timeout> lstExpired = null;
+        synchronized (this) {
+            tick++;
+            Iterator<Timeout> it = buckets[(int)(tick % buckets.length)].iterator();
+            while (it.hasNext()) {
+                Timeout t = it.next();
+                if (t.cancelled) {
+                    it.remove();
+                } else if (t.deadline <= tick) {
+                    it.remove();
+                    if (lstExpired == null) {
+                        lstExpired = new ArrayList<Timeout>();
+                    }
+                    lstExpired.add(t);
+                }
+            }
+        }
+        if (lstExpired == null) {
+            return;
+        }
+        for (Timeout t : lstExpired) {
+            if (t.cancelled) {
+                continue;
+            }
+            try {
+                t.task.run();
+            } catch (RuntimeException e) {
+                logger.error(ThrowableFormatter.format(
+                        "Failure to run timer task", e));
+            }
+        }
+    } // advance()
+
+    //--------------------------------separator--------------------------------
+    static int ______TIMEOUT;
+
+    /**
+     * Scheduled task handle.
+     */
+    public static class Timeout {
+        /** Task to run */
+        private final Runnable task;
+        /** Deadline tick */
+        private final long deadline;
+        /** Cancelled flag */
+        private volatile boolean cancelled;
+
+        Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancels the task. Cancelled task is removed from the wheel 
+         * when its bucket is visited.
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+    } // inner class Timeout
+
+    /**
+     * Wheel thread. Advances the wheel each tick.
+     */
+    private class WheelThread extends Thread {
+        /** Shutdown flag */
+        private volatile boolean shutdown;
+        
+        /**
+         * Constructor
+         * 
+         * @param name thread name
+         */
+        WheelThread(String name) {
+            setName(name);
+            setDaemon(true);
+        }
+        
+        /**
+         * Shutdowns wheel thread 
+         */
+        void shutdown() {
+            shutdown = true;
+            interrupt();
+        }
+        
+        /** 
+         * Starts wheel thread
+         * 
+         * @see java.lang.Thread#run()
+         */
+        public void run() {
+            logger.debug("Timer wheel thread started: " + getName());
+            long nextMs = System.currentTimeMillis() + tickMs;
+            while (!shutdown) {
+                long waitMs = nextMs - System.currentTimeMillis();
+                if (waitMs > 0) {
+                    try {
+                        Thread.sleep(waitMs);
+                    } catch (InterruptedException e) {
+                        continue;
+                    }
+                }
+                advance();
+                nextMs += tickMs;
+            }
+            logger.debug("Timer wheel thread exited: " + getName());
+        }
+    } // inner class WheelThread
+
+} // class TimerWheel
@@ -34,6 +34,12 @@ public enum TransportSnmp {
             TransportDomains.transportDomainUdpIpv4z,
             TransportDomains.transportDomainUdpIpv6,
             TransportDomains.transportDomainUdpIpv6z),
+        /** UDP transport with NIO <code>DatagramChannel</code> and pooled 
+         *  direct buffers; the same transport domains as UDP */
+        UDP_NIO(TransportDomains.transportDomainUdpIpv4,
+            TransportDomains.transportDomainUdpIpv4z,
+            TransportDomains.transportDomainUdpIpv6,
+            TransportDomains.transportDomainUdpIpv6z),
         /** TCP transport with list of transport domains */
         TCP(TransportDomains.transportDomainTcpIpv4,
             TransportDomains.transportDomainTcpIpv4z,
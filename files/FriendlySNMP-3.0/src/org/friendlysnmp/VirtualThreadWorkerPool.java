@@ -0,0 +1,282 @@
+/*
+ * File: VirtualThreadWorkerPool.java
+ * 
+ * Copyright (C) 2014 FriendlySNMP.org; All Rights Reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as
+ * published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301  USA
+ * 
+ * $Id$
+ */
+package org.friendlysnmp;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.snmp4j.util.WorkerPool;
+import org.snmp4j.util.WorkerTask;
+
+/**
+ * Worker pool which runs each task in a new virtual thread. 
+ * A task blocked in I/O (for example JDBC call in a GET listener) does not 
+ * hold a platform thread and does not delay other requests.
+ * <p>Count of concurrently running tasks is limited by a semaphore. 
+ * {@link #execute(WorkerTask)} blocks the caller (the message dispatcher 
+ * thread) while the limit is reached, the same way 
+ * <code>org.snmp4j.util.ThreadPool</code> blocks when all its threads 
+ * are busy.
+ * <p>Virtual threads are available since Java 21. They are created by 
+ * reflection; on older JVM the tasks are executed by a cached pool 
+ * of daemon platform threads with the same concurrency limit.
+ *
+ * @version $Revision$
+ */
+public class VirtualThreadWorkerPool implements WorkerPool {
+    /**
+     * Logger object
+     */
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadWorkerPool.class);
+
+    /**
+     * Idle time of a platform thread in the fallback pool.
+     */
+    private static final long IDLE_THREAD_TIMEOUT_SEC = 60;
+
+    /**
+     * Virtual threads factory or <code>null</code> if virtual threads
+     * are not supported by this JVM.
+     */
+    private final ThreadFactory virtualFactory;
+
+    /**
+     * Fallback executor of platform threads. It is <code>null</code> 
+     * if virtual threads are used.
+     */
+    private final ExecutorService platformExecutor;
+
+    /**
+     * Permits for concurrently running tasks.
+     */
+    private final Semaphore semaphore;
+
+    /**
+     * Running tasks.
+     */
+    private final Set<WorkerTask> hsRunning;
+
+    /**
+     * Stop flag
+     */
+    private volatile boolean stopped;
+
+    /**
+     * Constructor
+     *
+     * @param name pool name used as prefix of thread names
+     * @param maxConcurrent maximum count of concurrently running tasks
+     * @throws FException if the count is not positive
+     */
+    public VirtualThreadWorkerPool(final String name, int maxConcurrent) 
+    throws FException 
+    {
+        if (maxConcurrent <= 0) {
+            throw new FException("Not valid max count of concurrent tasks %d", 
+                    maxConcurrent);
+        }
+        semaphore = new Semaphore(maxConcurrent);
+        hsRunning = Collections.newSetFromMap(
+                    new ConcurrentHashMap<WorkerTask, Boolean>());
+        virtualFactory = createVirtualFactory(name);
+        if (virtualFactory != null) {
+            platformExecutor = null;
+            logger.info(String.format("%s: virtual threads, max %d concurrent tasks", 
+                    name, maxConcurrent));
+        } else {
+            platformExecutor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 
+                    IDLE_THREAD_TIMEOUT_SEC, TimeUnit.SECONDS, 
+                    new SynchronousQueue<Runnable>(), new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger();
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, name + "-" + count.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+            logger.warn(String.format("%s: virtual threads are not supported " +
+                    "by this JVM; platform threads are used, max %d concurrent tasks", 
+                    name, maxConcurrent));
+        }
+    } // VirtualThreadWorkerPool()
+
+    /**
+     * Creates virtual threads factory by reflection: 
+     * <code>Thread.ofVirtual().name(name + "-", 1).factory()</code>.
+     *
+     * @param name prefix of thread names
+     * @return virtual threads factory or <code>null</code> if virtual
+     *         threads are not supported
+     */
+    private static ThreadFactory createVirtualFactory(String name) {
+        try {
+            Class<?> clsBuilder = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Method mName = clsBuilder.getMethod("name", String.class, long.class);
+            builder = mName.invoke(builder, name + "-", 1L);
+            return (ThreadFactory)clsBuilder.getMethod("factory").invoke(builder);
+        } catch (Exception e) {
+            // ClassNotFoundException, NoSuchMethodException, 
+            // or UnsupportedOperationException (preview feature)
+            if (logger.isDebugEnabled()) {
+                logger.debug("Virtual threads are not available: " + e);
+            }
+            return null;
+        }
+    } // createVirtualFactory()
+
+    /**
+     * Returns true if tasks are executed in virtual threads.
+     *
+     * @return true if virtual threads are used
+     */
+    public boolean isVirtual() {
+        return (virtualFactory != null);
+    } // isVirtual()
+
+    //--------------------------------separator--------------------------------
+    static int ______WORKER_POOL;
+
+    /**
+     * Executes task. Blocks while maximum count of concurrent tasks 
+     * is reached.
+     *
+     * @see org.snmp4j.util.WorkerPool#execute(org.snmp4j.util.WorkerTask)
+     */
+    public void execute(WorkerTask task) {
+        if (stopped) {
+            throw new IllegalStateException("Worker pool is stopped");
+        }
+        try {
+            semaphore.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a worker", e);
+        }
+        start(task);
+    } // execute()
+
+    /**
+     * Executes task if maximum count of concurrent tasks is not reached.
+     *
+     * @see org.snmp4j.util.WorkerPool#tryToExecute(org.snmp4j.util.WorkerTask)
+     */
+    public boolean tryToExecute(WorkerTask task) {
+        if (stopped  ||  !semaphore.tryAcquire()) {
+            return false;
+        }
+        start(task);
+        return true;
+    } // tryToExecute()
+
+    /**
+     * Starts task. The semaphore permit is already acquired.
+     *
+     * @param task task to start
+     */
+    private void start(final WorkerTask task) {
+        Runnable r = new Runnable() {
+            public void run() {
+                try {
+                    task.run();
+                } finally {
+                    hsRunning.remove(task);
+                    semaphore.release();
+                }
+            }
+        };
+        hsRunning.add(task);
+        try {
+            if (virtualFactory != null) {
+                virtualFactory.newThread(r).start();
+            } else {
+                platformExecutor.execute(r);
+            }
+        } catch (RuntimeException e) {
+            // OutOfMemoryError is not caught: the pool state does not matter
+            hsRunning.remove(task);
+            semaphore.release();
+            throw e;
+        }
+    } // start()
+
+    /**
+     * Stops the pool: terminates running tasks and waits for them.
+     *
+     * @see org.snmp4j.util.WorkerPool#stop()
+     */
+    public void stop() {
+        stopped = true;
+        for (WorkerTask task : hsRunning) {
+            task.terminate();
+        }
+        for (WorkerTask task : hsRunning) {
+            try {
+                task.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (platformExecutor != null) {
+            platformExecutor.shutdown();
+        }
+    } // stop()
+
+    /**
+     * Cancels the pool: terminates and interrupts running tasks 
+     * without waiting.
+     *
+     * @see org.snmp4j.util.WorkerPool#cancel()
+     */
+    public void cancel() {
+        stopped = true;
+        for (WorkerTask task : hsRunning) {
+            task.terminate();
+            task.interrupt();
+        }
+        if (platformExecutor != null) {
+            platformExecutor.shutdownNow();
+        }
+    } // cancel()
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.snmp4j.util.WorkerPool#isIdle()
+     */
+    public boolean isIdle() {
+        return hsRunning.isEmpty();
+    } // isIdle()
+
+} // class VirtualThreadWorkerPool
@@ -0,0 +1,59 @@
+/*
+ * File: WorkerPoolType.java
+ * 
+ * Copyright (C) 2014 FriendlySNMP.org; All Rights Reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as
+ * published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301  USA
+ * 
+ * $Id$
+ */
+package org.friendlysnmp;
+
+/**
+ * SNMP4J agent worker pool implementation type. 
+ */
+public enum WorkerPoolType { 
+    /**
+     * Fixed count of threads defined by 
+     * <code>FConstant.KEY_THREAD_POOL_SIZE</code>. 
+     * See <code>org.snmp4j.util.ThreadPool</code>.
+     */
+    FIXED, 
+    /**
+     * New virtual thread for each request with count of concurrent 
+     * requests limited by <code>FConstant.KEY_THREAD_POOL_MAX_CONCURRENT</code>. 
+     * See <code>VirtualThreadWorkerPool</code>.
+     */
+    VIRTUAL;
+    /**
+     * Finds <code>WorkerPoolType</code> enum object from its string value. 
+     * Used to map <code>WorkerPoolType</code> object to properties value. 
+     * 
+     * @param s string value
+     * @return <code>WorkerPoolType</code> object
+     * @throws FException if <code>WorkerPoolType</code> object is not found
+     */
+    public static WorkerPoolType find(String s) throws FException { 
+        if (s != null) {
+            s = s.trim();
+            for (WorkerPoolType p : WorkerPoolType.values()) {
+                if (p.name().equalsIgnoreCase(s)) {
+                    return p;
+                }
+            }
+        }
+        throw new FException("Not valid '%s' thread pool type", s);
+    }
+} // enum WorkerPoolType
@@ -0,0 +1,50 @@
+/*
+ * File: FScalarValueProvider.java
+ * 
+ * Copyright (C) 2014 FriendlySNMP.org; All Rights Reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as
+ * published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301  USA
+ * 
+ * $Id$
+ */
+package org.friendlysnmp.event;
+
+import org.friendlysnmp.FScalar;
+
+/**
+ * Implement this interface and set it to {@link FScalar} object to load 
+ * the scalar value from a slow data source (database, remote service)
+ * outside of the SNMP request thread.
+ * <p>GET requests are answered with the cached scalar value. The provider 
+ * is called in a value providers executor thread when the cached value 
+ * is older than the provider time-to-live.
+ *  
+ * @version $Revision$
+ * @see FScalar#setValueProvider(FScalarValueProvider, int, int)
+ */
+public interface FScalarValueProvider {
+
+    /**
+     * Returns the current scalar value. This method is called 
+     * in a value providers executor thread.
+     * 
+     * @param scalar scalar which value is loaded
+     * @return Java basic object like String, Integer, and so on.
+     * @throws Exception loading failure; the cached value is kept 
+     *         and the exception is reported to the agent listeners
+     */
+    public Object getValue(FScalar scalar) throws Exception;
+    
+} // interface FScalarValueProvider
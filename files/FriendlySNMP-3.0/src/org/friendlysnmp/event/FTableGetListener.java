@@ -26,6 +26,13 @@ import org.friendlysnmp.FTable;
 /**
  * Implement this interface and register it with {@link FTable} object
  * to receive GET events from MIB browser.
+ * <p>Concurrent GET requests do not wait for the listener and read the 
+ * current table content. The listener which refreshes the table should 
+ * build all rows and publish them with 
+ * {@link FTable#applyRows(org.friendlysnmp.FColumn[], java.util.Map)} or
+ * {@link FTable#replaceAll(org.friendlysnmp.FColumn[], java.util.Map)}, 
+ * which swap rows atomically, instead of {@link FTable#deleteAll()} and
+ * {@link FTable#addRow(org.friendlysnmp.FID)}.
  *  
  * @version $Revision: 1.7 $
  * @see FTable
@@ -0,0 +1,56 @@
+/*
+ * File: FTableValueProvider.java
+ * 
+ * Copyright (C) 2014 FriendlySNMP.org; All Rights Reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as
+ * published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301  USA
+ * 
+ * $Id$
+ */
+package org.friendlysnmp.event;
+
+import java.util.Map;
+
+import org.friendlysnmp.FColumn;
+import org.friendlysnmp.FID;
+import org.friendlysnmp.FTable;
+
+/**
+ * Implement this interface and set it to {@link FTable} object to load 
+ * the table rows from a slow data source (database, remote service)
+ * outside of the SNMP request thread.
+ * <p>GET requests are answered with the cached table content. The provider 
+ * is called in a value providers executor thread when the cached content 
+ * is older than the provider time-to-live. The returned rows are applied 
+ * to the table with {@link FTable#applyRows(FColumn[], Map)}.
+ *  
+ * @version $Revision$
+ * @see FTable#setValueProvider(FTableValueProvider, FColumn[], int, int)
+ */
+public interface FTableValueProvider {
+
+    /**
+     * Returns the current table rows. This method is called 
+     * in a value providers executor thread.
+     * 
+     * @param table table which rows are loaded
+     * @return rows values by row ID; each array is ordered as the columns 
+     *         set with the provider
+     * @throws Exception loading failure; the cached rows are kept 
+     *         and the exception is reported to the agent listeners
+     */
+    public Map<FID, Object[]> getRows(FTable table) throws Exception;
+    
+} // interface FTableValueProvider
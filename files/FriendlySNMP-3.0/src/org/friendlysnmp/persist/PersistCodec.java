@@ -0,0 +1,490 @@
+/*
+ * File: PersistCodec.java
+ *
+ * Copyright (C) 2014 FriendlySNMP.org; All Rights Reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as
+ * published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301  USA
+ *
+ * $Id$
+ */
+package org.friendlysnmp.persist;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.friendlysnmp.FColumn;
+import org.friendlysnmp.FID;
+import org.friendlysnmp.ValueSyntax;
+import org.snmp4j.smi.OID;
+
+/**
+ * Compact binary format of persistent entries. Values are encoded
+ * according to their <code>ValueSyntax</code>: integers as variable
+ * length integers, strings as length prefixed UTF-8 bytes and OIDs
+ * as sub-identifiers count followed by sub-identifiers.
+ * <p>Storage layout: magic, format version, entries count, entries.
+ * Each entry is a kind byte, <code>FID</code> and entry content.
+ * The table entry content is columns with their syntax followed
+ * by rows. Each row is an OID, a bitmap of <code>null</code> cells
+ * and not null cell values.
+ * <p>Streams written by <code>ObjectOutputStream</code> start with
+ * a different magic, which allows to detect and load old format files.
+ *
+ * @version $Revision$
+ */
+final class PersistCodec {
+    /**
+     * Magic in the beginning of the storage: "FSNP"
+     */
+    static final int MAGIC = 0x46534E50;
+
+    /**
+     * Current format version.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * Entry kind: scalar.
+     */
+    private static final int KIND_SCALAR = 1;
+
+    /**
+     * Entry kind: table.
+     */
+    private static final int KIND_TABLE = 2;
+
+    /**
+     * Strings encoding.
+     */
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /**
+     * Not instantiable
+     */
+    private PersistCodec() {
+    }
+
+    //--------------------------------separator--------------------------------
+    static int ______STORAGE;
+
+    /**
+     * Writes storage header and entries.
+     *
+     * @param out output
+     * @param entries persistent entries
+     * @throws IOException
+     */
+    static void writeStorage(DataOutput out, Collection<PersistEntryNode> entries)
+    throws IOException
+    {
+        out.writeInt(MAGIC);
+        writeVarInt(out, VERSION);
+        writeVarInt(out, entries.size());
+        for (PersistEntryNode p : entries) {
+            writeEntry(out, p);
+        }
+    } // writeStorage()
+
+    /**
+     * Reads storage entries. The magic is expected to be already read.
+     *
+     * @param in input
+     * @return persistent entries
+     * @throws IOException for not supported version or broken data
+     */
+    static List<PersistEntryNode> readStorage(DataInput in) throws IOException {
+        int version = readVarInt(in);
+        if (version != VERSION) {
+            throw new IOException("Not supported persistent storage version " + version);
+        }
+        int count = readVarInt(in);
+        List<PersistEntryNode> lst = new ArrayList<PersistEntryNode>(count);
+        for (int i = 0;  i < count;  i++) {
+            lst.add(readEntry(in));
+        }
+        return lst;
+    } // readStorage()
+
+    //--------------------------------separator--------------------------------
+    static int ______ENTRIES;
+
+    /**
+     * Writes persistent entry.
+     *
+     * @param out output
+     * @param p persistent entry
+     * @throws IOException
+     */
+    static void writeEntry(DataOutput out, PersistEntryNode p) throws IOException {
+        if (p instanceof PersistEntryScalar) {
+            PersistEntryScalar ps = (PersistEntryScalar)p;
+            out.writeByte(KIND_SCALAR);
+            writeFID(out, ps.getFID());
+            ValueSyntax syntax = ps.getScalarSyntax();
+            writeVarInt(out, syntax.toInt());
+            Object obj = ps.getScalarValue();
+            out.writeBoolean(obj != null);
+            if (obj != null) {
+                writeValue(out, syntax, obj);
+            }
+        } else if (p instanceof PersistEntryTable) {
+            PersistEntryTable pt = (PersistEntryTable)p;
+            out.writeByte(KIND_TABLE);
+            writeFID(out, pt.getFID());
+            int columnCount = pt.getColumnCount();
+            writeVarInt(out, columnCount);
+            for (int c = 0;  c < columnCount;  c++) {
+                FColumn col = pt.getColumn(c);
+                writeString(out, col.getName());
+                writeVarInt(out, col.getIndex_InTable());
+                writeVarInt(out, col.getId_InMIB());
+                writeVarInt(out, pt.getColumnSyntax(c).toInt());
+            }
+            ValueSyntax[] syntaxAll = new ValueSyntax[columnCount];
+            for (int c = 0;  c < columnCount;  c++) {
+                syntaxAll[c] = pt.getColumnSyntax(c);
+            }
+            PersistEntryTableRow[] rowAll = pt.getRows();
+            writeVarInt(out, rowAll.length);
+            for (PersistEntryTableRow row : rowAll) {
+                writeOID(out, row.getOID());
+                writeRowValues(out, syntaxAll, row.objAll);
+            }
+        } else {
+            throw new IOException("Not supported persistent entry " + p);
+        }
+    } // writeEntry()
+
+    /**
+     * Reads persistent entry.
+     *
+     * @param in input
+     * @return persistent entry
+     * @throws IOException for broken data
+     */
+    static PersistEntryNode readEntry(DataInput in) throws IOException {
+        int kind = in.readByte();
+        FID id = readFID(in);
+        if (kind == KIND_SCALAR) {
+            ValueSyntax syntax = readSyntax(in);
+            Object obj = null;
+            if (in.readBoolean()) {
+                obj = readValue(in, syntax);
+            }
+            return new PersistEntryScalar(id, syntax, obj);
+        }
+        if (kind == KIND_TABLE) {
+            int columnCount = readVarInt(in);
+            FColumn[] columnAll = new FColumn[columnCount];
+            ValueSyntax[] syntaxAll = new ValueSyntax[columnCount];
+            for (int c = 0;  c < columnCount;  c++) {
+                String name = readString(in);
+                int colIndex = readVarInt(in);
+                int colId = readVarInt(in);
+                columnAll[c] = new FColumn(name, colIndex, colId);
+                syntaxAll[c] = readSyntax(in);
+            }
+            PersistEntryTableRow[] rowAll = new PersistEntryTableRow[readVarInt(in)];
+            for (int r = 0;  r < rowAll.length;  r++) {
+                rowAll[r] = new PersistEntryTableRow(readOID(in), columnCount);
+                readRowValues(in, syntaxAll, rowAll[r].objAll);
+            }
+            return new PersistEntryTable(id, columnAll, syntaxAll, rowAll);
+        }
+        throw new IOException("Not valid persistent entry kind " + kind);
+    } // readEntry()
+
+    /**
+     * Writes FID: name and OID.
+     *
+     * @param out output
+     * @param id FID
+     * @throws IOException
+     */
+    static void writeFID(DataOutput out, FID id) throws IOException {
+        writeString(out, id.getName());
+        writeOID(out, id.getOID());
+    } // writeFID()
+
+    /**
+     * Reads FID.
+     *
+     * @param in input
+     * @return FID
+     * @throws IOException
+     */
+    static FID readFID(DataInput in) throws IOException {
+        String name = readString(in);
+        return new FID(readOID(in), name);
+    } // readFID()
+
+    //--------------------------------separator--------------------------------
+    static int ______VALUES;
+
+    /**
+     * Writes row values: bitmap of <code>null</code> values followed 
+     * by not null values.
+     *
+     * @param out output
+     * @param syntaxAll columns syntax
+     * @param objAll row values
+     * @throws IOException
+     */
+    static void writeRowValues(DataOutput out, ValueSyntax[] syntaxAll, Object[] objAll)
+    throws IOException
+    {
+        byte[] bitmap = new byte[(objAll.length + 7) / 8];
+        for (int c = 0;  c < objAll.length;  c++) {
+            if (objAll[c] == null) {
+                bitmap[c / 8] |= (1 << (c % 8));
+            }
+        }
+        out.write(bitmap);
+        for (int c = 0;  c < objAll.length;  c++) {
+            if (objAll[c] != null) {
+                writeValue(out, syntaxAll[c], objAll[c]);
+            }
+        }
+    } // writeRowValues()
+
+    /**
+     * Reads row values written by <code>writeRowValues()</code>.
+     *
+     * @param in input
+     * @param syntaxAll columns syntax
+     * @param objAll row values to fill
+     * @throws IOException
+     */
+    static void readRowValues(DataInput in, ValueSyntax[] syntaxAll, Object[] objAll)
+    throws IOException
+    {
+        byte[] bitmap = new byte[(objAll.length + 7) / 8];
+        in.readFully(bitmap);
+        for (int c = 0;  c < objAll.length;  c++) {
+            if ((bitmap[c / 8] & (1 << (c % 8))) == 0) {
+                objAll[c] = readValue(in, syntaxAll[c]);
+            }
+        }
+    } // readRowValues()
+
+    /**
+     * Writes not null value according to its syntax. The value is
+     * a Java object as returned by <code>FConverter.toJava()</code>.
+     *
+     * @param out output
+     * @param syntax value syntax
+     * @param obj value
+     * @throws IOException
+     */
+    static void writeValue(DataOutput out, ValueSyntax syntax, Object obj)
+    throws IOException
+    {
+        switch (syntax) {
+            case INTEGER32:
+            case INTEGER:
+                int n = ((Number)obj).intValue();
+                writeVarInt(out, (n << 1) ^ (n >> 31)); // zigzag
+                break;
+            case COUNTER32:
+            case UNSIGNED_INTEGER32:
+            case GAUGE32:
+            case TIMETICKS:
+            case COUNTER64:
+                writeVarLong(out, ((Number)obj).longValue());
+                break;
+            default:
+                writeString(out, obj.toString());
+                break;
+        }
+    } // writeValue()
+
+    /**
+     * Reads value according to its syntax.
+     *
+     * @param in input
+     * @param syntax value syntax
+     * @return value as Integer, Long or String
+     * @throws IOException
+     */
+    static Object readValue(DataInput in, ValueSyntax syntax)
+    throws IOException
+    {
+        switch (syntax) {
+            case INTEGER32:
+            case INTEGER:
+                int n = readVarInt(in);
+                return (n >>> 1) ^ -(n & 1); // zigzag
+            case COUNTER32:
+            case UNSIGNED_INTEGER32:
+            case GAUGE32:
+            case TIMETICKS:
+            case COUNTER64:
+                return readVarLong(in);
+            default:
+                return readString(in);
+        }
+    } // readValue()
+
+    /**
+     * Reads value syntax.
+     *
+     * @param in input
+     * @return value syntax
+     * @throws IOException for not valid syntax
+     */
+    static ValueSyntax readSyntax(DataInput in) throws IOException {
+        int n = readVarInt(in);
+        ValueSyntax syntax = ValueSyntax.find(n);
+        if (syntax == null) {
+            throw new IOException("Not valid value syntax " + n);
+        }
+        return syntax;
+    } // readSyntax()
+
+    //--------------------------------separator--------------------------------
+    static int ______PRIMITIVES;
+
+    /**
+     * Writes OID as count of sub-identifiers followed by sub-identifiers.
+     *
+     * @param out output
+     * @param oid OID
+     * @throws IOException
+     */
+    static void writeOID(DataOutput out, OID oid) throws IOException {
+        int[] subAll = oid.getValue();
+        writeVarInt(out, subAll.length);
+        for (int sub : subAll) {
+            writeVarInt(out, sub); // unsigned 32 bits
+        }
+    } // writeOID()
+
+    /**
+     * Reads OID.
+     *
+     * @param in input
+     * @return OID
+     * @throws IOException
+     */
+    static OID readOID(DataInput in) throws IOException {
+        int[] subAll = new int[readVarInt(in)];
+        for (int i = 0;  i < subAll.length;  i++) {
+            subAll[i] = readVarInt(in);
+        }
+        return new OID(subAll);
+    } // readOID()
+
+    /**
+     * Writes string as UTF-8 bytes count followed by bytes.
+     *
+     * @param out output
+     * @param s string
+     * @throws IOException
+     */
+    static void writeString(DataOutput out, String s) throws IOException {
+        byte[] buf = s.getBytes(UTF8);
+        writeVarInt(out, buf.length);
+        out.write(buf);
+    } // writeString()
+
+    /**
+     * Reads string.
+     *
+     * @param in input
+     * @return string
+     * @throws IOException
+     */
+    static String readString(DataInput in) throws IOException {
+        byte[] buf = new byte[readVarInt(in)];
+        in.readFully(buf);
+        return new String(buf, UTF8);
+    } // readString()
+
+    /**
+     * Writes integer as unsigned 32 bits value in 7-bit groups,
+     * least significant group first.
+     *
+     * @param out output
+     * @param n value
+     * @throws IOException
+     */
+    static void writeVarInt(DataOutput out, int n) throws IOException {
+        while ((n & ~0x7F) != 0) {
+            out.writeByte((n & 0x7F) | 0x80);
+            n >>>= 7;
+        }
+        out.writeByte(n);
+    } // writeVarInt()
+
+    /**
+     * Reads integer written by <code>writeVarInt()</code>.
+     *
+     * @param in input
+     * @return value
+     * @throws IOException for too long value
+     */
+    static int readVarInt(DataInput in) throws IOException {
+        int n = 0;
+        for (int shift = 0;  shift < 35;  shift += 7) {
+            int b = in.readByte();
+            n |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return n;
+            }
+        }
+        throw new IOException("Malformed variable length integer");
+    } // readVarInt()
+
+    /**
+     * Writes long as unsigned 64 bits value in 7-bit groups,
+     * least significant group first.
+     *
+     * @param out output
+     * @param n value
+     * @throws IOException
+     */
+    static void writeVarLong(DataOutput out, long n) throws IOException {
+        while ((n & ~0x7FL) != 0) {
+            out.writeByte((int)((n & 0x7F) | 0x80));
+            n >>>= 7;
+        }
+        out.writeByte((int)n);
+    } // writeVarLong()
+
+    /**
+     * Reads long written by <code>writeVarLong()</code>.
+     *
+     * @param in input
+     * @return value
+     * @throws IOException for too long value
+     */
+    static long readVarLong(DataInput in) throws IOException {
+        long n = 0;
+        for (int shift = 0;  shift < 70;  shift += 7) {
+            int b = in.readByte();
+            n |= (long)(b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return n;
+            }
+        }
+        throw new IOException("Malformed variable length long");
+    } // readVarLong()
+
+} // class PersistCodec
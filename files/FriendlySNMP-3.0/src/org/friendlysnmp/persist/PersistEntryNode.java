@@ -55,6 +55,11 @@ public abstract class PersistEntryNode extends PersistExternalizable {
         id = node.getFID();
     }
     
+    protected PersistEntryNode(FID id) {
+        super(false);
+        this.id = id;
+    }
+    
     public FID getFID() {
         return id;
     }
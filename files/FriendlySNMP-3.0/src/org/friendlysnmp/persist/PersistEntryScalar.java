@@ -27,6 +27,7 @@ import java.io.ObjectOutput;
 
 import org.friendlysnmp.FConverter;
 import org.friendlysnmp.FException;
+import org.friendlysnmp.FID;
 import org.friendlysnmp.FScalar;
 import org.friendlysnmp.ThrowableFormatter;
 import org.friendlysnmp.ValueSyntax;
@@ -75,6 +76,19 @@ public class PersistEntryScalar extends PersistEntryNode {
         scalarSyntax = ValueSyntax.find(var.getSyntax());
     }
     
+    /**
+     * Constructor for the entry decoded by <code>PersistCodec</code>.
+     * 
+     * @param id scalar ID
+     * @param scalarSyntax value syntax
+     * @param scalarValue Java object value
+     */
+    PersistEntryScalar(FID id, ValueSyntax scalarSyntax, Object scalarValue) {
+        super(id);
+        this.scalarSyntax = scalarSyntax;
+        this.scalarValue = scalarValue;
+    }
+    
     public Object getScalarValue() {
         return scalarValue;
     }
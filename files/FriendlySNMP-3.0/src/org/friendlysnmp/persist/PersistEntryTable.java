@@ -24,6 +24,12 @@ package org.friendlysnmp.persist;
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 import org.friendlysnmp.FColumn;
 import org.friendlysnmp.FException;
@@ -33,6 +39,7 @@ import org.friendlysnmp.ThrowableFormatter;
 import org.friendlysnmp.ValueSyntax;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.snmp4j.smi.OID;
 
 /**
  * Persistence storage entry class.
@@ -75,16 +82,137 @@ public class PersistEntryTable extends PersistEntryNode {
         for (int i = 0;  i < size;  i++) {
             syntaxAll[i] = table.getColumnSyntax(columnAll[i]);
         }
-        rowAll = new PersistEntryTableRow[table.getRowCount()];
-        for (int r = 0;  r < rowAll.length;  r++) {
-            FID idRow = table.getRowID(r);
-            rowAll[r] = new PersistEntryTableRow(idRow.getOID(), columnAll.length);
-            for (int c = 0;  c < columnAll.length;  c++) {
-                rowAll[r].objAll[c] = table.getValueAt(idRow, columnAll[c]);
+        int count = table.getRowCount();
+        List<PersistEntryTableRow> lstRow = 
+            new ArrayList<PersistEntryTableRow>(count);
+        for (int r = 0;  r < count;  r++) {
+            PersistEntryTableRow row = 
+                newRow(table, table.getRowID(r), columnAll);
+            if (row != null) { // null for concurrently deleted row
+                lstRow.add(row);
             }
         }
+        rowAll = lstRow.toArray(new PersistEntryTableRow[lstRow.size()]);
     }
     
+    /**
+     * Constructor for the entry decoded by <code>PersistCodec</code>.
+     * 
+     * @param id table ID
+     * @param columnAll columns
+     * @param syntaxAll columns syntax
+     * @param rowAll rows
+     */
+    PersistEntryTable(FID id, FColumn[] columnAll, 
+            ValueSyntax[] syntaxAll, PersistEntryTableRow[] rowAll) 
+    {
+        super(id);
+        this.columnAll = columnAll;
+        this.syntaxAll = syntaxAll;
+        this.rowAll = rowAll;
+    }
+    
+    /**
+     * Creates row entry with the current values of the table row.
+     * 
+     * @param table table object
+     * @param idRow row ID
+     * @param columnAll columns
+     * @return row entry or <code>null</code> if the row does not exist
+     * @throws FException
+     */
+    private static PersistEntryTableRow newRow(FTable table, FID idRow, 
+            FColumn[] columnAll) 
+    throws FException 
+    {
+        Object[] objAll = table.getRowValues(idRow, columnAll);
+        if (objAll == null) {
+            return null;
+        }
+        PersistEntryTableRow row = 
+            new PersistEntryTableRow(idRow.getOID(), columnAll.length);
+        System.arraycopy(objAll, 0, row.objAll, 0, objAll.length);
+        return row;
+    } // newRow()
+    
+    /**
+     * Returns entry with the modified rows of the table applied to this 
+     * entry. Only rows listed in <code>hsRow</code> are read from the table:
+     * rows which do not exist in the table anymore are removed, other 
+     * rows are added or replaced. This entry is not modified.
+     * 
+     * @param table table object
+     * @param hsRow IDs of modified rows
+     * @return updated entry; this entry if none of the rows has changed 
+     *         or <code>null</code> if the table columns do not match 
+     *         this entry
+     * @throws FException
+     */
+    public PersistEntryTable update(FTable table, Set<FID> hsRow) 
+    throws FException 
+    {
+        if (!id.equals(table.getFID())  ||  
+            table.getColumnCount() != columnAll.length) 
+        {
+            return null;
+        }
+        for (int c = 0;  c < columnAll.length;  c++) {
+            if (!columnAll[c].equals(table.getColumn(c))  ||
+                !syntaxAll[c].equals(table.getColumnSyntax(c))) 
+            {
+                return null;
+            }
+        }
+        List<PersistEntryTableRow> lstRow = 
+            new ArrayList<PersistEntryTableRow>(Arrays.asList(rowAll));
+        boolean changed = false;
+        for (FID idRow : hsRow) {
+            int pos = findRow(lstRow, idRow.getOID());
+            PersistEntryTableRow row = newRow(table, idRow, columnAll);
+            if (row == null) { // row is removed
+                if (pos >= 0) {
+                    lstRow.remove(pos);
+                    changed = true;
+                }
+            } else if (pos < 0) {
+                lstRow.add(-pos - 1, row);
+                changed = true;
+            } else if (!row.equals(lstRow.get(pos))) {
+                lstRow.set(pos, row);
+                changed = true;
+            }
+        }
+        if (!changed) {
+            return this;
+        }
+        return new PersistEntryTable(id, columnAll, syntaxAll, 
+                lstRow.toArray(new PersistEntryTableRow[lstRow.size()]));
+    } // update()
+    
+    /**
+     * Binary search of the row in the rows list ordered by OID.
+     * 
+     * @param lstRow rows ordered by OID
+     * @param oid row OID
+     * @return row position or <code>(-(insertion point) - 1)</code>
+     */
+    private static int findRow(List<PersistEntryTableRow> lstRow, OID oid) {
+        int low = 0;
+        int high = lstRow.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = lstRow.get(mid).oid.compareTo(oid);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    } // findRow()
+    
     /**
      * Loading persistent value into {@link FTable}. 
      * The {@link FTable} removes this value from persistent storage
@@ -145,13 +273,11 @@ public class PersistEntryTable extends PersistEntryNode {
 
         // Ready to load table content after all validations
         try {
-            table.deleteAll();
+            Map<FID, Object[]> hmRow = new TreeMap<FID, Object[]>();
             for (int r = 0;  r < rowAll.length;  r++) {
-                FID idRow = table.addRow(rowAll[r].getOID().getValue());
-                for (int c = 0;  c < columnAll.length;  c++) {
-                    table.setValueAt(rowAll[r].getValue(c), idRow, columnAll[c]);
-                }
+                hmRow.put(new FID(rowAll[r].getOID()), rowAll[r].objAll);
             }
+            table.replaceAll(columnAll, hmRow);
             logger.debug("Loaded persistent table " + table.getFIDtoString());
             return true; // single valid return
         } catch (FException e) {
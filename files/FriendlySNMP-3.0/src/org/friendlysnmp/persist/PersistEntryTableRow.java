@@ -43,7 +43,7 @@ public class PersistEntryTableRow extends PersistExternalizable {
      */
     private static final long serialVersionUID = -3181520600674342138L;
     
-    private OID oid;
+    OID oid;         // direct access from PersistEntryTable
     Object[] objAll; // direct access from PersistEntryTable
     
     /**
@@ -84,7 +84,7 @@ public class PersistEntryTableRow extends PersistExternalizable {
                     }
                     return false;
                 }
-                if (this.objAll[i].equals(that.objAll[i])) {
+                if (!this.objAll[i].equals(that.objAll[i])) {
                     return false;
                 }
             }
@@ -37,7 +37,17 @@ public enum PersistPolicy {
      * Saves persistence storage on method 
      * <code>PersistStorage.shutdown()</code> call.
      */
-    ON_EXIT;
+    ON_EXIT,
+    /**
+     * Records changed entries and saves them from the background thread.
+     * Changes are coalesced and written at most once per flush interval 
+     * or when the count of changed entries reaches the batch size.
+     * SNMP requests are not blocked by the disk I/O; changes made within  
+     * the last flush interval are lost if the application dies. 
+     * Persistence storage is saved on method 
+     * <code>PersistStorage.shutdown()</code> call.
+     */
+    WRITE_BEHIND;
     /**
      * Finds <code>PersistPolicy</code> enum object from its string value. 
      * Used to map <code>PersistPolicy</code> object to properties value. 
@@ -148,7 +148,9 @@ public abstract class PersistStorage {
      * @throws FException
      */
     public void shutdown() throws FException {
-        if (!shutdown  &&  persistPolicy == PersistPolicy.ON_EXIT) {
+        if (!shutdown  &&  (persistPolicy == PersistPolicy.ON_EXIT  ||  
+                           persistPolicy == PersistPolicy.WRITE_BEHIND)) 
+        {
             save();
         }
         shutdown = true;
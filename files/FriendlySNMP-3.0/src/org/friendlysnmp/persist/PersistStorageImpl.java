@@ -21,16 +21,26 @@
  */
 package org.friendlysnmp.persist;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.TreeMap;
 
+import org.friendlysnmp.FConstant;
 import org.friendlysnmp.FException;
 import org.friendlysnmp.FID;
 import org.friendlysnmp.FScalar;
@@ -42,6 +52,9 @@ import org.slf4j.LoggerFactory;
 /**
  * Implementation of <code>PersistStorage</code>, which provides persistence 
  * in plain <code>HashMap&lt;String,String&gt;</code> serialized into file.
+ * <p>The file is written in the <code>PersistCodec</code> binary format.
+ * The file in the old <code>ObjectOutputStream</code> format is loaded 
+ * and converted to the binary format.
  * 
  * @version $Revision: 1.21 $
  */
@@ -66,6 +79,39 @@ public class PersistStorageImpl extends PersistStorage {
      */
     private TreeMap<FID, PersistEntryTable> hmTable;
     
+    /**
+     * Lock for the persistence file writing. 
+     */
+    private final Object lockFile = new Object();
+    
+    /**
+     * IDs of entries changed or removed since last flush. 
+     * Used only by <code>PersistPolicy.WRITE_BEHIND</code>.
+     * Guarded by itself.
+     */
+    private Set<FID> hsDirty = new LinkedHashSet<FID>();
+    
+    /**
+     * Time when the first not flushed change was recorded.
+     */
+    private long dirtySinceMs;
+    
+    /**
+     * Maximum time between a change and its flush.
+     */
+    private int flushIntervalMs = FConstant.DEFAULT_PERSIST_FLUSH_MS;
+    
+    /**
+     * Count of dirty entries which triggers flush before 
+     * the flush interval expires.
+     */
+    private int flushBatchSize = FConstant.DEFAULT_PERSIST_FLUSH_BATCH;
+    
+    /**
+     * Write-behind flush thread. 
+     */
+    private FlusherThread threadFlusher;
+    
     /**
      * Constructor
      * 
@@ -101,24 +147,34 @@ public class PersistStorageImpl extends PersistStorage {
             throw new FException("Cannot write into persistent storage file %s", canonical);
         }
         // Loading
-        PersistEntryNode[] persist = null;
-        ObjectInputStream ois = null;
+        List<PersistEntryNode> persist = null;
+        boolean migrate = false;
+        DataInputStream dis = null;
         try {
-            ois = new ObjectInputStream(
-                  new FileInputStream(filePersist));
-            persist = (PersistEntryNode[])ois.readObject();
-            ois.close();
+            dis = new DataInputStream(new BufferedInputStream(
+                  new FileInputStream(filePersist)));
+            dis.mark(4);
+            if (dis.readInt() == PersistCodec.MAGIC) {
+                persist = PersistCodec.readStorage(dis);
+            } else {
+                // Storage saved by ObjectOutputStream in the old format
+                dis.reset();
+                ObjectInputStream ois = new ObjectInputStream(dis);
+                persist = Arrays.asList((PersistEntryNode[])ois.readObject());
+                migrate = true;
+            }
         } catch (Exception e) {
             // FileNotFoundException, IOException, ClassCastException
-            if (ois != null) {
+            logger.error(ThrowableFormatter.format(
+                    "Failure to load persistent storage. " +
+                    "Old incompatible persistent storage is ignored.", e));
+        } finally {
+            if (dis != null) {
                 try {
-                    ois.close();
+                    dis.close();
                 } catch (IOException e1) {
                 }
             }
-            logger.error(ThrowableFormatter.format(
-                    "Failure to load persistent storage. " +
-                    "Old incompatible persistent storage is ignored.", e));
         }
         logger.info("Loaded persist file: " + canonical);
         if (persist == null) {
@@ -126,16 +182,83 @@ public class PersistStorageImpl extends PersistStorage {
             return;
         }
         for (PersistEntryNode p : persist) {
-            FID id = p.getFID();
-            if (p instanceof PersistEntryScalar) {
-                hmScalar.put(id, (PersistEntryScalar)p);
-            }
-            if (p instanceof PersistEntryTable) {
-                hmTable.put(id, (PersistEntryTable)p);
-            }
+            restore(p);
+        }
+        if (migrate) {
+            logger.info("Converting persist file to binary format: " + canonical);
+            saveSnapshot();
         }
     } // PersistStorageImpl()
     
+    /**
+     * Returns persistent storage file.
+     * 
+     * @return persistent storage file
+     */
+    protected File getFile() {
+        return filePersist;
+    } // getFile()
+    
+    /**
+     * Puts loaded persistent entry into collections without saving.
+     * 
+     * @param p persistent entry
+     */
+    void restore(PersistEntryNode p) {
+        FID id = p.getFID();
+        if (p instanceof PersistEntryScalar) {
+            hmScalar.put(id, (PersistEntryScalar)p);
+        }
+        if (p instanceof PersistEntryTable) {
+            hmTable.put(id, (PersistEntryTable)p);
+        }
+    } // restore()
+    
+    /**
+     * Removes persistent entry from collections without saving.
+     * 
+     * @param id id of the stored object
+     */
+    void discard(FID id) {
+        // Resides in one of collections:
+        hmScalar.remove(id);
+        hmTable.remove(id);
+    } // discard()
+    
+    /**
+     * Called after persistent entry has been changed in collections. 
+     * Default implementation saves whole storage for 
+     * <code>PersistPolicy.ON_CHANGE</code> and records the entry ID 
+     * for <code>PersistPolicy.WRITE_BEHIND</code>.
+     * 
+     * @param p changed persistent entry
+     * @throws FException
+     */
+    protected void entryChanged(PersistEntryNode p) throws FException {
+        if (persistPolicy == PersistPolicy.ON_CHANGE) {
+            save();
+        } else if (persistPolicy == PersistPolicy.WRITE_BEHIND) {
+            markDirty(p.getFID());
+        }
+    } // entryChanged()
+    
+    /**
+     * Called after persistent entry has been removed from collections.
+     * Default implementation saves whole storage for 
+     * <code>PersistPolicy.ON_CHANGE</code> and records the entry ID 
+     * for <code>PersistPolicy.WRITE_BEHIND</code>.
+     * 
+     * @param id id of the removed object
+     * @throws FException
+     */
+    protected void entryRemoved(FID id) throws FException {
+        if (persistPolicy == PersistPolicy.ON_CHANGE) {
+            save();
+        } else if (persistPolicy == PersistPolicy.WRITE_BEHIND) {
+            markDirty(id);
+        }
+    } // entryRemoved()
+    
     //--------------------------------separator--------------------------------
     static int ______SCALARS;
 
@@ -145,16 +268,14 @@ public class PersistStorageImpl extends PersistStorage {
      * @see org.friendlysnmp.persist.PersistStorage#put(org.friendlysnmp.FScalar)
      */
     @Override
-    public void put(FScalar scalar) throws FException {
+    public synchronized void put(FScalar scalar) throws FException {
         FID id = scalar.getFID();
         PersistEntryScalar peOLD = getPersistScalar(id); // might be null
         PersistEntryScalar peNEW = new PersistEntryScalar(scalar);
         if (!peNEW.equals(peOLD)) {
             logger.debug(peNEW.toString());
             hmScalar.put(id, peNEW);
-            if (persistPolicy == PersistPolicy.ON_CHANGE) {
-                save();
-            }
+            entryChanged(peNEW);
         }
     } // put()
     
@@ -164,7 +285,7 @@ public class PersistStorageImpl extends PersistStorage {
      * @see org.friendlysnmp.persist.PersistStorage#getPersistScalar(FID)
      */
     @Override
-    public PersistEntryScalar getPersistScalar(FID id) {
+    public synchronized PersistEntryScalar getPersistScalar(FID id) {
         return hmScalar.get(id); 
     } // getPersistScalar()
     
@@ -174,7 +295,7 @@ public class PersistStorageImpl extends PersistStorage {
      * @see org.friendlysnmp.persist.PersistStorage#getPersistScalars()
      */
     @Override
-    public PersistEntryScalar[] getPersistScalars() {
+    public synchronized PersistEntryScalar[] getPersistScalars() {
         return hmScalar.values().toArray(new PersistEntryScalar[hmScalar.size()]);
     } // getPersistScalars()
     
@@ -183,20 +304,35 @@ public class PersistStorageImpl extends PersistStorage {
 
     /** 
      * {@inheritDoc}
+     * <p>Only rows modified since previous call are read from the table 
+     * if the storage has the table entry. Unchanged table is skipped 
+     * without reading its content.
      *
      * @see org.friendlysnmp.persist.PersistStorage#put(org.friendlysnmp.FTable)
+     * @see org.friendlysnmp.FTable#drainDirtyRows()
      */
     @Override
-    public void put(FTable table) throws FException {
+    public synchronized void put(FTable table) throws FException {
         FID id = table.getFID();
         PersistEntryTable peOLD = getPersistTable(id); // might be null
-        PersistEntryTable peNEW = new PersistEntryTable(table);
-        if (!peNEW.equals(peOLD)) {
+        Set<FID> hsRow = table.drainDirtyRows(); // null for all rows
+        PersistEntryTable peNEW = null;
+        if (peOLD != null  &&  hsRow != null) {
+            if (hsRow.isEmpty()) {
+                return;
+            }
+            peNEW = peOLD.update(table, hsRow); // null for modified columns
+        }
+        if (peNEW == null) {
+            peNEW = new PersistEntryTable(table);
+            if (peNEW.equals(peOLD)) {
+                peNEW = peOLD;
+            }
+        }
+        if (peNEW != peOLD) {
             logger.debug(peNEW.toString());
             hmTable.put(id, peNEW);
-            if (persistPolicy == PersistPolicy.ON_CHANGE) {
-                save();
-            }
+            entryChanged(peNEW);
         }
     } // put()
     
@@ -206,7 +342,7 @@ public class PersistStorageImpl extends PersistStorage {
      * @see org.friendlysnmp.persist.PersistStorage#getPersistScalar(FID)
      */
     @Override
-    public PersistEntryTable getPersistTable(FID id) {
+    public synchronized PersistEntryTable getPersistTable(FID id) {
         return hmTable.get(id); 
     } // getPersistTable()
     
@@ -216,7 +352,7 @@ public class PersistStorageImpl extends PersistStorage {
      * @see org.friendlysnmp.persist.PersistStorage#getPersistScalars()
      */
     @Override
-    public PersistEntryTable[] getPersistTables() {
+    public synchronized PersistEntryTable[] getPersistTables() {
         return hmTable.values().toArray(new PersistEntryTable[hmTable.size()]);
     } // getPersistTables()
     
@@ -229,13 +365,9 @@ public class PersistStorageImpl extends PersistStorage {
      * @see org.friendlysnmp.persist.PersistStorage#remove(org.friendlysnmp.FID)
      */
     @Override
-    public void remove(FID id) throws FException {
-        // Resides in one of collections:
-        hmScalar.remove(id);
-        hmTable.remove(id);
-        if (persistPolicy == PersistPolicy.ON_CHANGE) {
-            save();
-        }
+    public synchronized void remove(FID id) throws FException {
+        discard(id);
+        entryRemoved(id);
     } // remove()
     
     /**
@@ -245,29 +377,236 @@ public class PersistStorageImpl extends PersistStorage {
      */
     @Override
     public void save() throws FException {
+        saveSnapshot();
+    } // save()
+    
+    /**
+     * Saves all entries from collections into the persistence file.
+     * 
+     * @throws FException
+     */
+    private void saveSnapshot() throws FException {
+        // Entries are immutable: copy references and write them 
+        // without blocking SNMP requests on the disk I/O
+        save(copyEntries());
+    } // saveSnapshot()
+    
+    /**
+     * Copies references to all entries from collections.
+     * 
+     * @return collection of entries
+     */
+    protected synchronized Set<PersistEntryNode> copyEntries() {
         Set<PersistEntryNode> hs = new HashSet<PersistEntryNode>();
         hs.addAll(hmScalar.values());
         hs.addAll(hmTable.values());
-        save(hs);
+        return hs;
+    } // copyEntries()
+    
+    /**
+     * Saves persistent storage collection. The collection is written 
+     * into temporary file which replaces the persistence file, so the 
+     * application termination while saving does not corrupt 
+     * previously saved storage. Should be called without the storage 
+     * lock.
+     * 
+     * @param hs collection
+     * @throws FException
+     */
+    protected void save(Set<PersistEntryNode> hs) throws FException {
+        synchronized (lockFile) {
+            saveFile(hs);
+        }
     } // save()
     
     /**
-     * Saves persistent storage collection
+     * Writes persistent storage collection into the file.
      * 
      * @param hs collection
      * @throws FException
      */
-    private void save(Set<PersistEntryNode> hs) throws FException {
+    private void saveFile(Set<PersistEntryNode> hs) throws FException {
+        File fileTmp = new File(filePersist.getPath() + ".tmp");
         try {
-            ObjectOutputStream oos = new ObjectOutputStream(
-                                     new FileOutputStream(filePersist));
-            oos.writeObject(hs.toArray(new PersistEntryNode[hs.size()]));
-            oos.close();
+            DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(
+                                   new FileOutputStream(fileTmp)));
+            PersistCodec.writeStorage(dos, hs);
+            dos.close();
+            try {
+                Files.move(fileTmp.toPath(), filePersist.toPath(), 
+                        StandardCopyOption.REPLACE_EXISTING, 
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(fileTmp.toPath(), filePersist.toPath(), 
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
         } catch (Exception e) {
             // FileNotFoundException, IOException
             throw new FException(
                     "Failure to save/create persistence file " + filePersist, e);
         }
-    }
+    } // saveFile()
+    
+    //--------------------------------separator--------------------------------
+    static int ______WRITE_BEHIND;
+
+    /**
+     * Sets write-behind flush parameters. Used only by 
+     * <code>PersistPolicy.WRITE_BEHIND</code>.
+     * 
+     * @param flushIntervalMs maximum time between a change and its flush
+     * @param flushBatchSize count of changed entries which triggers flush
+     * before the interval expires
+     * @throws FException if any value is not positive
+     */
+    public void setWriteBehind(int flushIntervalMs, int flushBatchSize) 
+    throws FException 
+    {
+        if (flushIntervalMs <= 0  ||  flushBatchSize <= 0) {
+            throw new FException("Not valid write-behind flush interval %d ms " +
+                    "or batch size %d", flushIntervalMs, flushBatchSize);
+        }
+        this.flushIntervalMs = flushIntervalMs;
+        this.flushBatchSize = flushBatchSize;
+    } // setWriteBehind()
+    
+    /**
+     * {@inheritDoc}
+     * 
+     * @see org.friendlysnmp.persist.PersistStorage#setPersistPolicy(org.friendlysnmp.persist.PersistPolicy)
+     */
+    @Override
+    public void setPersistPolicy(PersistPolicy p) {
+        super.setPersistPolicy(p);
+        if (p == PersistPolicy.WRITE_BEHIND  &&  threadFlusher == null) {
+            threadFlusher = new FlusherThread();
+            threadFlusher.start();
+        }
+    } // setPersistPolicy()
+    
+    /**
+     * {@inheritDoc}
+     * 
+     * @see org.friendlysnmp.persist.PersistStorage#shutdown()
+     */
+    @Override
+    public void shutdown() throws FException {
+        if (threadFlusher != null) {
+            threadFlusher.shutdown();
+            threadFlusher = null;
+        }
+        super.shutdown();
+    } // shutdown()
+    
+    /**
+     * Records ID of changed or removed entry for the flush thread.
+     * 
+     * @param id entry ID
+     */
+    private void markDirty(FID id) {
+        synchronized (hsDirty) {
+            if (hsDirty.isEmpty()) {
+                dirtySinceMs = System.currentTimeMillis();
+                hsDirty.notify();
+            }
+            hsDirty.add(id);
+            if (hsDirty.size() >= flushBatchSize) {
+                hsDirty.notify();
+            }
+        }
+    } // markDirty()
+    
+    /**
+     * Writes changed and removed entries collected for 
+     * <code>PersistPolicy.WRITE_BEHIND</code>. Called from the flush thread.
+     * Default implementation saves whole storage.
+     * 
+     * @param hsID IDs of changed or removed entries
+     * @throws FException
+     */
+    protected void flush(Set<FID> hsID) throws FException {
+        save();
+    } // flush()
+    
+    /**
+     * Write-behind flush thread. Waits for the first change and writes 
+     * all changes collected after the flush interval or as soon as  
+     * the batch size is reached.
+     */
+    private class FlusherThread extends Thread {
+        /** Shutdown flag */
+        private volatile boolean shutdown;
+        
+        /**
+         * Constructor
+         */
+        FlusherThread() {
+            setName("FriendlyPersistFlusherThread");
+            setDaemon(true);
+        }
+        
+        /**
+         * Shutdowns flush thread and waits for the flush in progress. 
+         * Not flushed changes are saved by the <code>shutdown()</code>.
+         */
+        void shutdown() {
+            shutdown = true;
+            synchronized (hsDirty) {
+                hsDirty.notify();
+            }
+            try {
+                join();
+            } catch (InterruptedException e) {
+            }
+        }
+        
+        /** 
+         * Starts flush thread
+         * 
+         * @see java.lang.Thread#run()
+         */
+        public void run() {
+            logger.debug("Persist flusher thread started");
+            while (!shutdown) {
+                Set<FID> hs = null;
+                synchronized (hsDirty) {
+                    try {
+                        while (!shutdown) {
+                            if (hsDirty.isEmpty()) {
+                                hsDirty.wait();
+                                continue;
+                            }
+                            long waitMs = dirtySinceMs + flushIntervalMs 
+                                          - System.currentTimeMillis();
+                            if (waitMs <= 0  ||  hsDirty.size() >= flushBatchSize) {
+                                hs = new LinkedHashSet<FID>(hsDirty);
+                                hsDirty.clear();
+                                break;
+                            }
+                            hsDirty.wait(waitMs);
+                        }
+                    } catch (InterruptedException e) {
+                    }
+                }
+                if (hs == null) {
+                    continue;
+                }
+                try {
+                    flush(hs);
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Flushed entries: " + hs.size());
+                    }
+                } catch (FException e) {
+                    logger.error(ThrowableFormatter.format(
+                            "Failure to flush persistent storage. " +
+                            "Changes are kept for the next flush.", e));
+                    for (FID id : hs) {
+                        markDirty(id);
+                    }
+                }
+            }
+            logger.debug("Persist flusher thread exited");
+        }
+    } // inner class FlusherThread
     
 } // class PersistStorageImpl
@@ -0,0 +1,609 @@
+/*
+ * File: PersistStorageJournal.java
+ *
+ * Copyright (C) 2014 FriendlySNMP.org; All Rights Reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as
+ * published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301  USA
+ *
+ * $Id$
+ */
+package org.friendlysnmp.persist;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.friendlysnmp.FConstant;
+import org.friendlysnmp.FException;
+import org.friendlysnmp.FID;
+import org.friendlysnmp.FScalar;
+import org.friendlysnmp.FTable;
+import org.friendlysnmp.ThrowableFormatter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Implementation of <code>PersistStorage</code>, which appends change
+ * records (entry put and entry remove) to a journal file and periodically
+ * compacts it into the snapshot file written by
+ * <code>PersistStorageImpl</code>.
+ * <p>Each change costs a single record proportional to the changed entry
+ * instead of the whole storage serialization. At startup the snapshot is
+ * loaded and the journal is replayed on top of it.
+ * <p>Journal file name is the snapshot file name with
+ * <code>.journal</code> suffix. Each record is a type byte,
+ * a length integer and an entry or <code>FID</code> encoded by
+ * <code>PersistCodec</code>.
+ * Truncated record at the journal tail (application termination while
+ * writing) is ignored at replay.
+ * <p>Journal I/O is guarded by the journal lock, not by the storage lock:
+ * records are encoded under the storage lock and written after it is
+ * released. For <code>PersistPolicy.ON_CHANGE</code> the record is queued
+ * under the storage lock and written by <code>put()</code> /
+ * <code>remove()</code> after the lock is released, before they return.
+ * Compaction renames the journal to <code>.journal.old</code>
+ * together with copying the entries and writes the snapshot without
+ * holding any of the locks. The old journal is deleted after the snapshot
+ * is saved and replayed before the journal if compaction has not completed.
+ *
+ * @version $Revision$
+ */
+public class PersistStorageJournal extends PersistStorageImpl {
+    /**
+     * Logger object
+     */
+    private static final Logger logger = LoggerFactory.getLogger(PersistStorageJournal.class);
+
+    /**
+     * Journal record type: entry put serialized by
+     * <code>ObjectOutputStream</code>. Only read from old journals.
+     */
+    private static final byte RECORD_PUT_SERIALIZED = 1;
+
+    /**
+     * Journal record type: entry remove serialized by
+     * <code>ObjectOutputStream</code>. Only read from old journals.
+     */
+    private static final byte RECORD_REMOVE_SERIALIZED = 2;
+
+    /**
+     * Journal record type: entry put in <code>PersistCodec</code> format.
+     */
+    private static final byte RECORD_PUT = 3;
+
+    /**
+     * Journal record type: entry remove in <code>PersistCodec</code> format.
+     */
+    private static final byte RECORD_REMOVE = 4;
+
+    /**
+     * Journal file.
+     */
+    private File fileJournal;
+
+    /**
+     * Journal renamed by the compaction until the snapshot is saved.
+     */
+    private File fileJournalOld;
+
+    /**
+     * Lock for journal stream, records count and compaction flag.
+     * Taken after the storage lock if both are required.
+     */
+    private final Object lockJournal = new Object();
+
+    /**
+     * Encoded records queued for <code>PersistPolicy.ON_CHANGE</code> under
+     * the storage lock and not written yet. Guarded by the journal lock.
+     */
+    private final List<byte[]> lstPending = new ArrayList<byte[]>();
+
+    /**
+     * Journal output stream. It is <code>null</code> until journal is opened.
+     */
+    private DataOutputStream dosJournal;
+
+    /**
+     * Count of records in the journal since last compaction.
+     */
+    private int countRecord;
+
+    /**
+     * Compaction in progress flag.
+     */
+    private boolean compacting;
+
+    /**
+     * Count of records which triggers compaction.
+     */
+    private int compactThreshold;
+
+    /**
+     * Constructor
+     *
+     * @param filename snapshot filename
+     * @throws FException
+     */
+    public PersistStorageJournal(String filename) throws FException {
+        super(filename);
+        compactThreshold = FConstant.DEFAULT_PERSIST_JOURNAL_COMPACT;
+        fileJournal = new File(getFile().getPath() + ".journal");
+        fileJournalOld = new File(fileJournal.getPath() + ".old");
+        logger.debug(String.format("Journal filename '%s'", fileJournal));
+        boolean hasOld = fileJournalOld.isFile();
+        if (hasOld  ||  (fileJournal.isFile()  &&  fileJournal.length() > 0)) {
+            // Fold replayed records into snapshot and start clean journal.
+            // This also drops truncated tail of the journal (if any).
+            if (hasOld) {
+                // Compaction has not completed: its records are older
+                replay(fileJournalOld);
+            }
+            replay(fileJournal);
+            compact(true);
+        } else {
+            openJournal(true);
+        }
+    } // PersistStorageJournal()
+
+    /**
+     * Sets count of journal records which triggers compaction.
+     *
+     * @param compactThreshold count of records
+     * @throws FException if the count is not positive
+     */
+    public void setCompactThreshold(int compactThreshold) throws FException {
+        if (compactThreshold <= 0) {
+            throw new FException("Not valid journal compaction threshold %d",
+                    compactThreshold);
+        }
+        this.compactThreshold = compactThreshold;
+    } // setCompactThreshold()
+
+    //--------------------------------separator--------------------------------
+    static int ______CHANGES;
+
+    /**
+     * {@inheritDoc}
+     * <p>Not synchronized: the record queued by the storage is written 
+     * after the storage lock is released.
+     *
+     * @see org.friendlysnmp.persist.PersistStorageImpl#put(org.friendlysnmp.FScalar)
+     */
+    @Override
+    public void put(FScalar scalar) throws FException {
+        super.put(scalar);
+        appendPending();
+    } // put()
+
+    /**
+     * {@inheritDoc}
+     * <p>Not synchronized: the record queued by the storage is written 
+     * after the storage lock is released.
+     *
+     * @see org.friendlysnmp.persist.PersistStorageImpl#put(org.friendlysnmp.FTable)
+     */
+    @Override
+    public void put(FTable table) throws FException {
+        super.put(table);
+        appendPending();
+    } // put()
+
+    /**
+     * {@inheritDoc}
+     * <p>Not synchronized: the record queued by the storage is written 
+     * after the storage lock is released.
+     *
+     * @see org.friendlysnmp.persist.PersistStorageImpl#remove(org.friendlysnmp.FID)
+     */
+    @Override
+    public void remove(FID id) throws FException {
+        super.remove(id);
+        appendPending();
+    } // remove()
+
+    /**
+     * Queues entry put record for the journal. Called under the storage 
+     * lock.
+     *
+     * @see org.friendlysnmp.persist.PersistStorageImpl#entryChanged(org.friendlysnmp.persist.PersistEntryNode)
+     */
+    @Override
+    protected void entryChanged(PersistEntryNode p) throws FException {
+        if (persistPolicy == PersistPolicy.ON_CHANGE) {
+            queue(encode(RECORD_PUT, p));
+        } else {
+            super.entryChanged(p);
+        }
+    } // entryChanged()
+
+    /**
+     * Queues entry remove record for the journal. Called under the storage 
+     * lock.
+     *
+     * @see org.friendlysnmp.persist.PersistStorageImpl#entryRemoved(org.friendlysnmp.FID)
+     */
+    @Override
+    protected void entryRemoved(FID id) throws FException {
+        if (persistPolicy == PersistPolicy.ON_CHANGE) {
+            queue(encode(RECORD_REMOVE, id));
+        } else {
+            super.entryRemoved(id);
+        }
+    } // entryRemoved()
+
+    /**
+     * Saves persistence storage as a snapshot and truncates the journal.
+     *
+     * @see org.friendlysnmp.persist.PersistStorageImpl#save()
+     */
+    @Override
+    public void save() throws FException {
+        compact(true);
+    } // save()
+
+    /**
+     * Appends a record for each changed or removed entry to the journal.
+     * Records are encoded under the storage lock and written without it,
+     * so the journal I/O does not block <code>put()</code>.
+     *
+     * @see org.friendlysnmp.persist.PersistStorageImpl#flush(java.util.Set)
+     */
+    @Override
+    protected void flush(Set<FID> hsID) throws FException {
+        List<byte[]> lstRecord = new ArrayList<byte[]>(hsID.size());
+        synchronized (this) {
+            for (FID id : hsID) {
+                PersistEntryNode p = getPersistScalar(id);
+                if (p == null) {
+                    p = getPersistTable(id);
+                }
+                if (p == null) {
+                    lstRecord.add(encode(RECORD_REMOVE, id));
+                } else {
+                    lstRecord.add(encode(RECORD_PUT, p));
+                }
+            }
+        }
+        if (append(lstRecord)) {
+            compact(false);
+        }
+    } // flush()
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.friendlysnmp.persist.PersistStorage#shutdown()
+     */
+    @Override
+    public void shutdown() throws FException {
+        // Not synchronized: the flush thread might wait for this lock
+        super.shutdown();
+        synchronized (lockJournal) {
+            closeJournal();
+        }
+    } // shutdown()
+
+    //--------------------------------separator--------------------------------
+    static int ______JOURNAL;
+
+    /**
+     * Queues encoded record to be written by <code>appendPending()</code>.
+     *
+     * @param record encoded record
+     */
+    private void queue(byte[] record) {
+        synchronized (lockJournal) {
+            lstPending.add(record);
+        }
+    } // queue()
+
+    /**
+     * Writes queued records to the journal. Compacts the journal when
+     * count of records reaches the threshold. Called without the storage
+     * lock.
+     *
+     * @throws FException
+     */
+    private void appendPending() throws FException {
+        if (append(Collections.<byte[]>emptyList())) {
+            compact(false);
+        }
+    } // appendPending()
+
+    /**
+     * Encodes journal record.
+     *
+     * @param type record type
+     * @param obj record object: entry or FID
+     * @return record bytes: type, length and encoded object
+     * @throws FException
+     */
+    private byte[] encode(byte type, Object obj) throws FException {
+        try {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            DataOutputStream dos = new DataOutputStream(baos);
+            if (type == RECORD_PUT) {
+                PersistCodec.writeEntry(dos, (PersistEntryNode)obj);
+            } else {
+                PersistCodec.writeFID(dos, (FID)obj);
+            }
+            dos.close();
+            ByteArrayOutputStream baosRecord = new ByteArrayOutputStream(baos.size() + 5);
+            DataOutputStream dosRecord = new DataOutputStream(baosRecord);
+            dosRecord.writeByte(type);
+            dosRecord.writeInt(baos.size());
+            baos.writeTo(dosRecord);
+            dosRecord.close();
+            return baosRecord.toByteArray();
+        } catch (IOException e) {
+            throw new FException(
+                    "Failure to encode persistence journal record", e);
+        }
+    } // encode()
+
+    /**
+     * Writes queued records and encoded records to the journal.
+     *
+     * @param lstRecord encoded records
+     * @return true if count of records reached the compaction threshold
+     * @throws FException
+     */
+    private boolean append(List<byte[]> lstRecord) throws FException {
+        synchronized (lockJournal) {
+            writeRecords(lstRecord);
+            return countRecord >= compactThreshold  &&  !compacting;
+        }
+    } // append()
+
+    /**
+     * Writes queued records and encoded records to the journal. Queued
+     * records are kept if writing fails. The caller holds the journal lock.
+     *
+     * @param lstRecord encoded records
+     * @throws FException
+     */
+    private void writeRecords(List<byte[]> lstRecord) throws FException {
+        if (lstPending.isEmpty()  &&  lstRecord.isEmpty()) {
+            return;
+        }
+        try {
+            if (dosJournal == null) {
+                openJournal(true);
+            }
+            for (byte[] record : lstPending) {
+                dosJournal.write(record);
+            }
+            for (byte[] record : lstRecord) {
+                dosJournal.write(record);
+            }
+            dosJournal.flush();
+        } catch (IOException e) {
+            throw new FException(
+                    "Failure to append persistence journal " + fileJournal, e);
+        }
+        countRecord += lstPending.size() + lstRecord.size();
+        lstPending.clear();
+    } // writeRecords()
+
+    /**
+     * Replays journal records on top of loaded snapshot.
+     *
+     * @param file journal file
+     * @return count of replayed records
+     */
+    private int replay(File file) {
+        int count = 0;
+        DataInputStream dis = null;
+        try {
+            dis = new DataInputStream(new BufferedInputStream(
+                  new FileInputStream(file)));
+            while (true) {
+                int type;
+                try {
+                    type = dis.readByte();
+                } catch (EOFException e) {
+                    break; // regular end of the journal
+                }
+                byte[] buf = new byte[dis.readInt()];
+                dis.readFully(buf);
+                DataInputStream disRecord = new DataInputStream(
+                                            new ByteArrayInputStream(buf));
+                if (type == RECORD_PUT) {
+                    restore(PersistCodec.readEntry(disRecord));
+                } else if (type == RECORD_REMOVE) {
+                    discard(PersistCodec.readFID(disRecord));
+                } else if (type == RECORD_PUT_SERIALIZED) {
+                    restore((PersistEntryNode)readSerialized(buf));
+                } else if (type == RECORD_REMOVE_SERIALIZED) {
+                    discard((FID)readSerialized(buf));
+                } else {
+                    throw new IOException("Not valid journal record type " + type);
+                }
+                count++;
+            }
+        } catch (Exception e) {
+            // IOException, ClassNotFoundException, ClassCastException
+            logger.warn(ThrowableFormatter.format(String.format(
+                    "Persistence journal %s is truncated after %d records. " +
+                    "The rest of the journal is ignored.", file, count), e));
+        } finally {
+            if (dis != null) {
+                try {
+                    dis.close();
+                } catch (IOException e) {
+                }
+            }
+        }
+        logger.info(String.format("Replayed %d records from journal %s",
+                count, file));
+        return count;
+    } // replay()
+
+    /**
+     * Reads record object serialized by <code>ObjectOutputStream</code>.
+     *
+     * @param buf record content
+     * @return record object
+     * @throws IOException
+     * @throws ClassNotFoundException
+     */
+    private static Object readSerialized(byte[] buf)
+    throws IOException, ClassNotFoundException
+    {
+        ObjectInputStream ois = new ObjectInputStream(
+                                new ByteArrayInputStream(buf));
+        Object obj = ois.readObject();
+        ois.close();
+        return obj;
+    } // readSerialized()
+
+    /**
+     * Writes the snapshot and starts empty journal. Entries are copied
+     * and the journal is renamed to the old journal under both locks, 
+     * so the old journal holds exactly the records included into the
+     * copied entries. The snapshot is written without the locks and the
+     * old journal is deleted only after the snapshot is saved.
+     * <p>If the snapshot is not saved, the old journal is kept and the 
+     * next compaction appends the journal to it. The next compaction 
+     * starts after the threshold count of new records.
+     *
+     * @param wait true to wait for compaction in progress, false to skip
+     * @throws FException
+     */
+    private void compact(boolean wait) throws FException {
+        Set<PersistEntryNode> hs;
+        int count;
+        while (true) {
+            synchronized (lockJournal) {
+                while (compacting) {
+                    if (!wait) {
+                        return;
+                    }
+                    try {
+                        lockJournal.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new FException(
+                                "Interrupted waiting for journal compaction");
+                    }
+                }
+            }
+            synchronized (this) {
+                synchronized (lockJournal) {
+                    if (compacting) {
+                        continue;
+                    }
+                    hs = copyEntries();
+                    rotateJournal();
+                    compacting = true;
+                    count = countRecord;
+                    countRecord = 0;
+                    break;
+                }
+            }
+        }
+        try {
+            save(hs);
+            Files.deleteIfExists(fileJournalOld.toPath());
+        } catch (IOException e) {
+            throw new FException(
+                    "Failure to delete persistence journal " + fileJournalOld, e);
+        } finally {
+            synchronized (lockJournal) {
+                compacting = false;
+                lockJournal.notifyAll();
+            }
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug(String.format(
+                    "Compacted journal after %d records", count));
+        }
+    } // compact()
+
+    /**
+     * Moves journal records into the old journal and starts empty journal.
+     * The caller holds the journal lock.
+     *
+     * @throws FException
+     */
+    private void rotateJournal() throws FException {
+        // Queued records are included into the copied entries
+        writeRecords(Collections.<byte[]>emptyList());
+        closeJournal();
+        try {
+            if (fileJournal.isFile()  &&  fileJournalOld.isFile()) {
+                // Previous compaction failed: the old journal is still required
+                Files.write(fileJournalOld.toPath(), 
+                        Files.readAllBytes(fileJournal.toPath()), 
+                        StandardOpenOption.APPEND);
+            } else if (fileJournal.isFile()) {
+                Files.move(fileJournal.toPath(), fileJournalOld.toPath());
+            }
+        } catch (IOException e) {
+            // Journal is not truncated: records are kept for the next compaction
+            openJournal(true);
+            throw new FException(
+                    "Failure to rotate persistence journal " + fileJournal, e);
+        }
+        openJournal(false);
+    } // rotateJournal()
+
+    /**
+     * Opens journal output stream.
+     *
+     * @param append true to append to existing journal, false to truncate it
+     * @throws FException
+     */
+    private void openJournal(boolean append) throws FException {
+        try {
+            dosJournal = new DataOutputStream(new BufferedOutputStream(
+                         new FileOutputStream(fileJournal, append)));
+        } catch (IOException e) {
+            throw new FException(
+                    "Failure to open persistence journal " + fileJournal, e);
+        }
+    } // openJournal()
+
+    /**
+     * Closes journal output stream.
+     */
+    private void closeJournal() {
+        if (dosJournal != null) {
+            try {
+                dosJournal.close();
+            } catch (IOException e) {
+                logger.warn(ThrowableFormatter.format(
+                        "Failure to close persistence journal " + fileJournal, e));
+            }
+            dosJournal = null;
+        }
+    } // closeJournal()
+
+} // class PersistStorageJournal
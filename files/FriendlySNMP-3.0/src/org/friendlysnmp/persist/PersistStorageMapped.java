@@ -0,0 +1,1068 @@
+/*
+ * File: PersistStorageMapped.java
+ *
+ * Copyright (C) 2014 FriendlySNMP.org; All Rights Reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as
+ * published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301  USA
+ *
+ * $Id$
+ */
+package org.friendlysnmp.persist;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.friendlysnmp.FColumn;
+import org.friendlysnmp.FException;
+import org.friendlysnmp.FID;
+import org.friendlysnmp.FScalar;
+import org.friendlysnmp.FTable;
+import org.friendlysnmp.ThrowableFormatter;
+import org.friendlysnmp.ValueSyntax;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.snmp4j.smi.OID;
+
+/**
+ * Implementation of <code>PersistStorage</code>, which keeps persistent
+ * entries in a memory-mapped file. The heap keeps only the file offsets
+ * of scalars and tables; values are decoded from the file on request.
+ * <p>The file is a sequence of records: scalar, table header and table
+ * row. Rows of the table are linked into a list starting at the table
+ * header record. A change appends a new record and marks the replaced
+ * record as dead in place, so the table update writes only changed rows.
+ * The file is compacted when dead records take more space than live ones.
+ * <p>The file name is the persistence storage file name with
+ * <code>.map</code> suffix. If the file does not exist, the entries are
+ * imported from the persistence storage file (if any).
+ * <p>Compaction copies live records into the file with
+ * <code>.map.compact</code> suffix, which becomes the current file. The file
+ * mapped before is marked not valid but it is not renamed or deleted: 
+ * this is not possible on Windows while the file is mapped. The compacted
+ * file replaces the <code>.map</code> file at the next start.
+ * <p>Data is written into the mapped memory immediately. It is forced
+ * to the disk on each change for <code>PersistPolicy.ON_CHANGE</code>
+ * and on <code>save()</code> / <code>shutdown()</code> otherwise.
+ *
+ * @version $Revision$
+ */
+public class PersistStorageMapped extends PersistStorage {
+    /**
+     * Logger object
+     */
+    private static final Logger logger = LoggerFactory.getLogger(PersistStorageMapped.class);
+
+    /**
+     * Magic in the beginning of the file: "FSNM"
+     */
+    private static final int MAGIC = 0x46534E4D;
+
+    /**
+     * Current file format version.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * Header position of the end of records.
+     */
+    private static final int POS_TAIL = 8;
+
+    /**
+     * Header size: magic, version, end of records.
+     */
+    private static final int HEADER_SIZE = 12;
+
+    /**
+     * Record type: scalar.
+     */
+    private static final byte RECORD_SCALAR = 1;
+
+    /**
+     * Record type: table header.
+     */
+    private static final byte RECORD_TABLE = 2;
+
+    /**
+     * Record type: table row.
+     */
+    private static final byte RECORD_ROW = 3;
+
+    /**
+     * Record offset of the record length.
+     */
+    private static final int REC_LENGTH = 0;
+
+    /**
+     * Record offset of the record type.
+     */
+    private static final int REC_TYPE = 4;
+
+    /**
+     * Record offset of the live flag.
+     */
+    private static final int REC_LIVE = 5;
+
+    /**
+     * Record offset of the link: first row for the table header record,
+     * next row for the row record. Zero is the end of the list.
+     */
+    private static final int REC_LINK = 6;
+
+    /**
+     * Record offset of the scalar content.
+     */
+    private static final int REC_SCALAR_CONTENT = 6;
+
+    /**
+     * Record offset of the table header and row content.
+     */
+    private static final int REC_LINKED_CONTENT = 10;
+
+    /**
+     * Initial mapped file size.
+     */
+    private static final int INITIAL_CAPACITY = 1 << 20;
+
+    /**
+     * Minimum size of dead records before compaction.
+     */
+    private static final int COMPACT_MIN_GARBAGE = 1 << 20;
+
+    /**
+     * Mapped file.
+     */
+    private File fileMap;
+
+    /**
+     * Compacted file which replaces mapped file at the next start.
+     */
+    private File fileCompact;
+
+    /**
+     * Current file: mapped file or compacted file.
+     */
+    private File fileLive;
+
+    /**
+     * Mapped file channel.
+     */
+    private FileChannel channel;
+
+    /**
+     * Mapped file content.
+     */
+    private MappedByteBuffer buf;
+
+    /**
+     * End of records.
+     */
+    private int tail;
+
+    /**
+     * Size of dead records.
+     */
+    private long garbage;
+
+    /**
+     * Scalar record offsets.
+     */
+    private Map<FID, Integer> hmScalar;
+
+    /**
+     * Table header record offsets.
+     */
+    private Map<FID, Integer> hmTable;
+
+    /**
+     * Size of dead records which allows next compaction
+     * after the failure to compact.
+     */
+    private long compactRetryGarbage;
+
+    /**
+     * Growth of dead records size before the next compaction attempt.
+     * Doubled after each failure to compact.
+     */
+    private long compactBackoff;
+
+    /**
+     * Constructor
+     *
+     * @param filename persistence storage filename
+     * @throws FException
+     */
+    public PersistStorageMapped(String filename) throws FException {
+        hmScalar = new TreeMap<FID, Integer>();
+        hmTable  = new TreeMap<FID, Integer>();
+        // Validation
+        filename = filename.trim();
+        if (filename.isEmpty()) {
+            throw new FException("Persistent storage filename is empty.");
+        }
+        fileMap = new File(filename + ".map");
+        fileCompact = new File(fileMap.getPath() + ".compact");
+        fileLive = fileMap;
+        logger.debug(String.format("Mapped storage filename '%s'", fileMap));
+        boolean exists;
+        try {
+            replaceCompacted();
+            exists = fileMap.isFile();
+            open(fileMap);
+            if (exists) {
+                scan();
+            } else {
+                initHeader();
+            }
+        } catch (IOException e) {
+            throw new FException("Failure to open persistence file " + fileMap, e);
+        }
+        if (!exists  &&  new File(filename).isFile()) {
+            importStorage(new PersistStorageImpl(filename));
+        }
+        logger.info(String.format("Loaded mapped persist file: %s " +
+                "(scalars=%d tables=%d size=%d dead=%d)",
+                fileMap, hmScalar.size(), hmTable.size(), tail, garbage));
+        checkCompact();
+    } // PersistStorageMapped()
+
+    //--------------------------------separator--------------------------------
+    static int ______SCALARS;
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.friendlysnmp.persist.PersistStorage#put(org.friendlysnmp.FScalar)
+     */
+    @Override
+    public synchronized void put(FScalar scalar) throws FException {
+        PersistEntryScalar pe = new PersistEntryScalar(scalar);
+        FID id = pe.getFID();
+        try {
+            byte[] rec = scalarRecord(id, pe.getScalarSyntax(), pe.getScalarValue());
+            Integer off = hmScalar.get(id);
+            if (off != null  &&
+                sameContent(readRecord(buf, off), rec, REC_SCALAR_CONTENT))
+            {
+                return;
+            }
+            logger.debug(pe.toString());
+            hmScalar.put(id, append(rec));
+            if (off != null) {
+                kill(off);
+            }
+        } catch (IOException e) {
+            throw new FException("Failure to save scalar " + id, e);
+        }
+        changed();
+    } // put()
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.friendlysnmp.persist.PersistStorage#getPersistScalar(FID)
+     */
+    @Override
+    public synchronized PersistEntryScalar getPersistScalar(FID id) {
+        Integer off = hmScalar.get(id);
+        if (off == null) {
+            return null;
+        }
+        try {
+            return decodeScalar(off);
+        } catch (IOException e) {
+            logger.error(ThrowableFormatter.format(
+                    "Failure to read persistent scalar " + id, e));
+            return null;
+        }
+    } // getPersistScalar()
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.friendlysnmp.persist.PersistStorage#getPersistScalars()
+     */
+    @Override
+    public synchronized PersistEntryScalar[] getPersistScalars() {
+        PersistEntryScalar[] peAll = new PersistEntryScalar[hmScalar.size()];
+        int i = 0;
+        for (FID id : hmScalar.keySet()) {
+            peAll[i++] = getPersistScalar(id);
+        }
+        return peAll;
+    } // getPersistScalars()
+
+    //--------------------------------separator--------------------------------
+    static int ______TABLES;
+
+    /**
+     * {@inheritDoc}
+     * <p>Only changed, added and deleted rows are written. Only rows 
+     * modified since previous call are read from the table if the storage 
+     * has the table; unchanged table is skipped without reading its content.
+     *
+     * @see org.friendlysnmp.persist.PersistStorage#put(org.friendlysnmp.FTable)
+     * @see org.friendlysnmp.FTable#drainDirtyRows()
+     */
+    @Override
+    public synchronized void put(FTable table) throws FException {
+        FID id = table.getFID();
+        Set<FID> hsRow = table.drainDirtyRows(); // null for all rows
+        if (hsRow != null  &&  hsRow.isEmpty()  &&  hmTable.containsKey(id)) {
+            return;
+        }
+        FColumn[] columnAll = table.getColumns();
+        ValueSyntax[] syntaxAll = new ValueSyntax[columnAll.length];
+        for (int c = 0;  c < columnAll.length;  c++) {
+            syntaxAll[c] = table.getColumnSyntax(columnAll[c]);
+        }
+        int countChanged = 0;
+        try {
+            byte[] recTable = tableRecord(id, columnAll, syntaxAll);
+            Integer offOld = hmTable.get(id);
+            int offTable;
+            if (offOld != null  &&
+                sameContent(readRecord(buf, offOld), recTable, REC_LINKED_CONTENT))
+            {
+                offTable = offOld;
+            } else {
+                // New table or columns are modified: start new rows list
+                offTable = append(recTable);
+                hmTable.put(id, offTable);
+                if (offOld != null) {
+                    killTable(offOld);
+                }
+                hsRow = null; // all rows go to the new rows list
+                countChanged++;
+            }
+            // Walk stored rows: drop deleted rows and replace changed rows
+            Set<FID> hsStored = new HashSet<FID>();
+            int offPrev = offTable;
+            int offRow = buf.getInt(offTable + REC_LINK);
+            while (offRow != 0) {
+                int offNext = buf.getInt(offRow + REC_LINK);
+                byte[] recOld = readRecord(buf, offRow);
+                OID oidRow = PersistCodec.readOID(input(recOld, REC_LINKED_CONTENT));
+                FID idRow = new FID(oidRow);
+                if (hsRow != null  &&  !hsRow.contains(idRow)) {
+                    offPrev = offRow; // not modified
+                } else if (table.getRowIndex(idRow) < 0) {
+                    buf.putInt(offPrev + REC_LINK, offNext);
+                    kill(offRow);
+                    countChanged++;
+                } else {
+                    hsStored.add(idRow);
+                    byte[] recNew = rowRecord(oidRow, syntaxAll,
+                            rowValues(table, idRow, columnAll), offNext);
+                    if (sameContent(recOld, recNew, REC_LINKED_CONTENT)) {
+                        offPrev = offRow;
+                    } else {
+                        int offNew = append(recNew);
+                        buf.putInt(offPrev + REC_LINK, offNew);
+                        kill(offRow);
+                        offPrev = offNew;
+                        countChanged++;
+                    }
+                }
+                offRow = offNext;
+            }
+            // Add new rows in front of the list
+            List<FID> lstAdd = new ArrayList<FID>();
+            if (hsRow == null) {
+                int rowCount = table.getRowCount();
+                for (int r = 0;  r < rowCount;  r++) {
+                    lstAdd.add(table.getRowID(r));
+                }
+            } else {
+                for (FID idRow : hsRow) {
+                    if (table.getRowIndex(idRow) >= 0) {
+                        lstAdd.add(idRow);
+                    }
+                }
+            }
+            for (FID idRow : lstAdd) {
+                if (!hsStored.contains(idRow)) {
+                    byte[] recNew = rowRecord(idRow.getOID(), syntaxAll,
+                            rowValues(table, idRow, columnAll),
+                            buf.getInt(offTable + REC_LINK));
+                    buf.putInt(offTable + REC_LINK, append(recNew));
+                    countChanged++;
+                }
+            }
+        } catch (IOException e) {
+            throw new FException("Failure to save table " + id, e);
+        }
+        if (countChanged > 0) {
+            if (logger.isDebugEnabled()) {
+                logger.debug(String.format("Table %s: saved %d changes",
+                        id, countChanged));
+            }
+            changed();
+        }
+    } // put()
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.friendlysnmp.persist.PersistStorage#getPersistTable(FID)
+     */
+    @Override
+    public synchronized PersistEntryTable getPersistTable(FID id) {
+        Integer off = hmTable.get(id);
+        if (off == null) {
+            return null;
+        }
+        try {
+            return decodeTable(off);
+        } catch (IOException e) {
+            logger.error(ThrowableFormatter.format(
+                    "Failure to read persistent table " + id, e));
+            return null;
+        }
+    } // getPersistTable()
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.friendlysnmp.persist.PersistStorage#getPersistTables()
+     */
+    @Override
+    public synchronized PersistEntryTable[] getPersistTables() {
+        PersistEntryTable[] peAll = new PersistEntryTable[hmTable.size()];
+        int i = 0;
+        for (FID id : hmTable.keySet()) {
+            peAll[i++] = getPersistTable(id);
+        }
+        return peAll;
+    } // getPersistTables()
+
+    //--------------------------------separator--------------------------------
+    static int ______ALL;
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.friendlysnmp.persist.PersistStorage#remove(org.friendlysnmp.FID)
+     */
+    @Override
+    public synchronized void remove(FID id) throws FException {
+        Integer off = hmScalar.remove(id);
+        if (off != null) {
+            kill(off);
+        }
+        off = hmTable.remove(id);
+        if (off != null) {
+            killTable(off);
+        }
+        changed();
+    } // remove()
+
+    /**
+     * Forces mapped file content to the disk.
+     *
+     * @see org.friendlysnmp.persist.PersistStorage#save()
+     */
+    @Override
+    public synchronized void save() throws FException {
+        buf.force();
+    } // save()
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.friendlysnmp.persist.PersistStorage#shutdown()
+     */
+    @Override
+    public synchronized void shutdown() throws FException {
+        super.shutdown();
+        buf.force();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.warn(ThrowableFormatter.format(
+                    "Failure to close persistence file " + fileLive, e));
+        }
+    } // shutdown()
+
+    /**
+     * Called after each change.
+     *
+     * @throws FException
+     */
+    private void changed() throws FException {
+        if (persistPolicy == PersistPolicy.ON_CHANGE) {
+            buf.force();
+        }
+        checkCompact();
+    } // changed()
+
+    //--------------------------------separator--------------------------------
+    static int ______RECORDS;
+
+    /**
+     * Creates scalar record.
+     *
+     * @param id scalar ID
+     * @param syntax value syntax
+     * @param obj value
+     * @return record
+     * @throws IOException
+     */
+    private static byte[] scalarRecord(FID id, ValueSyntax syntax, Object obj)
+    throws IOException
+    {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream dos = startRecord(baos, RECORD_SCALAR);
+        PersistCodec.writeFID(dos, id);
+        PersistCodec.writeVarInt(dos, syntax.toInt());
+        dos.writeBoolean(obj != null);
+        if (obj != null) {
+            PersistCodec.writeValue(dos, syntax, obj);
+        }
+        return finishRecord(baos);
+    } // scalarRecord()
+
+    /**
+     * Creates table header record with empty rows list.
+     *
+     * @param id table ID
+     * @param columnAll columns
+     * @param syntaxAll columns syntax
+     * @return record
+     * @throws IOException
+     */
+    private static byte[] tableRecord(FID id,
+            FColumn[] columnAll, ValueSyntax[] syntaxAll)
+    throws IOException
+    {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream dos = startRecord(baos, RECORD_TABLE);
+        dos.writeInt(0); // no rows
+        PersistCodec.writeFID(dos, id);
+        PersistCodec.writeVarInt(dos, columnAll.length);
+        for (int c = 0;  c < columnAll.length;  c++) {
+            PersistCodec.writeString(dos, columnAll[c].getName());
+            PersistCodec.writeVarInt(dos, columnAll[c].getIndex_InTable());
+            PersistCodec.writeVarInt(dos, columnAll[c].getId_InMIB());
+            PersistCodec.writeVarInt(dos, syntaxAll[c].toInt());
+        }
+        return finishRecord(baos);
+    } // tableRecord()
+
+    /**
+     * Creates table row record.
+     *
+     * @param oid row OID
+     * @param syntaxAll columns syntax
+     * @param objAll row values
+     * @param offNext offset of the next row record
+     * @return record
+     * @throws IOException
+     */
+    private static byte[] rowRecord(OID oid,
+            ValueSyntax[] syntaxAll, Object[] objAll, int offNext)
+    throws IOException
+    {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream dos = startRecord(baos, RECORD_ROW);
+        dos.writeInt(offNext);
+        PersistCodec.writeOID(dos, oid);
+        PersistCodec.writeRowValues(dos, syntaxAll, objAll);
+        return finishRecord(baos);
+    } // rowRecord()
+
+    /**
+     * Starts record: length placeholder, type and live flag.
+     *
+     * @param baos record buffer
+     * @param type record type
+     * @return output for the record content
+     * @throws IOException
+     */
+    private static DataOutputStream startRecord(ByteArrayOutputStream baos, byte type)
+    throws IOException
+    {
+        DataOutputStream dos = new DataOutputStream(baos);
+        dos.writeInt(0);
+        dos.writeByte(type);
+        dos.writeByte(1);
+        return dos;
+    } // startRecord()
+
+    /**
+     * Completes record by setting its length.
+     *
+     * @param baos record buffer
+     * @return record
+     */
+    private static byte[] finishRecord(ByteArrayOutputStream baos) {
+        byte[] rec = baos.toByteArray();
+        ByteBuffer.wrap(rec).putInt(REC_LENGTH, rec.length);
+        return rec;
+    } // finishRecord()
+
+    /**
+     * Returns table row values.
+     *
+     * @param table table
+     * @param idRow row ID
+     * @param columnAll columns
+     * @return row values
+     * @throws FException
+     */
+    private static Object[] rowValues(FTable table, FID idRow, FColumn[] columnAll)
+    throws FException
+    {
+        Object[] objAll = new Object[columnAll.length];
+        for (int c = 0;  c < columnAll.length;  c++) {
+            objAll[c] = table.getValueAt(idRow, columnAll[c]);
+        }
+        return objAll;
+    } // rowValues()
+
+    /**
+     * Compares records content starting from the specified offset.
+     *
+     * @param rec1 record
+     * @param rec2 record
+     * @param from offset of the compared content
+     * @return true if content is the same
+     */
+    private static boolean sameContent(byte[] rec1, byte[] rec2, int from) {
+        if (rec1.length != rec2.length) {
+            return false;
+        }
+        for (int i = from;  i < rec1.length;  i++) {
+            if (rec1[i] != rec2[i]) {
+                return false;
+            }
+        }
+        return true;
+    } // sameContent()
+
+    /**
+     * Returns input for the record content.
+     *
+     * @param rec record
+     * @param from content offset
+     * @return input
+     */
+    private static DataInputStream input(byte[] rec, int from) {
+        return new DataInputStream(
+               new ByteArrayInputStream(rec, from, rec.length - from));
+    } // input()
+
+    /**
+     * Decodes scalar record.
+     *
+     * @param off record offset
+     * @return persistent scalar entry
+     * @throws IOException
+     */
+    private PersistEntryScalar decodeScalar(int off) throws IOException {
+        DataInputStream dis = input(readRecord(buf, off), REC_SCALAR_CONTENT);
+        FID id = PersistCodec.readFID(dis);
+        ValueSyntax syntax = PersistCodec.readSyntax(dis);
+        Object obj = null;
+        if (dis.readBoolean()) {
+            obj = PersistCodec.readValue(dis, syntax);
+        }
+        return new PersistEntryScalar(id, syntax, obj);
+    } // decodeScalar()
+
+    /**
+     * Decodes table header record and its rows.
+     *
+     * @param off table header record offset
+     * @return persistent table entry with rows ordered by OID
+     * @throws IOException
+     */
+    private PersistEntryTable decodeTable(int off) throws IOException {
+        DataInputStream dis = input(readRecord(buf, off), REC_LINKED_CONTENT);
+        FID id = PersistCodec.readFID(dis);
+        int columnCount = PersistCodec.readVarInt(dis);
+        FColumn[] columnAll = new FColumn[columnCount];
+        ValueSyntax[] syntaxAll = new ValueSyntax[columnCount];
+        for (int c = 0;  c < columnCount;  c++) {
+            String name = PersistCodec.readString(dis);
+            int colIndex = PersistCodec.readVarInt(dis);
+            int colId = PersistCodec.readVarInt(dis);
+            columnAll[c] = new FColumn(name, colIndex, colId);
+            syntaxAll[c] = PersistCodec.readSyntax(dis);
+        }
+        TreeMap<OID, PersistEntryTableRow> hmRow = new TreeMap<OID, PersistEntryTableRow>();
+        for (int offRow = buf.getInt(off + REC_LINK);  offRow != 0;
+             offRow = buf.getInt(offRow + REC_LINK))
+        {
+            dis = input(readRecord(buf, offRow), REC_LINKED_CONTENT);
+            OID oid = PersistCodec.readOID(dis);
+            PersistEntryTableRow row = new PersistEntryTableRow(oid, columnCount);
+            PersistCodec.readRowValues(dis, syntaxAll, row.objAll);
+            hmRow.put(oid, row);
+        }
+        return new PersistEntryTable(id, columnAll, syntaxAll,
+                hmRow.values().toArray(new PersistEntryTableRow[hmRow.size()]));
+    } // decodeTable()
+
+    //--------------------------------separator--------------------------------
+    static int ______FILE;
+
+    /**
+     * Opens and maps file.
+     *
+     * @param file file
+     * @throws IOException
+     */
+    private void open(File file) throws IOException {
+        channel = new RandomAccessFile(file, "rw").getChannel();
+        long size = Math.max(channel.size(), INITIAL_CAPACITY);
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Persistence file is too big: " + file);
+        }
+        buf = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    } // open()
+
+    /**
+     * Writes header of empty file.
+     */
+    private void initHeader() {
+        buf.putInt(0, MAGIC);
+        buf.putInt(4, VERSION);
+        tail = HEADER_SIZE;
+        buf.putInt(POS_TAIL, tail);
+    } // initHeader()
+
+    /**
+     * Scans records and builds scalars and tables offsets.
+     * Truncated record at the end (application termination
+     * while writing) is ignored.
+     *
+     * @throws IOException for not valid file
+     */
+    private void scan() throws IOException {
+        if (buf.getInt(0) != MAGIC  ||  buf.getInt(4) != VERSION) {
+            throw new IOException("Not valid mapped persistence file format");
+        }
+        tail = buf.getInt(POS_TAIL);
+        if (tail < HEADER_SIZE  ||  tail > buf.capacity()) {
+            throw new IOException("Not valid mapped persistence file size " + tail);
+        }
+        int off = HEADER_SIZE;
+        while (off < tail) {
+            int length = buf.getInt(off + REC_LENGTH);
+            if (length < REC_LINKED_CONTENT  ||  length > tail - off) {
+                logger.warn(String.format("Persistence file %s is truncated " +
+                        "at %d. The rest of the file is ignored.", fileMap, off));
+                tail = off;
+                buf.putInt(POS_TAIL, tail);
+                break;
+            }
+            if (buf.get(off + REC_LIVE) == 0) {
+                garbage += length;
+            } else {
+                byte type = buf.get(off + REC_TYPE);
+                if (type == RECORD_SCALAR) {
+                    FID id = PersistCodec.readFID(
+                            input(readRecord(buf, off), REC_SCALAR_CONTENT));
+                    Integer offOld = hmScalar.put(id, off);
+                    if (offOld != null) {
+                        kill(offOld);
+                    }
+                } else if (type == RECORD_TABLE) {
+                    FID id = PersistCodec.readFID(
+                            input(readRecord(buf, off), REC_LINKED_CONTENT));
+                    Integer offOld = hmTable.put(id, off);
+                    if (offOld != null) {
+                        killTable(offOld);
+                    }
+                }
+            }
+            off += length;
+        }
+    } // scan()
+
+    /**
+     * Imports entries from the persistence storage.
+     *
+     * @param storage persistence storage
+     * @throws FException
+     */
+    private void importStorage(PersistStorage storage) throws FException {
+        try {
+            for (PersistEntryScalar pe : storage.getPersistScalars()) {
+                hmScalar.put(pe.getFID(), append(scalarRecord(
+                        pe.getFID(), pe.getScalarSyntax(), pe.getScalarValue())));
+            }
+            for (PersistEntryTable pe : storage.getPersistTables()) {
+                int columnCount = pe.getColumnCount();
+                FColumn[] columnAll = new FColumn[columnCount];
+                ValueSyntax[] syntaxAll = new ValueSyntax[columnCount];
+                for (int c = 0;  c < columnCount;  c++) {
+                    columnAll[c] = pe.getColumn(c);
+                    syntaxAll[c] = pe.getColumnSyntax(c);
+                }
+                int offTable = append(tableRecord(pe.getFID(), columnAll, syntaxAll));
+                hmTable.put(pe.getFID(), offTable);
+                for (PersistEntryTableRow row : pe.getRows()) {
+                    int offRow = append(rowRecord(row.getOID(), syntaxAll,
+                            row.objAll, buf.getInt(offTable + REC_LINK)));
+                    buf.putInt(offTable + REC_LINK, offRow);
+                }
+            }
+        } catch (IOException e) {
+            throw new FException("Failure to import persistent storage", e);
+        }
+        buf.force();
+        logger.info(String.format("Imported %d scalars and %d tables into %s",
+                hmScalar.size(), hmTable.size(), fileMap));
+    } // importStorage()
+
+    /**
+     * Reads record.
+     *
+     * @param b mapped file content
+     * @param off record offset
+     * @return record
+     */
+    private static byte[] readRecord(ByteBuffer b, int off) {
+        byte[] rec = new byte[b.getInt(off + REC_LENGTH)];
+        ByteBuffer dup = b.duplicate();
+        dup.position(off);
+        dup.get(rec);
+        return rec;
+    } // readRecord()
+
+    /**
+     * Appends record. The file is remapped with doubled size if the
+     * record does not fit.
+     *
+     * @param rec record
+     * @return record offset
+     * @throws IOException
+     */
+    private int append(byte[] rec) throws IOException {
+        if ((long)tail + rec.length > buf.capacity()) {
+            long size = buf.capacity();
+            while (size < (long)tail + rec.length) {
+                size *= 2;
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Persistence file is too big: " + fileLive);
+            }
+            buf = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        int off = tail;
+        ByteBuffer dup = buf.duplicate();
+        dup.position(off);
+        dup.put(rec);
+        tail += rec.length;
+        buf.putInt(POS_TAIL, tail);
+        return off;
+    } // append()
+
+    /**
+     * Marks record as dead.
+     *
+     * @param off record offset
+     */
+    private void kill(int off) {
+        buf.put(off + REC_LIVE, (byte)0);
+        garbage += buf.getInt(off + REC_LENGTH);
+    } // kill()
+
+    /**
+     * Marks table header record and all its rows as dead.
+     *
+     * @param off table header record offset
+     */
+    private void killTable(int off) {
+        for (int offRow = buf.getInt(off + REC_LINK);  offRow != 0;
+             offRow = buf.getInt(offRow + REC_LINK))
+        {
+            kill(offRow);
+        }
+        kill(off);
+    } // killTable()
+
+    /**
+     * Compacts the file if dead records take more space than live ones.
+     * Failure to compact is logged and the current file is used further.
+     * Next attempt is delayed until dead records grow by the backoff size, 
+     * which is doubled after each failure.
+     */
+    private void checkCompact() {
+        if (garbage < COMPACT_MIN_GARBAGE  ||  garbage < tail - garbage  ||
+            garbage < compactRetryGarbage)
+        {
+            return;
+        }
+        try {
+            compact();
+            compactRetryGarbage = 0;
+            compactBackoff = 0;
+        } catch (IOException e) {
+            compactBackoff = (compactBackoff == 0) ? 
+                    COMPACT_MIN_GARBAGE : compactBackoff * 2;
+            compactRetryGarbage = garbage + compactBackoff;
+            logger.warn(ThrowableFormatter.format(String.format(
+                    "Failure to compact persistence file %s. Next attempt " +
+                    "after %d bytes of dead records.", 
+                    fileLive, compactRetryGarbage), e));
+        }
+    } // checkCompact()
+
+    /**
+     * Copies live records into the other file: compacted file or mapped
+     * file. The other file becomes the current file and the current
+     * file is marked not valid. The other file is valid only after 
+     * all records are copied and forced to the disk.
+     *
+     * @throws IOException
+     */
+    private void compact() throws IOException {
+        long garbageOld = garbage;
+        int tailOld = tail;
+        FileChannel channelOld = channel;
+        MappedByteBuffer bufOld = buf;
+        Map<FID, Integer> hmScalarOld = hmScalar;
+        Map<FID, Integer> hmTableOld = hmTable;
+        File fileNew = (fileLive == fileMap) ? fileCompact : fileMap;
+        boolean done = false;
+        try {
+            // The file might be mapped by the previous compaction:
+            // it is overwritten, not deleted
+            open(fileNew);
+            buf.putInt(0, 0); // not valid until all records are copied
+            buf.putInt(4, VERSION);
+            tail = HEADER_SIZE;
+            buf.putInt(POS_TAIL, tail);
+            garbage = 0;
+            hmScalar = new TreeMap<FID, Integer>();
+            hmTable  = new TreeMap<FID, Integer>();
+            for (Entry<FID, Integer> entry : hmScalarOld.entrySet()) {
+                hmScalar.put(entry.getKey(), append(readRecord(bufOld, entry.getValue())));
+            }
+            for (Entry<FID, Integer> entry : hmTableOld.entrySet()) {
+                int offOld = entry.getValue();
+                byte[] rec = readRecord(bufOld, offOld);
+                ByteBuffer.wrap(rec).putInt(REC_LINK, 0);
+                int offTable = append(rec);
+                hmTable.put(entry.getKey(), offTable);
+                for (int offRow = bufOld.getInt(offOld + REC_LINK);  offRow != 0;
+                     offRow = bufOld.getInt(offRow + REC_LINK))
+                {
+                    rec = readRecord(bufOld, offRow);
+                    ByteBuffer.wrap(rec).putInt(REC_LINK, buf.getInt(offTable + REC_LINK));
+                    buf.putInt(offTable + REC_LINK, append(rec));
+                }
+            }
+            buf.force();
+            buf.putInt(0, MAGIC);
+            buf.force();
+            done = true;
+        } finally {
+            if (!done) {
+                // Keep the current file. State is restored before 
+                // closing the new file, which might fail as well.
+                FileChannel channelNew = channel;
+                garbage = garbageOld;
+                tail = tailOld;
+                channel = channelOld;
+                buf = bufOld;
+                hmScalar = hmScalarOld;
+                hmTable = hmTableOld;
+                if (channelNew != channelOld) {
+                    closeSilently(channelNew, fileNew);
+                }
+            }
+        }
+        // Both files are valid with the same content until this point
+        bufOld.putInt(0, 0);
+        bufOld.force();
+        closeSilently(channelOld, fileLive);
+        fileLive = fileNew;
+        logger.info(String.format("Compacted persistence file %s: %d -> %d bytes",
+                fileLive, tailOld, tail));
+    } // compact()
+
+    /**
+     * Replaces mapped file with the compacted file left by the previous 
+     * run. Not valid compacted file (failure while compacting) is deleted.
+     * Called before the mapped file is opened.
+     *
+     * @throws IOException
+     */
+    private void replaceCompacted() throws IOException {
+        if (!fileCompact.isFile()) {
+            return;
+        }
+        if (isValid(fileCompact)) {
+            logger.info(String.format("Replacing persistence file %s with %s",
+                    fileMap, fileCompact));
+            Files.move(fileCompact.toPath(), fileMap.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            Files.delete(fileCompact.toPath());
+        }
+    } // replaceCompacted()
+
+    /**
+     * Checks the file starts with the magic.
+     *
+     * @param file file
+     * @return true if the file is valid
+     * @throws IOException
+     */
+    private static boolean isValid(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            return raf.length() >= HEADER_SIZE  &&  raf.readInt() == MAGIC;
+        } finally {
+            raf.close();
+        }
+    } // isValid()
+
+    /**
+     * Closes file channel. Failure is logged.
+     *
+     * @param ch file channel
+     * @param file file
+     */
+    private static void closeSilently(FileChannel ch, File file) {
+        try {
+            ch.close();
+        } catch (IOException e) {
+            logger.warn(ThrowableFormatter.format(
+                    "Failure to close persistence file " + file, e));
+        }
+    } // closeSilently()
+
+} // class PersistStorageMapped
@@ -0,0 +1,64 @@
+/*
+ * File: PersistStorageType.java
+ * 
+ * Copyright (C) 2014 FriendlySNMP.org; All Rights Reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as
+ * published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301  USA
+ * 
+ * $Id$
+ */
+package org.friendlysnmp.persist;
+
+import org.friendlysnmp.FException;
+
+/**
+ * Persistence storage implementation type. 
+ */
+public enum PersistStorageType { 
+    /**
+     * Whole persistence storage is serialized into a single file
+     * on each save. See <code>PersistStorageImpl</code>.
+     */
+    FILE, 
+    /**
+     * Changes are appended to a journal file which is periodically 
+     * compacted into a snapshot file. See <code>PersistStorageJournal</code>.
+     */
+    JOURNAL,
+    /**
+     * Entries are kept in a memory-mapped file with per-row records.
+     * See <code>PersistStorageMapped</code>.
+     */
+    MAPPED;
+    /**
+     * Finds <code>PersistStorageType</code> enum object from its string value. 
+     * Used to map <code>PersistStorageType</code> object to properties value. 
+     * 
+     * @param s string value
+     * @return <code>PersistStorageType</code> object
+     * @throws FException if <code>PersistStorageType</code> object is not found
+     */
+    public static PersistStorageType find(String s) throws FException { 
+        if (s != null) {
+            s = s.trim();
+            for (PersistStorageType p : PersistStorageType.values()) {
+                if (p.name().equalsIgnoreCase(s)) {
+                    return p;
+                }
+            }
+        }
+        throw new FException("Not valid '%s' persistency storage type", s);
+    }
+} // enum PersistStorageType
@@ -21,16 +21,18 @@
  */
 package org.friendlysnmp.plugin.core;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.Set;
 import java.util.TreeMap;
 
+import org.friendlysnmp.FColumn;
 import org.friendlysnmp.FConstant;
 import org.friendlysnmp.FException;
 import org.friendlysnmp.FHandler;
-import org.friendlysnmp.FID;
 import org.friendlysnmp.FTable;
 
 /**
@@ -63,14 +65,13 @@ public class CoreAppInfoHandler extends FHandler {
         FTable table = ((FriendlySnmpMibFriend)mibBase).getAppInfoEntry();
         try {
             Map<String, String> hm = agent.getConfig().getAppInfo();
-            table.deleteAll();
+            List<Object[]> lstRow = new ArrayList<Object[]>(hm.size());
             for (Entry<String, String> entry : hm.entrySet()) {
-                FID idRow = table.addRowNext();
-                table.setValueAt(entry.getKey(),  
-                        idRow, FriendlySnmpMibFriend.COLUMN_AppInfoName);
-                table.setValueAt(entry.getValue(),
-                        idRow, FriendlySnmpMibFriend.COLUMN_AppInfoDesc);
+                lstRow.add(new Object[] { entry.getKey(), entry.getValue() });
             }
+            table.replaceAll(new FColumn[] {
+                    FriendlySnmpMibFriend.COLUMN_AppInfoName, 
+                    FriendlySnmpMibFriend.COLUMN_AppInfoDesc }, lstRow);
         } catch (FException e) {
             mibBase.exceptionThrown(table, e);
         }
@@ -83,14 +84,13 @@ public class CoreAppInfoHandler extends FHandler {
         FTable table = ((FriendlySnmpMibFriend)mibBase).getAppDependenciesEntry();
         try {
             Map<String, String> hm = agent.getConfig().getAppDependencies();
-            table.deleteAll();
+            List<Object[]> lstRow = new ArrayList<Object[]>(hm.size());
             for (Entry<String, String> entry : hm.entrySet()) {
-                FID idRow = table.addRowNext();
-                table.setValueAt(entry.getKey(),  
-                        idRow, FriendlySnmpMibFriend.COLUMN_AppDependenciesName);
-                table.setValueAt(entry.getValue(),
-                        idRow, FriendlySnmpMibFriend.COLUMN_AppDependenciesDesc);
+                lstRow.add(new Object[] { entry.getKey(), entry.getValue() });
             }
+            table.replaceAll(new FColumn[] {
+                    FriendlySnmpMibFriend.COLUMN_AppDependenciesName, 
+                    FriendlySnmpMibFriend.COLUMN_AppDependenciesDesc }, lstRow);
         } catch (FException e) {
             mibBase.exceptionThrown(table, e);
         }
@@ -103,14 +103,13 @@ public class CoreAppInfoHandler extends FHandler {
         FTable table = ((FriendlySnmpMibFriend)mibBase).getAppPropEntry();
         Map<String, String> hm = agent.getConfig().getAppProp();
         try {
-            table.deleteAll();
+            List<Object[]> lstRow = new ArrayList<Object[]>(hm.size());
             for (Entry<String, String> entry : hm.entrySet()) {
-                FID idRow = table.addRowNext();
-                table.setValueAt(entry.getKey(),  
-                        idRow, FriendlySnmpMibFriend.COLUMN_AppPropKey);
-                table.setValueAt(entry.getValue(),
-                        idRow, FriendlySnmpMibFriend.COLUMN_AppPropValue);
+                lstRow.add(new Object[] { entry.getKey(), entry.getValue() });
             }
+            table.replaceAll(new FColumn[] {
+                    FriendlySnmpMibFriend.COLUMN_AppPropKey, 
+                    FriendlySnmpMibFriend.COLUMN_AppPropValue }, lstRow);
         } catch (FException e) {
             mibBase.exceptionThrown(table, e);
         }
@@ -128,12 +127,9 @@ public class CoreAppInfoHandler extends FHandler {
         FTable table = ((FriendlySnmpMibFriend)mibBase).getAppConfigEntry();
         Map<String, String> hm = agent.getConfig().getConfigProp();
         try {
-            table.deleteAll();
+            List<Object[]> lstRow = new ArrayList<Object[]>(hm.size());
             for (Entry<String, String> entry : hm.entrySet()) {
-                FID idRow = table.addRowNext();
                 String key = entry.getKey();
-                table.setValueAt(key, 
-                        idRow, FriendlySnmpMibFriend.COLUMN_AppConfigKey);
                 String val = entry.getValue();
                 for (int i = 0;  i < a_sSecret.length;  i++) {
                     if (key.indexOf(a_sSecret[i]) == 0  &&  val.length() > 0) {
@@ -141,9 +137,11 @@ public class CoreAppInfoHandler extends FHandler {
                         break;
                     }
                 }
-                table.setValueAt(val, 
-                        idRow, FriendlySnmpMibFriend.COLUMN_AppConfigValue);
+                lstRow.add(new Object[] { key, val });
             }
+            table.replaceAll(new FColumn[] {
+                    FriendlySnmpMibFriend.COLUMN_AppConfigKey, 
+                    FriendlySnmpMibFriend.COLUMN_AppConfigValue }, lstRow);
         } catch (FException e) {
             mibBase.exceptionThrown(table, e);
         }
@@ -162,14 +160,13 @@ public class CoreAppInfoHandler extends FHandler {
             hm.put(key, val);
         }
         try {
-            table.deleteAll();
+            List<Object[]> lstRow = new ArrayList<Object[]>(hm.size());
             for (Entry<String, String> entry : hm.entrySet()) {
-                FID idRow = table.addRowNext();
-                table.setValueAt(entry.getKey(),  
-                        idRow, FriendlySnmpMibFriend.COLUMN_SysPropKey);
-                table.setValueAt(entry.getValue(),
-                        idRow, FriendlySnmpMibFriend.COLUMN_SysPropValue);
+                lstRow.add(new Object[] { entry.getKey(), entry.getValue() });
             }
+            table.replaceAll(new FColumn[] {
+                    FriendlySnmpMibFriend.COLUMN_SysPropKey, 
+                    FriendlySnmpMibFriend.COLUMN_SysPropValue }, lstRow);
         } catch (FException e) {
             mibBase.exceptionThrown(table, e);
         }
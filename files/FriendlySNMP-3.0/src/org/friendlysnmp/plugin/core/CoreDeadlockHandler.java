@@ -28,7 +28,9 @@ import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
+import org.friendlysnmp.FColumn;
 import org.friendlysnmp.FConstant;
 import org.friendlysnmp.FException;
 import org.friendlysnmp.FHandler;
@@ -78,6 +80,20 @@ public class CoreDeadlockHandler extends FHandler {
     /** Currently viewed exception */
     private ThreadInfo tiCurView;
     
+    /** Deadlocks list table columns loaded on GET request */
+    private static final FColumn[] COLUMNS_DeadlocksList = {
+        FriendlySnmpMibFriend.COLUMN_DeadlocksListThreadName,
+        FriendlySnmpMibFriend.COLUMN_DeadlocksListBlockedByThreadID,
+        FriendlySnmpMibFriend.COLUMN_DeadlocksListBlockedByThreadName,
+        FriendlySnmpMibFriend.COLUMN_DeadlocksListLock,
+        FriendlySnmpMibFriend.COLUMN_DeadlocksListBlockedTime,
+    };
+    
+    /** Deadlocked thread content table columns loaded on GET request */
+    private static final FColumn[] COLUMNS_DeadlockView = {
+        FriendlySnmpMibFriend.COLUMN_DeadlockThreadLine,
+    };
+    
     /** Maximum DeadlockInfo object ID */
     private int maxID;
     
@@ -319,23 +335,19 @@ public class CoreDeadlockHandler extends FHandler {
     
     private synchronized void loadDeadlocksListTable(FTable table) {
         try {
-            table.deleteAll();
+            Map<FID, Object[]> hmRow = new TreeMap<FID, Object[]>();
             for (DeadlockInfo di : lstDeadlockInfo) {
                 for (ThreadInfo ti : di.lst) {
-                    FID idRow = table.addRow(di.id, (int)ti.getThreadId());
-                    table.setValueAt(ti.getThreadName(),
-                            idRow, FriendlySnmpMibFriend.COLUMN_DeadlocksListThreadName);
                     ThreadInfo tiBlck = di.getBlockingThreadInfo(ti); 
-                    table.setValueAt(tiBlck.getThreadId(),
-                            idRow, FriendlySnmpMibFriend.COLUMN_DeadlocksListBlockedByThreadID);
-                    table.setValueAt(tiBlck.getThreadName(),
-                            idRow, FriendlySnmpMibFriend.COLUMN_DeadlocksListBlockedByThreadName);
-                    table.setValueAt(ti.getLockName(),
-                            idRow, FriendlySnmpMibFriend.COLUMN_DeadlocksListLock);
-                    table.setValueAt(di.ts.toString(),
-                            idRow, FriendlySnmpMibFriend.COLUMN_DeadlocksListBlockedTime);
+                    hmRow.put(new FID(di.id, (int)ti.getThreadId()), new Object[] {
+                            ti.getThreadName(),
+                            tiBlck.getThreadId(),
+                            tiBlck.getThreadName(),
+                            ti.getLockName(),
+                            di.ts.toString() });
                 }
             }
+            table.applyRows(COLUMNS_DeadlocksList, hmRow);
         } catch (FException e) {
             mib.exceptionThrown(table, e);
         }
@@ -345,27 +357,28 @@ public class CoreDeadlockHandler extends FHandler {
         int size = lstThreadInfo.size();
         // Load table with current ThreadInfo 
         try {
-            table.deleteAll();
             if (tiCurView == null  &&  size > 0) {
                 tiCurView = lstThreadInfo.get(0);
             }            
             if (tiCurView == null) {
+                table.deleteAll();
                 return;
             }
             logger.debug("Current load: " + tiCurView);
-            addContentLine("Thread ID: " + tiCurView.getThreadId());
-            addContentLine("Thread name: " + tiCurView.getThreadName());
+            List<Object[]> lstRow = new ArrayList<Object[]>();
+            addContentLine(lstRow, "Thread ID: " + tiCurView.getThreadId());
+            addContentLine(lstRow, "Thread name: " + tiCurView.getThreadName());
             for (DeadlockInfo di : lstDeadlockInfo) {
                 ThreadInfo tiBlck = di.getBlockingThreadInfo(tiCurView); 
                 if (tiBlck != null) {
-                    addContentLine("Blocked by thread ID: " + tiBlck.getThreadId());
-                    addContentLine("Blocked by thread name: " + tiBlck.getThreadName());
-                    addContentLine("Blocked since: " + di.ts.toString());
+                    addContentLine(lstRow, "Blocked by thread ID: " + tiBlck.getThreadId());
+                    addContentLine(lstRow, "Blocked by thread name: " + tiBlck.getThreadName());
+                    addContentLine(lstRow, "Blocked since: " + di.ts.toString());
                     break;
                 }
             }
-            addContentLine("Waiting for lock: " + tiCurView.getLockName());
-            addContentLine("Trace stack: ");
+            addContentLine(lstRow, "Waiting for lock: " + tiCurView.getLockName());
+            addContentLine(lstRow, "Trace stack: ");
             
             // Method ThreadInfo.getStackTrace() returns empty array.
             // This is a documented 'feature'. Use the workaround:
@@ -374,11 +387,12 @@ public class CoreDeadlockHandler extends FHandler {
                 if (t.getId() == tiCurView.getThreadId()) {
                     StackTraceElement[] steAll = hm.get(t);
                     for (StackTraceElement ste : steAll) {
-                        addContentLine(ste.toString());
+                        addContentLine(lstRow, ste.toString());
                     }
                     break;
                 }
             }
+            table.replaceAll(COLUMNS_DeadlockView, lstRow);
         } catch (FException e) {
             mib.exceptionThrown(table, e);
         }
@@ -405,15 +419,11 @@ public class CoreDeadlockHandler extends FHandler {
     /**
      * Adds deadlocked thread content line
      * 
+     * @param lstRow content table rows
      * @param line content line
-     * 
-     * @throws FException
      */
-    private void addContentLine(String line) throws FException {
-        FTable table = mib.getDeadlockViewEntry();
-        FID idRow = table.addRowNext();
-        table.setValueAt(line, 
-                idRow, FriendlySnmpMibFriend.COLUMN_DeadlockThreadLine);
+    private void addContentLine(List<Object[]> lstRow, String line) {
+        lstRow.add(new Object[] { line });
     } // addContentLine()
     
     /**
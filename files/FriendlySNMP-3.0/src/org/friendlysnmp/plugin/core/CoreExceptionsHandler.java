@@ -23,6 +23,8 @@ package org.friendlysnmp.plugin.core;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 import org.friendlysnmp.AgentWorker.ExceptionType;
 import org.friendlysnmp.FColumn;
@@ -72,6 +74,22 @@ implements UncaughtExceptionListener
     /** Maximum ExceptionInfo object ID */
     private int maxID;
     
+    /** Exceptions list table columns loaded on GET request */
+    private static final FColumn[] COLUMNS_ExceptionsList = {
+        FriendlySnmpMibFriend.COLUMN_ExceptionsListCount,
+        FriendlySnmpMibFriend.COLUMN_ExceptionsListType,
+        FriendlySnmpMibFriend.COLUMN_ExceptionsListLastOccur,
+        FriendlySnmpMibFriend.COLUMN_ExceptionsListMessage,
+        FriendlySnmpMibFriend.COLUMN_ExceptionsListClass,
+        FriendlySnmpMibFriend.COLUMN_ExceptionsListThread,
+        FriendlySnmpMibFriend.COLUMN_ExceptionsListAction,
+    };
+    
+    /** Exception content table columns loaded on GET request */
+    private static final FColumn[] COLUMNS_ExceptionView = {
+        FriendlySnmpMibFriend.COLUMN_ExceptionLine,
+    };
+    
     /**
      * {@inheritDoc}
      * 
@@ -157,25 +175,19 @@ implements UncaughtExceptionListener
      */
     private synchronized void loadExceptionsListTable(FTable table) {
         try {
-            table.deleteAll();
+            Map<FID, Object[]> hmRow = new TreeMap<FID, Object[]>();
             for (ExceptionInfo exc : lstInfo) {
-                FID idRow = table.addRow(exc.id);
-                table.setValueAt(exc.count, 
-                        idRow, FriendlySnmpMibFriend.COLUMN_ExceptionsListCount);
-                table.setValueAt(exc.type.getType(), 
-                        idRow, FriendlySnmpMibFriend.COLUMN_ExceptionsListType);
-                table.setValueAt(exc.lastTimeThrown, 
-                        idRow, FriendlySnmpMibFriend.COLUMN_ExceptionsListLastOccur);
                 String msg = exc.e.getMessage();
-                table.setValueAt(msg == null ? "" : msg, // NPE has null
-                        idRow, FriendlySnmpMibFriend.COLUMN_ExceptionsListMessage);
-                table.setValueAt(exc.e.getClass().getName(), 
-                        idRow, FriendlySnmpMibFriend.COLUMN_ExceptionsListClass);
-                table.setValueAt(exc.t.getName(), 
-                        idRow, FriendlySnmpMibFriend.COLUMN_ExceptionsListThread);
-                table.setValueAt(FriendlyRowKeepDeleteActionTC.keep, 
-                        idRow, FriendlySnmpMibFriend.COLUMN_ExceptionsListAction);
+                hmRow.put(new FID(exc.id), new Object[] {
+                        exc.count, 
+                        exc.type.getType(), 
+                        exc.lastTimeThrown, 
+                        msg == null ? "" : msg, // NPE has null
+                        exc.e.getClass().getName(), 
+                        exc.t.getName(), 
+                        FriendlyRowKeepDeleteActionTC.keep });
             }
+            table.applyRows(COLUMNS_ExceptionsList, hmRow);
         } catch (FException e) {
             mibBase.exceptionThrown(table, e);
         }
@@ -188,21 +200,23 @@ implements UncaughtExceptionListener
         int size = lstInfo.size();
         // Load table with current exception 
         try {
-            table.deleteAll();
             if (excCurView == null  &&  size > 0) {
                 excCurView = lstInfo.get(0);
             }            
             if (excCurView == null) {
+                table.deleteAll();
                 return;
             }
             logger.debug("Current load: " + excCurView);
-            addRow("Exception ID: " + excCurView.id);
-            addRow("Last time thrown: " + excCurView.lastTimeThrown);
-            addRow("Count thrown: " + excCurView.count);
-            addRow("Type: " + excCurView.type);
+            List<Object[]> lstRow = new ArrayList<Object[]>();
+            addRow(lstRow, "Exception ID: " + excCurView.id);
+            addRow(lstRow, "Last time thrown: " + excCurView.lastTimeThrown);
+            addRow(lstRow, "Count thrown: " + excCurView.count);
+            addRow(lstRow, "Type: " + excCurView.type);
             for (String s : excCurView.contentAll) {
-                addRow(s);
+                addRow(lstRow, s);
             }
+            table.replaceAll(COLUMNS_ExceptionView, lstRow);
         } catch (FException e) {
             mib.exceptionThrown(table, e);
         }
@@ -229,15 +243,11 @@ implements UncaughtExceptionListener
     /**
      * Adds exception content table row
      * 
+     * @param lstRow content table rows
      * @param line content line
-     * 
-     * @throws FException
      */
-    private void addRow(String line) throws FException {
-        FTable table = mib.getExceptionViewEntry();
-        FID idRow = table.addRowNext();
-        table.setValueAt(line, 
-                idRow, FriendlySnmpMibFriend.COLUMN_ExceptionLine);
+    private void addRow(List<Object[]> lstRow, String line) {
+        lstRow.add(new Object[] { line });
     } // addContentLine()
     
     /**
@@ -0,0 +1,176 @@
+/*
+ * File: CoreNotifySummaryHandler.java
+ * 
+ * Copyright (C) 2014 FriendlySNMP.org; All Rights Reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as
+ * published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301  USA
+ * 
+ * $Id$
+ */
+package org.friendlysnmp.plugin.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.friendlysnmp.FConstant;
+import org.friendlysnmp.FException;
+import org.friendlysnmp.FHandler;
+import org.friendlysnmp.FNotification;
+import org.friendlysnmp.NotificationLimiter;
+import org.friendlysnmp.mib.BaseMib;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The class periodically sends <code>appNotificationsSuppressed</code> 
+ * notification declared in FRIENDLY-SNMP-MIB. The notification has 
+ * a parameter for each notification suppressed by its rate limiter 
+ * since the previous summary.
+ * 
+ * @version $Revision$
+ */
+public class CoreNotifySummaryHandler extends FHandler {
+    /** Logger object */
+    private static final Logger logger = LoggerFactory.getLogger(CoreNotifySummaryHandler.class);
+
+    /** MIB */
+    private FriendlySnmpMibFriend mib;
+    
+    /** Summary thread */
+    private SummaryThread threadSummary;
+    
+    /** Summary interval (in milliseconds), 0 if disabled */
+    private long summaryMs;
+    
+    @Override
+    public void registerMib(BaseMib mibBase) throws FException { 
+        super.registerMib(mibBase);
+        mib = (FriendlySnmpMibFriend)mibBase;
+    } // registerMib()
+    
+    /**
+     * {@inheritDoc}
+     * 
+     * @see org.friendlysnmp.FHandler#init()
+     */
+    @Override
+    public void init() throws FException {
+        summaryMs = agent.getConfig().getConfigInteger(FConstant.KEY_NOTIFY_SUMMARY_MS);
+        logger.debug(String.format(
+                "Suppressed notifications summary interval: %d mls", summaryMs));
+    } // init()
+    
+    /**
+     * {@inheritDoc}
+     * 
+     * @see org.friendlysnmp.FHandler#start(org.friendlysnmp.FHandler.AgentStartType)
+     */
+    @Override
+    public void start(AgentStartType startType) {
+        stop();
+        if (summaryMs > 0) {
+            threadSummary = new SummaryThread();
+            threadSummary.start();
+        }
+    } // start()
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @see org.friendlysnmp.FHandler#stop()
+     */
+    @Override
+    public void stop() {
+        if (threadSummary != null) {
+            threadSummary.shutdown();
+            threadSummary = null;
+        }
+    } // stop()
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @see org.friendlysnmp.FHandler#shutdown()
+     */
+    @Override
+    public void shutdown() {
+        stop();
+    } // shutdown()
+    
+    /**
+     * Sends summary notification if any notification was suppressed 
+     * since the previous summary.
+     */
+    private void sendSummary() {
+        List<Object> lstParam = new ArrayList<Object>();
+        for (FNotification n : agent.getNotifications()) {
+            NotificationLimiter limiter = n.getLimiter();
+            if (limiter == null) {
+                continue;
+            }
+            long count = limiter.getAndResetSuppressed();
+            if (count > 0) {
+                lstParam.add(String.format("%s %s: %d suppressed", 
+                        n.getName(), n.getOID(), count));
+            }
+        }
+        if (!lstParam.isEmpty()) {
+            mib.getAppNotificationsSuppressed().sendNotification(lstParam.toArray());
+        }
+    } // sendSummary()
+    
+    /**
+     * Summary thread
+     */
+    private class SummaryThread extends Thread {
+        /** Shutdown flag */
+        private volatile boolean shutdown;
+        
+        /**
+         * Constructor
+         */
+        SummaryThread() {
+            setName("FriendlyNotifySummaryThread");
+            setDaemon(true);
+        }
+        
+        /**
+         * Shutdowns summary thread 
+         */
+        void shutdown() {
+            shutdown = true;
+            interrupt();
+        }
+        
+        /** 
+         * Starts summary thread
+         * 
+         * @see java.lang.Thread#run()
+         */
+        public void run() {
+            logger.debug("Notify summary thread started");
+            while (!shutdown) {
+                try {
+                    Thread.sleep(summaryMs);
+                } catch (InterruptedException e) {
+                    continue;
+                }
+                sendSummary();
+            }
+            logger.debug("Notify summary thread exited");
+        }
+    } // inner class SummaryThread
+    
+} // class CoreNotifySummaryHandler
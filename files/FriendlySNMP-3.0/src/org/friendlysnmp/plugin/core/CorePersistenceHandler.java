@@ -21,6 +21,9 @@
  */
 package org.friendlysnmp.plugin.core;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.friendlysnmp.FColumn;
 import org.friendlysnmp.FConstant;
 import org.friendlysnmp.FException;
@@ -59,6 +62,42 @@ public class CorePersistenceHandler extends FHandler {
      * Persistence storage object. 
      */
     private PersistStorage persist;
+    
+    /**
+     * Columns of the persistent scalars table in the rows order.
+     */
+    private static final FColumn[] COLUMNS_PersistScalar = new FColumn[] {
+        FriendlySnmpMibFriend.COLUMN_PersistScalarName,
+        FriendlySnmpMibFriend.COLUMN_PersistScalarOID,
+        FriendlySnmpMibFriend.COLUMN_PersistScalarSyntax,
+        FriendlySnmpMibFriend.COLUMN_PersistScalarValue,
+        FriendlySnmpMibFriend.COLUMN_PersistScalarAction,
+    };
+    
+    /**
+     * Columns of the persistent tables table in the rows order.
+     */
+    private static final FColumn[] COLUMNS_PersistTable = new FColumn[] {
+        FriendlySnmpMibFriend.COLUMN_PersistTableName,
+        FriendlySnmpMibFriend.COLUMN_PersistTableOID,
+        FriendlySnmpMibFriend.COLUMN_PersistTableColumnCount,
+        FriendlySnmpMibFriend.COLUMN_PersistTableRowCount,
+        FriendlySnmpMibFriend.COLUMN_PersistTableAction,
+    };
+    
+    /**
+     * Columns of the persistent cells table in the rows order.
+     */
+    private static final FColumn[] COLUMNS_PersistCell = new FColumn[] {
+        FriendlySnmpMibFriend.COLUMN_PersistCellTableName,
+        FriendlySnmpMibFriend.COLUMN_PersistCellTableOID,
+        FriendlySnmpMibFriend.COLUMN_PersistCellRowOID,
+        FriendlySnmpMibFriend.COLUMN_PersistCellColumnName,
+        FriendlySnmpMibFriend.COLUMN_PersistCellColumnOID,
+        FriendlySnmpMibFriend.COLUMN_PersistCellColumnIndex,
+        FriendlySnmpMibFriend.COLUMN_PersistCellColumnSyntax,
+        FriendlySnmpMibFriend.COLUMN_PersistCellValue,
+    };
 
     /**
      * {@inheritDoc}
@@ -142,21 +181,17 @@ public class CorePersistenceHandler extends FHandler {
      */
     private void loadPersistScalarsTable(FTable table) {
         try {
-            table.deleteAll();
             PersistEntryScalar[] a_PS = persist.getPersistScalars();
+            List<Object[]> lstRow = new ArrayList<Object[]>(a_PS.length);
             for (PersistEntryScalar entry : a_PS) {
-                FID idRow = table.addRowNext();
-                table.setValueAt(entry.getFID().getName(), 
-                        idRow, FriendlySnmpMibFriend.COLUMN_PersistScalarName);
-                table.setValueAt(entry.getFID().getOIDtoString(), 
-                        idRow, FriendlySnmpMibFriend.COLUMN_PersistScalarOID);
-                table.setValueAt(entry.getScalarSyntax().toString(), 
-                        idRow, FriendlySnmpMibFriend.COLUMN_PersistScalarSyntax);
-                table.setValueAt(entry.getScalarValue().toString(), 
-                    idRow, FriendlySnmpMibFriend.COLUMN_PersistScalarValue);
-                table.setValueAt(FriendlyRowKeepDeleteActionTC.keep, 
-                    idRow, FriendlySnmpMibFriend.COLUMN_PersistScalarAction);
+                lstRow.add(new Object[] {
+                        entry.getFID().getName(), 
+                        entry.getFID().getOIDtoString(), 
+                        entry.getScalarSyntax().toString(), 
+                        entry.getScalarValue().toString(), 
+                        FriendlyRowKeepDeleteActionTC.keep });
             }
+            table.applyRows(COLUMNS_PersistScalar, lstRow);
         } catch (FException e) {
             mibBase.exceptionThrown(table, e);
         }
@@ -239,7 +274,6 @@ public class CorePersistenceHandler extends FHandler {
      */
     private void loadPersistTablesTable(FTable table) {
         try {
-            table.deleteAll();
             PersistEntryTable[] ptAll = persist.getPersistTables();
             if (logger.isDebugEnabled()) {
                 StringBuilder sb = new StringBuilder();
@@ -248,19 +282,16 @@ public class CorePersistenceHandler extends FHandler {
                 }
                 logger.debug(sb.toString());
             }
+            List<Object[]> lstRow = new ArrayList<Object[]>(ptAll.length);
             for (PersistEntryTable entry : ptAll) {
-                FID idRow = table.addRowNext();
-                table.setValueAt(entry.getFID().getName(), 
-                        idRow, FriendlySnmpMibFriend.COLUMN_PersistTableName);
-                table.setValueAt(entry.getFID().getOIDtoString(), 
-                        idRow, FriendlySnmpMibFriend.COLUMN_PersistTableOID);
-                table.setValueAt(entry.getColumnCount(), 
-                    idRow, FriendlySnmpMibFriend.COLUMN_PersistTableColumnCount);
-                table.setValueAt(entry.getRowCount(), 
-                    idRow, FriendlySnmpMibFriend.COLUMN_PersistTableRowCount);
-                table.setValueAt(FriendlyRowKeepDeleteActionTC.keep, 
-                    idRow, FriendlySnmpMibFriend.COLUMN_PersistTableAction);
+                lstRow.add(new Object[] {
+                        entry.getFID().getName(), 
+                        entry.getFID().getOIDtoString(), 
+                        entry.getColumnCount(), 
+                        entry.getRowCount(), 
+                        FriendlyRowKeepDeleteActionTC.keep });
             }
+            table.applyRows(COLUMNS_PersistTable, lstRow);
         } catch (FException e) {
             mibBase.exceptionThrown(table, e);
         }
@@ -323,36 +354,29 @@ public class CorePersistenceHandler extends FHandler {
      */
     private void loadPersistCellsTable(FTable table) {
         try {
-            table.deleteAll();
             PersistEntryTable[] ptAll = persist.getPersistTables();
+            List<Object[]> lstRow = new ArrayList<Object[]>();
             for (PersistEntryTable entry : ptAll) {
                 PersistEntryTableRow[] a_Row = entry.getRows();
                 int columnCount = entry.getColumnCount();
                 
                 for (int r = 0;  r < a_Row.length;  r++) {
                     for (int c = 0;  c < columnCount;  c++) {
-                        FID idRow = table.addRowNext();
-                        table.setValueAt(entry.getFID().getName(), 
-                                idRow, FriendlySnmpMibFriend.COLUMN_PersistCellTableName);
-                        table.setValueAt(entry.getFID().getOIDtoString(), 
-                                idRow, FriendlySnmpMibFriend.COLUMN_PersistCellTableOID);
-                        table.setValueAt(a_Row[r].getOID().toString(), 
-                                idRow, FriendlySnmpMibFriend.COLUMN_PersistCellRowOID);
                         FColumn fc = entry.getColumn(c);
-                        table.setValueAt(fc.getName(), 
-                                idRow, FriendlySnmpMibFriend.COLUMN_PersistCellColumnName);
-                        table.setValueAt(fc.getId_InMIB(), 
-                                idRow, FriendlySnmpMibFriend.COLUMN_PersistCellColumnOID);
-                        table.setValueAt(fc.getIndex_InTable(), 
-                                idRow, FriendlySnmpMibFriend.COLUMN_PersistCellColumnIndex);
-                        table.setValueAt(entry.getColumnSyntax(c).toString(), 
-                                idRow, FriendlySnmpMibFriend.COLUMN_PersistCellColumnSyntax);
                         Object obj = a_Row[r].getValue(c);
-                        table.setValueAt(obj == null ? "<null>" : obj, 
-                                idRow, FriendlySnmpMibFriend.COLUMN_PersistCellValue);
+                        lstRow.add(new Object[] {
+                                entry.getFID().getName(), 
+                                entry.getFID().getOIDtoString(), 
+                                a_Row[r].getOID().toString(), 
+                                fc.getName(), 
+                                fc.getId_InMIB(), 
+                                fc.getIndex_InTable(), 
+                                entry.getColumnSyntax(c).toString(), 
+                                obj == null ? "<null>" : obj });
                     }
                 }
             }
+            table.applyRows(COLUMNS_PersistCell, lstRow);
         } catch (FException e) {
             mibBase.exceptionThrown(table, e);
         }
@@ -0,0 +1,171 @@
+/*
+ * File: CoreStatsHandler.java
+ * 
+ * Copyright (C) 2014 FriendlySNMP.org; All Rights Reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as
+ * published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301  USA
+ * 
+ * $Id$
+ */
+package org.friendlysnmp.plugin.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.friendlysnmp.FColumn;
+import org.friendlysnmp.FException;
+import org.friendlysnmp.FHandler;
+import org.friendlysnmp.FID;
+import org.friendlysnmp.FTable;
+import org.friendlysnmp.event.FTableGetListener;
+import org.friendlysnmp.mib.BaseMib;
+import org.friendlysnmp.stats.LatencyHistogram;
+import org.friendlysnmp.stats.NodeStats;
+import org.friendlysnmp.stats.RequestStats;
+import org.snmp4j.PDU;
+
+/**
+ * The class provides request processing time statistics to SNMP objects  
+ * declared in FRIENDLY-SNMP-MIB.
+ * 
+ * @version $Revision$
+ */
+public class CoreStatsHandler extends FHandler {
+    /**
+     * Request statistics object. 
+     */
+    private RequestStats stats;
+    
+    /**
+     * Columns of the request statistics table in the rows order.
+     */
+    private static final FColumn[] COLUMNS_RequestStats = new FColumn[] {
+        FriendlySnmpMibFriend.COLUMN_RequestStatsPduType,
+        FriendlySnmpMibFriend.COLUMN_RequestStatsCount,
+        FriendlySnmpMibFriend.COLUMN_RequestStatsP50,
+        FriendlySnmpMibFriend.COLUMN_RequestStatsP99,
+        FriendlySnmpMibFriend.COLUMN_RequestStatsMax,
+    };
+    
+    /**
+     * Columns of the node statistics table in the rows order.
+     */
+    private static final FColumn[] COLUMNS_NodeStats = new FColumn[] {
+        FriendlySnmpMibFriend.COLUMN_NodeStatsName,
+        FriendlySnmpMibFriend.COLUMN_NodeStatsOID,
+        FriendlySnmpMibFriend.COLUMN_NodeStatsGetCount,
+        FriendlySnmpMibFriend.COLUMN_NodeStatsGetP50,
+        FriendlySnmpMibFriend.COLUMN_NodeStatsGetP99,
+        FriendlySnmpMibFriend.COLUMN_NodeStatsGetMax,
+        FriendlySnmpMibFriend.COLUMN_NodeStatsSetCount,
+        FriendlySnmpMibFriend.COLUMN_NodeStatsSetP50,
+        FriendlySnmpMibFriend.COLUMN_NodeStatsSetP99,
+        FriendlySnmpMibFriend.COLUMN_NodeStatsSetMax,
+    };
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @see org.friendlysnmp.FHandler#init()
+     */
+    @Override
+    public void init() {
+        stats = agent.getRequestStats();
+    } // init()
+    
+    /** 
+     * {@inheritDoc}
+     *
+     * @see org.friendlysnmp.FHandler#registerMib(org.friendlysnmp.mib.BaseMib)
+     */
+    @Override
+    public void registerMib(BaseMib mibBase) throws FException { 
+        super.registerMib(mibBase);
+        FriendlySnmpMibFriend mib = (FriendlySnmpMibFriend)mibBase;
+
+        mib.getRequestStatsEntry().setVolatile(true);
+        mib.getRequestStatsEntry().addGetListener(new FTableGetListener() {
+            @Override
+            public void get(FTable table) {
+                loadRequestStatsTable(table);
+            }
+        });
+        
+        mib.getNodeStatsEntry().setVolatile(true);
+        mib.getNodeStatsEntry().addGetListener(new FTableGetListener() {
+            @Override
+            public void get(FTable table) {
+                loadNodeStatsTable(table);
+            }
+        });
+    } // registerMib()
+    
+    /**
+     * Loads request statistics table. The table has a row for each 
+     * request PDU type.
+     */
+    private void loadRequestStatsTable(FTable table) {
+        try {
+            int[] a_PduType = stats.getPduTypes();
+            List<Object[]> lstRow = new ArrayList<Object[]>(a_PduType.length);
+            for (int pduType : a_PduType) {
+                LatencyHistogram h = stats.getRequestHistogram(pduType);
+                lstRow.add(new Object[] {
+                        PDU.getTypeString(pduType),
+                        h.getCount(),
+                        h.getPercentileMicros(50),
+                        h.getPercentileMicros(99),
+                        h.getMaxMicros() });
+            }
+            table.applyRows(COLUMNS_RequestStats, lstRow);
+        } catch (FException e) {
+            mibBase.exceptionThrown(table, e);
+        }
+    } // loadRequestStatsTable()
+
+    /**
+     * Loads node statistics table. The table has a row for each 
+     * scalar or table accessed since the agent start. The row index is 
+     * the registration sequence number of the node, so rows keep their 
+     * index when other nodes are added.
+     */
+    private void loadNodeStatsTable(FTable table) {
+        try {
+            List<NodeStats> lstStats = stats.getNodeStatsList();
+            Map<FID, Object[]> hmRow = new HashMap<FID, Object[]>();
+            for (NodeStats ns : lstStats) {
+                LatencyHistogram hGet = ns.getGetHistogram();
+                LatencyHistogram hSet = ns.getSetHistogram();
+                hmRow.put(new FID(ns.getIndex()), new Object[] {
+                        ns.getFID().getName(),
+                        ns.getFID().getOIDtoString(),
+                        hGet.getCount(),
+                        hGet.getPercentileMicros(50),
+                        hGet.getPercentileMicros(99),
+                        hGet.getMaxMicros(),
+                        hSet.getCount(),
+                        hSet.getPercentileMicros(50),
+                        hSet.getPercentileMicros(99),
+                        hSet.getMaxMicros() });
+            }
+            table.applyRows(COLUMNS_NodeStats, hmRow);
+        } catch (FException e) {
+            mibBase.exceptionThrown(table, e);
+        }
+    } // loadNodeStatsTable()
+
+} // class CoreStatsHandler
@@ -79,6 +79,9 @@ implements MOGroup
   public static final OID oidAppDeadlock =
     new OID(new int[] { 1,3,6,1,4,1,29091,1,1,1,2,0,5 });   
 
+  public static final OID oidAppNotificationsSuppressed =
+    new OID(new int[] { 1,3,6,1,4,1,29091,1,1,1,2,0,6 });   
+
 
   // Enumerations
 
@@ -433,6 +436,76 @@ implements MOGroup
                   MOColumn,
                   MOTableModel<PersistCellEntryRow>> persistCellEntry;
   private MOTableModel<PersistCellEntryRow> persistCellEntryModel;
+  public static final OID oidRequestStatsEntry = 
+    new OID(new int[] { 1,3,6,1,4,1,29091,1,1,1,4,1,1 });
+
+  // Index OID definitions
+  public static final OID oidRequestStatsIndex =
+    new OID(new int[] { 1,3,6,1,4,1,29091,1,1,1,4,1,1,1 });
+
+  // Column TC definitions for requestStatsEntry:
+    
+  // Column sub-identifier definitions for requestStatsEntry:
+  public static final int colRequestStatsPduType = 2;
+  public static final int colRequestStatsCount = 3;
+  public static final int colRequestStatsP50 = 4;
+  public static final int colRequestStatsP99 = 5;
+  public static final int colRequestStatsMax = 6;
+
+  // Column index definitions for requestStatsEntry:
+  public static final int idxRequestStatsPduType = 0;
+  public static final int idxRequestStatsCount = 1;
+  public static final int idxRequestStatsP50 = 2;
+  public static final int idxRequestStatsP99 = 3;
+  public static final int idxRequestStatsMax = 4;
+
+  private MOTableSubIndex[] requestStatsEntryIndexes;
+  private MOTableIndex requestStatsEntryIndex;
+  
+  private MOTable<RequestStatsEntryRow,
+                  MOColumn,
+                  MOTableModel<RequestStatsEntryRow>> requestStatsEntry;
+  private MOTableModel<RequestStatsEntryRow> requestStatsEntryModel;
+  public static final OID oidNodeStatsEntry = 
+    new OID(new int[] { 1,3,6,1,4,1,29091,1,1,1,4,2,1 });
+
+  // Index OID definitions
+  public static final OID oidNodeStatsIndex =
+    new OID(new int[] { 1,3,6,1,4,1,29091,1,1,1,4,2,1,1 });
+
+  // Column TC definitions for nodeStatsEntry:
+    
+  // Column sub-identifier definitions for nodeStatsEntry:
+  public static final int colNodeStatsName = 2;
+  public static final int colNodeStatsOID = 3;
+  public static final int colNodeStatsGetCount = 4;
+  public static final int colNodeStatsGetP50 = 5;
+  public static final int colNodeStatsGetP99 = 6;
+  public static final int colNodeStatsGetMax = 7;
+  public static final int colNodeStatsSetCount = 8;
+  public static final int colNodeStatsSetP50 = 9;
+  public static final int colNodeStatsSetP99 = 10;
+  public static final int colNodeStatsSetMax = 11;
+
+  // Column index definitions for nodeStatsEntry:
+  public static final int idxNodeStatsName = 0;
+  public static final int idxNodeStatsOID = 1;
+  public static final int idxNodeStatsGetCount = 2;
+  public static final int idxNodeStatsGetP50 = 3;
+  public static final int idxNodeStatsGetP99 = 4;
+  public static final int idxNodeStatsGetMax = 5;
+  public static final int idxNodeStatsSetCount = 6;
+  public static final int idxNodeStatsSetP50 = 7;
+  public static final int idxNodeStatsSetP99 = 8;
+  public static final int idxNodeStatsSetMax = 9;
+
+  private MOTableSubIndex[] nodeStatsEntryIndexes;
+  private MOTableIndex nodeStatsEntryIndex;
+  
+  private MOTable<NodeStatsEntryRow,
+                  MOColumn,
+                  MOTableModel<NodeStatsEntryRow>> nodeStatsEntry;
+  private MOTableModel<NodeStatsEntryRow> nodeStatsEntryModel;
 
 
 //--AgentGen BEGIN=_MEMBERS
@@ -513,6 +586,8 @@ implements MOGroup
     createPersistScalarEntry(moFactory);
     createPersistTableEntry(moFactory);
     createPersistCellEntry(moFactory);
+    createRequestStatsEntry(moFactory);
+    createNodeStatsEntry(moFactory);
   }
 
   public MOScalar<OctetString> getShutdownApp() {
@@ -1287,6 +1362,154 @@ implements MOGroup
                             persistCellEntryModel);
   }
 
+  public MOTable<RequestStatsEntryRow,MOColumn,MOTableModel<RequestStatsEntryRow>> getRequestStatsEntry() {
+    return requestStatsEntry;
+  }
+
+
+  @SuppressWarnings(value={"unchecked"})
+  private void createRequestStatsEntry(MOFactory moFactory) {
+    // Index definition
+    requestStatsEntryIndexes = 
+      new MOTableSubIndex[] {
+      moFactory.createSubIndex(oidRequestStatsIndex, 
+                               SMIConstants.SYNTAX_INTEGER, 1, 1)    };
+
+    requestStatsEntryIndex = 
+      moFactory.createIndex(requestStatsEntryIndexes,
+                            false,
+                            new MOTableIndexValidator() {
+      public boolean isValidIndex(OID index) {
+        boolean isValidIndex = true;
+     //--AgentGen BEGIN=requestStatsEntry::isValidIndex
+     //--AgentGen END
+        return isValidIndex;
+      }
+    });
+
+    // Columns
+    MOColumn[] requestStatsEntryColumns = new MOColumn[5];
+    requestStatsEntryColumns[idxRequestStatsPduType] = 
+      moFactory.createColumn(colRequestStatsPduType, 
+                             SMIConstants.SYNTAX_OCTET_STRING,
+                             moFactory.createAccess(MOAccessImpl.ACCESSIBLE_FOR_READ_ONLY),
+                             tcModuleSNMPv2Tc,
+                             tcDefDisplayString);
+    requestStatsEntryColumns[idxRequestStatsCount] = 
+      moFactory.createColumn(colRequestStatsCount, 
+                             SMIConstants.SYNTAX_COUNTER64,
+                             moFactory.createAccess(MOAccessImpl.ACCESSIBLE_FOR_READ_ONLY));
+    requestStatsEntryColumns[idxRequestStatsP50] = 
+      moFactory.createColumn(colRequestStatsP50, 
+                             SMIConstants.SYNTAX_GAUGE32,
+                             moFactory.createAccess(MOAccessImpl.ACCESSIBLE_FOR_READ_ONLY));
+    requestStatsEntryColumns[idxRequestStatsP99] = 
+      moFactory.createColumn(colRequestStatsP99, 
+                             SMIConstants.SYNTAX_GAUGE32,
+                             moFactory.createAccess(MOAccessImpl.ACCESSIBLE_FOR_READ_ONLY));
+    requestStatsEntryColumns[idxRequestStatsMax] = 
+      moFactory.createColumn(colRequestStatsMax, 
+                             SMIConstants.SYNTAX_GAUGE32,
+                             moFactory.createAccess(MOAccessImpl.ACCESSIBLE_FOR_READ_ONLY));
+    // Table model
+    requestStatsEntryModel = (MOTableModel<RequestStatsEntryRow>)
+      moFactory.createTableModel(oidRequestStatsEntry,
+                                 requestStatsEntryIndex,
+                                 requestStatsEntryColumns);
+    ((MOMutableTableModel<RequestStatsEntryRow>)requestStatsEntryModel).setRowFactory(
+      new RequestStatsEntryRowFactory());
+    requestStatsEntry = 
+      moFactory.createTable(oidRequestStatsEntry,
+                            requestStatsEntryIndex,
+                            requestStatsEntryColumns,
+                            requestStatsEntryModel);
+  }
+
+  public MOTable<NodeStatsEntryRow,MOColumn,MOTableModel<NodeStatsEntryRow>> getNodeStatsEntry() {
+    return nodeStatsEntry;
+  }
+
+
+  @SuppressWarnings(value={"unchecked"})
+  private void createNodeStatsEntry(MOFactory moFactory) {
+    // Index definition
+    nodeStatsEntryIndexes = 
+      new MOTableSubIndex[] {
+      moFactory.createSubIndex(oidNodeStatsIndex, 
+                               SMIConstants.SYNTAX_INTEGER, 1, 1)    };
+
+    nodeStatsEntryIndex = 
+      moFactory.createIndex(nodeStatsEntryIndexes,
+                            false,
+                            new MOTableIndexValidator() {
+      public boolean isValidIndex(OID index) {
+        boolean isValidIndex = true;
+     //--AgentGen BEGIN=nodeStatsEntry::isValidIndex
+     //--AgentGen END
+        return isValidIndex;
+      }
+    });
+
+    // Columns
+    MOColumn[] nodeStatsEntryColumns = new MOColumn[10];
+    nodeStatsEntryColumns[idxNodeStatsName] = 
+      moFactory.createColumn(colNodeStatsName, 
+                             SMIConstants.SYNTAX_OCTET_STRING,
+                             moFactory.createAccess(MOAccessImpl.ACCESSIBLE_FOR_READ_ONLY),
+                             tcModuleSNMPv2Tc,
+                             tcDefDisplayString);
+    nodeStatsEntryColumns[idxNodeStatsOID] = 
+      moFactory.createColumn(colNodeStatsOID, 
+                             SMIConstants.SYNTAX_OCTET_STRING,
+                             moFactory.createAccess(MOAccessImpl.ACCESSIBLE_FOR_READ_ONLY),
+                             tcModuleSNMPv2Tc,
+                             tcDefDisplayString);
+    nodeStatsEntryColumns[idxNodeStatsGetCount] = 
+      moFactory.createColumn(colNodeStatsGetCount, 
+                             SMIConstants.SYNTAX_COUNTER64,
+                             moFactory.createAccess(MOAccessImpl.ACCESSIBLE_FOR_READ_ONLY));
+    nodeStatsEntryColumns[idxNodeStatsGetP50] = 
+      moFactory.createColumn(colNodeStatsGetP50, 
+                             SMIConstants.SYNTAX_GAUGE32,
+                             moFactory.createAccess(MOAccessImpl.ACCESSIBLE_FOR_READ_ONLY));
+    nodeStatsEntryColumns[idxNodeStatsGetP99] = 
+      moFactory.createColumn(colNodeStatsGetP99, 
+                             SMIConstants.SYNTAX_GAUGE32,
+                             moFactory.createAccess(MOAccessImpl.ACCESSIBLE_FOR_READ_ONLY));
+    nodeStatsEntryColumns[idxNodeStatsGetMax] = 
+      moFactory.createColumn(colNodeStatsGetMax, 
+                             SMIConstants.SYNTAX_GAUGE32,
+                             moFactory.createAccess(MOAccessImpl.ACCESSIBLE_FOR_READ_ONLY));
+    nodeStatsEntryColumns[idxNodeStatsSetCount] = 
+      moFactory.createColumn(colNodeStatsSetCount, 
+                             SMIConstants.SYNTAX_COUNTER64,
+                             moFactory.createAccess(MOAccessImpl.ACCESSIBLE_FOR_READ_ONLY));
+    nodeStatsEntryColumns[idxNodeStatsSetP50] = 
+      moFactory.createColumn(colNodeStatsSetP50, 
+                             SMIConstants.SYNTAX_GAUGE32,
+                             moFactory.createAccess(MOAccessImpl.ACCESSIBLE_FOR_READ_ONLY));
+    nodeStatsEntryColumns[idxNodeStatsSetP99] = 
+      moFactory.createColumn(colNodeStatsSetP99, 
+                             SMIConstants.SYNTAX_GAUGE32,
+                             moFactory.createAccess(MOAccessImpl.ACCESSIBLE_FOR_READ_ONLY));
+    nodeStatsEntryColumns[idxNodeStatsSetMax] = 
+      moFactory.createColumn(colNodeStatsSetMax, 
+                             SMIConstants.SYNTAX_GAUGE32,
+                             moFactory.createAccess(MOAccessImpl.ACCESSIBLE_FOR_READ_ONLY));
+    // Table model
+    nodeStatsEntryModel = (MOTableModel<NodeStatsEntryRow>)
+      moFactory.createTableModel(oidNodeStatsEntry,
+                                 nodeStatsEntryIndex,
+                                 nodeStatsEntryColumns);
+    ((MOMutableTableModel<NodeStatsEntryRow>)nodeStatsEntryModel).setRowFactory(
+      new NodeStatsEntryRowFactory());
+    nodeStatsEntry = 
+      moFactory.createTable(oidNodeStatsEntry,
+                            nodeStatsEntryIndex,
+                            nodeStatsEntryColumns,
+                            nodeStatsEntryModel);
+  }
+
 
 
   public void registerMOs(MOServer server, OctetString context) 
@@ -1311,6 +1534,8 @@ implements MOGroup
     server.register(this.persistScalarEntry, context);
     server.register(this.persistTableEntry, context);
     server.register(this.persistCellEntry, context);
+    server.register(this.requestStatsEntry, context);
+    server.register(this.nodeStatsEntry, context);
 //--AgentGen BEGIN=_registerMOs
 //--AgentGen END
   }
@@ -1335,6 +1560,8 @@ implements MOGroup
     server.unregister(this.persistScalarEntry, context);
     server.unregister(this.persistTableEntry, context);
     server.unregister(this.persistCellEntry, context);
+    server.unregister(this.requestStatsEntry, context);
+    server.unregister(this.nodeStatsEntry, context);
 //--AgentGen BEGIN=_unregisterMOs
 //--AgentGen END
   }
@@ -1365,6 +1592,11 @@ implements MOGroup
     notificationOriginator.notify(context, oidAppDeadlock, vbs);
   }
 
+  public void appNotificationsSuppressed(NotificationOriginator notificationOriginator,
+                                         OctetString context, VariableBinding[] vbs) {
+    notificationOriginator.notify(context, oidAppNotificationsSuppressed, vbs);
+  }
+
 
   // Scalars
   public class ShutdownApp extends DisplayStringScalar<OctetString> {
@@ -3082,6 +3314,371 @@ implements MOGroup
      //--AgentGen END
   }
 
+  public class RequestStatsEntryRow extends DefaultMOMutableRow2PC {
+
+     //--AgentGen BEGIN=requestStatsEntry::RowMembers
+     //--AgentGen END
+
+    public RequestStatsEntryRow(OID index, Variable[] values) {
+      super(index, values);
+     //--AgentGen BEGIN=requestStatsEntry::RowConstructor
+     //--AgentGen END
+    }
+    
+    public OctetString getRequestStatsPduType() {
+     //--AgentGen BEGIN=requestStatsEntry::getRequestStatsPduType
+     //--AgentGen END
+      return (OctetString) super.getValue(idxRequestStatsPduType);
+    }  
+    
+    public void setRequestStatsPduType(OctetString newValue) {
+     //--AgentGen BEGIN=requestStatsEntry::setRequestStatsPduType
+     //--AgentGen END
+      super.setValue(idxRequestStatsPduType, newValue);
+    }
+    
+    public Counter64 getRequestStatsCount() {
+     //--AgentGen BEGIN=requestStatsEntry::getRequestStatsCount
+     //--AgentGen END
+      return (Counter64) super.getValue(idxRequestStatsCount);
+    }  
+    
+    public void setRequestStatsCount(Counter64 newValue) {
+     //--AgentGen BEGIN=requestStatsEntry::setRequestStatsCount
+     //--AgentGen END
+      super.setValue(idxRequestStatsCount, newValue);
+    }
+    
+    public UnsignedInteger32 getRequestStatsP50() {
+     //--AgentGen BEGIN=requestStatsEntry::getRequestStatsP50
+     //--AgentGen END
+      return (UnsignedInteger32) super.getValue(idxRequestStatsP50);
+    }  
+    
+    public void setRequestStatsP50(UnsignedInteger32 newValue) {
+     //--AgentGen BEGIN=requestStatsEntry::setRequestStatsP50
+     //--AgentGen END
+      super.setValue(idxRequestStatsP50, newValue);
+    }
+    
+    public UnsignedInteger32 getRequestStatsP99() {
+     //--AgentGen BEGIN=requestStatsEntry::getRequestStatsP99
+     //--AgentGen END
+      return (UnsignedInteger32) super.getValue(idxRequestStatsP99);
+    }  
+    
+    public void setRequestStatsP99(UnsignedInteger32 newValue) {
+     //--AgentGen BEGIN=requestStatsEntry::setRequestStatsP99
+     //--AgentGen END
+      super.setValue(idxRequestStatsP99, newValue);
+    }
+    
+    public UnsignedInteger32 getRequestStatsMax() {
+     //--AgentGen BEGIN=requestStatsEntry::getRequestStatsMax
+     //--AgentGen END
+      return (UnsignedInteger32) super.getValue(idxRequestStatsMax);
+    }  
+    
+    public void setRequestStatsMax(UnsignedInteger32 newValue) {
+     //--AgentGen BEGIN=requestStatsEntry::setRequestStatsMax
+     //--AgentGen END
+      super.setValue(idxRequestStatsMax, newValue);
+    }
+    
+    public Variable getValue(int column) {
+     //--AgentGen BEGIN=requestStatsEntry::RowGetValue
+     //--AgentGen END
+      switch(column) {
+        case idxRequestStatsPduType: 
+        	return getRequestStatsPduType();
+        case idxRequestStatsCount: 
+        	return getRequestStatsCount();
+        case idxRequestStatsP50: 
+        	return getRequestStatsP50();
+        case idxRequestStatsP99: 
+        	return getRequestStatsP99();
+        case idxRequestStatsMax: 
+        	return getRequestStatsMax();
+        default:
+          return super.getValue(column);
+      }
+    }
+    
+    public void setValue(int column, Variable value) {
+     //--AgentGen BEGIN=requestStatsEntry::RowSetValue
+     //--AgentGen END
+      switch(column) {
+        case idxRequestStatsPduType: 
+        	setRequestStatsPduType((OctetString)value);
+        	break;
+        case idxRequestStatsCount: 
+        	setRequestStatsCount((Counter64)value);
+        	break;
+        case idxRequestStatsP50: 
+        	setRequestStatsP50((UnsignedInteger32)value);
+        	break;
+        case idxRequestStatsP99: 
+        	setRequestStatsP99((UnsignedInteger32)value);
+        	break;
+        case idxRequestStatsMax: 
+        	setRequestStatsMax((UnsignedInteger32)value);
+        	break;
+        default:
+          super.setValue(column, value);
+      }
+    }
+
+     //--AgentGen BEGIN=requestStatsEntry::Row
+     //--AgentGen END
+  }
+  
+  class RequestStatsEntryRowFactory 
+        implements MOTableRowFactory<RequestStatsEntryRow>
+  {
+    public synchronized RequestStatsEntryRow createRow(OID index, Variable[] values)
+        throws UnsupportedOperationException 
+    {
+      RequestStatsEntryRow row = 
+        new RequestStatsEntryRow(index, values);
+     //--AgentGen BEGIN=requestStatsEntry::createRow
+     //--AgentGen END
+      return row;
+    }
+    
+    public synchronized void freeRow(RequestStatsEntryRow row) {
+     //--AgentGen BEGIN=requestStatsEntry::freeRow
+     //--AgentGen END
+    }
+
+     //--AgentGen BEGIN=requestStatsEntry::RowFactory
+     //--AgentGen END
+  }
+
+  public class NodeStatsEntryRow extends DefaultMOMutableRow2PC {
+
+     //--AgentGen BEGIN=nodeStatsEntry::RowMembers
+     //--AgentGen END
+
+    public NodeStatsEntryRow(OID index, Variable[] values) {
+      super(index, values);
+     //--AgentGen BEGIN=nodeStatsEntry::RowConstructor
+     //--AgentGen END
+    }
+    
+    public OctetString getNodeStatsName() {
+     //--AgentGen BEGIN=nodeStatsEntry::getNodeStatsName
+     //--AgentGen END
+      return (OctetString) super.getValue(idxNodeStatsName);
+    }  
+    
+    public void setNodeStatsName(OctetString newValue) {
+     //--AgentGen BEGIN=nodeStatsEntry::setNodeStatsName
+     //--AgentGen END
+      super.setValue(idxNodeStatsName, newValue);
+    }
+    
+    public OctetString getNodeStatsOID() {
+     //--AgentGen BEGIN=nodeStatsEntry::getNodeStatsOID
+     //--AgentGen END
+      return (OctetString) super.getValue(idxNodeStatsOID);
+    }  
+    
+    public void setNodeStatsOID(OctetString newValue) {
+     //--AgentGen BEGIN=nodeStatsEntry::setNodeStatsOID
+     //--AgentGen END
+      super.setValue(idxNodeStatsOID, newValue);
+    }
+    
+    public Counter64 getNodeStatsGetCount() {
+     //--AgentGen BEGIN=nodeStatsEntry::getNodeStatsGetCount
+     //--AgentGen END
+      return (Counter64) super.getValue(idxNodeStatsGetCount);
+    }  
+    
+    public void setNodeStatsGetCount(Counter64 newValue) {
+     //--AgentGen BEGIN=nodeStatsEntry::setNodeStatsGetCount
+     //--AgentGen END
+      super.setValue(idxNodeStatsGetCount, newValue);
+    }
+    
+    public UnsignedInteger32 getNodeStatsGetP50() {
+     //--AgentGen BEGIN=nodeStatsEntry::getNodeStatsGetP50
+     //--AgentGen END
+      return (UnsignedInteger32) super.getValue(idxNodeStatsGetP50);
+    }  
+    
+    public void setNodeStatsGetP50(UnsignedInteger32 newValue) {
+     //--AgentGen BEGIN=nodeStatsEntry::setNodeStatsGetP50
+     //--AgentGen END
+      super.setValue(idxNodeStatsGetP50, newValue);
+    }
+    
+    public UnsignedInteger32 getNodeStatsGetP99() {
+     //--AgentGen BEGIN=nodeStatsEntry::getNodeStatsGetP99
+     //--AgentGen END
+      return (UnsignedInteger32) super.getValue(idxNodeStatsGetP99);
+    }  
+    
+    public void setNodeStatsGetP99(UnsignedInteger32 newValue) {
+     //--AgentGen BEGIN=nodeStatsEntry::setNodeStatsGetP99
+     //--AgentGen END
+      super.setValue(idxNodeStatsGetP99, newValue);
+    }
+    
+    public UnsignedInteger32 getNodeStatsGetMax() {
+     //--AgentGen BEGIN=nodeStatsEntry::getNodeStatsGetMax
+     //--AgentGen END
+      return (UnsignedInteger32) super.getValue(idxNodeStatsGetMax);
+    }  
+    
+    public void setNodeStatsGetMax(UnsignedInteger32 newValue) {
+     //--AgentGen BEGIN=nodeStatsEntry::setNodeStatsGetMax
+     //--AgentGen END
+      super.setValue(idxNodeStatsGetMax, newValue);
+    }
+    
+    public Counter64 getNodeStatsSetCount() {
+     //--AgentGen BEGIN=nodeStatsEntry::getNodeStatsSetCount
+     //--AgentGen END
+      return (Counter64) super.getValue(idxNodeStatsSetCount);
+    }  
+    
+    public void setNodeStatsSetCount(Counter64 newValue) {
+     //--AgentGen BEGIN=nodeStatsEntry::setNodeStatsSetCount
+     //--AgentGen END
+      super.setValue(idxNodeStatsSetCount, newValue);
+    }
+    
+    public UnsignedInteger32 getNodeStatsSetP50() {
+     //--AgentGen BEGIN=nodeStatsEntry::getNodeStatsSetP50
+     //--AgentGen END
+      return (UnsignedInteger32) super.getValue(idxNodeStatsSetP50);
+    }  
+    
+    public void setNodeStatsSetP50(UnsignedInteger32 newValue) {
+     //--AgentGen BEGIN=nodeStatsEntry::setNodeStatsSetP50
+     //--AgentGen END
+      super.setValue(idxNodeStatsSetP50, newValue);
+    }
+    
+    public UnsignedInteger32 getNodeStatsSetP99() {
+     //--AgentGen BEGIN=nodeStatsEntry::getNodeStatsSetP99
+     //--AgentGen END
+      return (UnsignedInteger32) super.getValue(idxNodeStatsSetP99);
+    }  
+    
+    public void setNodeStatsSetP99(UnsignedInteger32 newValue) {
+     //--AgentGen BEGIN=nodeStatsEntry::setNodeStatsSetP99
+     //--AgentGen END
+      super.setValue(idxNodeStatsSetP99, newValue);
+    }
+    
+    public UnsignedInteger32 getNodeStatsSetMax() {
+     //--AgentGen BEGIN=nodeStatsEntry::getNodeStatsSetMax
+     //--AgentGen END
+      return (UnsignedInteger32) super.getValue(idxNodeStatsSetMax);
+    }  
+    
+    public void setNodeStatsSetMax(UnsignedInteger32 newValue) {
+     //--AgentGen BEGIN=nodeStatsEntry::setNodeStatsSetMax
+     //--AgentGen END
+      super.setValue(idxNodeStatsSetMax, newValue);
+    }
+    
+    public Variable getValue(int column) {
+     //--AgentGen BEGIN=nodeStatsEntry::RowGetValue
+     //--AgentGen END
+      switch(column) {
+        case idxNodeStatsName: 
+        	return getNodeStatsName();
+        case idxNodeStatsOID: 
+        	return getNodeStatsOID();
+        case idxNodeStatsGetCount: 
+        	return getNodeStatsGetCount();
+        case idxNodeStatsGetP50: 
+        	return getNodeStatsGetP50();
+        case idxNodeStatsGetP99: 
+        	return getNodeStatsGetP99();
+        case idxNodeStatsGetMax: 
+        	return getNodeStatsGetMax();
+        case idxNodeStatsSetCount: 
+        	return getNodeStatsSetCount();
+        case idxNodeStatsSetP50: 
+        	return getNodeStatsSetP50();
+        case idxNodeStatsSetP99: 
+        	return getNodeStatsSetP99();
+        case idxNodeStatsSetMax: 
+        	return getNodeStatsSetMax();
+        default:
+          return super.getValue(column);
+      }
+    }
+    
+    public void setValue(int column, Variable value) {
+     //--AgentGen BEGIN=nodeStatsEntry::RowSetValue
+     //--AgentGen END
+      switch(column) {
+        case idxNodeStatsName: 
+        	setNodeStatsName((OctetString)value);
+        	break;
+        case idxNodeStatsOID: 
+        	setNodeStatsOID((OctetString)value);
+        	break;
+        case idxNodeStatsGetCount: 
+        	setNodeStatsGetCount((Counter64)value);
+        	break;
+        case idxNodeStatsGetP50: 
+        	setNodeStatsGetP50((UnsignedInteger32)value);
+        	break;
+        case idxNodeStatsGetP99: 
+        	setNodeStatsGetP99((UnsignedInteger32)value);
+        	break;
+        case idxNodeStatsGetMax: 
+        	setNodeStatsGetMax((UnsignedInteger32)value);
+        	break;
+        case idxNodeStatsSetCount: 
+        	setNodeStatsSetCount((Counter64)value);
+        	break;
+        case idxNodeStatsSetP50: 
+        	setNodeStatsSetP50((UnsignedInteger32)value);
+        	break;
+        case idxNodeStatsSetP99: 
+        	setNodeStatsSetP99((UnsignedInteger32)value);
+        	break;
+        case idxNodeStatsSetMax: 
+        	setNodeStatsSetMax((UnsignedInteger32)value);
+        	break;
+        default:
+          super.setValue(column, value);
+      }
+    }
+
+     //--AgentGen BEGIN=nodeStatsEntry::Row
+     //--AgentGen END
+  }
+  
+  class NodeStatsEntryRowFactory 
+        implements MOTableRowFactory<NodeStatsEntryRow>
+  {
+    public synchronized NodeStatsEntryRow createRow(OID index, Variable[] values)
+        throws UnsupportedOperationException 
+    {
+      NodeStatsEntryRow row = 
+        new NodeStatsEntryRow(index, values);
+     //--AgentGen BEGIN=nodeStatsEntry::createRow
+     //--AgentGen END
+      return row;
+    }
+    
+    public synchronized void freeRow(NodeStatsEntryRow row) {
+     //--AgentGen BEGIN=nodeStatsEntry::freeRow
+     //--AgentGen END
+    }
+
+     //--AgentGen BEGIN=nodeStatsEntry::RowFactory
+     //--AgentGen END
+  }
+
 
 //--AgentGen BEGIN=_METHODS
 //--AgentGen END
@@ -33,9 +33,11 @@ public class FriendlySnmpMibFriend extends BaseMib {
     private FTable deadlocksListEntry;
     private FTable exceptionViewEntry;
     private FTable exceptionsListEntry;
+    private FTable nodeStatsEntry;
     private FTable persistCellEntry;
     private FTable persistScalarEntry;
     private FTable persistTableEntry;
+    private FTable requestStatsEntry;
     private FTable sysPropEntry;
 
     // Columns for table appConfigEntry
@@ -142,6 +144,48 @@ public class FriendlySnmpMibFriend extends BaseMib {
                 FriendlySnmpMib.idxExceptionsListAction, 
                 FriendlySnmpMib.colExceptionsListAction);
 
+    // Columns for table nodeStatsEntry
+    public final static FColumn COLUMN_NodeStatsName = 
+        new FColumn("NodeStatsName",
+                FriendlySnmpMib.idxNodeStatsName, 
+                FriendlySnmpMib.colNodeStatsName);
+    public final static FColumn COLUMN_NodeStatsOID = 
+        new FColumn("NodeStatsOID",
+                FriendlySnmpMib.idxNodeStatsOID, 
+                FriendlySnmpMib.colNodeStatsOID);
+    public final static FColumn COLUMN_NodeStatsGetCount = 
+        new FColumn("NodeStatsGetCount",
+                FriendlySnmpMib.idxNodeStatsGetCount, 
+                FriendlySnmpMib.colNodeStatsGetCount);
+    public final static FColumn COLUMN_NodeStatsGetP50 = 
+        new FColumn("NodeStatsGetP50",
+                FriendlySnmpMib.idxNodeStatsGetP50, 
+                FriendlySnmpMib.colNodeStatsGetP50);
+    public final static FColumn COLUMN_NodeStatsGetP99 = 
+        new FColumn("NodeStatsGetP99",
+                FriendlySnmpMib.idxNodeStatsGetP99, 
+                FriendlySnmpMib.colNodeStatsGetP99);
+    public final static FColumn COLUMN_NodeStatsGetMax = 
+        new FColumn("NodeStatsGetMax",
+                FriendlySnmpMib.idxNodeStatsGetMax, 
+                FriendlySnmpMib.colNodeStatsGetMax);
+    public final static FColumn COLUMN_NodeStatsSetCount = 
+        new FColumn("NodeStatsSetCount",
+                FriendlySnmpMib.idxNodeStatsSetCount, 
+                FriendlySnmpMib.colNodeStatsSetCount);
+    public final static FColumn COLUMN_NodeStatsSetP50 = 
+        new FColumn("NodeStatsSetP50",
+                FriendlySnmpMib.idxNodeStatsSetP50, 
+                FriendlySnmpMib.colNodeStatsSetP50);
+    public final static FColumn COLUMN_NodeStatsSetP99 = 
+        new FColumn("NodeStatsSetP99",
+                FriendlySnmpMib.idxNodeStatsSetP99, 
+                FriendlySnmpMib.colNodeStatsSetP99);
+    public final static FColumn COLUMN_NodeStatsSetMax = 
+        new FColumn("NodeStatsSetMax",
+                FriendlySnmpMib.idxNodeStatsSetMax, 
+                FriendlySnmpMib.colNodeStatsSetMax);
+
     // Columns for table persistCellEntry
     public final static FColumn COLUMN_PersistCellTableName = 
         new FColumn("PersistCellTableName",
@@ -220,6 +264,28 @@ public class FriendlySnmpMibFriend extends BaseMib {
                 FriendlySnmpMib.idxPersistTableAction, 
                 FriendlySnmpMib.colPersistTableAction);
 
+    // Columns for table requestStatsEntry
+    public final static FColumn COLUMN_RequestStatsPduType = 
+        new FColumn("RequestStatsPduType",
+                FriendlySnmpMib.idxRequestStatsPduType, 
+                FriendlySnmpMib.colRequestStatsPduType);
+    public final static FColumn COLUMN_RequestStatsCount = 
+        new FColumn("RequestStatsCount",
+                FriendlySnmpMib.idxRequestStatsCount, 
+                FriendlySnmpMib.colRequestStatsCount);
+    public final static FColumn COLUMN_RequestStatsP50 = 
+        new FColumn("RequestStatsP50",
+                FriendlySnmpMib.idxRequestStatsP50, 
+                FriendlySnmpMib.colRequestStatsP50);
+    public final static FColumn COLUMN_RequestStatsP99 = 
+        new FColumn("RequestStatsP99",
+                FriendlySnmpMib.idxRequestStatsP99, 
+                FriendlySnmpMib.colRequestStatsP99);
+    public final static FColumn COLUMN_RequestStatsMax = 
+        new FColumn("RequestStatsMax",
+                FriendlySnmpMib.idxRequestStatsMax, 
+                FriendlySnmpMib.colRequestStatsMax);
+
     // Columns for table sysPropEntry
     public final static FColumn COLUMN_SysPropKey = 
         new FColumn("SysPropKey",
@@ -234,6 +300,7 @@ public class FriendlySnmpMibFriend extends BaseMib {
     private FNotification appDeadlock;
     private FNotification appExceptionCaught;
     private FNotification appExceptionUncaught;
+    private FNotification appNotificationsSuppressed;
     private FNotification appShutdown;
     private FNotification appStop;
 
@@ -297,6 +364,18 @@ public class FriendlySnmpMibFriend extends BaseMib {
             COLUMN_ExceptionsListThread,
             COLUMN_ExceptionsListAction);
         addNode(exceptionsListEntry);
+        nodeStatsEntry = new FTable("nodeStatsEntry", mibORIG.getNodeStatsEntry(), agent,
+            COLUMN_NodeStatsName,
+            COLUMN_NodeStatsOID,
+            COLUMN_NodeStatsGetCount,
+            COLUMN_NodeStatsGetP50,
+            COLUMN_NodeStatsGetP99,
+            COLUMN_NodeStatsGetMax,
+            COLUMN_NodeStatsSetCount,
+            COLUMN_NodeStatsSetP50,
+            COLUMN_NodeStatsSetP99,
+            COLUMN_NodeStatsSetMax);
+        addNode(nodeStatsEntry);
         persistCellEntry = new FTable("persistCellEntry", mibORIG.getPersistCellEntry(), agent,
             COLUMN_PersistCellTableName,
             COLUMN_PersistCellTableOID,
@@ -321,6 +400,13 @@ public class FriendlySnmpMibFriend extends BaseMib {
             COLUMN_PersistTableRowCount,
             COLUMN_PersistTableAction);
         addNode(persistTableEntry);
+        requestStatsEntry = new FTable("requestStatsEntry", mibORIG.getRequestStatsEntry(), agent,
+            COLUMN_RequestStatsPduType,
+            COLUMN_RequestStatsCount,
+            COLUMN_RequestStatsP50,
+            COLUMN_RequestStatsP99,
+            COLUMN_RequestStatsMax);
+        addNode(requestStatsEntry);
         sysPropEntry = new FTable("sysPropEntry", mibORIG.getSysPropEntry(), agent,
             COLUMN_SysPropKey,
             COLUMN_SysPropValue);
@@ -332,6 +418,8 @@ public class FriendlySnmpMibFriend extends BaseMib {
         addNode(appExceptionCaught);
         appExceptionUncaught = new FNotification("appExceptionUncaught", FriendlySnmpMib.oidAppExceptionUncaught, agent);
         addNode(appExceptionUncaught);
+        appNotificationsSuppressed = new FNotification("appNotificationsSuppressed", FriendlySnmpMib.oidAppNotificationsSuppressed, agent);
+        addNode(appNotificationsSuppressed);
         appShutdown = new FNotification("appShutdown", FriendlySnmpMib.oidAppShutdown, agent);
         addNode(appShutdown);
         appStop = new FNotification("appStop", FriendlySnmpMib.oidAppStop, agent);
@@ -406,6 +494,10 @@ public class FriendlySnmpMibFriend extends BaseMib {
         return exceptionsListEntry;
     } // getExceptionsListEntry()
 
+    public FTable getNodeStatsEntry() {
+        return nodeStatsEntry;
+    } // getNodeStatsEntry()
+
     public FTable getPersistCellEntry() {
         return persistCellEntry;
     } // getPersistCellEntry()
@@ -418,6 +510,10 @@ public class FriendlySnmpMibFriend extends BaseMib {
         return persistTableEntry;
     } // getPersistTableEntry()
 
+    public FTable getRequestStatsEntry() {
+        return requestStatsEntry;
+    } // getRequestStatsEntry()
+
     public FTable getSysPropEntry() {
         return sysPropEntry;
     } // getSysPropEntry()
@@ -434,6 +530,10 @@ public class FriendlySnmpMibFriend extends BaseMib {
         return appExceptionUncaught;
     } // getAppExceptionUncaught()
 
+    public FNotification getAppNotificationsSuppressed() {
+        return appNotificationsSuppressed;
+    } // getAppNotificationsSuppressed()
+
     public FNotification getAppShutdown() {
         return appShutdown;
     } // getAppShutdown()
@@ -54,6 +54,8 @@ public class PluginCore extends FPlugin {
         mibBase.addHandler(handlerLife = new CoreLifeHandler());
         mibBase.addHandler(new CorePersistenceHandler());
         mibBase.addHandler(new CoreDeadlockHandler());
+        mibBase.addHandler(new CoreStatsHandler());
+        mibBase.addHandler(new CoreNotifySummaryHandler());
         mibBase.addHandler(handlerExceptions = new CoreExceptionsHandler());
     } 
     
@@ -0,0 +1,170 @@
+/*
+ * File: LatencyHistogram.java
+ * 
+ * Copyright (C) 2014 FriendlySNMP.org; All Rights Reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as
+ * published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301  USA
+ * 
+ * $Id$
+ */
+package org.friendlysnmp.stats;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of latencies with log-linear buckets in the manner 
+ * of HDR histogram. Each power of two range of microseconds is split 
+ * into 8 buckets: a percentile is reported with relative error below 
+ * 12.5%. Values above 2^32-1 microseconds (about 71 minutes) are 
+ * counted in the last bucket.
+ * <p>Recording a value costs three atomic updates and does not allocate 
+ * memory.
+ *
+ * @version $Revision$
+ */
+public class LatencyHistogram {
+    /**
+     * Count of bits which define a bucket inside a power of two range.
+     */
+    private static final int SUB_BITS = 3;
+
+    /**
+     * Count of buckets inside a power of two range.
+     */
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+
+    /**
+     * Maximum value in microseconds: Unsigned32 in the MIB.
+     */
+    public static final long MAX_MICROS = 0xFFFFFFFFL;
+
+    /**
+     * Count of buckets.
+     */
+    private static final int BUCKET_COUNT = index(MAX_MICROS) + 1;
+
+    /**
+     * Count of values in each bucket.
+     */
+    private final AtomicLongArray counts;
+
+    /**
+     * Total count of values.
+     */
+    private final AtomicLong count;
+
+    /**
+     * Maximum value in microseconds.
+     */
+    private final AtomicLong max;
+
+    /**
+     * Constructor
+     */
+    public LatencyHistogram() {
+        counts = new AtomicLongArray(BUCKET_COUNT);
+        count = new AtomicLong();
+        max = new AtomicLong();
+    } // LatencyHistogram()
+
+    /**
+     * Returns bucket index of the value.
+     *
+     * @param micros value in microseconds, not negative
+     * @return bucket index
+     */
+    private static int index(long micros) {
+        if (micros < SUB_COUNT) {
+            return (int)micros;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(micros);
+        int sub = (int)(micros >>> (magnitude - SUB_BITS)) & (SUB_COUNT - 1);
+        return (magnitude - SUB_BITS + 1) * SUB_COUNT + sub;
+    } // index()
+
+    /**
+     * Returns the highest value in the bucket.
+     *
+     * @param index bucket index
+     * @return value in microseconds
+     */
+    private static long highestValue(int index) {
+        if (index < SUB_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_COUNT - 1;
+        long lowest = (long)(SUB_COUNT + index % SUB_COUNT) << shift;
+        return lowest + (1L << shift) - 1;
+    } // highestValue()
+
+    /**
+     * Records latency.
+     *
+     * @param nanos latency in nanoseconds
+     */
+    public void record(long nanos) {
+        long micros = Math.min(Math.max(nanos / 1000, 0), MAX_MICROS);
+        counts.incrementAndGet(index(micros));
+        count.incrementAndGet();
+        long m = max.get();
+        while (micros > m  &&  !max.compareAndSet(m, micros)) {
+            m = max.get();
+        }
+    } // record()
+
+    /**
+     * Returns count of recorded values.
+     *
+     * @return count of values
+     */
+    public long getCount() {
+        return count.get();
+    } // getCount()
+
+    /**
+     * Returns maximum recorded value.
+     *
+     * @return maximum value in microseconds
+     */
+    public long getMaxMicros() {
+        return max.get();
+    } // getMaxMicros()
+
+    /**
+     * Returns percentile of recorded values. The value is the highest 
+     * value of the bucket which contains the percentile, but not above 
+     * the maximum recorded value.
+     *
+     * @param percentile percentile from 0 to 100
+     * @return value in microseconds; 0 if no value is recorded
+     */
+    public long getPercentileMicros(double percentile) {
+        long total = count.get();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long)Math.ceil(total * percentile / 100.0));
+        long sum = 0;
+        for (int i = 0;  i < BUCKET_COUNT;  i++) {
+            sum += counts.get(i);
+            if (sum >= rank) {
+                return Math.min(highestValue(i), max.get());
+            }
+        }
+        return max.get(); // values recorded while walking the buckets
+    } // getPercentileMicros()
+
+} // class LatencyHistogram
@@ -0,0 +1,103 @@
+/*
+ * File: NodeStats.java
+ * 
+ * Copyright (C) 2014 FriendlySNMP.org; All Rights Reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as
+ * published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301  USA
+ * 
+ * $Id$
+ */
+package org.friendlysnmp.stats;
+
+import org.friendlysnmp.FID;
+
+/**
+ * Latency statistics of GET and SET events of a scalar or a table. 
+ *
+ * @version $Revision$
+ */
+public class NodeStats {
+    /**
+     * Scalar or table ID
+     */
+    private final FID id;
+
+    /**
+     * Registration sequence number, starting from 1. It does not change 
+     * for the agent lifetime.
+     */
+    private final int index;
+
+    /**
+     * Time of GET event listeners
+     */
+    private final LatencyHistogram histGet;
+
+    /**
+     * Time of SET event listeners
+     */
+    private final LatencyHistogram histSet;
+
+    /**
+     * Constructor
+     *
+     * @param id scalar or table ID
+     * @param index registration sequence number
+     */
+    NodeStats(FID id, int index) {
+        this.id = id;
+        this.index = index;
+        histGet = new LatencyHistogram();
+        histSet = new LatencyHistogram();
+    } // NodeStats()
+
+    /**
+     * Returns scalar or table ID.
+     *
+     * @return scalar or table ID
+     */
+    public FID getFID() {
+        return id;
+    } // getFID()
+
+    /**
+     * Returns registration sequence number. Node statistics are never 
+     * removed, so the number is a stable row index.
+     *
+     * @return registration sequence number, starting from 1
+     */
+    public int getIndex() {
+        return index;
+    } // getIndex()
+
+    /**
+     * Returns histogram of GET events time.
+     *
+     * @return GET events histogram
+     */
+    public LatencyHistogram getGetHistogram() {
+        return histGet;
+    } // getGetHistogram()
+
+    /**
+     * Returns histogram of SET events time.
+     *
+     * @return SET events histogram
+     */
+    public LatencyHistogram getSetHistogram() {
+        return histSet;
+    } // getSetHistogram()
+
+} // class NodeStats
@@ -0,0 +1,182 @@
+/*
+ * File: RequestStats.java
+ * 
+ * Copyright (C) 2014 FriendlySNMP.org; All Rights Reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as
+ * published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301  USA
+ * 
+ * $Id$
+ */
+package org.friendlysnmp.stats;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.friendlysnmp.FID;
+import org.snmp4j.PDU;
+
+/**
+ * Request processing statistics of the agent: latency histograms per 
+ * PDU type and per scalar or table GET and SET events.
+ * <p>The statistics are exposed in <code>requestStatsTable</code> and 
+ * <code>nodeStatsTable</code> of FRIENDLY-SNMP-MIB.
+ *
+ * @version $Revision$
+ */
+public class RequestStats {
+    /**
+     * PDU types with request statistics.
+     */
+    private static final int[] PDU_TYPES = new int[] { 
+        PDU.GET, PDU.GETNEXT, PDU.GETBULK, PDU.SET 
+    };
+
+    /**
+     * Histograms per PDU type in the <code>PDU_TYPES</code> order.
+     */
+    private final LatencyHistogram[] a_histRequest;
+
+    /**
+     * Statistics of scalars and tables.
+     */
+    private final ConcurrentHashMap<FID, NodeStats> hmNode;
+
+    /**
+     * Statistics collection flag.
+     */
+    private volatile boolean enabled;
+
+    /**
+     * Constructor
+     *
+     * @param enabled statistics collection flag
+     */
+    public RequestStats(boolean enabled) {
+        this.enabled = enabled;
+        a_histRequest = new LatencyHistogram[PDU_TYPES.length];
+        for (int i = 0;  i < a_histRequest.length;  i++) {
+            a_histRequest[i] = new LatencyHistogram();
+        }
+        hmNode = new ConcurrentHashMap<FID, NodeStats>();
+    } // RequestStats()
+
+    /**
+     * Returns statistics collection flag.
+     *
+     * @return true if statistics are collected
+     */
+    public boolean isEnabled() {
+        return enabled;
+    } // isEnabled()
+
+    /**
+     * Sets statistics collection flag.
+     *
+     * @param enabled true to collect statistics
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    } // setEnabled()
+
+    //--------------------------------separator--------------------------------
+    static int ______REQUESTS;
+
+    /**
+     * Records request processing time.
+     *
+     * @param pduType PDU type
+     * @param nanos processing time in nanoseconds
+     */
+    public void recordRequest(int pduType, long nanos) {
+        if (enabled) {
+            for (int i = 0;  i < PDU_TYPES.length;  i++) {
+                if (PDU_TYPES[i] == pduType) {
+                    a_histRequest[i].record(nanos);
+                    return;
+                }
+            }
+        }
+    } // recordRequest()
+
+    /**
+     * Returns PDU types with request statistics.
+     *
+     * @return PDU types
+     */
+    public int[] getPduTypes() {
+        return PDU_TYPES.clone();
+    } // getPduTypes()
+
+    /**
+     * Returns request histogram of the PDU type.
+     *
+     * @param pduType PDU type
+     * @return histogram or <code>null</code> for not supported PDU type
+     */
+    public LatencyHistogram getRequestHistogram(int pduType) {
+        for (int i = 0;  i < PDU_TYPES.length;  i++) {
+            if (PDU_TYPES[i] == pduType) {
+                return a_histRequest[i];
+            }
+        }
+        return null;
+    } // getRequestHistogram()
+
+    //--------------------------------separator--------------------------------
+    static int ______NODES;
+
+    /**
+     * Returns statistics of a scalar or a table. The statistics object 
+     * is created on first call and gets the next registration sequence 
+     * number.
+     *
+     * @param id scalar or table ID
+     * @return node statistics
+     */
+    public NodeStats getNodeStats(FID id) {
+        NodeStats stats = hmNode.get(id);
+        if (stats == null) {
+            synchronized (hmNode) {
+                stats = hmNode.get(id);
+                if (stats == null) {
+                    // Nodes are never removed: size is the last number
+                    stats = new NodeStats(id, hmNode.size() + 1);
+                    hmNode.put(id, stats);
+                }
+            }
+        }
+        return stats;
+    } // getNodeStats()
+
+    /**
+     * Returns statistics of all scalars and tables with recorded events
+     * sorted by OID.
+     *
+     * @return list of node statistics
+     */
+    public List<NodeStats> getNodeStatsList() {
+        List<NodeStats> lst = new ArrayList<NodeStats>(hmNode.values());
+        Collections.sort(lst, new Comparator<NodeStats>() {
+            public int compare(NodeStats s1, NodeStats s2) {
+                return s1.getFID().getOID().compareTo(s2.getFID().getOID());
+            }
+        });
+        return lst;
+    } // getNodeStatsList()
+
+} // class RequestStats
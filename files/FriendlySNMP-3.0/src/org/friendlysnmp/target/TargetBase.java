@@ -257,7 +257,7 @@ public abstract class TargetBase {
                 getTargetAddrName(),        // Name
                 getTransportDomainOID(),    // TDomain
                 getTransportAddress(),      // TAddress
-                notifyTimeoutMls,           // Timeout 
+                notifyTimeoutMls / 10,      // Timeout (in 1/100 seconds)
                 notifyRetryCount,           // RetryCount
                 octTagList,                 // TagList (space delimited)
                 getTargetParamsName(),      // Params
@@ -157,7 +157,16 @@ public class TargetV1 extends TargetBase {
     {
         addTargetAddress(targetMIB);
         addTargetParams(targetMIB);
-        addNotificationEntry(notificationMIB, NotificationType.TRAP);
+        addNotificationEntry(notificationMIB, getNotificationType());
     } // addNotificationTargets()
 
+    /**
+     * Returns notification type. SNMPv1 supports only TRAP.
+     * 
+     * @return notification type
+     */
+    protected NotificationType getNotificationType() {
+        return NotificationType.TRAP;
+    } // getNotificationType()
+
 } // class TargetV1
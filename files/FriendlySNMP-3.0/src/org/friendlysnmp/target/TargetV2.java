@@ -21,6 +21,7 @@
  */
 package org.friendlysnmp.target;
 
+import org.friendlysnmp.FConstant;
 import org.snmp4j.mp.MessageProcessingModel;
 import org.snmp4j.security.SecurityLevel;
 import org.snmp4j.security.SecurityModel;
@@ -44,4 +45,18 @@ public class TargetV2 extends TargetV1 {
                 SecurityLevel.NOAUTH_NOPRIV);
     } // TargetV2()
     
+    /**
+     * Returns notification type: INFORM if it is enabled in configuration,
+     * or TRAP.
+     * 
+     * @see org.friendlysnmp.target.TargetV1#getNotificationType()
+     */
+    @Override
+    protected NotificationType getNotificationType() {
+        if (config.getConfigBoolean(FConstant.KEY_NOTIFY_INFORM)) {
+            return NotificationType.INFORM;
+        }
+        return NotificationType.TRAP;
+    } // getNotificationType()
+    
 } // class TargetV2
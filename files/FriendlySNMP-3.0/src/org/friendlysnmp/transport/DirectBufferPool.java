@@ -0,0 +1,109 @@
+/*
+ * File: DirectBufferPool.java
+ *
+ * Copyright (C) 2014 FriendlySNMP.org; All Rights Reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as
+ * published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301  USA
+ *
+ *
+ * $Id$
+ */
+package org.friendlysnmp.transport;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of direct byte buffers with the same capacity. Buffers are 
+ * allocated on demand and returned to the pool after use. The pool keeps 
+ * at most the specified count of free buffers; extra released buffers 
+ * are dropped for garbage collection.
+ * <p>The class is thread safe.
+ *
+ * @version $Revision$
+ */
+final class DirectBufferPool {
+    /**
+     * Free buffers.
+     */
+    private final ConcurrentLinkedQueue<ByteBuffer> queueFree;
+
+    /**
+     * Count of free buffers. Kept separately: queue size() is O(n).
+     */
+    private final AtomicInteger countFree;
+
+    /**
+     * Capacity of each buffer.
+     */
+    private final int capacity;
+
+    /**
+     * Maximum count of free buffers in the pool.
+     */
+    private final int maxFree;
+
+    /**
+     * Constructor
+     *
+     * @param capacity capacity of each buffer
+     * @param maxFree maximum count of free buffers kept in the pool
+     */
+    DirectBufferPool(int capacity, int maxFree) {
+        this.capacity = capacity;
+        this.maxFree = maxFree;
+        queueFree = new ConcurrentLinkedQueue<ByteBuffer>();
+        countFree = new AtomicInteger();
+    } // DirectBufferPool()
+
+    /**
+     * Returns capacity of each buffer.
+     *
+     * @return buffer capacity
+     */
+    int getCapacity() {
+        return capacity;
+    } // getCapacity()
+
+    /**
+     * Takes free buffer from the pool or allocates a new one.
+     *
+     * @return cleared buffer
+     */
+    ByteBuffer acquire() {
+        ByteBuffer buf = queueFree.poll();
+        if (buf == null) {
+            return ByteBuffer.allocateDirect(capacity);
+        }
+        countFree.decrementAndGet();
+        buf.clear();
+        return buf;
+    } // acquire()
+
+    /**
+     * Returns buffer to the pool. The buffer must not be used after this call.
+     *
+     * @param buf buffer taken by {@link #acquire()}
+     */
+    void release(ByteBuffer buf) {
+        if (countFree.incrementAndGet() > maxFree) {
+            countFree.decrementAndGet();
+            return; // pool is full
+        }
+        queueFree.offer(buf);
+    } // release()
+
+} // class DirectBufferPool
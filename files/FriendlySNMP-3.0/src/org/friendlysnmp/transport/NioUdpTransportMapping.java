@@ -0,0 +1,386 @@
+/*
+ * File: NioUdpTransportMapping.java
+ *
+ * Copyright (C) 2014 FriendlySNMP.org; All Rights Reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as
+ * published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301  USA
+ *
+ *
+ * $Id$
+ */
+package org.friendlysnmp.transport;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+
+import org.friendlysnmp.ThrowableFormatter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.snmp4j.TransportStateReference;
+import org.snmp4j.security.SecurityLevel;
+import org.snmp4j.smi.UdpAddress;
+import org.snmp4j.transport.UdpTransportMapping;
+
+/**
+ * UDP transport mapping based on NIO <code>DatagramChannel</code>.
+ * Incoming and outgoing datagrams use direct byte buffers from a pool:
+ * no byte array is allocated per datagram and the JDK does not copy 
+ * datagrams between heap and native memory.
+ * <p>Received message is passed to the message dispatcher in the pooled
+ * buffer, which is reused after the dispatcher returns. This requires 
+ * synchronous message dispatcher (<code>MessageDispatcherImpl</code>, 
+ * which is used by the agent): asynchronous message processing is 
+ * disabled by default. If it is enabled, each received message is copied 
+ * into a new array as SNMP4J default transport mapping does.
+ * <p>Datagram channel is closed by JDK if a thread blocked in the channel
+ * operation is interrupted. Interrupt status of the sending thread is 
+ * cleared for the time of the send operation and the channel closed 
+ * this way (not by {@link #close()}) is reopened.
+ *
+ * @version $Revision$
+ */
+public class NioUdpTransportMapping extends UdpTransportMapping {
+    /**
+     * Logger object
+     */
+    private static final Logger logger = LoggerFactory.getLogger(NioUdpTransportMapping.class);
+
+    /**
+     * Maximum count of free buffers kept in the pool.
+     */
+    private static final int MAX_FREE_BUFFERS = 16;
+
+    /**
+     * Datagram channel or <code>null</code> after close.
+     */
+    private DatagramChannel channel;
+
+    /**
+     * Receive thread or <code>null</code> if the mapping is not listening.
+     */
+    private ReceiveThread thread;
+
+    /**
+     * Direct buffers pool.
+     */
+    private DirectBufferPool pool;
+
+    /**
+     * Constructor. The channel is bound to the address.
+     *
+     * @param udpAddress address to listen
+     * @throws IOException if the address cannot be bound
+     */
+    public NioUdpTransportMapping(UdpAddress udpAddress) throws IOException {
+        super(udpAddress);
+        asyncMsgProcessingSupported = false; // pooled buffers are reused
+        channel = openChannel();
+    } // NioUdpTransportMapping()
+
+    /**
+     * Opens datagram channel and binds it to the listen address.
+     *
+     * @return opened channel in blocking mode
+     * @throws IOException
+     */
+    private DatagramChannel openChannel() throws IOException {
+        DatagramChannel ch = DatagramChannel.open();
+        try {
+            ch.socket().bind(new InetSocketAddress(
+                    udpAddress.getInetAddress(), udpAddress.getPort()));
+        } catch (IOException e) {
+            ch.close();
+            throw e;
+        }
+        return ch;
+    } // openChannel()
+
+    /**
+     * Returns open datagram channel. The channel is reopened if it was 
+     * closed by interrupt of a thread blocked in the channel operation.
+     *
+     * @param chClosed channel found closed or <code>null</code>
+     * @return open channel or <code>null</code> if the mapping is closed
+     * @throws IOException
+     */
+    private synchronized DatagramChannel reopenChannel(DatagramChannel chClosed) 
+    throws IOException 
+    {
+        if (channel == null  ||  channel != chClosed) {
+            return channel;
+        }
+        logger.warn("Reopening closed datagram channel at " + udpAddress);
+        channel = openChannel();
+        return channel;
+    } // reopenChannel()
+
+    /**
+     * Returns buffers pool. The pool is created on first use when 
+     * maximum inbound message size is known.
+     *
+     * @return buffers pool
+     */
+    private synchronized DirectBufferPool getPool() {
+        if (pool == null  ||  pool.getCapacity() != getMaxInboundMessageSize()) {
+            pool = new DirectBufferPool(getMaxInboundMessageSize(), MAX_FREE_BUFFERS);
+        }
+        return pool;
+    } // getPool()
+
+    /**
+     * Sets maximum inbound message size: capacity of pooled buffers.
+     *
+     * @param maxInboundMessageSize maximum message size in bytes
+     */
+    public void setMaxInboundMessageSize(int maxInboundMessageSize) {
+        this.maxInboundMessageSize = maxInboundMessageSize;
+    } // setMaxInboundMessageSize()
+
+    //--------------------------------separator--------------------------------
+    static int ______TRANSPORT;
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.snmp4j.transport.UdpTransportMapping#sendMessage(org.snmp4j.smi.UdpAddress, byte[], org.snmp4j.TransportStateReference)
+     */
+    @Override
+    public void sendMessage(UdpAddress targetAddress, byte[] message,
+            TransportStateReference tmStateReference)
+    throws IOException
+    {
+        DatagramChannel ch;
+        synchronized (this) {
+            if (channel == null) {
+                channel = openChannel();
+            }
+            ch = channel;
+        }
+        if (!ch.isOpen()) {
+            ch = reopenChannel(ch);
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug(String.format("Sending message to %s, length %d", 
+                    targetAddress, message.length));
+        }
+        InetSocketAddress target = new InetSocketAddress(
+                targetAddress.getInetAddress(), targetAddress.getPort());
+        DirectBufferPool p = getPool();
+        if (message.length > p.getCapacity()) {
+            send(ch, ByteBuffer.wrap(message), target);
+            return;
+        }
+        ByteBuffer buf = p.acquire();
+        try {
+            buf.put(message).flip();
+            send(ch, buf, target);
+        } finally {
+            p.release(buf);
+        }
+    } // sendMessage()
+
+    /**
+     * Sends datagram. Interrupt status of the current thread is cleared 
+     * for the time of sending: interrupt closes the channel.
+     *
+     * @param ch channel
+     * @param buf datagram
+     * @param target target address
+     * @throws IOException
+     */
+    private static void send(DatagramChannel ch, ByteBuffer buf, 
+            InetSocketAddress target) 
+    throws IOException 
+    {
+        boolean interrupted = Thread.interrupted();
+        try {
+            ch.send(buf, target);
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    } // send()
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.snmp4j.transport.UdpTransportMapping#listen()
+     */
+    @Override
+    public synchronized void listen() throws IOException {
+        if (thread != null) {
+            throw new SocketException("Port already listening");
+        }
+        if (channel == null) {
+            channel = openChannel();
+        }
+        thread = new ReceiveThread(channel);
+        thread.start();
+        logger.info("Listening at " + udpAddress + " (NIO)");
+    } // listen()
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.snmp4j.TransportMapping#isListening()
+     */
+    @Override
+    public synchronized boolean isListening() {
+        return (thread != null);
+    } // isListening()
+
+    /**
+     * {@inheritDoc}
+     * <p>Closes the channel and waits for receive thread termination.
+     *
+     * @see org.snmp4j.transport.UdpTransportMapping#close()
+     */
+    @Override
+    public void close() throws IOException {
+        ReceiveThread t;
+        synchronized (this) {
+            t = thread;
+            thread = null;
+            if (t != null) {
+                t.terminate();
+            }
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+        }
+        if (t != null) {
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    } // close()
+
+    //--------------------------------separator--------------------------------
+    static int ______THREAD;
+
+    /**
+     * Thread which receives messages from the channel.
+     */
+    private class ReceiveThread extends Thread {
+        /**
+         * Channel to receive messages
+         */
+        private DatagramChannel ch;
+
+        /**
+         * Stop flag
+         */
+        private volatile boolean stop;
+
+        /**
+         * Constructor
+         *
+         * @param ch channel to receive messages
+         */
+        ReceiveThread(DatagramChannel ch) {
+            super("FriendlyNioUdpReceiveThread-" + udpAddress);
+            this.ch = ch;
+            setDaemon(true);
+        }
+
+        /**
+         * Terminates the thread. The channel is closed by the caller.
+         */
+        void terminate() {
+            stop = true;
+        }
+
+        @Override
+        public void run() {
+            DirectBufferPool p = getPool();
+            while (!stop) {
+                ByteBuffer buf = p.acquire();
+                InetSocketAddress from;
+                try {
+                    from = (InetSocketAddress)ch.receive(buf);
+                } catch (ClosedChannelException e) {
+                    p.release(buf);
+                    if (stop) {
+                        break; // regular close()
+                    }
+                    try {
+                        ch = reopenChannel(ch);
+                    } catch (IOException eOpen) {
+                        logger.error(ThrowableFormatter.format(
+                                "Failure to reopen datagram channel at " + udpAddress, eOpen));
+                        break;
+                    }
+                    if (ch == null) {
+                        break; // closed
+                    }
+                    continue;
+                } catch (IOException e) {
+                    p.release(buf);
+                    if (stop) {
+                        break;
+                    }
+                    logger.warn(ThrowableFormatter.format(
+                            "Failure to receive message at " + udpAddress, e));
+                    continue;
+                }
+                buf.flip();
+                try {
+                    process(from, buf);
+                } finally {
+                    p.release(buf);
+                }
+            }
+            if (logger.isDebugEnabled()) {
+                logger.debug("Stopped receive thread " + getName());
+            }
+        } // run()
+
+        /**
+         * Passes received message to the message dispatcher.
+         *
+         * @param from message source address
+         * @param buf message
+         */
+        private void process(InetSocketAddress from, ByteBuffer buf) {
+            ByteBuffer bis = buf;
+            if (isAsyncMsgProcessingSupported()) {
+                // Dispatcher might process message after the buffer is reused
+                byte[] bytes = new byte[buf.remaining()];
+                buf.get(bytes);
+                bis = ByteBuffer.wrap(bytes);
+            }
+            TransportStateReference stateReference = 
+                new TransportStateReference(NioUdpTransportMapping.this, 
+                        udpAddress, null, SecurityLevel.undefined, 
+                        SecurityLevel.undefined, false, ch);
+            try {
+                fireProcessMessage(new UdpAddress(
+                        from.getAddress(), from.getPort()), bis, stateReference);
+            } catch (RuntimeException e) {
+                logger.error(ThrowableFormatter.format(
+                        "Failure to process message from " + from, e));
+            }
+        } // process()
+    } // inner class ReceiveThread
+
+} // class NioUdpTransportMapping
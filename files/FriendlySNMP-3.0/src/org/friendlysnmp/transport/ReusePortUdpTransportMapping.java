@@ -0,0 +1,383 @@
+/*
+ * File: ReusePortUdpTransportMapping.java
+ *
+ * Copyright (C) 2014 FriendlySNMP.org; All Rights Reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3 as
+ * published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301  USA
+ *
+ *
+ * $Id$
+ */
+package org.friendlysnmp.transport;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.friendlysnmp.ThrowableFormatter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.snmp4j.TransportStateReference;
+import org.snmp4j.security.SecurityLevel;
+import org.snmp4j.smi.UdpAddress;
+import org.snmp4j.transport.UdpTransportMapping;
+
+/**
+ * UDP transport mapping which opens several sockets on the same address
+ * with <code>SO_REUSEPORT</code> option. Each socket has its own receive 
+ * thread which passes received messages to the message dispatcher. 
+ * The kernel distributes incoming datagrams between the sockets, so 
+ * receiving of requests from many managers is not limited by a single 
+ * receive thread.
+ * <p>The <code>SO_REUSEPORT</code> option requires Java 9 or later and 
+ * OS support (Linux 3.9+, BSD). Otherwise a single socket is opened and 
+ * a warning is logged. The option is set with reflection to keep 
+ * compatibility with earlier Java versions.
+ * <p>Outgoing messages are sent through the sockets in turn.
+ *
+ * @version $Revision$
+ */
+public class ReusePortUdpTransportMapping extends UdpTransportMapping {
+    /**
+     * Logger object
+     */
+    private static final Logger logger = LoggerFactory.getLogger(ReusePortUdpTransportMapping.class);
+
+    /**
+     * Requested count of sockets.
+     */
+    private int socketCount;
+
+    /**
+     * Opened sockets. The array is <code>null</code> after close.
+     */
+    private DatagramSocket[] socketAll;
+
+    /**
+     * Receive threads or <code>null</code> if the mapping is not listening.
+     */
+    private ReceiveThread[] threadAll;
+
+    /**
+     * Counter to select socket for outgoing message.
+     */
+    private final AtomicInteger sendCount;
+
+    /**
+     * Constructor. The sockets are bound to the address.
+     *
+     * @param udpAddress address to listen
+     * @param socketCount count of sockets (and receive threads)
+     * @throws IOException if the address cannot be bound
+     */
+    public ReusePortUdpTransportMapping(UdpAddress udpAddress, int socketCount)
+    throws IOException
+    {
+        super(udpAddress);
+        if (socketCount < 1) {
+            throw new IllegalArgumentException("Not valid sockets count " + socketCount);
+        }
+        this.socketCount = socketCount;
+        sendCount = new AtomicInteger();
+        socketAll = openSockets();
+    } // ReusePortUdpTransportMapping()
+
+    /**
+     * Returns count of opened sockets. It is 1 if <code>SO_REUSEPORT</code>
+     * is not supported.
+     *
+     * @return count of opened sockets or 0 if the mapping is closed
+     */
+    public synchronized int getSocketCount() {
+        return (socketAll == null ? 0 : socketAll.length);
+    } // getSocketCount()
+
+    //--------------------------------separator--------------------------------
+    static int ______SOCKETS;
+
+    /**
+     * Opens sockets and binds them to the listen address.
+     *
+     * @return opened sockets
+     * @throws IOException
+     */
+    private DatagramSocket[] openSockets() throws IOException {
+        Object optReusePort = getReusePortOption();
+        int count = socketCount;
+        if (count > 1  &&  optReusePort == null) {
+            logger.warn(String.format(
+                    "SO_REUSEPORT is not supported. Single socket is used for %s",
+                    udpAddress));
+            count = 1;
+        }
+        DatagramSocket[] sockets = new DatagramSocket[count];
+        int port = udpAddress.getPort();
+        try {
+            for (int i = 0;  i < count;  i++) {
+                DatagramSocket socket = new DatagramSocket((SocketAddress)null);
+                sockets[i] = socket;
+                if (count > 1  &&  !setReusePort(socket, optReusePort)) {
+                    throw new SocketException(
+                            "Failure to set SO_REUSEPORT for " + udpAddress);
+                }
+                socket.bind(new InetSocketAddress(udpAddress.getInetAddress(), port));
+                port = socket.getLocalPort(); // the same ephemeral port for all
+            }
+        } catch (IOException e) {
+            closeSockets(sockets);
+            throw e;
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug(String.format("Opened %d UDP sockets at %s", count, udpAddress));
+        }
+        return sockets;
+    } // openSockets()
+
+    /**
+     * Returns <code>StandardSocketOptions.SO_REUSEPORT</code> option.
+     *
+     * @return socket option or <code>null</code> if Java does not support it
+     */
+    private static Object getReusePortOption() {
+        try {
+            Class<?> c = Class.forName("java.net.StandardSocketOptions");
+            return c.getField("SO_REUSEPORT").get(null);
+        } catch (Exception e) {
+            // ClassNotFoundException, NoSuchFieldException, IllegalAccessException
+            return null;
+        }
+    } // getReusePortOption()
+
+    /**
+     * Sets <code>SO_REUSEPORT</code> option for the socket.
+     *
+     * @param socket not bound socket
+     * @param optReusePort <code>SO_REUSEPORT</code> socket option
+     * @return true if the option is set, false if it is not supported
+     */
+    private static boolean setReusePort(DatagramSocket socket, Object optReusePort) {
+        try {
+            Class<?> clazzOption = Class.forName("java.net.SocketOption");
+            Method m = DatagramSocket.class.getMethod(
+                    "setOption", clazzOption, Object.class);
+            m.invoke(socket, optReusePort, Boolean.TRUE);
+            return true;
+        } catch (InvocationTargetException e) {
+            // UnsupportedOperationException: not supported by OS
+            logger.debug("SO_REUSEPORT is not set: " + e.getCause());
+            return false;
+        } catch (Exception e) {
+            // ClassNotFoundException, NoSuchMethodException, IllegalAccessException
+            return false;
+        }
+    } // setReusePort()
+
+    /**
+     * Closes sockets.
+     *
+     * @param sockets sockets to close, the array might contain nulls
+     */
+    private static void closeSockets(DatagramSocket[] sockets) {
+        for (DatagramSocket socket : sockets) {
+            if (socket != null) {
+                socket.close();
+            }
+        }
+    } // closeSockets()
+
+    //--------------------------------separator--------------------------------
+    static int ______TRANSPORT;
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.snmp4j.transport.UdpTransportMapping#sendMessage(org.snmp4j.smi.UdpAddress, byte[], org.snmp4j.TransportStateReference)
+     */
+    @Override
+    public void sendMessage(UdpAddress targetAddress, byte[] message,
+            TransportStateReference tmStateReference)
+    throws IOException
+    {
+        DatagramSocket[] sockets;
+        synchronized (this) {
+            if (socketAll == null) {
+                socketAll = openSockets();
+            }
+            sockets = socketAll;
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug(String.format("Sending message to %s, length %d", 
+                    targetAddress, message.length));
+        }
+        int index = (sendCount.getAndIncrement() & Integer.MAX_VALUE) % sockets.length;
+        sockets[index].send(new DatagramPacket(message, message.length,
+                new InetSocketAddress(targetAddress.getInetAddress(), 
+                                      targetAddress.getPort())));
+    } // sendMessage()
+
+    /**
+     * {@inheritDoc}
+     * <p>Starts receive thread for each socket.
+     *
+     * @see org.snmp4j.transport.UdpTransportMapping#listen()
+     */
+    @Override
+    public synchronized void listen() throws IOException {
+        if (threadAll != null) {
+            throw new SocketException("Port already listening");
+        }
+        if (socketAll == null) {
+            socketAll = openSockets();
+        }
+        threadAll = new ReceiveThread[socketAll.length];
+        for (int i = 0;  i < socketAll.length;  i++) {
+            threadAll[i] = new ReceiveThread(socketAll[i], i);
+            threadAll[i].start();
+        }
+        logger.info(String.format("Listening at %s with %d receive threads",
+                udpAddress, threadAll.length));
+    } // listen()
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.snmp4j.TransportMapping#isListening()
+     */
+    @Override
+    public synchronized boolean isListening() {
+        return (threadAll != null);
+    } // isListening()
+
+    /**
+     * {@inheritDoc}
+     * <p>Closes sockets and waits for receive threads termination.
+     *
+     * @see org.snmp4j.transport.UdpTransportMapping#close()
+     */
+    @Override
+    public void close() throws IOException {
+        ReceiveThread[] threads;
+        synchronized (this) {
+            threads = threadAll;
+            threadAll = null;
+            if (threads != null) {
+                for (ReceiveThread thread : threads) {
+                    thread.terminate();
+                }
+            }
+            if (socketAll != null) {
+                closeSockets(socketAll);
+                socketAll = null;
+            }
+        }
+        if (threads != null) {
+            for (ReceiveThread thread : threads) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+    } // close()
+
+    //--------------------------------separator--------------------------------
+    static int ______THREAD;
+
+    /**
+     * Thread which receives messages from a single socket.
+     */
+    private class ReceiveThread extends Thread {
+        /**
+         * Socket to receive messages
+         */
+        private DatagramSocket socket;
+
+        /**
+         * Stop flag
+         */
+        private volatile boolean stop;
+
+        /**
+         * Constructor
+         *
+         * @param socket socket to receive messages
+         * @param index socket index for thread name
+         */
+        ReceiveThread(DatagramSocket socket, int index) {
+            super(String.format("FriendlyUdpReceiveThread-%s-%d", udpAddress, index));
+            this.socket = socket;
+            setDaemon(true);
+        }
+
+        /**
+         * Terminates the thread. The socket is closed by the caller.
+         */
+        void terminate() {
+            stop = true;
+        }
+
+        @Override
+        public void run() {
+            byte[] buf = new byte[getMaxInboundMessageSize()];
+            while (!stop) {
+                DatagramPacket packet = new DatagramPacket(buf, buf.length);
+                try {
+                    socket.receive(packet);
+                } catch (IOException e) {
+                    if (stop  ||  socket.isClosed()) {
+                        break; // regular close()
+                    }
+                    logger.warn(ThrowableFormatter.format(
+                            "Failure to receive message at " + udpAddress, e));
+                    continue;
+                }
+                int length = packet.getLength();
+                ByteBuffer bis;
+                if (isAsyncMsgProcessingSupported()) {
+                    // Dispatcher might process message after next receive
+                    byte[] bytes = new byte[length];
+                    System.arraycopy(buf, 0, bytes, 0, length);
+                    bis = ByteBuffer.wrap(bytes);
+                } else {
+                    bis = ByteBuffer.wrap(buf, 0, length);
+                }
+                TransportStateReference stateReference = 
+                    new TransportStateReference(ReusePortUdpTransportMapping.this, 
+                            udpAddress, null, SecurityLevel.undefined, 
+                            SecurityLevel.undefined, false, socket);
+                try {
+                    fireProcessMessage(new UdpAddress(
+                            packet.getAddress(), packet.getPort()), bis, stateReference);
+                } catch (RuntimeException e) {
+                    logger.error(ThrowableFormatter.format(
+                            "Failure to process message from " + packet.getSocketAddress(), e));
+                }
+            }
+            if (logger.isDebugEnabled()) {
+                logger.debug("Stopped receive thread " + getName());
+            }
+        } // run()
+    } // inner class ReceiveThread
+
+} // class ReusePortUdpTransportMapping
@@ -5,11 +5,18 @@
  */
 package Controlador;
 
+import Modelagem.ComputadorDAO;
+
 /**
  *
  * @author Adriano
  */
 public class Computador {
+    //Valores de statusMaq, preenchido pela coleta SNMP.
+    public static final int STATUS_DESCONHECIDO = 0;
+    public static final int STATUS_ONLINE = 1;
+    public static final int STATUS_OFFLINE = 2;
+
     private int codMaq;
     private String nomeMaq;
     private int statusMaq;
@@ -47,21 +54,19 @@ public class Computador {
         this.codGroup = codGroup;
     }
     
-    //Criar uma instância com singleton para criar um objeto do tipo LOG.
-    
-    public int incluir(){
-        
-        //gerarLog();
-        return 0;
+    public int incluir() throws Exception {
+        codMaq = new ComputadorDAO().incluir(this);
+        Log.gerarLog("Incluir computador " + codMaq);
+        return codMaq;
     }
     
-    public void consultar(){
-    
+    public Computador consultar() throws Exception {
+        return new ComputadorDAO().consultar(codMaq);
     }
     
-    public int excluir(){
-    
-        //gerarLog();
-        return 0;
+    public int excluir() throws Exception {
+        int linhas = new ComputadorDAO().excluir(codMaq);
+        Log.gerarLog("Excluir computador " + codMaq);
+        return linhas;
     }
 }
@@ -5,6 +5,8 @@
  */
 package Controlador;
 
+import Modelagem.EventoDAO;
+import Modelagem.GravadorEventos;
 import java.util.Date;
 
 /**
@@ -49,7 +51,15 @@ public class Evento {
         this.descricao = descricao;
     }
     
-    public void incluir(){
+    public void incluir() throws Exception {
+        codEvento = new EventoDAO().incluir(this);
+    }
     
+    //Grava em lote pelo GravadorEventos, sem esperar o banco.
+    public boolean registrar() {
+        if (dataHora == null) {
+            dataHora = new Date();
+        }
+        return GravadorEventos.getInstance().registrar(this);
     }
 }
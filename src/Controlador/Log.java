@@ -5,7 +5,10 @@
  */
 package Controlador;
 
+import Modelagem.GravadorEventos;
+import Modelagem.LogDAO;
 import java.util.Date;
+import java.util.List;
 
 /**
  *
@@ -49,14 +52,24 @@ public class Log {
         this.loginUser = loginUser;
     }
     
-    public Log incluir(){
+    //Registra a ação do usuário logado. A gravação no banco é feita em lote
+    //pelo GravadorEventos, sem esperar o banco.
+    public static void gerarLog(String funcao) {
+        Log log = new Log();
+        log.setDataHora(new Date());
+        log.setFuncao(funcao);
+        log.setLoginUser(Login.getInstance().getUser());
+        GravadorEventos.getInstance().registrar(log);
+    }
+    
+    public Log incluir() throws Exception {
     //Deve retornar um tipo LOG pois aqui não será impresso nada, será na Interface.
-        Log a = new Log();
+        codLog = new LogDAO().incluir(this);
     
-    return a;
+    return this;
     }
     
-    public void consultar(){
-    
+    public List<Log> consultar() throws Exception {
+        return new LogDAO().listar();
     }
 }
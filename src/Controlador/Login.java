@@ -27,6 +27,10 @@ public class Login {
         return instance;
     }
 
+    public String getUser() {
+        return user;
+    }
+
     public void logar(String nome, String senha){
         if(nome.equals(nome)){
             if(senha.equals(senha)){
@@ -6,7 +6,11 @@
 package Controlador;
 
 import Interface.MonitoramentoLab;
+import Modelagem.ComputadorDAO;
+import Modelagem.MonitoramentoDAO;
+import SNMP.AgendadorColeta;
 import java.awt.GridLayout;
+import java.util.List;
 import javax.swing.JPanel;
 
 /**
@@ -42,30 +46,42 @@ public class Monitoramento {
         this.labGroup = labGroup;
     }
     
-    //Criar uma instância com singleton para criar um objeto do tipo LOG.
     
     
+    public int incluir() throws Exception {
+        codGroup = new MonitoramentoDAO().incluir(this);
+        Log.gerarLog("Incluir grupo " + codGroup);
+        return codGroup;
+    }
     
-    public int incluir(){
-    
-        //gerarLog();
-        return 0;
+    public int alterar() throws Exception {
+        int linhas = new MonitoramentoDAO().alterar(this);
+        Log.gerarLog("Alterar grupo " + codGroup);
+        return linhas;
     }
     
-    public int alterar(){
+    public int excluir() throws Exception {
+        int linhas = new MonitoramentoDAO().excluir(codGroup);
+        Log.gerarLog("Excluir grupo " + codGroup);
+        return linhas;
+    }
     
-        //gerarLog();
-        return 0;
+    public Monitoramento consultar() throws Exception {
+        return new MonitoramentoDAO().consultar(codGroup);
     }
     
-    public int excluir(){
+    //Passa a coletar por SNMP o status dos computadores do grupo. O intervalo
+    //de cada computador é ajustado pelo AgendadorColeta.
+    public void iniciarMonitoramento() throws Exception {
+        AgendadorColeta.getInstance().agendar(codGroup, new ComputadorDAO().listarPorGrupo(codGroup));
+    }
     
-        //gerarLog();
-        return 0;
+    public void pararMonitoramento() {
+        AgendadorColeta.getInstance().remover(codGroup);
     }
     
-    public void consultar(){
-        
+    public List<Computador> getComputadoresMonitorados() {
+        return AgendadorColeta.getInstance().getComputadores(codGroup);
     }
     
     
@@ -5,6 +5,8 @@
  */
 package Controlador;
 
+import Modelagem.UsuarioDAO;
+
 /**
  *
  * @author Adriano
@@ -83,22 +85,20 @@ public class Usuario {
         this.nivelAcesso = nivelAcesso;
     }
     
-    //Criar uma instância com singleton para criar um objeto do tipo LOG.
-    
-    public int incluir(){
-    
-        //gerarLog();
-        return 0;
+    public int incluir() throws Exception {
+        codCadColab = new UsuarioDAO().incluir(this);
+        Log.gerarLog("Incluir usuário " + codCadColab);
+        return codCadColab;
     }
     
-    public int alterar(){
-    
-        //gerarLog();
-        return 0;
+    public int alterar() throws Exception {
+        int linhas = new UsuarioDAO().alterar(this);
+        Log.gerarLog("Alterar usuário " + codCadColab);
+        return linhas;
     }
     
-    public void consultar(){
-    
+    public Usuario consultar() throws Exception {
+        return new UsuarioDAO().consultar(codCadColab);
     }
     
 }
@@ -0,0 +1,155 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package Modelagem;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cache de PreparedStatement de uma conexão do pool. Cada SQL é preparado
+ * uma vez no banco e o mesmo statement é entregue nas próximas chamadas; o
+ * close() do statement entregue só limpa os parâmetros. Os menos usados são
+ * fechados quando o cache passa do máximo.
+ *
+ * Só é usado pela thread que emprestou a conexão, por isso não é sincronizado.
+ *
+ * @author Adriano
+ */
+class CacheStatements {
+
+    private static final int SEM_CHAVES = -1;
+
+    private final Connection conexao;
+    private final int maximo;
+    private final LinkedHashMap<String, PreparedStatement> statements;
+    //Statements entregues e ainda não fechados pelo usuário.
+    private final Set<PreparedStatement> emUso
+            = Collections.newSetFromMap(new IdentityHashMap<PreparedStatement, Boolean>());
+
+    CacheStatements(Connection conexao, int maximo) {
+        this.conexao = conexao;
+        this.maximo = maximo;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    PreparedStatement preparar(String sql) throws SQLException {
+        return preparar(sql, SEM_CHAVES);
+    }
+
+    PreparedStatement preparar(String sql, int chavesGeradas) throws SQLException {
+        String chave = chavesGeradas + ":" + sql;
+        PreparedStatement ps = statements.get(chave);
+        if (ps != null && emUso.contains(ps)) {
+            //O mesmo SQL já está aberto nesta conexão: prepara um sem cache.
+            return novo(sql, chavesGeradas);
+        }
+        if (ps == null) {
+            ps = novo(sql, chavesGeradas);
+            statements.put(chave, ps);
+            removerExcedentes();
+        }
+        emUso.add(ps);
+        return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, new Entregue(ps));
+    }
+
+    void fechar() {
+        for (PreparedStatement ps : statements.values()) {
+            fecharSilencioso(ps);
+        }
+        statements.clear();
+        emUso.clear();
+    }
+
+    private PreparedStatement novo(String sql, int chavesGeradas) throws SQLException {
+        if (chavesGeradas == SEM_CHAVES) {
+            return conexao.prepareStatement(sql);
+        }
+        return conexao.prepareStatement(sql, chavesGeradas);
+    }
+
+    private void removerExcedentes() {
+        Iterator<Map.Entry<String, PreparedStatement>> it = statements.entrySet().iterator();
+        while (statements.size() > maximo && it.hasNext()) {
+            PreparedStatement ps = it.next().getValue();
+            if (!emUso.contains(ps)) {
+                it.remove();
+                fecharSilencioso(ps);
+            }
+        }
+    }
+
+    private void devolver(PreparedStatement ps) {
+        emUso.remove(ps);
+        try {
+            ps.clearParameters();
+            ps.clearBatch();
+        } catch (SQLException e) {
+            //Statement com problema: sai do cache.
+            statements.values().removeIf(p -> p == ps);
+            fecharSilencioso(ps);
+        }
+    }
+
+    private void fecharSilencioso(PreparedStatement ps) {
+        try {
+            ps.close();
+        } catch (SQLException e) {
+        }
+    }
+
+    //Statement entregue ao usuário. O close() devolve o statement ao cache.
+    private class Entregue implements InvocationHandler {
+
+        private final PreparedStatement ps;
+        private boolean fechado;
+
+        private Entregue(PreparedStatement ps) {
+            this.ps = ps;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String nome = method.getName();
+            if (nome.equals("close")) {
+                if (!fechado) {
+                    fechado = true;
+                    devolver(ps);
+                }
+                return null;
+            }
+            if (nome.equals("isClosed")) {
+                return fechado || ps.isClosed();
+            }
+            if (nome.equals("equals")) {
+                return proxy == args[0];
+            }
+            if (nome.equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            if (fechado) {
+                throw new SQLException("O statement já foi fechado");
+            }
+            try {
+                return method.invoke(ps, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package Modelagem;
+
+import Controlador.Computador;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ *
+ * @author Adriano
+ */
+public class ComputadorDAO extends DAOBase<Computador> {
+
+    private static final String INCLUIR
+            = "INSERT INTO Computador (nomeMaq, statusMaq, codGroup) VALUES (?, ?, ?)";
+    private static final String ALTERAR_STATUS
+            = "UPDATE Computador SET statusMaq = ? WHERE codMaq = ?";
+    private static final String EXCLUIR
+            = "DELETE FROM Computador WHERE codMaq = ?";
+    private static final String CONSULTAR
+            = "SELECT codMaq, nomeMaq, statusMaq, codGroup FROM Computador WHERE codMaq = ?";
+    private static final String LISTAR_POR_GRUPO
+            = "SELECT codMaq, nomeMaq, statusMaq, codGroup FROM Computador WHERE codGroup = ? ORDER BY nomeMaq";
+    private static final String LISTAR
+            = "SELECT codMaq, nomeMaq, statusMaq, codGroup FROM Computador ORDER BY nomeMaq";
+
+    public int incluir(Computador c) throws Exception {
+        return inserir(INCLUIR, c.getNomeMaq(), c.getStatusMaq(), c.getCodGroup());
+    }
+
+    public int alterarStatus(int codMaq, int statusMaq) throws Exception {
+        return executar(ALTERAR_STATUS, statusMaq, codMaq);
+    }
+
+    public int excluir(int codMaq) throws Exception {
+        return executar(EXCLUIR, codMaq);
+    }
+
+    public Computador consultar(int codMaq) throws Exception {
+        return consultarUm(CONSULTAR, codMaq);
+    }
+
+    public List<Computador> listarPorGrupo(int codGroup) throws Exception {
+        return consultarLista(LISTAR_POR_GRUPO, codGroup);
+    }
+
+    public List<Computador> listar() throws Exception {
+        return consultarLista(LISTAR);
+    }
+
+    @Override
+    protected Computador ler(ResultSet rs) throws SQLException {
+        Computador c = new Computador();
+        c.setCodMaq(rs.getInt("codMaq"));
+        c.setNomeMaq(rs.getString("nomeMaq"));
+        c.setStatusMaq(rs.getInt("statusMaq"));
+        c.setCodGroup(rs.getInt("codGroup"));
+        return c;
+    }
+}
@@ -6,7 +6,6 @@
 package Modelagem;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 /**
@@ -15,18 +14,44 @@ import java.sql.SQLException;
  */
 public class ConexaoBD {
 
+    private static final String DRIVER = "net.sourceforge.jtds.jdbc.Driver";
+    private static final String URL = "jdbc:jtds:sqlserver://localhost;DataBaseName=SGLab";
+    private static final String USUARIO = "Adriano";
+    private static final String SENHA = "300695";
+
+    //Tamanho e tempos do pool de conexões.
+    private static final int POOL_MINIMO = 2;
+    private static final int POOL_MAXIMO = 10;
+    private static final long POOL_TEMPO_OCIOSO_MS = 5 * 60 * 1000;
+    private static final long POOL_TEMPO_ESPERA_MS = 10 * 1000;
+    private static final long POOL_TEMPO_VAZAMENTO_MS = 2 * 60 * 1000;
+
+    private static PoolConexoes pool;
+
+    //A conexão vem do pool: chamar close() ao terminar para devolvê-la.
     public static Connection abrirConn() throws Exception {
-        String url;
-        Connection conn;
         try {
-            Class.forName("net.sourceforge.jtds.jdbc.Driver");
-            url = "jdbc:jtds:sqlserver://localhost;DataBaseName=SGLab";
-            conn = DriverManager.getConnection(url, "Adriano", "300695");
-            return conn;
+            return getPool().emprestar();
         } catch (SQLException e) {
             throw new Exception("Aconteceu o erro ao conectar ao banco: " + e.getMessage());
         } catch (Exception e) {
             throw new Exception("Aconteceu o erro: " + e.getMessage());
         }
     }
+
+    public static synchronized void fecharPool() {
+        if (pool != null) {
+            pool.fechar();
+            pool = null;
+        }
+    }
+
+    private static synchronized PoolConexoes getPool() throws ClassNotFoundException {
+        if (pool == null) {
+            pool = new PoolConexoes(DRIVER, URL, USUARIO, SENHA,
+                    POOL_MINIMO, POOL_MAXIMO, POOL_TEMPO_OCIOSO_MS,
+                    POOL_TEMPO_ESPERA_MS, POOL_TEMPO_VAZAMENTO_MS);
+        }
+        return pool;
+    }
 }
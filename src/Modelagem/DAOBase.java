@@ -0,0 +1,105 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package Modelagem;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Base dos DAO. Cada SQL é uma constante da classe filha e é executado com
+ * prepareStatement numa conexão do pool, que reaproveita o statement já
+ * preparado (ver {@link CacheStatements}). Nunca concatenar valores no SQL,
+ * senão cada chamada vira um SQL novo para o banco.
+ *
+ * @author Adriano
+ * @param <T> entidade
+ */
+public abstract class DAOBase<T> {
+
+    protected abstract T ler(ResultSet rs) throws SQLException;
+
+    protected int executar(String sql, Object... parametros) throws Exception {
+        try (Connection conn = ConexaoBD.abrirConn();
+                PreparedStatement ps = conn.prepareStatement(sql)) {
+            preencher(ps, parametros);
+            return ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new Exception("Aconteceu o erro ao acessar o banco: " + e.getMessage());
+        }
+    }
+
+    //Retorna o código gerado pelo banco (IDENTITY).
+    protected int inserir(String sql, Object... parametros) throws Exception {
+        try (Connection conn = ConexaoBD.abrirConn();
+                PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            preencher(ps, parametros);
+            ps.executeUpdate();
+            try (ResultSet rs = ps.getGeneratedKeys()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        } catch (SQLException e) {
+            throw new Exception("Aconteceu o erro ao acessar o banco: " + e.getMessage());
+        }
+    }
+
+    protected T consultarUm(String sql, Object... parametros) throws Exception {
+        List<T> lista = consultarLista(sql, parametros);
+        return lista.isEmpty() ? null : lista.get(0);
+    }
+
+    protected List<T> consultarLista(String sql, Object... parametros) throws Exception {
+        try (Connection conn = ConexaoBD.abrirConn();
+                PreparedStatement ps = conn.prepareStatement(sql)) {
+            preencher(ps, parametros);
+            List<T> lista = new ArrayList<>();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    lista.add(ler(rs));
+                }
+            }
+            return lista;
+        } catch (SQLException e) {
+            throw new Exception("Aconteceu o erro ao acessar o banco: " + e.getMessage());
+        }
+    }
+
+    //Executa o mesmo SQL para cada linha num único envio ao banco. A conexão
+    //e a transação são de quem chama.
+    protected int[] executarLote(Connection conn, String sql, List<Object[]> linhas)
+            throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            for (Object[] parametros : linhas) {
+                preencher(ps, parametros);
+                ps.addBatch();
+            }
+            return ps.executeBatch();
+        }
+    }
+
+    protected static Date lerData(ResultSet rs, String coluna) throws SQLException {
+        Timestamp ts = rs.getTimestamp(coluna);
+        return ts == null ? null : new Date(ts.getTime());
+    }
+
+    private void preencher(PreparedStatement ps, Object[] parametros) throws SQLException {
+        for (int i = 0; i < parametros.length; i++) {
+            Object valor = parametros[i];
+            if (valor instanceof Date && !(valor instanceof java.sql.Date)) {
+                valor = new Timestamp(((Date) valor).getTime());
+            } else if (valor instanceof Character) {
+                valor = valor.toString();
+            }
+            ps.setObject(i + 1, valor);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package Modelagem;
+
+import Controlador.Evento;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ *
+ * @author Adriano
+ */
+public class EventoDAO extends DAOBase<Evento> {
+
+    private static final String INCLUIR
+            = "INSERT INTO Evento (dataHora, codMaq, descricao) VALUES (?, ?, ?)";
+    private static final String LISTAR
+            = "SELECT codEvento, dataHora, codMaq, descricao FROM Evento ORDER BY dataHora DESC";
+    private static final String LISTAR_POR_COMPUTADOR
+            = "SELECT codEvento, dataHora, codMaq, descricao FROM Evento WHERE codMaq = ? ORDER BY dataHora DESC";
+
+    public int incluir(Evento e) throws Exception {
+        return inserir(INCLUIR, e.getDataHora(), e.getCodMaq(), e.getDescricao());
+    }
+
+    public void incluirLote(Connection conn, List<Evento> eventos) throws SQLException {
+        List<Object[]> linhas = new ArrayList<>(eventos.size());
+        for (Evento e : eventos) {
+            linhas.add(new Object[]{e.getDataHora(), e.getCodMaq(), e.getDescricao()});
+        }
+        executarLote(conn, INCLUIR, linhas);
+    }
+
+    public List<Evento> listar() throws Exception {
+        return consultarLista(LISTAR);
+    }
+
+    public List<Evento> listarPorComputador(int codMaq) throws Exception {
+        return consultarLista(LISTAR_POR_COMPUTADOR, codMaq);
+    }
+
+    @Override
+    protected Evento ler(ResultSet rs) throws SQLException {
+        Evento e = new Evento();
+        e.setCodEvento(rs.getInt("codEvento"));
+        e.setDataHora(lerData(rs, "dataHora"));
+        e.setCodMaq(rs.getInt("codMaq"));
+        e.setDescricao(rs.getString("descricao"));
+        return e;
+    }
+}
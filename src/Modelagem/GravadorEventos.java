@@ -0,0 +1,254 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package Modelagem;
+
+import Controlador.Evento;
+import Controlador.Log;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Grava Evento e Log fora da thread da tela. Os registros entram numa fila
+ * limitada e uma única thread grava em lotes (addBatch/executeBatch) numa
+ * transação, quando o lote enche ou quando passa o intervalo de gravação.
+ * Com a fila cheia o registro é descartado para não travar quem chamou.
+ * Falha passageira (banco fora, conexão perdida) é tentada de novo algumas
+ * vezes; se o banco recusar algum registro do lote, os registros são
+ * gravados um por um e só os recusados são descartados.
+ * Ao fechar (ou ao terminar a aplicação) o que estiver na fila é gravado.
+ *
+ * @author Adriano
+ */
+public class GravadorEventos {
+
+    private static final int CAPACIDADE = 10000;
+    private static final int TAMANHO_LOTE = 500;
+    private static final long INTERVALO_GRAVACAO_MS = 2000;
+    private static final long ESPERA_FECHAMENTO_MS = 10000;
+    private static final int TENTATIVAS = 3;
+    private static final long ESPERA_TENTATIVA_MS = 1000;
+
+    private static final Logger LOGGER = Logger.getLogger(GravadorEventos.class.getName());
+
+    //Acorda a thread de gravação ao fechar.
+    private static final Object FIM = new Object();
+
+    private static GravadorEventos instance;
+
+    private final BlockingQueue<Object> fila;
+    private final int tamanhoLote;
+    private final long intervaloMs;
+    private final EventoDAO eventoDAO = new EventoDAO();
+    private final LogDAO logDAO = new LogDAO();
+    private final AtomicLong gravados = new AtomicLong();
+    private final AtomicLong descartados = new AtomicLong();
+    private final Thread gravador;
+    private volatile boolean fechado;
+
+    public GravadorEventos(int capacidade, int tamanhoLote, long intervaloMs) {
+        this.fila = new ArrayBlockingQueue<>(capacidade);
+        this.tamanhoLote = tamanhoLote;
+        this.intervaloMs = intervaloMs;
+        gravador = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                executar();
+            }
+        }, "GravadorEventos");
+        gravador.setDaemon(true);
+        gravador.start();
+    }
+
+    public static synchronized GravadorEventos getInstance() {
+        if (instance == null) {
+            instance = new GravadorEventos(CAPACIDADE, TAMANHO_LOTE, INTERVALO_GRAVACAO_MS);
+            final GravadorEventos gravadorEventos = instance;
+            Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    gravadorEventos.fechar();
+                    //O pool só pode ser fechado depois de gravar o que estava na fila.
+                    ConexaoBD.fecharPool();
+                }
+            }, "GravadorEventos-Fechamento"));
+        }
+        return instance;
+    }
+
+    public boolean registrar(Evento evento) {
+        return enfileirar(evento);
+    }
+
+    public boolean registrar(Log log) {
+        return enfileirar(log);
+    }
+
+    public long getGravados() {
+        return gravados.get();
+    }
+
+    public long getDescartados() {
+        return descartados.get();
+    }
+
+    public int getPendentes() {
+        return fila.size();
+    }
+
+    //Grava o que estiver na fila e para a thread de gravação.
+    public void fechar() {
+        if (fechado) {
+            return;
+        }
+        fechado = true;
+        fila.offer(FIM);
+        try {
+            gravador.join(ESPERA_FECHAMENTO_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean enfileirar(Object registro) {
+        if (fechado || !fila.offer(registro)) {
+            descartados.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    private void executar() {
+        List<Object> lote = new ArrayList<>(tamanhoLote);
+        while (true) {
+            try {
+                Object primeiro = fechado ? fila.poll() : fila.poll(intervaloMs, TimeUnit.MILLISECONDS);
+                if (primeiro == null) {
+                    if (fechado) {
+                        return;
+                    }
+                    continue;
+                }
+                if (primeiro != FIM) {
+                    lote.add(primeiro);
+                }
+                //Junta o que chegar até encher o lote ou passar o intervalo.
+                long limite = System.currentTimeMillis() + intervaloMs;
+                while (lote.size() < tamanhoLote) {
+                    fila.drainTo(lote, tamanhoLote - lote.size());
+                    long espera = limite - System.currentTimeMillis();
+                    if (fechado || espera <= 0 || lote.size() >= tamanhoLote) {
+                        break;
+                    }
+                    Object proximo = fila.poll(espera, TimeUnit.MILLISECONDS);
+                    if (proximo == null) {
+                        break;
+                    }
+                    if (proximo != FIM) {
+                        lote.add(proximo);
+                    }
+                }
+            } catch (InterruptedException e) {
+                fechado = true;
+            }
+            lote.remove(FIM);
+            if (!lote.isEmpty()) {
+                gravar(lote);
+                lote.clear();
+            }
+        }
+    }
+
+    private void gravar(List<Object> lote) {
+        try {
+            gravarComTentativas(lote);
+            gravados.addAndGet(lote.size());
+        } catch (BatchUpdateException e) {
+            //O banco recusou algum registro: grava um por um para perder só os recusados.
+            gravarUmPorUm(lote);
+        } catch (Exception e) {
+            descartados.addAndGet(lote.size());
+            LOGGER.log(Level.SEVERE, "Não foi possível gravar " + lote.size() + " registros", e);
+        }
+    }
+
+    private void gravarUmPorUm(List<Object> lote) {
+        for (int i = 0; i < lote.size(); i++) {
+            Object registro = lote.get(i);
+            try {
+                gravarComTentativas(Collections.singletonList(registro));
+                gravados.incrementAndGet();
+            } catch (BatchUpdateException e) {
+                descartados.incrementAndGet();
+                LOGGER.log(Level.WARNING, "Registro recusado pelo banco: "
+                        + registro.getClass().getSimpleName(), e);
+            } catch (Exception e) {
+                //Falha passageira que não passou: não adianta tentar os outros.
+                int restantes = lote.size() - i;
+                descartados.addAndGet(restantes);
+                LOGGER.log(Level.SEVERE, "Não foi possível gravar " + restantes + " registros", e);
+                return;
+            }
+        }
+    }
+
+    //Tenta de novo as falhas passageiras. Registro recusado pelo banco
+    //(BatchUpdateException) não é tentado de novo.
+    private void gravarComTentativas(List<Object> registros) throws Exception {
+        long espera = ESPERA_TENTATIVA_MS;
+        for (int tentativa = 1;; tentativa++) {
+            try {
+                gravarTransacao(registros);
+                return;
+            } catch (BatchUpdateException e) {
+                throw e;
+            } catch (Exception e) {
+                if (fechado || tentativa >= TENTATIVAS) {
+                    throw e;
+                }
+                LOGGER.log(Level.FINE, "Falha ao gravar, tentativa " + tentativa + " de " + TENTATIVAS, e);
+                try {
+                    Thread.sleep(espera);
+                } catch (InterruptedException ex) {
+                    fechado = true;
+                    throw e;
+                }
+                espera *= 2;
+            }
+        }
+    }
+
+    private void gravarTransacao(List<Object> registros) throws Exception {
+        List<Evento> eventos = new ArrayList<>();
+        List<Log> logs = new ArrayList<>();
+        for (Object registro : registros) {
+            if (registro instanceof Evento) {
+                eventos.add((Evento) registro);
+            } else {
+                logs.add((Log) registro);
+            }
+        }
+        //Sem commit o close() da conexão do pool desfaz a transação.
+        try (Connection conn = ConexaoBD.abrirConn()) {
+            conn.setAutoCommit(false);
+            if (!eventos.isEmpty()) {
+                eventoDAO.incluirLote(conn, eventos);
+            }
+            if (!logs.isEmpty()) {
+                logDAO.incluirLote(conn, logs);
+            }
+            conn.commit();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package Modelagem;
+
+import Controlador.Log;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ *
+ * @author Adriano
+ */
+public class LogDAO extends DAOBase<Log> {
+
+    private static final String INCLUIR
+            = "INSERT INTO Log (dataHora, funcao, loginUser) VALUES (?, ?, ?)";
+    private static final String LISTAR
+            = "SELECT codLog, dataHora, funcao, loginUser FROM Log ORDER BY dataHora DESC";
+
+    public int incluir(Log l) throws Exception {
+        return inserir(INCLUIR, l.getDataHora(), l.getFuncao(), l.getLoginUser());
+    }
+
+    public void incluirLote(Connection conn, List<Log> logs) throws SQLException {
+        List<Object[]> linhas = new ArrayList<>(logs.size());
+        for (Log l : logs) {
+            linhas.add(new Object[]{l.getDataHora(), l.getFuncao(), l.getLoginUser()});
+        }
+        executarLote(conn, INCLUIR, linhas);
+    }
+
+    public List<Log> listar() throws Exception {
+        return consultarLista(LISTAR);
+    }
+
+    @Override
+    protected Log ler(ResultSet rs) throws SQLException {
+        Log l = new Log();
+        l.setCodLog(rs.getInt("codLog"));
+        l.setDataHora(lerData(rs, "dataHora"));
+        l.setFuncao(rs.getString("funcao"));
+        l.setLoginUser(rs.getString("loginUser"));
+        return l;
+    }
+}
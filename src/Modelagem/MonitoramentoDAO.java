@@ -0,0 +1,59 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package Modelagem;
+
+import Controlador.Monitoramento;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Grupos (laboratórios) de computadores monitorados.
+ *
+ * @author Adriano
+ */
+public class MonitoramentoDAO extends DAOBase<Monitoramento> {
+
+    private static final String INCLUIR
+            = "INSERT INTO Grupo (nomeGroup, labGroup) VALUES (?, ?)";
+    private static final String ALTERAR
+            = "UPDATE Grupo SET nomeGroup = ?, labGroup = ? WHERE codGroup = ?";
+    private static final String EXCLUIR
+            = "DELETE FROM Grupo WHERE codGroup = ?";
+    private static final String CONSULTAR
+            = "SELECT codGroup, nomeGroup, labGroup FROM Grupo WHERE codGroup = ?";
+    private static final String LISTAR
+            = "SELECT codGroup, nomeGroup, labGroup FROM Grupo ORDER BY nomeGroup";
+
+    public int incluir(Monitoramento m) throws Exception {
+        return inserir(INCLUIR, m.getNomeGroup(), m.getLabGroup());
+    }
+
+    public int alterar(Monitoramento m) throws Exception {
+        return executar(ALTERAR, m.getNomeGroup(), m.getLabGroup(), m.getCodGroup());
+    }
+
+    public int excluir(int codGroup) throws Exception {
+        return executar(EXCLUIR, codGroup);
+    }
+
+    public Monitoramento consultar(int codGroup) throws Exception {
+        return consultarUm(CONSULTAR, codGroup);
+    }
+
+    public List<Monitoramento> listar() throws Exception {
+        return consultarLista(LISTAR);
+    }
+
+    @Override
+    protected Monitoramento ler(ResultSet rs) throws SQLException {
+        Monitoramento m = new Monitoramento();
+        m.setCodGroup(rs.getInt("codGroup"));
+        m.setNomeGroup(rs.getString("nomeGroup"));
+        m.setLabGroup(rs.getInt("labGroup"));
+        return m;
+    }
+}
@@ -0,0 +1,392 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package Modelagem;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Pool de conexões com o banco. As conexões são abertas uma vez e
+ * reaproveitadas: o close() da conexão entregue devolve a conexão ao pool.
+ * Os PreparedStatement de cada conexão também são reaproveitados, ver
+ * {@link CacheStatements}.
+ *
+ * @author Adriano
+ */
+public class PoolConexoes {
+
+    private static final Logger LOGGER = Logger.getLogger(PoolConexoes.class.getName());
+
+    private static final String CONSULTA_VALIDACAO = "SELECT 1";
+    private static final int TEMPO_VALIDACAO_SEG = 5;
+    private static final long INTERVALO_MANUTENCAO_MS = 30000;
+    private static final int STATEMENTS_POR_CONEXAO = 50;
+
+    private final String url;
+    private final String usuario;
+    private final String senha;
+    private final int minimo;
+    private final int maximo;
+    private final long tempoOciosoMs;
+    private final long tempoEsperaMs;
+    private final long tempoVazamentoMs;
+
+    //Conexões livres, a mais recente no início.
+    private final Deque<ConexaoLivre> livres = new ArrayDeque<>();
+    private final Map<Connection, Emprestimo> emprestadas = new IdentityHashMap<>();
+    private final Map<Connection, CacheStatements> caches = new IdentityHashMap<>();
+    //Livres + emprestadas + sendo abertas.
+    private int total;
+    private boolean fechado;
+    private final Thread manutencao;
+
+    public PoolConexoes(String driver, String url, String usuario, String senha,
+            int minimo, int maximo, long tempoOciosoMs, long tempoEsperaMs,
+            long tempoVazamentoMs) throws ClassNotFoundException {
+        Class.forName(driver);
+        this.url = url;
+        this.usuario = usuario;
+        this.senha = senha;
+        this.minimo = minimo;
+        this.maximo = maximo;
+        this.tempoOciosoMs = tempoOciosoMs;
+        this.tempoEsperaMs = tempoEsperaMs;
+        this.tempoVazamentoMs = tempoVazamentoMs;
+        manutencao = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                executarManutencao();
+            }
+        }, "PoolConexoes-Manutencao");
+        manutencao.setDaemon(true);
+        manutencao.start();
+    }
+
+    public Connection emprestar() throws SQLException {
+        long limite = System.currentTimeMillis() + tempoEsperaMs;
+        while (true) {
+            Connection real = null;
+            synchronized (this) {
+                while (!fechado && livres.isEmpty() && total >= maximo) {
+                    long espera = limite - System.currentTimeMillis();
+                    if (espera <= 0) {
+                        throw new SQLException("Tempo esgotado aguardando uma conexão livre do pool ("
+                                + maximo + " conexões em uso)");
+                    }
+                    try {
+                        wait(espera);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrompido aguardando conexão do pool");
+                    }
+                }
+                if (fechado) {
+                    throw new SQLException("O pool de conexões está fechado");
+                }
+                if (!livres.isEmpty()) {
+                    real = livres.pollFirst().conexao;
+                } else {
+                    total++;
+                }
+            }
+            if (real == null) {
+                real = abrir();
+            } else if (!validar(real)) {
+                descartar(real);
+                continue;
+            }
+            return registrar(real);
+        }
+    }
+
+    public synchronized int getTotal() {
+        return total;
+    }
+
+    public synchronized int getEmprestadas() {
+        return emprestadas.size();
+    }
+
+    public void fechar() {
+        List<Connection> fechar = new ArrayList<>();
+        synchronized (this) {
+            if (fechado) {
+                return;
+            }
+            fechado = true;
+            for (ConexaoLivre livre : livres) {
+                fechar.add(livre.conexao);
+            }
+            total -= livres.size();
+            livres.clear();
+            for (Connection conn : fechar) {
+                caches.remove(conn);
+            }
+            notifyAll();
+        }
+        manutencao.interrupt();
+        for (Connection conn : fechar) {
+            fecharSilencioso(conn);
+        }
+    }
+
+    private Connection abrir() throws SQLException {
+        try {
+            Connection conn = DriverManager.getConnection(url, usuario, senha);
+            synchronized (this) {
+                caches.put(conn, new CacheStatements(conn, STATEMENTS_POR_CONEXAO));
+            }
+            return conn;
+        } catch (SQLException | RuntimeException e) {
+            synchronized (this) {
+                total--;
+                notifyAll();
+            }
+            throw e;
+        }
+    }
+
+    private boolean validar(Connection conn) {
+        try (Statement st = conn.createStatement()) {
+            st.setQueryTimeout(TEMPO_VALIDACAO_SEG);
+            st.execute(CONSULTA_VALIDACAO);
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private Connection registrar(Connection real) {
+        Emprestimo emprestimo;
+        synchronized (this) {
+            emprestimo = new Emprestimo(real, caches.get(real));
+            emprestadas.put(real, emprestimo);
+        }
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, emprestimo);
+    }
+
+    private void devolver(Connection real) {
+        boolean reaproveitar;
+        try {
+            //Desfaz transação aberta para não passar para o próximo usuário.
+            if (!real.getAutoCommit()) {
+                real.rollback();
+                real.setAutoCommit(true);
+            }
+            reaproveitar = !real.isClosed();
+        } catch (SQLException e) {
+            reaproveitar = false;
+        }
+        synchronized (this) {
+            emprestadas.remove(real);
+            if (reaproveitar && !fechado) {
+                livres.offerFirst(new ConexaoLivre(real));
+                notifyAll();
+                return;
+            }
+        }
+        descartar(real);
+    }
+
+    private void descartar(Connection real) {
+        CacheStatements cache;
+        synchronized (this) {
+            total--;
+            cache = caches.remove(real);
+            notifyAll();
+        }
+        if (cache != null) {
+            cache.fechar();
+        }
+        fecharSilencioso(real);
+    }
+
+    private void fecharSilencioso(Connection conn) {
+        try {
+            conn.close();
+        } catch (SQLException e) {
+        }
+    }
+
+    private void executarManutencao() {
+        while (true) {
+            try {
+                Thread.sleep(INTERVALO_MANUTENCAO_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (!removerOciosas()) {
+                return;
+            }
+            completarMinimo();
+            verificarVazamentos();
+        }
+    }
+
+    private boolean removerOciosas() {
+        List<Connection> fechar = new ArrayList<>();
+        synchronized (this) {
+            if (fechado) {
+                return false;
+            }
+            long limite = System.currentTimeMillis() - tempoOciosoMs;
+            //As mais antigas estão no fim da fila.
+            Iterator<ConexaoLivre> it = livres.descendingIterator();
+            while (it.hasNext() && total > minimo) {
+                ConexaoLivre livre = it.next();
+                if (livre.desde > limite) {
+                    break;
+                }
+                it.remove();
+                total--;
+                caches.remove(livre.conexao);
+                fechar.add(livre.conexao);
+            }
+        }
+        for (Connection conn : fechar) {
+            fecharSilencioso(conn);
+        }
+        return true;
+    }
+
+    private void completarMinimo() {
+        while (true) {
+            synchronized (this) {
+                if (fechado || total >= minimo) {
+                    return;
+                }
+                total++;
+            }
+            Connection conn;
+            try {
+                conn = abrir();
+            } catch (SQLException e) {
+                //O banco pode estar fora; tenta de novo na próxima manutenção.
+                return;
+            }
+            synchronized (this) {
+                if (fechado) {
+                    total--;
+                    caches.remove(conn);
+                } else {
+                    livres.offerLast(new ConexaoLivre(conn));
+                    notifyAll();
+                    continue;
+                }
+            }
+            fecharSilencioso(conn);
+            return;
+        }
+    }
+
+    private void verificarVazamentos() {
+        if (tempoVazamentoMs <= 0) {
+            return;
+        }
+        List<Emprestimo> vazadas = new ArrayList<>();
+        synchronized (this) {
+            long limite = System.currentTimeMillis() - tempoVazamentoMs;
+            for (Emprestimo emprestimo : emprestadas.values()) {
+                if (!emprestimo.avisado && emprestimo.desde < limite) {
+                    emprestimo.avisado = true;
+                    vazadas.add(emprestimo);
+                }
+            }
+        }
+        for (Emprestimo emprestimo : vazadas) {
+            LOGGER.log(Level.WARNING, "Possível vazamento: conexão emprestada há "
+                    + (System.currentTimeMillis() - emprestimo.desde)
+                    + " ms sem ser fechada", emprestimo.origem);
+        }
+    }
+
+    private static class ConexaoLivre {
+
+        private final Connection conexao;
+        private final long desde;
+
+        private ConexaoLivre(Connection conexao) {
+            this.conexao = conexao;
+            this.desde = System.currentTimeMillis();
+        }
+    }
+
+    //Conexão entregue ao usuário. O close() devolve a conexão real ao pool.
+    private class Emprestimo implements InvocationHandler {
+
+        private final Connection real;
+        private final CacheStatements cache;
+        private final long desde;
+        private final Throwable origem;
+        private volatile boolean devolvida;
+        private boolean avisado;
+
+        private Emprestimo(Connection real, CacheStatements cache) {
+            this.real = real;
+            this.cache = cache;
+            this.desde = System.currentTimeMillis();
+            this.origem = new Throwable("Conexão emprestada pela thread "
+                    + Thread.currentThread().getName());
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String nome = method.getName();
+            if (nome.equals("close")) {
+                if (!devolvida) {
+                    devolvida = true;
+                    devolver(real);
+                }
+                return null;
+            }
+            if (nome.equals("isClosed")) {
+                return devolvida || real.isClosed();
+            }
+            if (nome.equals("equals")) {
+                return proxy == args[0];
+            }
+            if (nome.equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            if (nome.equals("toString")) {
+                return "Conexão do pool " + real;
+            }
+            if (devolvida) {
+                throw new SQLException("A conexão já foi devolvida ao pool");
+            }
+            if (nome.equals("prepareStatement") && cache != null) {
+                if (args.length == 1) {
+                    return cache.preparar((String) args[0]);
+                }
+                if (args.length == 2 && args[1] instanceof Integer) {
+                    return cache.preparar((String) args[0], (Integer) args[1]);
+                }
+            }
+            try {
+                return method.invoke(real, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package Modelagem;
+
+import Controlador.Usuario;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ *
+ * @author Adriano
+ */
+public class UsuarioDAO extends DAOBase<Usuario> {
+
+    private static final String COLUNAS
+            = "codCadColab, nomeColab, codColab, funcColab, loginColab, senhaColab, ativo, nivelAcesso";
+    private static final String INCLUIR
+            = "INSERT INTO Usuario (nomeColab, codColab, funcColab, loginColab, senhaColab, ativo, nivelAcesso)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String ALTERAR
+            = "UPDATE Usuario SET nomeColab = ?, codColab = ?, funcColab = ?, loginColab = ?,"
+            + " senhaColab = ?, ativo = ?, nivelAcesso = ? WHERE codCadColab = ?";
+    private static final String CONSULTAR
+            = "SELECT " + COLUNAS + " FROM Usuario WHERE codCadColab = ?";
+    private static final String CONSULTAR_LOGIN
+            = "SELECT " + COLUNAS + " FROM Usuario WHERE loginColab = ?";
+    private static final String LISTAR
+            = "SELECT " + COLUNAS + " FROM Usuario ORDER BY nomeColab";
+
+    public int incluir(Usuario u) throws Exception {
+        return inserir(INCLUIR, u.getNomeColab(), u.getCodColab(), u.getFuncColab(),
+                u.getLoginColab(), u.getSenhaColab(), u.isAtivo(), u.getNivelAcesso());
+    }
+
+    public int alterar(Usuario u) throws Exception {
+        return executar(ALTERAR, u.getNomeColab(), u.getCodColab(), u.getFuncColab(),
+                u.getLoginColab(), u.getSenhaColab(), u.isAtivo(), u.getNivelAcesso(),
+                u.getCodCadColab());
+    }
+
+    public Usuario consultar(int codCadColab) throws Exception {
+        return consultarUm(CONSULTAR, codCadColab);
+    }
+
+    public Usuario consultarPorLogin(String loginColab) throws Exception {
+        return consultarUm(CONSULTAR_LOGIN, loginColab);
+    }
+
+    public List<Usuario> listar() throws Exception {
+        return consultarLista(LISTAR);
+    }
+
+    @Override
+    protected Usuario ler(ResultSet rs) throws SQLException {
+        Usuario u = new Usuario();
+        u.setCodCadColab(rs.getInt("codCadColab"));
+        u.setNomeColab(rs.getString("nomeColab"));
+        u.setCodColab(rs.getInt("codColab"));
+        u.setFuncColab(rs.getString("funcColab"));
+        u.setLoginColab(rs.getString("loginColab"));
+        u.setSenhaColab(rs.getString("senhaColab"));
+        u.setAtivo(rs.getBoolean("ativo"));
+        String nivel = rs.getString("nivelAcesso");
+        if (nivel != null && !nivel.isEmpty()) {
+            u.setNivelAcesso(nivel.charAt(0));
+        }
+        return u;
+    }
+}
@@ -0,0 +1,343 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package SNMP;
+
+import Controlador.Computador;
+import Controlador.Evento;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Agenda a coleta de status de cada computador monitorado. Cada computador
+ * tem seu próprio intervalo e a próxima coleta fica numa fila de prioridade
+ * pelo horário:
+ * - mudou de status: volta ao intervalo mínimo, para confirmar logo;
+ * - continua online: o intervalo dobra até o máximo de estável;
+ * - continua offline: o intervalo dobra até o máximo de offline (backoff).
+ *
+ * Cada mudança de status gera um Evento. Os computadores entram e saem por
+ * grupo, ver Monitoramento.iniciarMonitoramento().
+ *
+ * Uma coleta sem resposta do coletor depois do tempo máximo volta para a
+ * fila, para o computador não deixar de ser monitorado.
+ *
+ * @author Adriano
+ */
+public class AgendadorColeta {
+
+    public static final long INTERVALO_MINIMO_MS = 5 * 1000;
+    public static final long INTERVALO_INICIAL_MS = 30 * 1000;
+    public static final long INTERVALO_MAXIMO_ESTAVEL_MS = 5 * 60 * 1000;
+    public static final long INTERVALO_MAXIMO_OFFLINE_MS = 15 * 60 * 1000;
+    //Espalha as coletas para os computadores de um grupo não vencerem juntos.
+    private static final double VARIACAO = 0.1;
+    //Folga sobre o tempo máximo de coleta antes de considerar a coleta perdida.
+    private static final long MARGEM_COLETA_PERDIDA_MS = 5 * 1000;
+
+    private static final Logger LOGGER = Logger.getLogger(AgendadorColeta.class.getName());
+
+    private static AgendadorColeta instance;
+
+    private final ColetorStatus coletor;
+    private final long intervaloMinimoMs;
+    private final long intervaloInicialMs;
+    private final long intervaloMaximoEstavelMs;
+    private final long intervaloMaximoOfflineMs;
+
+    //Protegidos por fila.
+    private final PriorityQueue<Agendamento> fila = new PriorityQueue<>();
+    private final Map<Integer, Agendamento> agendados = new HashMap<>();
+
+    private final List<ColetorStatus.OuvinteStatus> ouvintes = new CopyOnWriteArrayList<>();
+    private Thread agendador;
+    private volatile boolean parado;
+    //Cada thread de agendamento só roda enquanto a geração for a dela.
+    private volatile int geracao;
+    private long coletas;
+    private long proximaVerificacao;
+
+    public AgendadorColeta(ColetorStatus coletor, long intervaloMinimoMs, long intervaloInicialMs,
+            long intervaloMaximoEstavelMs, long intervaloMaximoOfflineMs) {
+        this.coletor = coletor;
+        this.intervaloMinimoMs = intervaloMinimoMs;
+        this.intervaloInicialMs = intervaloInicialMs;
+        this.intervaloMaximoEstavelMs = intervaloMaximoEstavelMs;
+        this.intervaloMaximoOfflineMs = intervaloMaximoOfflineMs;
+    }
+
+    public static synchronized AgendadorColeta getInstance() {
+        if (instance == null) {
+            instance = new AgendadorColeta(new ColetorStatus(), INTERVALO_MINIMO_MS,
+                    INTERVALO_INICIAL_MS, INTERVALO_MAXIMO_ESTAVEL_MS, INTERVALO_MAXIMO_OFFLINE_MS);
+        }
+        return instance;
+    }
+
+    //O ouvinte é avisado a cada coleta, na thread do snmp4j.
+    public void adicionarOuvinte(ColetorStatus.OuvinteStatus ouvinte) {
+        ouvintes.add(ouvinte);
+    }
+
+    public void removerOuvinte(ColetorStatus.OuvinteStatus ouvinte) {
+        ouvintes.remove(ouvinte);
+    }
+
+    //Passa a monitorar os computadores do grupo. A primeira coleta é imediata.
+    public void agendar(int codGroup, List<Computador> computadores) {
+        iniciar();
+        long agora = System.currentTimeMillis();
+        synchronized (fila) {
+            for (Computador computador : computadores) {
+                Agendamento anterior = agendados.remove(computador.getCodMaq());
+                if (anterior != null) {
+                    anterior.removido = true;
+                }
+                Agendamento agendamento = new Agendamento(computador, codGroup);
+                agendamento.intervaloMs = intervaloInicialMs;
+                agendamento.proximaColeta = agora;
+                agendados.put(computador.getCodMaq(), agendamento);
+                fila.add(agendamento);
+            }
+            fila.notifyAll();
+        }
+    }
+
+    public void remover(int codGroup) {
+        synchronized (fila) {
+            Iterator<Agendamento> it = agendados.values().iterator();
+            while (it.hasNext()) {
+                Agendamento agendamento = it.next();
+                if (agendamento.codGroup == codGroup) {
+                    agendamento.removido = true;
+                    it.remove();
+                }
+            }
+            //Os removidos que estão na fila são descartados quando vencem.
+        }
+    }
+
+    public List<Computador> getComputadores(int codGroup) {
+        List<Computador> lista = new ArrayList<>();
+        synchronized (fila) {
+            for (Agendamento agendamento : agendados.values()) {
+                if (agendamento.codGroup == codGroup) {
+                    lista.add(agendamento.computador);
+                }
+            }
+        }
+        return lista;
+    }
+
+    public long getColetas() {
+        synchronized (fila) {
+            return coletas;
+        }
+    }
+
+    public synchronized void parar() {
+        parado = true;
+        geracao++;
+        if (agendador != null) {
+            agendador.interrupt();
+            agendador = null;
+        }
+        coletor.fechar();
+    }
+
+    private synchronized void iniciar() {
+        if (agendador != null) {
+            return;
+        }
+        parado = false;
+        final int minhaGeracao = ++geracao;
+        agendador = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                executar(minhaGeracao);
+            }
+        }, "AgendadorColeta");
+        agendador.setDaemon(true);
+        agendador.start();
+    }
+
+    private void executar(int minhaGeracao) {
+        while (geracao == minhaGeracao) {
+            Agendamento vencido = null;
+            try {
+                synchronized (fila) {
+                    while (true) {
+                        if (geracao != minhaGeracao) {
+                            return;
+                        }
+                        long agora = System.currentTimeMillis();
+                        if (agora >= proximaVerificacao) {
+                            recolocarPerdidas(agora);
+                            proximaVerificacao = agora + intervaloMinimoMs;
+                        }
+                        Agendamento primeiro = fila.peek();
+                        if (primeiro != null && primeiro.removido) {
+                            fila.poll();
+                            continue;
+                        }
+                        //Acorda também para procurar coletas perdidas.
+                        long espera = proximaVerificacao - agora;
+                        if (primeiro != null) {
+                            espera = Math.min(espera, primeiro.proximaColeta - agora);
+                        }
+                        if (primeiro != null && espera <= 0) {
+                            vencido = fila.poll();
+                            vencido.emColeta = true;
+                            vencido.inicioColeta = agora;
+                            vencido.numeroColeta++;
+                            coletas++;
+                            break;
+                        }
+                        fila.wait(Math.max(espera, 1));
+                    }
+                }
+                coletor.coletar(vencido.computador, new Resposta(vencido, vencido.numeroColeta));
+            } catch (InterruptedException e) {
+                return;
+            } catch (IOException e) {
+                //Sessão SNMP não abriu: tenta o mesmo computador mais tarde.
+                LOGGER.log(Level.WARNING, "Falha na coleta SNMP de "
+                        + vencido.computador.getNomeMaq(), e);
+                synchronized (fila) {
+                    if (vencido.emColeta) {
+                        vencido.emColeta = false;
+                        vencido.proximaColeta = System.currentTimeMillis() + intervaloMinimoMs;
+                        fila.add(vencido);
+                    }
+                }
+                try {
+                    Thread.sleep(intervaloMinimoMs);
+                } catch (InterruptedException ex) {
+                    return;
+                }
+            }
+        }
+    }
+
+    //Coleta sem aviso do coletor depois do tempo máximo: o aviso se perdeu e
+    //o computador volta para a fila. Chamado com o lock da fila.
+    private void recolocarPerdidas(long agora) {
+        long limite = agora - coletor.getTempoMaximoColetaMs() - MARGEM_COLETA_PERDIDA_MS;
+        for (Agendamento agendamento : agendados.values()) {
+            if (agendamento.emColeta && agendamento.inicioColeta < limite) {
+                LOGGER.log(Level.WARNING, "Coleta do computador {0} sem resposta do coletor, reagendando",
+                        agendamento.computador.getNomeMaq());
+                agendamento.emColeta = false;
+                agendamento.proximaColeta = agora;
+                fila.add(agendamento);
+            }
+        }
+    }
+
+    private void reagendar(Agendamento coletado, int numeroColeta, int status, long tempoMs) {
+        Computador computador = coletado.computador;
+        boolean mudou = false;
+        synchronized (fila) {
+            //Aviso de uma coleta já recolocada na fila ou de um computador removido.
+            if (agendados.get(computador.getCodMaq()) != coletado || !coletado.emColeta
+                    || coletado.numeroColeta != numeroColeta) {
+                return;
+            }
+            coletado.emColeta = false;
+            if (parado) {
+                //Coleta encerrada por parar(): não é mudança de status.
+                coletado.proximaColeta = System.currentTimeMillis();
+                fila.add(coletado);
+                return;
+            }
+            int anterior = coletado.ultimoStatus;
+            mudou = anterior != Computador.STATUS_DESCONHECIDO && anterior != status;
+            if (anterior != Computador.STATUS_DESCONHECIDO) {
+                coletado.intervaloMs = proximoIntervalo(coletado.intervaloMs, status, mudou);
+            }
+            coletado.ultimoStatus = status;
+            coletado.proximaColeta = System.currentTimeMillis() + variar(coletado.intervaloMs);
+            fila.add(coletado);
+            fila.notifyAll();
+        }
+        if (mudou) {
+            Evento evento = new Evento();
+            evento.setCodMaq(computador.getCodMaq());
+            evento.setDescricao("Computador " + computador.getNomeMaq()
+                    + (status == Computador.STATUS_ONLINE ? " ficou online" : " ficou offline"));
+            evento.registrar();
+        }
+        for (ColetorStatus.OuvinteStatus ouvinte : ouvintes) {
+            ouvinte.statusColetado(computador, status, tempoMs);
+        }
+    }
+
+    private long proximoIntervalo(long intervaloMs, int status, boolean mudou) {
+        if (mudou) {
+            return intervaloMinimoMs;
+        }
+        long maximo = (status == Computador.STATUS_ONLINE)
+                ? intervaloMaximoEstavelMs : intervaloMaximoOfflineMs;
+        return Math.min(intervaloMs * 2, maximo);
+    }
+
+    private long variar(long intervaloMs) {
+        long variacao = (long) (intervaloMs * VARIACAO);
+        if (variacao <= 0) {
+            return intervaloMs;
+        }
+        return intervaloMs - variacao + ThreadLocalRandom.current().nextLong(2 * variacao + 1);
+    }
+
+    private static class Agendamento implements Comparable<Agendamento> {
+
+        private final Computador computador;
+        private final int codGroup;
+        private long intervaloMs;
+        private long proximaColeta;
+        private int ultimoStatus = Computador.STATUS_DESCONHECIDO;
+        private boolean emColeta;
+        private long inicioColeta;
+        //Identifica a coleta em andamento: aviso de coleta antiga é ignorado.
+        private int numeroColeta;
+        private boolean removido;
+
+        private Agendamento(Computador computador, int codGroup) {
+            this.computador = computador;
+            this.codGroup = codGroup;
+        }
+
+        @Override
+        public int compareTo(Agendamento outro) {
+            return Long.compare(proximaColeta, outro.proximaColeta);
+        }
+    }
+
+    //Resposta de uma coleta, na thread do snmp4j ou do coletor.
+    private class Resposta implements ColetorStatus.OuvinteStatus {
+
+        private final Agendamento agendamento;
+        private final int numeroColeta;
+
+        private Resposta(Agendamento agendamento, int numeroColeta) {
+            this.agendamento = agendamento;
+            this.numeroColeta = numeroColeta;
+        }
+
+        @Override
+        public void statusColetado(Computador computador, int status, long tempoMs) {
+            reagendar(agendamento, numeroColeta, status, tempoMs);
+        }
+    }
+}
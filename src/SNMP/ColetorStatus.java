@@ -0,0 +1,378 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package SNMP;
+
+import Controlador.Computador;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.snmp4j.CommunityTarget;
+import org.snmp4j.PDU;
+import org.snmp4j.Snmp;
+import org.snmp4j.event.ResponseEvent;
+import org.snmp4j.event.ResponseListener;
+import org.snmp4j.mp.SnmpConstants;
+import org.snmp4j.smi.Address;
+import org.snmp4j.smi.OID;
+import org.snmp4j.smi.OctetString;
+import org.snmp4j.smi.UdpAddress;
+import org.snmp4j.smi.VariableBinding;
+import org.snmp4j.transport.DefaultUdpTransportMapping;
+
+/**
+ * Coleta o status dos computadores do laboratório por SNMP. Todos os GET são
+ * enviados de forma assíncrona por uma única sessão snmp4j; o número de
+ * pedidos em andamento é limitado pela concorrência. Timeout e novas
+ * tentativas ficam por conta do snmp4j, por computador.
+ *
+ * O nome do computador (nomeMaq) é usado como endereço na rede. O endereço
+ * resolvido fica guardado por um tempo e é esquecido quando o computador
+ * não responde (DHCP pode ter trocado o IP). A consulta ao DNS é feita por
+ * threads próprias, para não atrasar quem chamou coletar().
+ *
+ * Todo computador passado para coletar() recebe um status, mesmo quando o
+ * coletor é fechado no meio da coleta (fica offline). O snmp4j não avisa
+ * os pedidos em andamento ao fechar a sessão, por isso o coletor guarda os
+ * pedidos de cada sessão.
+ *
+ * @author Adriano
+ */
+public class ColetorStatus {
+
+    public static final int PORTA_PADRAO = 161;
+    public static final String COMUNIDADE_PADRAO = "public";
+    public static final int CONCORRENCIA_PADRAO = 100;
+    public static final long TIMEOUT_PADRAO_MS = 1000;
+    public static final int TENTATIVAS_PADRAO = 1;
+    public static final long VALIDADE_ENDERECO_MS = 10 * 60 * 1000;
+    private static final int THREADS_DNS = 4;
+    //Folga para o DNS e para a espera por vaga.
+    private static final long MARGEM_MS = 10 * 1000;
+
+    //sysUpTime.0: qualquer agente SNMP responde.
+    private static final OID SYS_UPTIME = SnmpConstants.sysUpTime;
+
+    public interface OuvinteStatus {
+
+        void statusColetado(Computador computador, int status, long tempoMs);
+    }
+
+    private final String comunidade;
+    private final int porta;
+    private final int concorrencia;
+    private final long timeoutMs;
+    private final int tentativas;
+    //Evita consultar o DNS a cada varredura.
+    private final Map<String, Endereco> enderecos = new HashMap<>();
+    private Sessao sessao;
+    private ExecutorService resolvedor;
+
+    public ColetorStatus() {
+        this(COMUNIDADE_PADRAO, PORTA_PADRAO, CONCORRENCIA_PADRAO, TIMEOUT_PADRAO_MS, TENTATIVAS_PADRAO);
+    }
+
+    public ColetorStatus(String comunidade, int porta, int concorrencia, long timeoutMs, int tentativas) {
+        this.comunidade = comunidade;
+        this.porta = porta;
+        this.concorrencia = concorrencia;
+        this.timeoutMs = timeoutMs;
+        this.tentativas = tentativas;
+    }
+
+    public synchronized void iniciar() throws IOException {
+        if (sessao == null) {
+            Snmp snmp = new Snmp(new DefaultUdpTransportMapping());
+            snmp.listen();
+            sessao = new Sessao(snmp, concorrencia);
+        }
+        if (resolvedor == null) {
+            resolvedor = Executors.newFixedThreadPool(THREADS_DNS, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "ColetorStatus-DNS");
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+        }
+    }
+
+    //Fecha a sessão. Os pedidos em andamento e os que esperavam o DNS
+    //terminam como offline.
+    public void fechar() {
+        Sessao fechada;
+        List<Runnable> canceladas = Collections.emptyList();
+        synchronized (this) {
+            fechada = sessao;
+            sessao = null;
+            if (fechada != null) {
+                fechada.fechada = true;
+            }
+            if (resolvedor != null) {
+                canceladas = resolvedor.shutdownNow();
+                resolvedor = null;
+            }
+        }
+        //Os avisos ficam fora do lock: o ouvinte pode chamar o coletor de novo.
+        for (Runnable cancelada : canceladas) {
+            ((Pedido) cancelada).concluir(Computador.STATUS_OFFLINE);
+        }
+        if (fechada != null) {
+            try {
+                fechada.snmp.close();
+            } catch (IOException e) {
+            }
+            for (Pedido pedido : fechada.pendentes) {
+                pedido.concluir(Computador.STATUS_OFFLINE);
+            }
+            fechada.pendentes.clear();
+        }
+    }
+
+    //Tempo máximo entre coletar() e o aviso ao ouvinte: espera por vaga,
+    //DNS, timeout e novas tentativas.
+    public long getTempoMaximoColetaMs() {
+        return 2 * getTempoRespostaMs() + MARGEM_MS;
+    }
+
+    //Consulta todos os computadores e espera as respostas. O status de cada
+    //computador é atualizado e o ouvinte (pode ser null) é avisado conforme
+    //as respostas chegam, na thread do snmp4j.
+    public void varrer(List<Computador> computadores, final OuvinteStatus ouvinte)
+            throws IOException, InterruptedException {
+        final CountDownLatch pendentes = new CountDownLatch(computadores.size());
+        OuvinteStatus contador = new OuvinteStatus() {
+            @Override
+            public void statusColetado(Computador computador, int status, long tempoMs) {
+                if (ouvinte != null) {
+                    ouvinte.statusColetado(computador, status, tempoMs);
+                }
+                pendentes.countDown();
+            }
+        };
+        for (Computador computador : computadores) {
+            coletar(computador, contador);
+        }
+        //Os pedidos andam em levas do tamanho da concorrência.
+        long levas = computadores.size() / concorrencia + 1;
+        long esperaMs = levas * getTempoRespostaMs() + getTempoMaximoColetaMs();
+        if (!pendentes.await(esperaMs, TimeUnit.MILLISECONDS)) {
+            throw new IOException("Tempo esgotado na varredura: " + pendentes.getCount()
+                    + " computadores sem resposta");
+        }
+    }
+
+    //Envia o GET de um computador sem esperar a resposta. Só bloqueia se já
+    //houver o máximo de pedidos em andamento. Se o endereço não estiver
+    //guardado, o DNS e o envio ficam com as threads do resolvedor.
+    public void coletar(Computador computador, OuvinteStatus ouvinte)
+            throws IOException, InterruptedException {
+        Sessao atual;
+        ExecutorService dns;
+        synchronized (this) {
+            iniciar();
+            atual = sessao;
+            dns = resolvedor;
+        }
+        Pedido pedido = new Pedido(atual, computador, ouvinte);
+        if (pedido.host == null || pedido.host.trim().isEmpty()) {
+            pedido.concluir(Computador.STATUS_OFFLINE);
+            return;
+        }
+        Address endereco = enderecoGuardado(pedido.host);
+        if (endereco != null) {
+            enviar(pedido, endereco);
+            return;
+        }
+        try {
+            dns.execute(pedido);
+        } catch (RejectedExecutionException e) {
+            //Coletor fechado enquanto coletava.
+            pedido.concluir(Computador.STATUS_OFFLINE);
+        }
+    }
+
+    private void enviar(final Pedido pedido, Address endereco) {
+        final Sessao atual = pedido.sessao;
+        try {
+            //Uma vaga sempre volta dentro do tempo de resposta; se não voltar,
+            //o computador fica offline nesta coleta em vez de travar a thread.
+            if (!atual.vagas.tryAcquire(getTempoRespostaMs() + MARGEM_MS, TimeUnit.MILLISECONDS)) {
+                pedido.concluir(Computador.STATUS_OFFLINE);
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pedido.concluir(Computador.STATUS_OFFLINE);
+            return;
+        }
+        ResponseListener resposta = new ResponseListener() {
+            @Override
+            public void onResponse(ResponseEvent event) {
+                //Sem cancel() o snmp4j continua esperando as outras tentativas.
+                ((Snmp) event.getSource()).cancel(event.getRequest(), this);
+                int status;
+                if (event.getResponse() != null) {
+                    status = Computador.STATUS_ONLINE;
+                } else {
+                    status = Computador.STATUS_OFFLINE;
+                    //O IP pode ter mudado: resolve de novo na próxima coleta.
+                    esquecer(pedido.host);
+                }
+                if (atual.pendentes.remove(pedido)) {
+                    atual.vagas.release();
+                }
+                pedido.concluir(status);
+            }
+        };
+        PDU pdu = new PDU();
+        pdu.setType(PDU.GET);
+        pdu.add(new VariableBinding(SYS_UPTIME));
+        boolean enviado = false;
+        //Com o lock, fechar() não fecha a sessão entre a verificação e o envio.
+        synchronized (this) {
+            if (!atual.fechada) {
+                atual.pendentes.add(pedido);
+                try {
+                    atual.snmp.send(pdu, criarTarget(endereco), null, resposta);
+                    enviado = true;
+                } catch (IOException e) {
+                    atual.pendentes.remove(pedido);
+                }
+            }
+        }
+        if (!enviado) {
+            atual.vagas.release();
+            pedido.concluir(Computador.STATUS_OFFLINE);
+        }
+    }
+
+    private long getTempoRespostaMs() {
+        return timeoutMs * (tentativas + 1);
+    }
+
+    private CommunityTarget criarTarget(Address endereco) {
+        CommunityTarget target = new CommunityTarget(endereco, new OctetString(comunidade));
+        target.setVersion(SnmpConstants.version2c);
+        target.setTimeout(timeoutMs);
+        target.setRetries(tentativas);
+        return target;
+    }
+
+    private Address enderecoGuardado(String host) {
+        synchronized (enderecos) {
+            Endereco guardado = enderecos.get(host);
+            if (guardado == null) {
+                return null;
+            }
+            if (guardado.validoAte < System.currentTimeMillis()) {
+                enderecos.remove(host);
+                return null;
+            }
+            return guardado.endereco;
+        }
+    }
+
+    private Address resolver(String host) {
+        Address endereco;
+        try {
+            endereco = new UdpAddress(InetAddress.getByName(host.trim()), porta);
+        } catch (UnknownHostException e) {
+            //Não guarda: o nome pode passar a existir na próxima varredura.
+            return null;
+        }
+        synchronized (enderecos) {
+            enderecos.put(host, new Endereco(endereco, System.currentTimeMillis() + VALIDADE_ENDERECO_MS));
+        }
+        return endereco;
+    }
+
+    private void esquecer(String host) {
+        synchronized (enderecos) {
+            enderecos.remove(host);
+        }
+    }
+
+    //Coleta de um computador. Como Runnable, resolve o endereço e envia,
+    //nas threads do resolvedor. O ouvinte é avisado uma única vez.
+    private class Pedido implements Runnable {
+
+        private final Sessao sessao;
+        private final Computador computador;
+        private final OuvinteStatus ouvinte;
+        private final String host;
+        private final long inicio = System.currentTimeMillis();
+        private final AtomicBoolean concluido = new AtomicBoolean();
+
+        private Pedido(Sessao sessao, Computador computador, OuvinteStatus ouvinte) {
+            this.sessao = sessao;
+            this.computador = computador;
+            this.ouvinte = ouvinte;
+            this.host = computador.getNomeMaq();
+        }
+
+        @Override
+        public void run() {
+            Address resolvido = resolver(host);
+            if (resolvido == null) {
+                concluir(Computador.STATUS_OFFLINE);
+                return;
+            }
+            enviar(this, resolvido);
+        }
+
+        private void concluir(int status) {
+            if (!concluido.compareAndSet(false, true)) {
+                return;
+            }
+            computador.setStatusMaq(status);
+            if (ouvinte != null) {
+                ouvinte.statusColetado(computador, status, System.currentTimeMillis() - inicio);
+            }
+        }
+    }
+
+    //Sessão snmp4j com as suas vagas e pedidos em andamento. Cada sessão
+    //aberta tem vagas novas: as de uma sessão fechada não fazem falta.
+    private static class Sessao {
+
+        private final Snmp snmp;
+        private final Semaphore vagas;
+        private final Set<Pedido> pendentes = Collections.newSetFromMap(new ConcurrentHashMap<Pedido, Boolean>());
+        //Protegido pelo coletor.
+        private boolean fechada;
+
+        private Sessao(Snmp snmp, int concorrencia) {
+            this.snmp = snmp;
+            this.vagas = new Semaphore(concorrencia);
+        }
+    }
+
+    private static class Endereco {
+
+        private final Address endereco;
+        private final long validoAte;
+
+        private Endereco(Address endereco, long validoAte) {
+            this.endereco = endereco;
+            this.validoAte = validoAte;
+        }
+    }
+}